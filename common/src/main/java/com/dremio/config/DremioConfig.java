@@ -91,6 +91,17 @@ public class DremioConfig extends NestedConfig {
   public static final String PLAN_CACHE_TIMEOUT_MINUTES = "dremio.plan.cache.timeout_minutes";
   public static final String PLAN_CACHE_MAX_ENTRIES = "dremio.plan.cache.max_entries";
 
+  /**
+   * Config values related to query result caching
+   */
+  public static final String RESULT_CACHE_TIMEOUT_MINUTES = "dremio.result.cache.timeout_minutes";
+  public static final String RESULT_CACHE_MAX_SIZE_BYTES = "dremio.result.cache.max_size_bytes";
+
+  /**
+   * Maximum size of the job results batches cached in memory for paginated reads, 0 to disable the cache
+   */
+  public static final String JOB_RESULTS_CACHE_MAX_SIZE_BYTES = "dremio.job.results.cache.max_size_bytes";
+
   /**
    * Config values related to statistics caching
    */
@@ -1451,7 +1451,10 @@ public class DACDaemonModule implements DACModule {
       try {
         final CatalogService storagePluginRegistry = registry.provider(CatalogService.class).get();
         final FileSystemPlugin<?> plugin = storagePluginRegistry.getSource(JOBS_STORAGEPLUGIN_NAME);
-        return new JobResultsStoreConfig(plugin.getName(), plugin.getConfig().getPath(), plugin.getSystemUserFS());
+        final long cacheMaxSizeBytes = registry.provider(DremioConfig.class).get()
+          .getLong(DremioConfig.JOB_RESULTS_CACHE_MAX_SIZE_BYTES);
+        return new JobResultsStoreConfig(plugin.getName(), plugin.getConfig().getPath(), plugin.getSystemUserFS(),
+          cacheMaxSizeBytes);
       } catch (Exception e) {
         Throwables.throwIfUnchecked(e);
         throw new RuntimeException(e);
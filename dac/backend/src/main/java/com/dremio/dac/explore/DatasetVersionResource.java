@@ -173,7 +173,7 @@ public class DatasetVersionResource extends BaseResourceWithAllocator {
       new Transformer(context, jobsService, namespaceService, datasetService, executor, securityContext),
       joinRecommender,
       new DatasetTool(datasetService, jobsService, executor, securityContext),
-      new HistogramGenerator(executor),
+      new HistogramGenerator(executor, context.getOptionManager()),
       securityContext,
       datasetPath,
       version,
@@ -23,16 +23,24 @@ import static com.dremio.dac.proto.model.dataset.DataType.INTEGER;
 import static com.dremio.dac.proto.model.dataset.DataType.TEXT;
 import static java.lang.String.format;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.datasketches.ArrayOfStringsSerDe;
+import org.apache.datasketches.frequencies.ErrorType;
+import org.apache.datasketches.frequencies.ItemsSketch;
+import org.apache.datasketches.memory.Memory;
 import org.joda.time.DateTimeZone;
 import org.joda.time.LocalDateTime;
 import org.slf4j.Logger;
@@ -46,15 +54,23 @@ import com.dremio.dac.explore.model.extract.Selection;
 import com.dremio.dac.model.job.JobData;
 import com.dremio.dac.model.job.JobDataFragment;
 import com.dremio.dac.proto.model.dataset.DataType;
+import com.dremio.dac.server.UIOptions;
 import com.dremio.dac.service.errors.ClientErrorException;
 import com.dremio.dac.util.DatasetsUtil;
+import com.dremio.options.OptionManager;
 import com.dremio.service.job.proto.QueryType;
 import com.dremio.service.jobs.SqlQuery;
 import com.dremio.service.namespace.dataset.DatasetVersion;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.FluentIterable;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.tdunning.math.stats.Centroid;
+import com.tdunning.math.stats.MergingDigest;
+import com.tdunning.math.stats.TDigest;
 
 /**
  * Utility class used to generate historgrams.
@@ -66,10 +82,22 @@ class HistogramGenerator {
   private static final int BATCH_SIZE = 500; // size of batch examined in each iteration
   static final int BUCKETS = 200;
 
+  // approximate histograms of the columns of dataset versions, a dataset version always runs the same query.
+  private static final Cache<List<Object>, Histogram<HistogramValue>> SKETCH_HISTOGRAMS = CacheBuilder.newBuilder()
+    .maximumSize(1_000)
+    .expireAfterWrite(1, TimeUnit.HOURS)
+    .build();
+
   private final QueryExecutor executor;
+  private final OptionManager options;
 
   public HistogramGenerator(QueryExecutor executor) {
+    this(executor, null);
+  }
+
+  public HistogramGenerator(QueryExecutor executor, OptionManager options) {
     this.executor = executor;
+    this.options = options;
   }
 
   /**
@@ -94,6 +122,18 @@ class HistogramGenerator {
 
   public Histogram<HistogramValue> getHistogram(final DatasetPath datasetPath, DatasetVersion version, Selection selection,
                                                 DataType colType, SqlQuery datasetQuery, BufferAllocator allocator) {
+    if (options != null && options.getOption(UIOptions.HISTOGRAM_SKETCH) && isSketchSupported(colType)) {
+      final List<Object> key = Arrays.asList(datasetPath.toString(), version.getVersion(), selection.getColName(),
+        colType, datasetQuery.getUsername());
+      try {
+        return SKETCH_HISTOGRAMS.get(key,
+          () -> getSketchHistogram(datasetPath, version, selection.getColName(), colType, datasetQuery, allocator));
+      } catch (ExecutionException | UncheckedExecutionException e) {
+        logger.warn(format("Exception while trying to approximate histogram of %s. Reverting to exact histogram",
+          selection.getColName()), e.getCause());
+      }
+    }
+
     final String datasetPreviewJobResultsTable = DatasetsUtil
       .getDatasetPreviewJob(executor, datasetQuery, datasetPath, version)
       .getJobResultsTable();
@@ -342,6 +382,171 @@ class HistogramGenerator {
     return new Histogram<>(values, total);
   }
 
+  private static boolean isSketchSupported(DataType colType) {
+    return colType == TEXT || colType == INTEGER || colType == FLOAT;
+  }
+
+  /**
+   * Approximate the histogram of a column with a single aggregation over the dataset preview, rather than grouping
+   * by each value: the frequent values of a text column from an items sketch, the bins of a numeric column from a
+   * t-digest. The sketches see every value, so the only error of the counts is the error of the sketch.
+   */
+  private Histogram<HistogramValue> getSketchHistogram(final DatasetPath datasetPath, DatasetVersion version,
+                                                       String colName, DataType colType, SqlQuery datasetQuery,
+                                                       BufferAllocator allocator) {
+    final String datasetPreviewJobResultsTable = DatasetsUtil
+      .getDatasetPreviewJob(executor, datasetQuery, datasetPath, version)
+      .getJobResultsTable();
+
+    /*
+     * Ex query:
+     *   SELECT
+     *     COUNT(*) AS dremio_row_count,
+     *     COUNT(dremio_value) AS dremio_value_count,
+     *     ITEMS_SKETCH(dremio_value) AS dremio_sketch
+     *   FROM (
+     *     SELECT CAST(dremio_values_table.colName AS VARCHAR) AS dremio_value
+     *     FROM "__jobResultsStore"."jobsId" AS dremio_values_table
+     *   ) AS dremio_sketch_table
+     */
+    final StringBuilder sb = new StringBuilder();
+    sb.append("SELECT\n");
+    sb.append("  COUNT(*) AS dremio_row_count,\n");
+    sb.append("  COUNT(dremio_value) AS dremio_value_count,\n");
+    sb.append(format("  %s(dremio_value) AS dremio_sketch\n", colType == TEXT ? "ITEMS_SKETCH" : "tdigest"));
+    sb.append("FROM (\n");
+    sb.append(format("  SELECT CAST(dremio_values_table.%s AS %s) AS dremio_value\n", quoteIdentifier(colName),
+      colType == TEXT ? "VARCHAR" : "DOUBLE"));
+    sb.append(format("  FROM %s AS dremio_values_table\n", datasetPreviewJobResultsTable));
+    sb.append(") AS dremio_sketch_table");
+
+    final SqlQuery sketchQuery = datasetQuery.cloneWithNewSql(sb.toString());
+    final JobData completeJobData = executor.runQueryAndWaitForCompletion(sketchQuery, QueryType.UI_INTERNAL_RUN, datasetPath, version);
+    try (JobDataFragment data = completeJobData.truncate(allocator, 1)) {
+      final long rowCount = ((Number) data.extractValue("dremio_row_count", 0)).longValue();
+      final long valueCount = ((Number) data.extractValue("dremio_value_count", 0)).longValue();
+      final byte[] sketch = (byte[]) data.extractValue("dremio_sketch", 0);
+      if (colType == TEXT) {
+        return getSketchHistogram(
+          sketch == null ? null : ItemsSketch.getInstance(Memory.wrap(sketch), new ArrayOfStringsSerDe()),
+          rowCount, valueCount);
+      }
+      return getSketchHistogram(sketch == null ? null : MergingDigest.fromBytes(ByteBuffer.wrap(sketch)),
+        colType, rowCount, valueCount);
+    }
+  }
+
+  /**
+   * Histogram of the most frequent values from an items sketch of the non null values.
+   */
+  @VisibleForTesting
+  static Histogram<HistogramValue> getSketchHistogram(ItemsSketch<String> sketch, long rowCount, long valueCount) {
+    final List<HistogramValue> values = new ArrayList<>();
+    if (valueCount > 0) {
+      for (ItemsSketch.Row<String> row : sketch.getFrequentItems(ErrorType.NO_FALSE_NEGATIVES)) {
+        if (values.size() == BUCKETS) {
+          break;
+        }
+        final long count = row.getEstimate();
+        values.add(new HistogramValue(TEXT, row.getItem(), count * 100d / rowCount, count,
+          new HistogramValue.ValueRange(row.getItem(), row.getItem()), sketch.getMaximumError()));
+      }
+    }
+    if (rowCount > valueCount) {
+      final long nullCount = rowCount - valueCount;
+      values.add(new HistogramValue(TEXT, null, nullCount * 100d / rowCount, nullCount,
+        new HistogramValue.ValueRange(null, null)));
+    }
+    return new Histogram<>(values, rowCount);
+  }
+
+  /**
+   * Histogram of {@link #BUCKETS} bins between the min and max values of a t-digest of the non null values.
+   */
+  @VisibleForTesting
+  static Histogram<HistogramValue> getSketchHistogram(TDigest digest, DataType colType, long rowCount, long valueCount) {
+    final List<HistogramValue> values = new ArrayList<>();
+    if (valueCount == 0) {
+      return new Histogram<>(values, rowCount);
+    }
+
+    final double min = digest.getMin();
+    final double max = digest.getMax();
+    if (min == max) {
+      final Object value = getBinLimit(colType, min);
+      values.add(new HistogramValue(colType, value.toString(), valueCount * 100d / rowCount, valueCount,
+        new HistogramValue.ValueRange(value, value)));
+      return new Histogram<>(values, rowCount);
+    }
+
+    final List<Centroid> centroids = new ArrayList<>(digest.centroids());
+    double range = (max - min) / BUCKETS;
+    if (colType == INTEGER) {
+      range = Math.max(1d, Math.round(range));
+    }
+    double previousFraction = 0d;
+    double previousError = 0d;
+    for (double lower = min; lower <= max; lower += range) {
+      final double upper = lower + range;
+      final double fraction;
+      final double error;
+      if (upper > max) {
+        fraction = 1d;
+        error = 0d;
+      } else {
+        // the cdf counts half of the values on the edge below it, integer values are never half way between two
+        // integers
+        final double edge = colType == INTEGER ? upper - 0.5d : upper;
+        fraction = digest.cdf(edge);
+        error = getCdfError(centroids, edge);
+      }
+      final long count = Math.round((fraction - previousFraction) * valueCount);
+      final long maxCountError = (long) Math.ceil(previousError + error);
+      previousFraction = fraction;
+      previousError = error;
+      final Object lowerLimit = getBinLimit(colType, lower);
+      final Object upperLimit = getBinLimit(colType, upper);
+      values.add(new HistogramValue(colType, lowerLimit.toString(), count * 100d / rowCount, count,
+        new HistogramValue.ValueRange(lowerLimit, upperLimit), maxCountError));
+    }
+    return new Histogram<>(values, rowCount);
+  }
+
+  /**
+   * Bin limit of a numeric column, a whole number for integer columns.
+   */
+  private static Object getBinLimit(DataType colType, double value) {
+    if (colType == INTEGER) {
+      return (long) value;
+    }
+    return value;
+  }
+
+  /**
+   * Error of the count of the values below a bin edge from the cdf of a t-digest. The values merged in a centroid lie
+   * around its mean, so the values of the centroids on each side of the edge may be counted on the wrong side of it.
+   * A single value is exact, but counted as half below the edge when it is on the edge.
+   */
+  private static double getCdfError(List<Centroid> centroids, double edge) {
+    int next = 0;
+    while (next < centroids.size() && centroids.get(next).mean() <= edge) {
+      next++;
+    }
+    double error = 0d;
+    if (next > 0) {
+      final Centroid previous = centroids.get(next - 1);
+      if (previous.count() > 1) {
+        error += previous.count();
+      } else if (previous.mean() == edge) {
+        error += 0.5d;
+      }
+    }
+    if (next < centroids.size() && centroids.get(next).count() > 1) {
+      error += centroids.get(next).count();
+    }
+    return error;
+  }
+
   @VisibleForTesting
   static void produceRanges(List<Number> ranges, LocalDateTime min, LocalDateTime max, TruncEvalEnum truncateTo) {
     long timeValue = toMillis(roundTime(min, truncateTo, true));
@@ -541,6 +746,10 @@ class HistogramGenerator {
     return "dremio_is_clean_" + (cast ? "cast_" : "") + type.name();
   }
 
+  /**
+   * Exact histogram of the values of a column with their clean flags. Not approximated with sketches: each distinct
+   * value carries its own flags, which a frequent items sketch would drop for the values it doesn't keep.
+   */
   public Histogram<CleanDataHistogramValue> getCleanDataHistogram(final DatasetPath datasetPath, DatasetVersion version, String colName, SqlQuery datasetQuery, BufferAllocator allocator) {
 
     final String datasetPreviewJobResultsTable = DatasetsUtil
@@ -636,6 +845,10 @@ class HistogramGenerator {
     return new Histogram<>(values, total);
   }
 
+  /**
+   * Exact count of the values of a column by type. Not approximated with sketches: it groups by type, so it only
+   * keeps a handful of groups.
+   */
   public Map<DataType, Long> getTypeHistogram(final DatasetPath datasetPath, DatasetVersion version, String colName, SqlQuery datasetQuery, BufferAllocator allocator) {
     final String datasetPreviewJobTableResults = DatasetsUtil
       .getDatasetPreviewJob(executor, datasetQuery, datasetPath, version)
@@ -28,21 +28,29 @@ public class HistogramValue {
   private final String value;
   private final ValueRange valueRange;
   private final long count;
+  // bound of the error of an approximate count, 0 when the count is exact
+  private final long maxCountError;
 
   private double percent;
 
+  public HistogramValue(DataType type, String value, double percent, long count, ValueRange valueRange) {
+    this(type, value, percent, count, valueRange, 0);
+  }
+
   @JsonCreator
   public HistogramValue(
       @JsonProperty("type") DataType type,
       @JsonProperty("value") String value,
       @JsonProperty("percent") double percent,
       @JsonProperty("long") long count,
-      @JsonProperty(value = "valueRange", defaultValue = "null") ValueRange valueRange) {
+      @JsonProperty(value = "valueRange", defaultValue = "null") ValueRange valueRange,
+      @JsonProperty("maxCountError") long maxCountError) {
     this.type = type;
     this.value = value;
     this.percent = percent;
     this.count = count;
     this.valueRange = valueRange;
+    this.maxCountError = maxCountError;
   }
 
   public DataType getType() {
@@ -58,6 +66,9 @@ public class HistogramValue {
   public long getCount() {
     return count;
   }
+  public long getMaxCountError() {
+    return maxCountError;
+  }
 
   public void setPercent(double percent) {
     this.percent = percent;
@@ -57,4 +57,9 @@ public final class UIOptions {
    * Specifies whether new jobs profile UI should be shown
    */
   public static final BooleanValidator JOBS_PROFILE_UI_CHECK = new BooleanValidator("dremio.query.visualiser.enabled", false);
+
+  /*
+   * Specifies whether the value distribution of a text or numeric column is approximated with sketches of its values
+   */
+  public static final BooleanValidator HISTOGRAM_SKETCH = new BooleanValidator("ui.explore.histogram.sketch", false);
 }
@@ -17,10 +17,14 @@ package com.dremio.dac.explore;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
@@ -30,6 +34,8 @@ import java.util.List;
 import java.util.Set;
 
 import org.apache.arrow.memory.BufferAllocator;
+import org.apache.datasketches.ArrayOfStringsSerDe;
+import org.apache.datasketches.frequencies.ItemsSketch;
 import org.joda.time.LocalDateTime;
 import org.joda.time.format.DateTimeFormatter;
 import org.junit.After;
@@ -39,18 +45,26 @@ import org.junit.Test;
 import org.mockito.stubbing.Answer;
 
 import com.dremio.common.memory.DremioRootAllocator;
+import com.dremio.dac.explore.HistogramGenerator.Histogram;
 import com.dremio.dac.explore.HistogramGenerator.TruncEvalEnum;
+import com.dremio.dac.explore.model.Column;
 import com.dremio.dac.explore.model.DatasetPath;
+import com.dremio.dac.explore.model.HistogramValue;
+import com.dremio.dac.explore.model.extract.Selection;
 import com.dremio.dac.model.job.JobData;
 import com.dremio.dac.model.job.JobDataFragment;
 import com.dremio.dac.model.job.JobDataWrapper;
 import com.dremio.dac.proto.model.dataset.DataType;
+import com.dremio.dac.server.UIOptions;
 import com.dremio.exec.expr.fn.impl.DateFunctionsUtils;
+import com.dremio.options.OptionManager;
 import com.dremio.service.job.proto.QueryType;
 import com.dremio.service.jobs.JobStatusListener;
 import com.dremio.service.jobs.SqlQuery;
 import com.dremio.service.namespace.dataset.DatasetVersion;
 import com.google.common.collect.ImmutableSet;
+import com.tdunning.math.stats.MergingDigest;
+import com.tdunning.math.stats.TDigest;
 
 /**
  * Test class for Histogram Generation
@@ -206,4 +220,178 @@ public class TestHistogramGenerator {
 
     assertEquals(expCount, count);
   }
+
+  @Test
+  public void testItemsSketchHistogram() {
+    final ItemsSketch<String> sketch = new ItemsSketch<>(64);
+    sketch.update("a", 50);
+    sketch.update("b", 30);
+    sketch.update("c", 20);
+
+    final Histogram<HistogramValue> histogram = HistogramGenerator.getSketchHistogram(sketch, 110, 100);
+    assertEquals(110, histogram.getAvailableValues());
+    final List<HistogramValue> values = histogram.getValues();
+    assertEquals(4, values.size());
+    assertEquals("a", values.get(0).getValue());
+    assertEquals(50, values.get(0).getCount());
+    assertEquals(0, values.get(0).getMaxCountError());
+    assertEquals("c", values.get(2).getValue());
+    assertEquals(20, values.get(2).getCount());
+    assertNull(values.get(3).getValue());
+    assertEquals(10, values.get(3).getCount());
+  }
+
+  @Test
+  public void testItemsSketchHistogramError() {
+    // more distinct values than the sketch keeps
+    final ItemsSketch<String> sketch = new ItemsSketch<>(8);
+    sketch.update("a", 1000);
+    for (int i = 0; i < 100; i++) {
+      sketch.update("v" + i);
+    }
+    assertTrue(sketch.getMaximumError() > 0);
+
+    final List<HistogramValue> values = HistogramGenerator.getSketchHistogram(sketch, 1100, 1100).getValues();
+    assertEquals("a", values.get(0).getValue());
+    assertEquals(sketch.getMaximumError(), values.get(0).getMaxCountError());
+    assertTrue(values.get(0).getCount() >= 1000);
+    assertTrue(values.get(0).getCount() - values.get(0).getMaxCountError() <= 1000);
+  }
+
+  @Test
+  public void testTDigestHistogram() {
+    // a compression keeping a centroid per value
+    final TDigest digest = new MergingDigest(1000);
+    for (int i = 0; i < 100; i++) {
+      digest.add(i);
+    }
+
+    final Histogram<HistogramValue> histogram = HistogramGenerator.getSketchHistogram(digest, DataType.INTEGER, 120, 100);
+    assertEquals(120, histogram.getAvailableValues());
+    final List<HistogramValue> values = histogram.getValues();
+    assertEquals(100, values.size());
+    // integer bins are labelled with whole numbers
+    assertEquals("0", values.get(0).getValue());
+    assertEquals(0L, values.get(0).getValueRange().getLowerLimit());
+    assertEquals(1L, values.get(0).getValueRange().getUpperLimit());
+    assertEquals("99", values.get(99).getValue());
+    for (HistogramValue value : values) {
+      // a single value per bin
+      assertEquals(value.getValue(), 1, value.getCount());
+      assertEquals(value.getValue(), 0, value.getMaxCountError());
+    }
+  }
+
+  @Test
+  public void testTDigestHistogramRepeatedIntegers() {
+    final TDigest digest = new MergingDigest(100);
+    for (int value : new int[] {1, 1, 2, 2}) {
+      digest.add(value);
+    }
+
+    final List<HistogramValue> values = HistogramGenerator.getSketchHistogram(digest, DataType.INTEGER, 4, 4).getValues();
+    assertEquals(2, values.size());
+    assertEquals("1", values.get(0).getValue());
+    assertEquals(2, values.get(0).getCount());
+    assertEquals("2", values.get(1).getValue());
+    assertEquals(2, values.get(1).getCount());
+  }
+
+  @Test
+  public void testTDigestHistogramSingleValue() {
+    final TDigest digest = new MergingDigest(100);
+    digest.add(7, 10);
+
+    final List<HistogramValue> values = HistogramGenerator.getSketchHistogram(digest, DataType.INTEGER, 10, 10).getValues();
+    assertEquals(1, values.size());
+    assertEquals("7", values.get(0).getValue());
+    assertEquals(10, values.get(0).getCount());
+  }
+
+  private static QueryExecutor mockPreviewExecutor() {
+    final QueryExecutor queryExecutor = mock(QueryExecutor.class);
+    when(queryExecutor.runQueryWithListener(any(SqlQuery.class), any(QueryType.class), any(DatasetPath.class),
+      any(DatasetVersion.class), any(JobStatusListener.class)))
+      .thenAnswer((Answer<JobData>) invocation -> {
+        final JobData jobData = mock(JobDataWrapper.class);
+        when(jobData.getJobResultsTable()).thenReturn("jobResults.previewJob");
+        invocation.getArgument(4, JobStatusListener.class).jobCompleted();
+        return jobData;
+      });
+    return queryExecutor;
+  }
+
+  private static OptionManager sketchOptions() {
+    final OptionManager options = mock(OptionManager.class);
+    when(options.getOption(UIOptions.HISTOGRAM_SKETCH)).thenReturn(true);
+    return options;
+  }
+
+  @Test
+  public void testSketchHistogramCached() {
+    final ItemsSketch<String> sketch = new ItemsSketch<>(64);
+    sketch.update("a", 2);
+    sketch.update("b");
+    final QueryExecutor queryExecutor = mockPreviewExecutor();
+    when(queryExecutor.runQueryAndWaitForCompletion(any(SqlQuery.class), any(QueryType.class), any(DatasetPath.class),
+      any(DatasetVersion.class)))
+      .thenAnswer((Answer<JobData>) invocation -> {
+        assertTrue(invocation.getArgument(0, SqlQuery.class).getSql().contains("ITEMS_SKETCH"));
+        final JobData jobData = mock(JobDataWrapper.class);
+        final JobDataFragment fragment = mock(JobDataFragment.class);
+        when(jobData.truncate(allocator, 1)).thenReturn(fragment);
+        when(fragment.extractValue("dremio_row_count", 0)).thenReturn(3L);
+        when(fragment.extractValue("dremio_value_count", 0)).thenReturn(3L);
+        when(fragment.extractValue("dremio_sketch", 0)).thenReturn(sketch.toByteArray(new ArrayOfStringsSerDe()));
+        return jobData;
+      });
+
+    final HistogramGenerator hg = new HistogramGenerator(queryExecutor, sketchOptions());
+    final DatasetPath datasetPath = new DatasetPath(Arrays.asList("space", "dataset"));
+    final DatasetVersion version = DatasetVersion.newVersion();
+    final SqlQuery query = new SqlQuery("SELECT * FROM dataset", "user");
+    final Histogram<HistogramValue> histogram = hg.getHistogram(datasetPath, version,
+      new Selection("colName", null, 0, 0), DataType.TEXT, query, allocator);
+    assertEquals(3, histogram.getAvailableValues());
+    assertEquals("a", histogram.getValues().get(0).getValue());
+    assertEquals(2, histogram.getValues().get(0).getCount());
+
+    // the same column of the same dataset version is read from the cache
+    assertSame(histogram, hg.getHistogram(datasetPath, version, new Selection("colName", null, 0, 0), DataType.TEXT,
+      query, allocator));
+    verify(queryExecutor, times(1)).runQueryAndWaitForCompletion(any(SqlQuery.class), any(QueryType.class),
+      any(DatasetPath.class), any(DatasetVersion.class));
+  }
+
+  @Test
+  public void testSketchHistogramFailure() {
+    final QueryExecutor queryExecutor = mockPreviewExecutor();
+    when(queryExecutor.runQueryAndWaitForCompletion(any(SqlQuery.class), any(QueryType.class), any(DatasetPath.class),
+      any(DatasetVersion.class)))
+      .thenAnswer((Answer<JobData>) invocation -> {
+        final String query = invocation.getArgument(0, SqlQuery.class).getSql();
+        if (query.contains("ITEMS_SKETCH")) {
+          throw new IllegalStateException("sketch query failed");
+        }
+        assertTrue(query, query.contains("GROUP BY"));
+        final JobData jobData = mock(JobDataWrapper.class);
+        final JobDataFragment fragment = mock(JobDataFragment.class);
+        when(jobData.range(allocator, 0, 500)).thenReturn(fragment);
+        when(fragment.getReturnedRowCount()).thenReturn(1);
+        when(fragment.getColumn("dremio_value")).thenReturn(new Column("dremio_value", DataType.TEXT, 0));
+        when(fragment.extractString("dremio_value", 0)).thenReturn("a");
+        when(fragment.extractValue("dremio_value_count", 0)).thenReturn(3L);
+        when(jobData.range(allocator, 1, 500)).thenReturn(mock(JobDataFragment.class));
+        return jobData;
+      });
+
+    // reverts to the exact histogram
+    final Histogram<HistogramValue> histogram = new HistogramGenerator(queryExecutor, sketchOptions())
+      .getHistogram(new DatasetPath(Arrays.asList("space", "dataset")), DatasetVersion.newVersion(),
+        new Selection("colName", null, 0, 0), DataType.TEXT, new SqlQuery("SELECT * FROM dataset", "user"), allocator);
+    assertEquals(3, histogram.getAvailableValues());
+    assertEquals(1, histogram.getValues().size());
+    assertEquals("a", histogram.getValues().get(0).getValue());
+    assertEquals(3, histogram.getValues().get(0).getCount());
+  }
 }
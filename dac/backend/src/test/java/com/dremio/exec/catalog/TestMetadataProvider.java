@@ -238,7 +238,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(30, tables.size());
+    assertEquals(31, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -269,6 +269,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys.cache", "datasets", iterator.next());
     verifyTable("sys.cache", "mount_points", iterator.next());
     verifyTable("sys.cache", "objects", iterator.next());
+    verifyTable("sys.cache", "parquet_footers", iterator.next());
     verifyTable("sys.cache", "storage_plugins", iterator.next());
   }
 
@@ -294,7 +295,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(29, tables.size());
+    assertEquals(30, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -325,6 +326,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys.cache", "datasets", iterator.next());
     verifyTable("sys.cache", "mount_points", iterator.next());
     verifyTable("sys.cache", "objects", iterator.next());
+    verifyTable("sys.cache", "parquet_footers", iterator.next());
     verifyTable("sys.cache", "storage_plugins", iterator.next());
   }
 
@@ -337,7 +339,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(18, tables.size());
+    assertEquals(19, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -357,6 +359,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "version", iterator.next());
     verifyTable("sys.cache", "mount_points", iterator.next());
     verifyTable("sys.cache", "objects", iterator.next());
+    verifyTable("sys.cache", "parquet_footers", iterator.next());
     verifyTable("sys.cache", "storage_plugins", iterator.next());
   }
 
@@ -386,7 +389,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     assertEquals(RequestStatus.OK, resp1.getStatus());
 
     final List<ColumnMetadata> columns1 = resp1.getColumnsList();
-    assertEquals(277, columns1.size());
+    assertEquals(285, columns1.size());
     assertTrue("incremental update column shouldn't be returned",
       columns1.stream().noneMatch(input -> input.getColumnName().equals(IncrementalUpdateUtils.UPDATE_COLUMN)));
   }
@@ -400,7 +403,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<ColumnMetadata> columns = resp.getColumnsList();
-    assertEquals(23, columns.size());
+    assertEquals(24, columns.size());
 
     Iterator<ColumnMetadata> iterator = columns.iterator();
     verifyColumn("INFORMATION_SCHEMA", "COLUMNS", "ORDINAL_POSITION", iterator.next());
@@ -427,6 +430,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyColumn("sys.cache", "datasets", "storage_plugin_name", iterator.next());
     verifyColumn("sys.cache", "mount_points", "mount_point_path", iterator.next());
     verifyColumn("sys.cache", "mount_points", "mount_point_id", iterator.next());
+    verifyColumn("sys.cache", "parquet_footers", "fabric_port", iterator.next());
     verifyColumn("sys.cache", "storage_plugins", "storage_plugin_name", iterator.next());
   }
 
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+/**
+ * Reports the direct memory allocated through {@link BenchmarkAllocators} next to the benchmark scores:
+ * <ul>
+ *   <li>allocator.peak: the peak memory allocated since the fork started</li>
+ *   <li>allocator.allocated: the memory still allocated at the end of the iteration, which should only be the
+ *   memory held by the benchmark state</li>
+ * </ul>
+ * Enabled with {@code -prof com.dremio.sabot.benchmarks.AllocatorProfiler}.
+ */
+public class AllocatorProfiler implements InternalProfiler {
+
+  @Override
+  public String getDescription() {
+    return "Direct memory allocated by the benchmark allocators";
+  }
+
+  @Override
+  public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+  }
+
+  @Override
+  public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                     IterationResult result) {
+    return Arrays.asList(
+      new ScalarResult("allocator.peak", BenchmarkAllocators.getRoot().getPeakMemoryAllocation(), "bytes",
+        AggregationPolicy.MAX),
+      new ScalarResult("allocator.allocated", BenchmarkAllocators.getRoot().getAllocatedMemory(), "bytes",
+        AggregationPolicy.MAX));
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+
+/**
+ * Allocators used by the benchmarks. All the benchmark allocators are children of the same root allocator, so the
+ * memory used by a benchmark can be reported by {@link AllocatorProfiler}.
+ */
+public final class BenchmarkAllocators {
+
+  private static final BufferAllocator ROOT = new RootAllocator(Long.MAX_VALUE);
+
+  private BenchmarkAllocators() {}
+
+  /**
+   * @param name name of the allocator, usually the name of the benchmark
+   * @return a new unlimited allocator, to be closed by the benchmark when its trial ends
+   */
+  public static BufferAllocator newAllocator(String name) {
+    return ROOT.newChildAllocator(name, 0, Long.MAX_VALUE);
+  }
+
+  static BufferAllocator getRoot() {
+    return ROOT;
+  }
+}
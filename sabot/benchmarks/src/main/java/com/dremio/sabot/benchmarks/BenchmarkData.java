@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+
+/**
+ * Generates the benchmark data. The generators use a fixed seed so the results of two runs, for instance before and
+ * after an upgrade, are computed on the same data.<br>
+ * <br>
+ * Values are drawn from {@code [0, cardinality)}, and one value out of {@code nullInterval} is null (no null if
+ * {@code nullInterval} is 0).
+ */
+public final class BenchmarkData {
+
+  public static final long SEED = 0x5EED_DA7AL;
+
+  private BenchmarkData() {}
+
+  public static Random newRandom() {
+    return new Random(SEED);
+  }
+
+  public static int[] ints(int count, int cardinality) {
+    final Random random = newRandom();
+    final int[] values = new int[count];
+    for (int i = 0; i < count; i++) {
+      values[i] = random.nextInt(cardinality);
+    }
+    return values;
+  }
+
+  public static IntVector intVector(BufferAllocator allocator, String name, int count, int cardinality,
+                                    int nullInterval) {
+    final Random random = newRandom();
+    final IntVector vector = new IntVector(name, allocator);
+    vector.allocateNew(count);
+    for (int i = 0; i < count; i++) {
+      final int value = random.nextInt(cardinality);
+      if (!isNull(i, nullInterval)) {
+        vector.set(i, value);
+      }
+    }
+    vector.setValueCount(count);
+    return vector;
+  }
+
+  public static BigIntVector bigIntVector(BufferAllocator allocator, String name, int count, int cardinality,
+                                          int nullInterval) {
+    final Random random = newRandom();
+    final BigIntVector vector = new BigIntVector(name, allocator);
+    vector.allocateNew(count);
+    for (int i = 0; i < count; i++) {
+      // spread the values over the whole long range, while keeping the cardinality
+      final long value = random.nextInt(cardinality) * 0x9E3779B97F4A7C15L;
+      if (!isNull(i, nullInterval)) {
+        vector.set(i, value);
+      }
+    }
+    vector.setValueCount(count);
+    return vector;
+  }
+
+  /**
+   * @param length length of the values, the values are the decimal representation of the drawn numbers, left padded
+   */
+  public static VarCharVector varCharVector(BufferAllocator allocator, String name, int count, int cardinality,
+                                            int nullInterval, int length) {
+    final Random random = newRandom();
+    final VarCharVector vector = new VarCharVector(name, allocator);
+    vector.allocateNew((long) count * length, count);
+    final String format = "%0" + length + "d";
+    for (int i = 0; i < count; i++) {
+      final int value = random.nextInt(cardinality);
+      if (!isNull(i, nullInterval)) {
+        vector.setSafe(i, String.format(format, value).getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    vector.setValueCount(count);
+    return vector;
+  }
+
+  private static boolean isNull(int index, int nullInterval) {
+    return nullInterval > 0 && index % nullInterval == 0;
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.op.copier.FieldBufferCopier;
+import com.dremio.sabot.op.copier.FieldBufferCopierFactory;
+
+/**
+ * Benchmarks the vectorized copiers through a two byte selection vector (filter, limit...) and through a four byte
+ * selection vector over several batches (sort, hash join...).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FieldBufferCopierBenchmark {
+
+  private static final int BATCHES = 8;
+
+  @Param({"4096"})
+  public int records;
+
+  /** percentage of the rows copied */
+  @Param({"10", "50", "100"})
+  public int selectivity;
+
+  @Param({"0", "10"})
+  public int nullInterval;
+
+  private BufferAllocator allocator;
+  private final List<FieldVector> vectors = new ArrayList<>();
+  private ArrowBuf sv2;
+  private ArrowBuf sv4;
+  private int selected;
+  private List<FieldBufferCopier> twoByteCopiers;
+  private List<FieldBufferCopier> fourByteCopiers;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = BenchmarkAllocators.newAllocator("field-buffer-copier");
+    final FieldBufferCopierFactory factory = new FieldBufferCopierFactory(null);
+
+    final List<FieldVector[]> hyperInputs = new ArrayList<>();
+    for (int column = 0; column < 3; column++) {
+      final FieldVector[] batches = new FieldVector[BATCHES];
+      for (int batch = 0; batch < BATCHES; batch++) {
+        batches[batch] = newInput(column, batch);
+      }
+      hyperInputs.add(batches);
+    }
+    final List<FieldVector> inputs = new ArrayList<>();
+    for (FieldVector[] batches : hyperInputs) {
+      inputs.add(batches[0]);
+    }
+    twoByteCopiers = factory.getTwoByteCopiers(inputs, newOutputs());
+    fourByteCopiers = factory.getFourByteCopiers(hyperInputs, newOutputs());
+
+    // the same rows are selected in each batch, the four byte selection vector interleaves the batches
+    final Random random = BenchmarkData.newRandom();
+    sv2 = allocator.buffer(records * 2L);
+    sv4 = allocator.buffer(records * 4L);
+    selected = 0;
+    for (int row = 0; row < records; row++) {
+      if (random.nextInt(100) < selectivity) {
+        sv2.setChar(selected * 2L, row);
+        sv4.setInt(selected * 4L, ((selected % BATCHES) << 16) | row);
+        selected++;
+      }
+    }
+  }
+
+  private FieldVector newInput(int column, int batch) {
+    final String name = "input-" + column + "-" + batch;
+    final FieldVector vector;
+    switch (column) {
+      case 0:
+        vector = BenchmarkData.intVector(allocator, name, records, Integer.MAX_VALUE, nullInterval);
+        break;
+      case 1:
+        vector = BenchmarkData.bigIntVector(allocator, name, records, Integer.MAX_VALUE, nullInterval);
+        break;
+      default:
+        vector = BenchmarkData.varCharVector(allocator, name, records, Integer.MAX_VALUE, nullInterval, 12);
+        break;
+    }
+    vectors.add(vector);
+    return vector;
+  }
+
+  private List<FieldVector> newOutputs() {
+    final List<FieldVector> outputs = new ArrayList<>();
+    outputs.add(new IntVector("int", allocator));
+    outputs.add(new BigIntVector("bigint", allocator));
+    outputs.add(new VarCharVector("varchar", allocator));
+    vectors.addAll(outputs);
+    return outputs;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(sv2, sv4, AutoCloseables.all(vectors), allocator);
+    vectors.clear();
+  }
+
+  /**
+   * Includes the allocation of the outputs, like the operators do for each output batch.
+   */
+  @Benchmark
+  public int copyTwoByte() {
+    return copy(twoByteCopiers, sv2.memoryAddress());
+  }
+
+  @Benchmark
+  public int copyFourByte() {
+    return copy(fourByteCopiers, sv4.memoryAddress());
+  }
+
+  private int copy(List<FieldBufferCopier> copiers, long offsetAddr) {
+    for (FieldBufferCopier copier : copiers) {
+      copier.allocate(selected);
+      copier.copy(offsetAddr, selected);
+    }
+    return selected;
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.SimpleBigIntVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.op.common.ht2.BlockChunk;
+import com.dremio.sabot.op.common.ht2.FieldVectorPair;
+import com.dremio.sabot.op.common.ht2.FixedBlockVector;
+import com.dremio.sabot.op.common.ht2.HashComputation;
+import com.dremio.sabot.op.common.ht2.LBlockHashTable;
+import com.dremio.sabot.op.common.ht2.PivotBuilder;
+import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.Pivots;
+import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.koloboke.collect.hash.HashConfig;
+
+/**
+ * Benchmarks the hash computation and the inserts and lookups of {@link LBlockHashTable} for pivoted keys.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class HashTableBenchmark {
+
+  private static final int HASH_TABLE_BATCH_SIZE = 3968;
+
+  @Param({"false", "true"})
+  public boolean variableKeys;
+
+  @Param({"65536"})
+  public int records;
+
+  @Param({"1024", "65536"})
+  public int cardinality;
+
+  private BufferAllocator allocator;
+  private final List<FieldVector> vectors = new ArrayList<>();
+  private PivotDef pivot;
+  private FixedBlockVector fixed;
+  private VariableBlockVector variable;
+  private SimpleBigIntVector hashValues;
+  private ArrowBuf ordinals;
+  private LBlockHashTable table;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = BenchmarkAllocators.newAllocator("hash-table");
+    vectors.add(BenchmarkData.bigIntVector(allocator, "bigint", records, cardinality, 0));
+    if (variableKeys) {
+      vectors.add(BenchmarkData.varCharVector(allocator, "varchar", records, cardinality, 0, 16));
+    }
+    final List<FieldVectorPair> pairs = new ArrayList<>();
+    for (FieldVector vector : vectors) {
+      pairs.add(new FieldVectorPair(vector, vector));
+    }
+    pivot = PivotBuilder.getBlockDefinition(pairs);
+    fixed = new FixedBlockVector(allocator, pivot.getBlockWidth());
+    variable = new VariableBlockVector(allocator, pivot.getVariableCount());
+    Pivots.pivot(pivot, records, fixed, variable);
+
+    hashValues = new SimpleBigIntVector("hash-values", allocator);
+    hashValues.allocateNew(records);
+    computeHash();
+    ordinals = allocator.buffer(records * 4L);
+
+    table = newTable(allocator, pivot);
+    table.add(records, fixed.getMemoryAddress(), variable.getMemoryAddress(), hashValues.getBufferAddress(),
+      ordinals.memoryAddress());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(table, ordinals, hashValues, fixed, variable, AutoCloseables.all(vectors), allocator);
+    vectors.clear();
+  }
+
+  private static LBlockHashTable newTable(BufferAllocator allocator, PivotDef pivot) {
+    return new LBlockHashTable(HashConfig.getDefault(), pivot, allocator, 16000, 16, true, HASH_TABLE_BATCH_SIZE);
+  }
+
+  @Benchmark
+  public long computeHash() {
+    final BlockChunk blockChunk = new BlockChunk(fixed.getMemoryAddress(), variable.getMemoryAddress(),
+      pivot.getVariableCount() == 0, pivot.getBlockWidth(), records, hashValues.getBufferAddress(), 0);
+    HashComputation.computeHash(blockChunk);
+    return hashValues.get(records - 1);
+  }
+
+  /**
+   * Inserts all the keys in an empty table, includes the resizes of the table.
+   */
+  @Benchmark
+  public int insert(EmptyTable empty) {
+    empty.table.add(records, fixed.getMemoryAddress(), variable.getMemoryAddress(), hashValues.getBufferAddress(),
+      ordinals.memoryAddress());
+    return empty.table.size();
+  }
+
+  /**
+   * Looks up keys that all are in the table.
+   */
+  @Benchmark
+  public int find() {
+    table.find(records, fixed.getMemoryAddress(), variable.getMemoryAddress(), hashValues.getBufferAddress(),
+      ordinals.memoryAddress());
+    return ordinals.getInt((records - 1) * 4L);
+  }
+
+  /**
+   * A new empty table for each invocation.
+   */
+  @State(Scope.Thread)
+  public static class EmptyTable {
+    private LBlockHashTable table;
+
+    @Setup(Level.Invocation)
+    public void setup(HashTableBenchmark benchmark) {
+      table = newTable(benchmark.allocator, benchmark.pivot);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws Exception {
+      table.close();
+    }
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.op.common.ht2.FieldVectorPair;
+import com.dremio.sabot.op.common.ht2.FixedBlockVector;
+import com.dremio.sabot.op.common.ht2.PivotBuilder;
+import com.dremio.sabot.op.common.ht2.PivotDef;
+import com.dremio.sabot.op.common.ht2.Pivots;
+import com.dremio.sabot.op.common.ht2.Unpivots;
+import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+
+/**
+ * Benchmarks {@link Pivots} and {@link Unpivots}, used to build the keys of the hash aggregation and the hash join.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PivotBenchmark {
+
+  /**
+   * Key columns.
+   */
+  public enum Keys {
+    /** an int and a bigint column */
+    FIXED,
+    /** an int, a bigint and two varchar columns */
+    MIXED
+  }
+
+  @Param({"FIXED", "MIXED"})
+  public Keys keys;
+
+  @Param({"4096"})
+  public int records;
+
+  @Param({"0", "10"})
+  public int nullInterval;
+
+  private BufferAllocator allocator;
+  private final List<FieldVector> vectors = new ArrayList<>();
+  private PivotDef pivot;
+  private FixedBlockVector fixed;
+  private VariableBlockVector variable;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = BenchmarkAllocators.newAllocator("pivot");
+    final List<FieldVectorPair> pairs = new ArrayList<>();
+    pairs.add(pair(BenchmarkData.intVector(allocator, "int", records, records, nullInterval),
+      new IntVector("int", allocator)));
+    pairs.add(pair(BenchmarkData.bigIntVector(allocator, "bigint", records, records, nullInterval),
+      new BigIntVector("bigint", allocator)));
+    if (keys == Keys.MIXED) {
+      pairs.add(pair(BenchmarkData.varCharVector(allocator, "varchar1", records, records, nullInterval, 8),
+        new VarCharVector("varchar1", allocator)));
+      pairs.add(pair(BenchmarkData.varCharVector(allocator, "varchar2", records, 100, nullInterval, 24),
+        new VarCharVector("varchar2", allocator)));
+    }
+    pivot = PivotBuilder.getBlockDefinition(pairs);
+    fixed = new FixedBlockVector(allocator, pivot.getBlockWidth());
+    variable = new VariableBlockVector(allocator, pivot.getVariableCount());
+    Pivots.pivot(pivot, records, fixed, variable);
+  }
+
+  private FieldVectorPair pair(FieldVector incoming, FieldVector outgoing) {
+    vectors.add(incoming);
+    vectors.add(outgoing);
+    return new FieldVectorPair(incoming, outgoing);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(AutoCloseables.all(vectors), fixed, variable, allocator);
+    vectors.clear();
+  }
+
+  /**
+   * Includes the reset of the blocks, since the null bits are or-ed in the fixed block.
+   */
+  @Benchmark
+  public long pivot() {
+    fixed.reset();
+    variable.reset();
+    Pivots.pivot(pivot, records, fixed, variable);
+    return fixed.getMemoryAddress();
+  }
+
+  @Benchmark
+  public int unpivot() {
+    Unpivots.unpivot(pivot, fixed, variable, 0, records);
+    return pivot.getOutputVectors().get(0).getValueCount();
+  }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.exec.record.selection.SelectionVector4;
+import com.dremio.sabot.exec.context.FunctionContext;
+import com.dremio.sabot.op.sort.external.QuickSorterTemplate;
+import com.dremio.sabot.op.sort.external.SplaySorterTemplate;
+import com.dremio.sabot.op.sort.external.SplayTree;
+import com.dremio.sabot.op.sort.external.Sv4HyperContainer;
+
+/**
+ * Benchmarks the in memory sorts of the external sort, {@link QuickSorterTemplate} and {@link SplaySorterTemplate},
+ * on an int column. The comparison is hand written, instead of being generated, so it only measures the sorters.<br>
+ * <br>
+ * The batches are added to the splay tree unsorted, the local sort the operator does before is not included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SorterBenchmark {
+
+  private static final int TARGET_BATCH_SIZE = 4096;
+
+  /**
+   * Sorter implementations.
+   */
+  public enum Algorithm {
+    QUICK,
+    SPLAY
+  }
+
+  @Param({"QUICK", "SPLAY"})
+  public Algorithm algorithm;
+
+  @Param({"16"})
+  public int batches;
+
+  @Param({"4096"})
+  public int records;
+
+  @Param({"100", "1000000"})
+  public int cardinality;
+
+  private int[] values;
+  private BufferAllocator allocator;
+
+  // created for each invocation
+  private final List<RecordBatchData> data = new ArrayList<>();
+  private final List<AutoCloseable> closeables = new ArrayList<>();
+  private QuickSorterTemplate quickSorter;
+  private SplaySorterTemplate splaySorter;
+  private SelectionVector2 sv2;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    values = BenchmarkData.ints(batches * records, cardinality);
+    allocator = BenchmarkAllocators.newAllocator("sorter");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    allocator.close();
+  }
+
+  @Setup(Level.Invocation)
+  public void newSorter() throws Exception {
+    Sv4HyperContainer hyperContainer = null;
+    for (int batch = 0; batch < batches; batch++) {
+      try (VectorContainer container = newBatch(batch)) {
+        data.add(new RecordBatchData(container, allocator));
+      }
+      if (hyperContainer == null) {
+        hyperContainer = new Sv4HyperContainer(allocator, data.get(0).getSchema());
+      }
+    }
+
+    switch (algorithm) {
+      case QUICK:
+        final SimpleIntVector buffer = new SimpleIntVector("quick-sorter", allocator);
+        buffer.allocateNew(batches * records);
+        closeables.add(buffer);
+        quickSorter = new IntQuickSorter();
+        quickSorter.init(null, hyperContainer);
+        quickSorter.setDataBuffer(buffer);
+        closeables.add(quickSorter);
+        break;
+      case SPLAY:
+        final ArrowBuf tree = allocator.buffer((batches * records + 1) * (long) SplayTree.NODE_SIZE);
+        tree.setZero(0, tree.capacity());
+        closeables.add(tree);
+        splaySorter = new IntSplaySorter();
+        splaySorter.init(null, hyperContainer);
+        splaySorter.setDataBuffer(tree);
+        closeables.add(splaySorter);
+        sv2 = new SelectionVector2(allocator);
+        sv2.allocateNew(records);
+        for (int i = 0; i < records; i++) {
+          sv2.setIndex(i * 2, i);
+        }
+        closeables.add(sv2);
+        break;
+      default:
+        throw new UnsupportedOperationException("Unknown algorithm " + algorithm);
+    }
+  }
+
+  private VectorContainer newBatch(int batch) {
+    final VectorContainer container = new VectorContainer(allocator);
+    final IntVector vector = new IntVector("value", allocator);
+    container.add(vector);
+    vector.allocateNew(records);
+    for (int i = 0; i < records; i++) {
+      vector.set(i, values[batch * records + i]);
+    }
+    container.setAllCount(records);
+    container.buildSchema(SelectionVectorMode.NONE);
+    return container;
+  }
+
+  @TearDown(Level.Invocation)
+  public void closeSorter() throws Exception {
+    // the sorters close the hyper container, which owns the batches
+    AutoCloseables.close(closeables);
+    closeables.clear();
+    data.clear();
+  }
+
+  @Benchmark
+  public int sort() throws Exception {
+    final SelectionVector4 sv4;
+    if (algorithm == Algorithm.QUICK) {
+      for (RecordBatchData batch : data) {
+        quickSorter.add(batch);
+      }
+      sv4 = quickSorter.getFinalSort(allocator, TARGET_BATCH_SIZE);
+    } else {
+      for (RecordBatchData batch : data) {
+        splaySorter.add(sv2, batch);
+      }
+      sv4 = splaySorter.getFinalSort(allocator, TARGET_BATCH_SIZE);
+    }
+    try {
+      return sv4.get(0);
+    } finally {
+      sv4.clear();
+    }
+  }
+
+  private static IntVector[] getVectors(VectorAccessible incoming) {
+    final ValueVector[] vectors = incoming.getValueAccessorById(IntVector.class, 0).getValueVectors();
+    final IntVector[] intVectors = new IntVector[vectors.length];
+    for (int i = 0; i < vectors.length; i++) {
+      intVectors[i] = (IntVector) vectors[i];
+    }
+    return intVectors;
+  }
+
+  private static int compare(IntVector[] vectors, int leftIndex, int rightIndex) {
+    return Integer.compare(vectors[leftIndex >>> 16].get(leftIndex & 65535),
+      vectors[rightIndex >>> 16].get(rightIndex & 65535));
+  }
+
+  /**
+   * Sorts on the first column.
+   */
+  private static final class IntQuickSorter extends QuickSorterTemplate {
+    private IntVector[] vectors;
+
+    @Override
+    public void doSetup(FunctionContext context, VectorAccessible incoming, VectorAccessible outgoing) {
+      vectors = getVectors(incoming);
+    }
+
+    @Override
+    public int doEval(int leftIndex, int rightIndex) {
+      return compare(vectors, leftIndex, rightIndex);
+    }
+  }
+
+  /**
+   * Sorts on the first column.
+   */
+  private static final class IntSplaySorter extends SplaySorterTemplate {
+    private IntVector[] vectors;
+
+    @Override
+    public void doSetup(FunctionContext context, VectorAccessible incoming, VectorAccessible outgoing) {
+      vectors = getVectors(incoming);
+    }
+
+    @Override
+    public int doEval(int leftIndex, int rightIndex) {
+      return compare(vectors, leftIndex, rightIndex);
+    }
+  }
+}
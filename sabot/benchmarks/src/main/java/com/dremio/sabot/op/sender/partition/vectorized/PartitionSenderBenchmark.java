@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender.partition.vectorized;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.benchmarks.BenchmarkAllocators;
+import com.dremio.sabot.benchmarks.BenchmarkData;
+
+/**
+ * Benchmarks the copy of an incoming batch to the outgoing batches of {@link VectorizedPartitionSenderOperator}.<br>
+ * <br>
+ * Lives in the package of the operator to create {@link OutgoingBatch}es without tunnels. The destination of each row
+ * is computed once, so only the copy is measured, not the flushes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class PartitionSenderBenchmark {
+
+  @Param({"4096"})
+  public int records;
+
+  @Param({"4", "64", "512"})
+  public int partitions;
+
+  @Param({"0", "10"})
+  public int nullInterval;
+
+  private BufferAllocator allocator;
+  private VectorContainer incoming;
+  private OutgoingBatch[] batches;
+  private IntVector copyIndices;
+  private List<MultiDestCopier> copiers;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    allocator = BenchmarkAllocators.newAllocator("partition-sender");
+    final IntVector partitionValues = BenchmarkData.intVector(allocator, "partition", records, Integer.MAX_VALUE, 0);
+    incoming = new VectorContainer(allocator);
+    incoming.add(partitionValues);
+    incoming.add(BenchmarkData.bigIntVector(allocator, "bigint", records, Integer.MAX_VALUE, nullInterval));
+    incoming.add(BenchmarkData.varCharVector(allocator, "varchar", records, Integer.MAX_VALUE, nullInterval, 12));
+    incoming.setAllCount(records);
+    incoming.buildSchema(SelectionVectorMode.NONE);
+
+    // a destination may receive all the rows
+    batches = new OutgoingBatch[partitions];
+    for (int p = 0; p < partitions; p++) {
+      batches[p] = new OutgoingBatch(p, p, records, incoming, allocator, null, null, null, p, null);
+      batches[p].allocateNew();
+    }
+
+    copyIndices = new IntVector("copy-compound-indices", allocator);
+    copyIndices.allocateNew(records);
+    for (int row = 0; row < records; row++) {
+      final OutgoingBatch batch = batches[partitionValues.get(row) % partitions];
+      copyIndices.set(row, batch.preCopyRow());
+    }
+
+    copiers = MultiDestCopier.getCopiers(VectorContainer.getFieldVectors(incoming), batches,
+      new MultiDestCopier.CopyWatches());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(copyIndices, AutoCloseables.all(Arrays.asList(batches)), incoming, allocator);
+  }
+
+  /**
+   * Copying the same rows again writes the same values at the same positions.
+   */
+  @Benchmark
+  public int copy() {
+    final long addr = copyIndices.getDataBufferAddress();
+    for (MultiDestCopier copier : copiers) {
+      copier.copy(addr, 0, records);
+    }
+    return records;
+  }
+}
@@ -215,6 +215,9 @@ public interface ExecConstants {
 
   LongValidator PARQUET_MIN_RECORDS_FOR_FLUSH_VALIDATOR = new LongValidator("store.parquet.min_records_for_flush", 25000);
 
+  // number of closed files a parquet writer can have written in the background while it encodes the next one, 0 writes them synchronously
+  LongValidator PARQUET_WRITER_MAX_PENDING_FLUSHES_VALIDATOR = new RangeLongValidator("store.parquet.writer.max_pending_flushes", 0, 16, 1);
+
   String PARQUET_NEW_RECORD_READER = "store.parquet.use_new_reader";
   BooleanValidator PARQUET_RECORD_READER_IMPLEMENTATION_VALIDATOR = new BooleanValidator(PARQUET_NEW_RECORD_READER, false);
 
@@ -249,6 +252,10 @@ public interface ExecConstants {
 
   String JSON_READ_NUMBERS_AS_DOUBLE = "store.json.read_numbers_as_double";
   BooleanValidator JSON_READ_NUMBERS_AS_DOUBLE_VALIDATOR = new BooleanValidator(JSON_READ_NUMBERS_AS_DOUBLE, false);
+  // number of bytes at the start of a json file whose records are read at setup to find the fields of the file, 0 to disable
+  LongValidator JSON_READER_SCHEMA_SAMPLE_BYTES = new RangeLongValidator("store.json.schema_sample_bytes", 0, 64 * 1024 * 1024, 1024 * 1024);
+  // split json files at newlines when refreshing their metadata, only valid if all the files have one record per line
+  BooleanValidator JSON_READER_NDJSON_SPLITS = new BooleanValidator("store.json.ndjson_splits", false);
 
   /* Mongo configurations */
   String MONGO_ALL_TEXT_MODE = "store.mongo.all_text_mode";
@@ -369,6 +376,9 @@ public interface ExecConstants {
   String BOOTSTRAP_STORAGE_PLUGINS_FILE = "bootstrap-storage-plugins.json";
   String MAX_LOADING_CACHE_SIZE_CONFIG = "dremio.exec.compile.cache_max_size";
   String MAX_SPLIT_CACHE_SIZE_CONFIG = "dremio.exec.compile.split_cache_max_size";
+  String PERSISTENT_CLASS_CACHE_ENABLED_CONFIG = "dremio.exec.compile.persistent_cache.enabled";
+  String PERSISTENT_CLASS_CACHE_PATH_CONFIG = "dremio.exec.compile.persistent_cache.path";
+  String PARQUET_FOOTER_CACHE_SIZE_CONFIG = "dremio.exec.storage.parquet.footer_cache.max_size";
 
 
   String ENABLE_WINDOW_FUNCTIONS = "window.enable";
@@ -405,6 +415,11 @@ public interface ExecConstants {
   PositiveLongValidator FRAGMENT_CACHE_EVICTION_DELAY_S = new PositiveLongValidator("fragments.cache.eviction.delay_seconds", Integer.MAX_VALUE, 600);
 
   BooleanValidator PARQUET_SINGLE_STREAM = new BooleanValidator("store.parquet.single_stream", false);
+  /**
+   * Read the flat columns of parquet files with the vectorized reader of the configured
+   * dremio.plugins.parquet.factory, rather than with the row-wise reader.
+   */
+  BooleanValidator PARQUET_VECTORIZED_READER = new BooleanValidator("store.parquet.vectorized_reader.enabled", false);
   LongValidator PARQUET_SINGLE_STREAM_COLUMN_THRESHOLD = new LongValidator("store.parquet.single_stream_column_threshold", 40);
   LongValidator PARQUET_MULTI_STREAM_SIZE_LIMIT = new LongValidator("store.parquet.multi_stream_limit", 1024*1024);
   BooleanValidator PARQUET_MULTI_STREAM_SIZE_LIMIT_ENABLE = new BooleanValidator("store.parquet.multi_stream_limit.enable", true);
@@ -506,6 +521,10 @@ public interface ExecConstants {
   BooleanValidator SLICING_THREAD_MONITOR = new BooleanValidator("dremio.sliced.enable_monitor", true);
   PositiveLongValidator SLICING_THREAD_MIGRATION_MULTIPLE = new com.dremio.options.TypeValidators.PositiveLongValidator("dremio.sliced.migration_multiple", Long.MAX_VALUE, 50);
   PositiveLongValidator SLICING_THREAD_SPINDOWN_MULTIPLE = new com.dremio.options.TypeValidators.PositiveLongValidator("dremio.sliced.spindown_multiple", Long.MAX_VALUE, 100);
+  // number of threads of the slicing task pool, 0 to use one thread per available processor
+  RangeLongValidator SLICING_THREAD_COUNT = new RangeLongValidator("dremio.sliced.num_threads", 0, 4096, 0);
+  // time a slicing thread keeps running a runnable task before picking the next task of its run queue
+  PositiveLongValidator SLICING_TIME_QUANTUM_MS = new PositiveLongValidator("dremio.sliced.time_quantum_ms", 60000, 10);
 
   // warning threshold for spilling
   PositiveLongValidator SPILL_IO_WARN_MAX_RUNTIME_MS = new PositiveLongValidator("dremio.spill.warn_max_runtime", Long.MAX_VALUE, 3000);
@@ -538,6 +557,8 @@ public interface ExecConstants {
   BooleanValidator ENABLE_RUNTIME_FILTER_ON_NON_PARTITIONED_PARQUET =  new BooleanValidator("exec.non_partitioned_parquet.enable_runtime_filter", false); // in beta right now
   RangeLongValidator RUNTIME_FILTER_VALUE_FILTER_MAX_SIZE = new RangeLongValidator("exec.non_partitioned_parquet.runtime_filter.max_size", 10, 1_000_000, 100);
   RangeLongValidator RUNTIME_FILTER_KEY_MAX_SIZE = new RangeLongValidator("exec.runtime_filter.max_key_size", 32, 1_024, 128);
+  // replace the value list of a fixed width column by its min/max range when it has too many values
+  BooleanValidator RUNTIME_FILTER_MIN_MAX_ENABLED = new BooleanValidator("exec.non_partitioned_parquet.runtime_filter.min_max.enabled", true);
 
   String ENABLE_PARQUET_VECTORIZED_COMPLEX_READERS_KEY = "exec.parquet.enable_vectorized_complex";
   BooleanValidator ENABLE_PARQUET_VECTORIZED_COMPLEX_READERS = new BooleanValidator(ENABLE_PARQUET_VECTORIZED_COMPLEX_READERS_KEY, true);
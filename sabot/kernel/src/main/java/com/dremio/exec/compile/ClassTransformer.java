@@ -169,10 +169,14 @@ public class ClassTransformer {
       final TemplateClassDefinition<?> templateDefinition,
       final String entireClass,
       final String materializedClassName) throws ClassTransformationException {
-    return getExtendedImplementationClass(classLoader, templateDefinition, entireClass, materializedClassName);
+    final ClassBytes[] implementationClasses = compile(classLoader, templateDefinition, entireClass, materializedClassName);
+    return defineImplementationClass(classLoader, templateDefinition, implementationClasses, materializedClassName);
   }
 
-  private Class<?> getExtendedImplementationClass(
+  /**
+   * Compiles the generated source, without loading the classes.
+   */
+  ClassBytes[] compile(
       final QueryClassLoader classLoader,
       final TemplateClassDefinition<?> templateDefinition,
       final String entireClass,
@@ -183,26 +187,48 @@ public class ClassTransformer {
       final ClassSet set = new ClassSet(null, templateDefinition.getTemplateClassName(), materializedClassName);
       final ClassBytes[] implementationClasses = classLoader.getClassByteCode(set.generated, entireClass);
 
-      long totalBytecodeSize = 0;
+      if (logger.isDebugEnabled()) {
+        long totalBytecodeSize = 0;
+        for (ClassBytes clazz : implementationClasses) {
+          totalBytecodeSize += clazz.getBytes().length;
+        }
+        logger.debug("Done compiling (bytecode size={}, time:{} millis).", DremioStringUtils.readable(totalBytecodeSize), (System.nanoTime() - t1) / 1000000);
+      }
+      return implementationClasses;
+    } catch (CompileException | IOException | ClassNotFoundException e) {
+      if (optionManager.getOption(ExecConstants.JAVA_CODE_DUMP)) {
+        logger.info(String.format("Failure generating transformation classes for value: \n %s", entireClass));
+      }
+      throw new ClassTransformationException("Failure generating transformation classes.", e);
+    }
+  }
+
+  /**
+   * Loads compiled classes in the given class loader.
+   *
+   * @param implementationClasses the generated class and its inner classes
+   * @param className name of the generated class
+   * @return the generated class
+   */
+  Class<?> defineImplementationClass(
+      final QueryClassLoader classLoader,
+      final TemplateClassDefinition<?> templateDefinition,
+      final ClassBytes[] implementationClasses,
+      final String className) throws ClassTransformationException {
+
+    try {
       for (ClassBytes clazz : implementationClasses) {
-        totalBytecodeSize += clazz.getBytes().length;
         classLoader.injectByteCode(clazz.getName(), clazz.getBytes());
       }
 
-      Class<?> c = classLoader.findClass(set.generated.dot);
+      Class<?> c = classLoader.findClass(className);
       if (templateDefinition.getExternalInterface().isAssignableFrom(c)) {
-        if (logger.isDebugEnabled()) {
-          logger.debug("Done compiling (bytecode size={}, time:{} millis).", DremioStringUtils.readable(totalBytecodeSize), (System.nanoTime() - t1) / 1000000);
-        }
         return c;
       }
 
       throw new ClassTransformationException("The requested class did not implement the expected interface.");
-    } catch (CompileException | IOException | ClassNotFoundException e) {
-      if (optionManager.getOption(ExecConstants.JAVA_CODE_DUMP)) {
-        logger.info(String.format("Failure generating transformation classes for value: \n %s", entireClass));
-      }
-      throw new ClassTransformationException("Failure generating transformation classes.", e);
+    } catch (IOException | ClassNotFoundException | LinkageError e) {
+      throw new ClassTransformationException("Failure loading transformation classes.", e);
     }
   }
 
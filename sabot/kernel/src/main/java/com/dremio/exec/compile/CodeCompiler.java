@@ -16,6 +16,7 @@
 package com.dremio.exec.compile;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -23,6 +24,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import com.dremio.common.config.SabotConfig;
+import com.dremio.common.util.DremioVersionInfo;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.exception.ClassTransformationException;
 import com.dremio.exec.expr.ClassGenerator;
@@ -43,10 +45,12 @@ public class CodeCompiler {
   private final ClassCompilerSelector selector;
   private final LoadingCache<CodeGenerator<?>, GeneratedClassEntry> generatedCodeToCompiledClazzCache;
   private final LoadingCache<ExpressionsHolder, GeneratedClassEntryWithFunctionErrorContextSizeInfo> expressionsToCompiledClazzCache;
+  private final PersistentClassCache persistentClassCache;
 
   public CodeCompiler(final SabotConfig config, final OptionManager optionManager) {
     transformer = new ClassTransformer(optionManager);
     selector = new ClassCompilerSelector(config, optionManager);
+    persistentClassCache = createPersistentClassCache(config);
     final int cacheMaxSize = config.getInt(ExecConstants.MAX_LOADING_CACHE_SIZE_CONFIG);
     generatedCodeToCompiledClazzCache = CacheBuilder.newBuilder()
       .softValues()
@@ -58,6 +62,19 @@ public class CodeCompiler {
       .build(new ExpressionsToCompiledClazzCacheLoader());
   }
 
+  private static PersistentClassCache createPersistentClassCache(SabotConfig config) {
+    if (!config.getBoolean(ExecConstants.PERSISTENT_CLASS_CACHE_ENABLED_CONFIG)) {
+      return null;
+    }
+    final String path = config.getString(ExecConstants.PERSISTENT_CLASS_CACHE_PATH_CONFIG);
+    try {
+      return new PersistentClassCache(Paths.get(path), DremioVersionInfo.getVersion());
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Unable to cache compiled classes in {}, compiled classes are only cached in memory", path, e);
+      return null;
+    }
+  }
+
   @SuppressWarnings("unchecked")
   public <T> T getImplementationClass(final CodeGenerator<?> cg) {
     return (T) getImplementationClass(cg, 1).get(0);
@@ -118,13 +135,12 @@ public class CodeCompiler {
     GeneratedClassEntryWithFunctionErrorContextSizeInfo> {
     @Override
     public GeneratedClassEntryWithFunctionErrorContextSizeInfo load(final ExpressionsHolder expressionsHolder) throws Exception {
-      final QueryClassLoader loader = new QueryClassLoader(selector);
       ClassGenerator<?> rootGenerator = expressionsHolder.cg.getRoot();
       final int currentCount = rootGenerator.getFunctionErrorContextsCount();
       CodeGenerator<?> cg = expressionsHolder.cg;
       cg.getRoot().evaluateAllLazyExps();
       cg.generate();
-      final Class<?> c = transformer.getImplementationClass(loader, cg.getDefinition(), cg.getGeneratedCode(), cg.getMaterializedClassName());
+      final Class<?> c = compile(cg);
       final GeneratedClassEntryWithFunctionErrorContextSizeInfo ce =
         new GeneratedClassEntryWithFunctionErrorContextSizeInfo(c,
           rootGenerator.getFunctionErrorContextsCount() - currentCount);
@@ -137,14 +153,42 @@ public class CodeCompiler {
     @Override
     public GeneratedClassEntry load(final CodeGenerator<?> cg) throws Exception {
       logger.debug("In Cache load; Compile code");
-      final QueryClassLoader loader = new QueryClassLoader(selector);
-      final Class<?> c = transformer.getImplementationClass(loader, cg.getDefinition(),
-        cg.getGeneratedCode(), cg.getMaterializedClassName());
+      final Class<?> c = compile(cg);
       logger.debug("Exit Cache load");
       return new GeneratedClassEntry(c);
     }
   }
 
+  /**
+   * Compiles the generated code, or loads the classes compiled for the same code from the persistent cache.
+   */
+  private Class<?> compile(CodeGenerator<?> cg) {
+    if (persistentClassCache == null) {
+      return transformer.getImplementationClass(new QueryClassLoader(selector), cg.getDefinition(),
+        cg.getGeneratedCode(), cg.getMaterializedClassName());
+    }
+
+    final String key = persistentClassCache.getKey(cg.getDefinition(), cg.getGenerifiedCode());
+    final PersistentClassCache.Entry entry = persistentClassCache.get(key);
+    if (entry != null) {
+      try {
+        return transformer.defineImplementationClass(new QueryClassLoader(selector), cg.getDefinition(),
+          entry.getClasses(), entry.getClassName());
+      } catch (ClassTransformationException e) {
+        logger.warn("Failure while loading cached classes for {}, compiling them again", cg.getMaterializedClassName(), e);
+        persistentClassCache.invalidate(key);
+      }
+    }
+
+    final QueryClassLoader loader = new QueryClassLoader(selector);
+    final ClassBytes[] classes = transformer.compile(loader, cg.getDefinition(), cg.getGeneratedCode(),
+      cg.getMaterializedClassName());
+    final Class<?> c = transformer.defineImplementationClass(loader, cg.getDefinition(), classes,
+      cg.getMaterializedClassName());
+    persistentClassCache.put(key, cg.getMaterializedClassName(), classes);
+    return c;
+  }
+
   private static class GeneratedClassEntry {
     private final Class<?> clazz;
 
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.compile;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.FileUtils;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Disk tier of the compiled classes caches of {@link CodeCompiler}, so the classes compiled before a restart don't
+ * need to be compiled again.<br>
+ * <br>
+ * The classes are stored in one file per generated source, named after a hash of the template and of the generated
+ * source. The compiled classes depend on the templates and the functions of the build, so the files are stored in a
+ * directory per build version, and the directories of the other versions are deleted when the cache is created. The
+ * directories are marked when created, so that the cache only deletes its own directories, whatever else is stored
+ * next to them.<br>
+ * <br>
+ * Failures to read or write the cache are logged and ignored, the classes are then compiled.
+ */
+class PersistentClassCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PersistentClassCache.class);
+
+  private static final int MAGIC = 0x44434331;
+  private static final String SUFFIX = ".classes";
+  @VisibleForTesting
+  static final String MARKER = ".dremio-compiled-classes";
+
+  private final Path directory;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * @param root directory of the cache
+   * @param version version of the build
+   */
+  PersistentClassCache(Path root, String version) throws IOException {
+    this.directory = root.resolve(version.replaceAll("[^A-Za-z0-9._-]", "_"));
+    Files.createDirectories(directory);
+    try {
+      Files.createFile(directory.resolve(MARKER));
+    } catch (FileAlreadyExistsException ignore) {
+      // created by a previous run
+    }
+    deleteOtherVersions(root);
+    logger.info("Caching compiled classes in {}", directory);
+  }
+
+  private void deleteOtherVersions(Path root) {
+    try (DirectoryStream<Path> versions = Files.newDirectoryStream(root)) {
+      for (Path version : versions) {
+        if (!version.equals(directory) && Files.isRegularFile(version.resolve(MARKER))) {
+          logger.debug("Deleting compiled classes of another version {}", version);
+          FileUtils.deleteQuietly(version.toFile());
+        }
+      }
+    } catch (IOException e) {
+      logger.warn("Failure while deleting compiled classes of other versions in {}", root, e);
+    }
+  }
+
+  /**
+   * @param templateDefinition template of the generated class
+   * @param generifiedCode generated code, without the name of the generated class
+   */
+  String getKey(TemplateClassDefinition<?> templateDefinition, String generifiedCode) {
+    final Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(MAGIC);
+    hasher.putString(templateDefinition.getTemplateClassName(), StandardCharsets.UTF_8);
+    hasher.putString(templateDefinition.getExternalInterface().getName(), StandardCharsets.UTF_8);
+    hasher.putString(generifiedCode, StandardCharsets.UTF_8);
+    return hasher.hash().toString();
+  }
+
+  /**
+   * @return the classes compiled for the key, or null if they are not cached
+   */
+  Entry get(String key) {
+    final Path file = directory.resolve(key + SUFFIX);
+    try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+      if (input.readInt() != MAGIC) {
+        throw new IOException("Unexpected file format");
+      }
+      final String className = input.readUTF();
+      final ClassBytes[] classes = new ClassBytes[input.readInt()];
+      for (int i = 0; i < classes.length; i++) {
+        final String name = input.readUTF();
+        final byte[] bytes = new byte[input.readInt()];
+        input.readFully(bytes);
+        classes[i] = new ClassBytes(name, bytes);
+      }
+      hits.incrementAndGet();
+      return new Entry(className, classes);
+    } catch (NoSuchFileException e) {
+      misses.incrementAndGet();
+      return null;
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Failure while reading compiled classes from {}, deleting the file", file, e);
+      invalidate(key);
+      misses.incrementAndGet();
+      return null;
+    }
+  }
+
+  /**
+   * Writes the classes to a temporary file first, so concurrent readers never see a partial file.
+   *
+   * @param className name of the generated class
+   * @param classes the generated class and its inner classes
+   */
+  void put(String key, String className, ClassBytes[] classes) {
+    final Path file = directory.resolve(key + SUFFIX);
+    Path tmp = null;
+    try {
+      tmp = Files.createTempFile(directory, key, ".tmp");
+      try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        output.writeInt(MAGIC);
+        output.writeUTF(className);
+        output.writeInt(classes.length);
+        for (ClassBytes clazz : classes) {
+          output.writeUTF(clazz.getName());
+          output.writeInt(clazz.getBytes().length);
+          output.write(clazz.getBytes());
+        }
+      }
+      Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      logger.warn("Failure while writing compiled classes to {}", file, e);
+      if (tmp != null) {
+        FileUtils.deleteQuietly(tmp.toFile());
+      }
+    }
+  }
+
+  void invalidate(String key) {
+    FileUtils.deleteQuietly(directory.resolve(key + SUFFIX).toFile());
+  }
+
+  @VisibleForTesting
+  Path getDirectory() {
+    return directory;
+  }
+
+  long getHits() {
+    return hits.get();
+  }
+
+  long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Compiled classes of a generated source.
+   */
+  static final class Entry {
+    private final String className;
+    private final ClassBytes[] classes;
+
+    private Entry(String className, ClassBytes[] classes) {
+      this.className = className;
+      this.classes = classes;
+    }
+
+    String getClassName() {
+      return className;
+    }
+
+    ClassBytes[] getClasses() {
+      return classes;
+    }
+  }
+}
@@ -107,6 +107,13 @@ public class CodeGenerator<T> {
       .replaceAll(REPLACE_PATTERN);
   }
 
+  /**
+   * @return the generated code, with a placeholder instead of the name of the class
+   */
+  public String getGenerifiedCode() {
+    return generifiedCode;
+  }
+
   public String getGeneratedCode() {
     return generifiedCode.replaceAll("GenericGenerated", this.className);
   }
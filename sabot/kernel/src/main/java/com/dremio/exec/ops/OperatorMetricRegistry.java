@@ -46,7 +46,9 @@ import com.dremio.sabot.op.sender.partition.PartitionSenderOperator;
 import com.dremio.sabot.op.sender.roundrobin.RoundRobinOperator;
 import com.dremio.sabot.op.sender.single.SingleSenderOperator;
 import com.dremio.sabot.op.sort.external.ExternalSortOperator;
+import com.dremio.sabot.op.sort.topn.TopNOperator;
 import com.dremio.sabot.op.tablefunction.TableFunctionOperator;
+import com.dremio.sabot.op.windowframe.WindowFrameOperator;
 import com.dremio.sabot.op.writer.WriterCommitterOperator;
 import com.dremio.sabot.op.writer.WriterOperator;
 
@@ -89,6 +91,8 @@ public class OperatorMetricRegistry {
     register(builder, CoreOperatorType.JSON_SUB_SCAN_VALUE, ScanOperator.Metric.class);
     register(builder, CoreOperatorType.BRIDGE_FILE_WRITER_SENDER_VALUE, BridgeFileWriterSenderOperator.Metric.class);
     register(builder, CoreOperatorType.BRIDGE_FILE_READER_RECEIVER_VALUE, BridgeFileReaderReceiverOperator.Metric.class);
+    register(builder, CoreOperatorType.WINDOW_VALUE, WindowFrameOperator.Metric.class);
+    register(builder, CoreOperatorType.TOP_N_SORT_VALUE, TopNOperator.Metric.class);
     CORE_OPERATOR_TYPE_METRICS_MAP = builder.build();
   }
 
@@ -48,6 +48,21 @@ public class HashJoinPOP extends AbstractBase {
   private final JoinRelType joinType;
   private final boolean vectorize;
   private RuntimeFilterInfo runtimeFilterInfo;
+  // the fragments running on the same node share the table built from the broadcast build side
+  private final boolean sharedBuild;
+
+  public HashJoinPOP(
+      OpProps props,
+      PhysicalOperator left,
+      PhysicalOperator right,
+      List<JoinCondition> conditions,
+      LogicalExpression extraCondition,
+      JoinRelType joinType,
+      boolean vectorize,
+      RuntimeFilterInfo runtimeFilterInfo
+      ) {
+    this(props, left, right, conditions, extraCondition, joinType, vectorize, runtimeFilterInfo, false);
+  }
 
   @JsonCreator
   public HashJoinPOP(
@@ -58,7 +73,8 @@ public class HashJoinPOP extends AbstractBase {
       @JsonProperty("extraCondition") LogicalExpression extraCondition,
       @JsonProperty("joinType") JoinRelType joinType,
       @JsonProperty("vectorize") boolean vectorize,
-      @JsonProperty("runtimeFilterInfo") RuntimeFilterInfo runtimeFilterInfo
+      @JsonProperty("runtimeFilterInfo") RuntimeFilterInfo runtimeFilterInfo,
+      @JsonProperty("sharedBuild") boolean sharedBuild
       ) {
     super(props);
     this.left = left;
@@ -68,6 +84,7 @@ public class HashJoinPOP extends AbstractBase {
     this.joinType = joinType;
     this.vectorize = vectorize;
     this.runtimeFilterInfo = runtimeFilterInfo;
+    this.sharedBuild = sharedBuild;
   }
 
   @Override
@@ -78,7 +95,7 @@ public class HashJoinPOP extends AbstractBase {
   @Override
   public PhysicalOperator getNewWithChildren(List<PhysicalOperator> children) {
       Preconditions.checkArgument(children.size() == 2);
-      return new HashJoinPOP(props, children.get(0), children.get(1), conditions, extraCondition, joinType, vectorize, runtimeFilterInfo);
+      return new HashJoinPOP(props, children.get(0), children.get(1), conditions, extraCondition, joinType, vectorize, runtimeFilterInfo, sharedBuild);
   }
 
   @Override
@@ -110,6 +127,10 @@ public class HashJoinPOP extends AbstractBase {
     return vectorize;
   }
 
+  public boolean isSharedBuild() {
+    return sharedBuild;
+  }
+
   @Override
   public int getOperatorType() {
     return CoreOperatorType.HASH_JOIN_VALUE;
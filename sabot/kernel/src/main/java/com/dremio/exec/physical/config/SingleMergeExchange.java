@@ -33,6 +33,7 @@ import com.dremio.exec.planner.fragment.ParallelizationInfo;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.options.OptionManager;
+import com.dremio.sabot.op.receiver.merging.MergingReceiverOperator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Supplier;
@@ -88,7 +89,8 @@ public class SingleMergeExchange extends AbstractExchange {
 
   @Override
   public Receiver getReceiver(int minorFragmentId, EndpointsIndex.Builder indexBuilder) {
-    return new MergingReceiverPOP(receiverProps, schema, senderMajorFragmentId, PhysicalOperatorUtil.getIndexOrderedEndpoints(senderLocations, indexBuilder), false, orderExpr);
+    return new MergingReceiverPOP(receiverProps, schema, senderMajorFragmentId, PhysicalOperatorUtil.getIndexOrderedEndpoints(senderLocations, indexBuilder),
+      optionManager.getOption(MergingReceiverOperator.SPOOLING), orderExpr);
   }
 
   @Override
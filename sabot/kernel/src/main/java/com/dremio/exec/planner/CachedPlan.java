@@ -15,28 +15,52 @@
  */
 package com.dremio.exec.planner;
 
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.dremio.exec.planner.physical.Prel;
 
 public class CachedPlan {
+  /**
+   * State of a plan cached for the shape of a query, see {@link PlanTemplate}
+   */
+  public enum TemplateState {
+    PENDING,
+    VERIFIED,
+    REJECTED
+  }
+
   private final String queryText;
   private final Prel prel;
   private final int estimatedSize;   //estimated size in byte
   private AtomicInteger useCount;
   private final long creationTime;
   private CachedAccelDetails accelDetails;
+  // parameters of the query the plan was planned for, null if the plan isn't cached for the shape of the query
+  private final List<Object> templateParameters;
+  private volatile TemplateState templateState;
 
-  private CachedPlan(String query, Prel prel, String textPlan, int useCount, int estimatedSize) {
+  private CachedPlan(String query, Prel prel, String textPlan, int useCount, int estimatedSize,
+                     List<Object> templateParameters) {
     this.queryText = query;
     this.prel = prel;
     this.useCount = new AtomicInteger(useCount);
     this.estimatedSize = estimatedSize;
     this.creationTime = System.currentTimeMillis();
+    this.templateParameters = templateParameters;
+    this.templateState = templateParameters != null ? TemplateState.PENDING : null;
   }
 
   public static CachedPlan createCachedPlan(String query, Prel prel, String textPlan, int estimatedSize) {
-    return new CachedPlan(query, prel, textPlan, 0, estimatedSize);
+    return new CachedPlan(query, prel, textPlan, 0, estimatedSize, null);
+  }
+
+  /**
+   * Creates a plan cached for the shape of a query, which can only be reused once verified.
+   */
+  public static CachedPlan createTemplatePlan(String query, Prel prel, String textPlan, int estimatedSize,
+                                              List<Object> templateParameters) {
+    return new CachedPlan(query, prel, textPlan, 0, estimatedSize, templateParameters);
   }
 
   public Prel getPrel() {
@@ -66,4 +90,16 @@ public class CachedPlan {
   public long getCreationTime() {
     return creationTime;
   }
+
+  public List<Object> getTemplateParameters() {
+    return templateParameters;
+  }
+
+  public TemplateState getTemplateState() {
+    return templateState;
+  }
+
+  public void setTemplateState(TemplateState templateState) {
+    this.templateState = templateState;
+  }
 }
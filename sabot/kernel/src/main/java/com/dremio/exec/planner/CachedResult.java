@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner;
+
+import java.util.List;
+import java.util.Map;
+
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+
+/**
+ * Results of a query, stored as arrow files in the job results store, which can be read again by an identical query
+ * as long as none of the datasets read by the query changed.
+ */
+public class CachedResult {
+  private final List<String> tablePath;
+  private final FileSystem fileSystem;
+  private final Path location;
+  // signature of each dataset read by the query, by dataset id
+  private final Map<String, String> datasetSignatures;
+  // ORDER BY clause restoring the order of the results when they are read, empty if the results are not ordered
+  private final String orderBy;
+  private final long sizeInBytes;
+  private final long creationTime;
+
+  public CachedResult(List<String> tablePath, FileSystem fileSystem, Path location,
+                      Map<String, String> datasetSignatures, String orderBy) {
+    this(tablePath, fileSystem, location, datasetSignatures, orderBy, 0, System.currentTimeMillis());
+  }
+
+  private CachedResult(List<String> tablePath, FileSystem fileSystem, Path location,
+                       Map<String, String> datasetSignatures, String orderBy, long sizeInBytes, long creationTime) {
+    this.tablePath = tablePath;
+    this.fileSystem = fileSystem;
+    this.location = location;
+    this.datasetSignatures = datasetSignatures;
+    this.orderBy = orderBy;
+    this.sizeInBytes = sizeInBytes;
+    this.creationTime = creationTime;
+  }
+
+  /**
+   * @return the same results, once their size is known
+   */
+  CachedResult withSizeInBytes(long sizeInBytes) {
+    return new CachedResult(tablePath, fileSystem, location, datasetSignatures, orderBy, sizeInBytes, creationTime);
+  }
+
+  public List<String> getTablePath() {
+    return tablePath;
+  }
+
+  public FileSystem getFileSystem() {
+    return fileSystem;
+  }
+
+  public Path getLocation() {
+    return location;
+  }
+
+  public Map<String, String> getDatasetSignatures() {
+    return datasetSignatures;
+  }
+
+  public String getOrderBy() {
+    return orderBy;
+  }
+
+  public long getSizeInBytes() {
+    return sizeInBytes;
+  }
+
+  public long getCreationTime() {
+    return creationTime;
+  }
+}
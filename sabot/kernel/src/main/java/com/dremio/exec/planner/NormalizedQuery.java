@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlDynamicParam;
+import org.apache.calcite.sql.SqlIdentifier;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.SqlLiteral;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlNodeList;
+import org.apache.calcite.sql.SqlNumericLiteral;
+import org.apache.calcite.sql.dialect.CalciteSqlDialect;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.sql.util.SqlShuttle;
+import org.apache.calcite.util.NlsString;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+
+/**
+ * The shape of a query: its SQL text with the literals compared to columns replaced by placeholders, and the values
+ * of these literals.<br>
+ * <br>
+ * Only numeric and character literals that are direct operands of a comparison, BETWEEN, IN or LIKE with a column
+ * operand are replaced, since the value of any other literal may change the type or the structure of the plan (LIMIT,
+ * ordinals, scales, formats...) or be folded away (3 = 4). The SQL type of each replaced literal is part of the shape,
+ * so re-binding a literal never changes the type of an expression.<br>
+ * <br>
+ * The order of the values of the replaced literals is also part of the shape, since the planner may simplify a
+ * condition depending on how its literals compare: x &gt; 10 AND x &lt; 1 is folded to false, x = 1 OR x = 1 to
+ * x = 1.
+ */
+public final class NormalizedQuery {
+
+  private static final Set<SqlKind> PARAMETERIZED_CALLS = SqlKind.COMPARISON;
+
+  private final String normalizedSql;
+  private final List<Object> parameters;
+
+  private NormalizedQuery(String normalizedSql, List<Object> parameters) {
+    this.normalizedSql = normalizedSql;
+    this.parameters = parameters;
+  }
+
+  /**
+   * @param sqlNode parsed query, left unchanged
+   * @return the shape of the query, or null if it has no literal to replace or already has dynamic parameters
+   */
+  public static NormalizedQuery normalize(SqlNode sqlNode) {
+    final LiteralReplacer replacer = new LiteralReplacer();
+    final SqlNode normalized = sqlNode.accept(replacer);
+    if (replacer.hasDynamicParams || replacer.parameters.isEmpty()) {
+      return null;
+    }
+    final String sql = normalized.toSqlString(CalciteSqlDialect.DEFAULT).getSql()
+      + " -- " + Joiner.on(", ").join(replacer.signatures)
+      + " -- " + Joiner.on(", ").join(Ints.asList(getRanks(replacer.parameters)));
+    return new NormalizedQuery(sql, ImmutableList.copyOf(replacer.parameters));
+  }
+
+  /**
+   * Ranks the parameters among the parameters of the same kind, equal parameters having the same rank. Two lists of
+   * parameters with the same ranks have the same equality and order relations between their parameters.
+   *
+   * @param parameters values of the placeholders, see {@link #getParameters()}
+   * @return the rank of each parameter
+   */
+  static int[] getRanks(List<Object> parameters) {
+    final int[] ranks = new int[parameters.size()];
+    rank(parameters, BigDecimal.class, ranks);
+    rank(parameters, String.class, ranks);
+    return ranks;
+  }
+
+  private static <T extends Comparable<? super T>> void rank(List<Object> parameters, Class<T> clazz, int[] ranks) {
+    final List<Integer> indexes = new ArrayList<>();
+    for (int i = 0; i < parameters.size(); i++) {
+      if (clazz.isInstance(parameters.get(i))) {
+        indexes.add(i);
+      }
+    }
+    final Comparator<Integer> comparator = Comparator.comparing(i -> clazz.cast(parameters.get(i)));
+    indexes.sort(comparator);
+    int rank = 0;
+    for (int i = 0; i < indexes.size(); i++) {
+      if (i > 0 && comparator.compare(indexes.get(i - 1), indexes.get(i)) != 0) {
+        rank++;
+      }
+      ranks[indexes.get(i)] = rank;
+    }
+  }
+
+  /**
+   * @return true if the node references a column
+   */
+  private static boolean hasColumn(SqlNode node) {
+    if (node instanceof SqlIdentifier) {
+      return true;
+    }
+    if (node instanceof SqlNodeList) {
+      for (SqlNode item : (SqlNodeList) node) {
+        if (hasColumn(item)) {
+          return true;
+        }
+      }
+    } else if (node instanceof SqlCall) {
+      for (SqlNode operand : ((SqlCall) node).getOperandList()) {
+        if (hasColumn(operand)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return the SQL text with placeholders, followed by the types of the placeholders
+   */
+  public String getNormalizedSql() {
+    return normalizedSql;
+  }
+
+  /**
+   * @return values of the placeholders, in order: {@link BigDecimal} for numeric literals, {@link String} for
+   * character literals
+   */
+  public List<Object> getParameters() {
+    return parameters;
+  }
+
+  /**
+   * Replaces the parameterizable literals by dynamic parameters, recording their values and types.
+   */
+  private static final class LiteralReplacer extends SqlShuttle {
+    private final Set<SqlNode> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<Object> parameters = new ArrayList<>();
+    private final List<String> signatures = new ArrayList<>();
+    private boolean hasDynamicParams;
+
+    @Override
+    public SqlNode visit(SqlCall call) {
+      final SqlKind kind = call.getKind();
+      if ((PARAMETERIZED_CALLS.contains(kind) || kind == SqlKind.BETWEEN || kind == SqlKind.NOT_BETWEEN
+        || kind == SqlKind.IN || kind == SqlKind.NOT_IN || kind == SqlKind.LIKE) && hasColumn(call)) {
+        for (SqlNode operand : call.getOperandList()) {
+          if (operand instanceof SqlNodeList) {
+            ((SqlNodeList) operand).forEach(candidates::add);
+          } else {
+            candidates.add(operand);
+          }
+        }
+      }
+      return super.visit(call);
+    }
+
+    @Override
+    public SqlNode visit(SqlDynamicParam param) {
+      hasDynamicParams = true;
+      return param;
+    }
+
+    @Override
+    public SqlNode visit(SqlLiteral literal) {
+      if (!candidates.contains(literal)) {
+        return literal;
+      }
+
+      final String signature;
+      final Object value;
+      if (literal instanceof SqlNumericLiteral) {
+        final SqlNumericLiteral numeric = (SqlNumericLiteral) literal;
+        value = numeric.getValue();
+        if (!numeric.isExact()) {
+          signature = SqlTypeName.DOUBLE.getName();
+        } else if (numeric.getScale() == 0) {
+          final BigDecimal decimal = (BigDecimal) value;
+          signature = decimal.compareTo(BigDecimal.valueOf(Integer.MIN_VALUE)) >= 0
+            && decimal.compareTo(BigDecimal.valueOf(Integer.MAX_VALUE)) <= 0
+            ? SqlTypeName.INTEGER.getName() : SqlTypeName.BIGINT.getName();
+        } else {
+          signature = SqlTypeName.DECIMAL.getName() + "(" + numeric.getPrec() + ", " + numeric.getScale() + ")";
+        }
+      } else if (literal.getTypeName() == SqlTypeName.CHAR && literal.getValue() instanceof NlsString) {
+        final NlsString string = (NlsString) literal.getValue();
+        value = string.getValue();
+        signature = SqlTypeName.CHAR.getName() + "(" + string.getValue().length() + ") " + string.getCharsetName();
+      } else {
+        return literal;
+      }
+
+      parameters.add(value);
+      signatures.add(signature);
+      return new SqlDynamicParam(parameters.size() - 1, literal.getParserPosition());
+    }
+  }
+}
@@ -33,10 +33,16 @@ public class PlanCache {
 
   private final Cache<Long, CachedPlan> cachePlans;
   private static Multimap<String, Long> datasetMap;
+  private final ResultCache resultCache;
 
   public PlanCache(Cache<Long, CachedPlan> cachePlans, Multimap<String, Long> map) {
+    this(cachePlans, map, null);
+  }
+
+  public PlanCache(Cache<Long, CachedPlan> cachePlans, Multimap<String, Long> map, ResultCache resultCache) {
     this.cachePlans = cachePlans;
     this.datasetMap = map;
+    this.resultCache = resultCache;
   }
 
   public Multimap<String, Long> getDatasetMap() {
@@ -47,6 +53,13 @@ public class PlanCache {
     return cachePlans;
   }
 
+  /**
+   * @return the cache of query results, or null if results are not cached
+   */
+  public ResultCache getResultCache() {
+    return resultCache;
+  }
+
   private void addCacheToDatasetMap(String datasetId, Long cacheId) {
     synchronized (datasetMap) {
       datasetMap.put(datasetId, cacheId);
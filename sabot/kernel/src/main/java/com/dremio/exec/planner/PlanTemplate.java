@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rex.RexBuilder;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexShuttle;
+import org.apache.calcite.sql.SqlExplainLevel;
+import org.apache.calcite.sql.type.SqlTypeFamily;
+import org.apache.calcite.util.NlsString;
+
+import com.dremio.exec.planner.common.ScanRelBase;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.service.namespace.NamespaceException;
+
+/**
+ * Re-binds the literals of a physical plan planned for a {@link NormalizedQuery}, so the plan can be reused by the
+ * queries of the same shape.<br>
+ * <br>
+ * The literals of the plan that are equal to a parameter of the query are replaced by the corresponding parameter
+ * of the new query. Literals may also have been pushed into operators that don't expose their expressions, or have
+ * been used to prune partitions, so a template is only used once re-binding it to the parameters of another query
+ * produced the plan planned for that query, see {@link #matches(Prel, List, Prel, List)}.
+ */
+public final class PlanTemplate {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(PlanTemplate.class);
+
+  private PlanTemplate() {}
+
+  /**
+   * @return false if the plan depends on the values of the literals in a way re-binding can't detect, for instance
+   * if it only reads the partitions selected by a filter
+   */
+  public static boolean isParameterizable(RelNode plan) {
+    if (plan instanceof ScanRelBase) {
+      try {
+        if (((ScanRelBase) plan).getTableMetadata().isPruned()) {
+          return false;
+        }
+      } catch (NamespaceException e) {
+        logger.debug("Unable to check if scan of {} is pruned", ((ScanRelBase) plan).getTableMetadata().getName(), e);
+        return false;
+      }
+    }
+    for (RelNode input : plan.getInputs()) {
+      if (!isParameterizable(input)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return false if a parameter doesn't appear as a literal of the plan, for instance because the planner folded the
+   * condition it was compared in, in which case re-binding the plan wouldn't change its result
+   */
+  public static boolean containsParameters(Prel plan, List<Object> parameters) {
+    final Set<Object> literals = new HashSet<>();
+    collectLiterals(plan, new RexShuttle() {
+      @Override
+      public RexNode visitLiteral(RexLiteral literal) {
+        final Object value = getValue(literal);
+        if (value != null) {
+          literals.add(toKey(value));
+        }
+        return literal;
+      }
+    });
+    for (Object parameter : parameters) {
+      if (!literals.contains(toKey(parameter))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Re-binds a plan to new parameter values.
+   *
+   * @param plan plan planned with the template parameters, left unchanged
+   * @param templateParameters parameters of the query the plan was planned for
+   * @param parameters parameters of the new query
+   * @return the re-bound plan, or null if the plan can't be re-bound because the new parameters don't have the same
+   * equality and order relations as the template parameters
+   */
+  public static Prel rebind(Prel plan, List<Object> templateParameters, List<Object> parameters) {
+    if (templateParameters.size() != parameters.size()
+      || !Arrays.equals(NormalizedQuery.getRanks(templateParameters), NormalizedQuery.getRanks(parameters))) {
+      return null;
+    }
+    return (Prel) rebind(plan, new LiteralRebinder(plan.getCluster().getRexBuilder(), templateParameters, parameters));
+  }
+
+  /**
+   * Checks that the template re-bound to the parameters of a query is the plan planned for this query. Parameters
+   * that didn't change are not checked, so only queries whose parameters all differ from the template parameters
+   * are used to validate a template.
+   *
+   * @return true if all the parameters changed and the re-bound template is the same as the plan
+   */
+  public static boolean matches(Prel template, List<Object> templateParameters, Prel plan, List<Object> parameters) {
+    if (!changesAllParameters(templateParameters, parameters)) {
+      return false;
+    }
+    final Prel rebound = rebind(template, templateParameters, parameters);
+    return rebound != null && digest(rebound).equals(digest(plan));
+  }
+
+  /**
+   * @return true if all the parameters differ from the template parameters, so the query can validate the template
+   */
+  public static boolean changesAllParameters(List<Object> templateParameters, List<Object> parameters) {
+    if (templateParameters.size() != parameters.size()) {
+      return false;
+    }
+    for (int i = 0; i < parameters.size(); i++) {
+      if (equal(templateParameters.get(i), parameters.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String digest(RelNode plan) {
+    final StringBuilder builder = new StringBuilder(RelOptUtil.toString(plan, SqlExplainLevel.EXPPLAN_ATTRIBUTES));
+    appendRowTypes(plan, builder);
+    return builder.toString();
+  }
+
+  private static void appendRowTypes(RelNode plan, StringBuilder builder) {
+    builder.append(plan.getRowType().getFullTypeString()).append('\n');
+    for (RelNode input : plan.getInputs()) {
+      appendRowTypes(input, builder);
+    }
+  }
+
+  private static RelNode rebind(RelNode node, RexShuttle rebinder) {
+    final List<RelNode> inputs = new ArrayList<>(node.getInputs().size());
+    boolean changed = false;
+    for (RelNode input : node.getInputs()) {
+      final RelNode newInput = rebind(input, rebinder);
+      changed |= newInput != input;
+      inputs.add(newInput);
+    }
+    final RelNode copy = changed ? node.copy(node.getTraitSet(), inputs) : node;
+    return copy.accept(rebinder);
+  }
+
+  private static void collectLiterals(RelNode node, RexShuttle collector) {
+    for (RelNode input : node.getInputs()) {
+      collectLiterals(input, collector);
+    }
+    node.accept(collector);
+  }
+
+  /**
+   * @return the value of a literal that may be a parameter, or null
+   */
+  private static Object getValue(RexLiteral literal) {
+    final SqlTypeFamily family = literal.getTypeName().getFamily();
+    if (family == SqlTypeFamily.NUMERIC && literal.getValue() instanceof BigDecimal) {
+      return literal.getValue();
+    } else if (family == SqlTypeFamily.CHARACTER && literal.getValue() instanceof NlsString) {
+      return ((NlsString) literal.getValue()).getValue();
+    }
+    return null;
+  }
+
+  /**
+   * @return a value that is equal to the values equal to the given value, as {@link BigDecimal#equals(Object)} also
+   * compares scales
+   */
+  private static Object toKey(Object value) {
+    return value instanceof BigDecimal ? ((BigDecimal) value).stripTrailingZeros() : value;
+  }
+
+  private static boolean equal(Object left, Object right) {
+    if (left instanceof BigDecimal && right instanceof BigDecimal) {
+      return ((BigDecimal) left).compareTo((BigDecimal) right) == 0;
+    }
+    return left.equals(right);
+  }
+
+  /**
+   * Replaces the literals equal to a template parameter by the value of the new parameter.
+   */
+  private static final class LiteralRebinder extends RexShuttle {
+    private final RexBuilder rexBuilder;
+    private final List<Object> templateParameters;
+    private final List<Object> parameters;
+
+    private LiteralRebinder(RexBuilder rexBuilder, List<Object> templateParameters, List<Object> parameters) {
+      this.rexBuilder = rexBuilder;
+      this.templateParameters = templateParameters;
+      this.parameters = parameters;
+    }
+
+    @Override
+    public RexNode visitLiteral(RexLiteral literal) {
+      final Object value = getValue(literal);
+      if (value == null) {
+        return literal;
+      }
+
+      for (int i = 0; i < templateParameters.size(); i++) {
+        final Object parameter = templateParameters.get(i);
+        if (parameter.getClass() == value.getClass() && equal(parameter, value)) {
+          if (equal(parameter, parameters.get(i))) {
+            return literal;
+          }
+          return rexBuilder.makeLiteral(parameters.get(i), literal.getType(), false);
+        }
+      }
+      return literal;
+    }
+  }
+}
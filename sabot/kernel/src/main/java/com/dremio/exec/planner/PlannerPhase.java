@@ -145,6 +145,7 @@ import com.dremio.exec.planner.physical.ValuesPrule;
 import com.dremio.exec.planner.physical.WindowPrule;
 import com.dremio.exec.planner.physical.WriterPrule;
 import com.dremio.exec.planner.physical.rule.AddFilterWindowBelowExchangeRule;
+import com.dremio.exec.planner.physical.rule.BandNestedLoopJoinPRule;
 import com.dremio.exec.planner.physical.rule.FilterNestedLoopJoinPRule;
 import com.dremio.exec.planner.physical.rule.FilterProjectTransposePRule;
 import com.dremio.exec.planner.physical.rule.MergeProjectsPRule;
@@ -414,6 +415,7 @@ public enum PlannerPhase {
       if (context.getPlannerSettings().options.getOption(PlannerSettings.NLJ_PUSHDOWN)) {
         builder.add(NestedLoopJoinComputationExtractionRule.INSTANCE);
       }
+      builder.add(BandNestedLoopJoinPRule.INSTANCE);
       if (context.getPlannerSettings().options.getOption(PlannerSettings.HASH_JOIN_PUSHDOWN)) {
         builder.add(HashJoinComputationExtractionRule.INSTANCE);
       }
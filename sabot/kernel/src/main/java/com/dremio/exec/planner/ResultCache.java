@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.calcite.rel.RelFieldCollation;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.core.Sort;
+import org.apache.calcite.rel.core.TableFunctionScan;
+
+import com.dremio.exec.catalog.Catalog;
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.ops.QueryContext;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.io.file.FileAttributes;
+import com.dremio.io.file.FileSystem;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.ReadDefinition;
+import com.dremio.telemetry.api.metrics.Counter;
+import com.dremio.telemetry.api.metrics.Metrics;
+import com.dremio.telemetry.api.metrics.Metrics.ResetType;
+import com.google.common.cache.Cache;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+
+/**
+ * Cache of the results of queries stored in the job results store. The results of a query are cached when the query
+ * completes, and are read instead of running an identical query again as long as none of the datasets read by the
+ * query changed.
+ */
+public class ResultCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ResultCache.class);
+
+  private static final Counter HITS = Metrics.newCounter(Metrics.join("jobs", "result_cache", "hits"), ResetType.NEVER);
+  private static final Counter MISSES = Metrics.newCounter(Metrics.join("jobs", "result_cache", "misses"), ResetType.NEVER);
+
+  private final Cache<String, CachedResult> cachedResults;
+  // results of the running queries, cached once the query completes
+  private final ConcurrentMap<QueryId, PendingResult> pendingResults = new ConcurrentHashMap<>();
+
+  public ResultCache(Cache<String, CachedResult> cachedResults) {
+    this.cachedResults = cachedResults;
+  }
+
+  public Cache<String, CachedResult> getCachedResults() {
+    return cachedResults;
+  }
+
+  public static String generateCacheKey(String sql, QueryContext context) {
+    // unlike plans, results depend on the user running the query through the access rules of the datasets
+    return context.getQueryUserName() + '\n' + PlanCache.generateCacheKey(sql, context) + '\n' + sql;
+  }
+
+  /**
+   * Computes the signature of the datasets read by a query.
+   *
+   * @param catalog catalog of the query
+   * @param root    root of the converted query
+   * @return the signature of each dataset by dataset id, or null if the results of the query can change without the
+   *         metadata of a dataset changing, in which case the results of the query can't be cached
+   */
+  public static Map<String, String> getDatasetSignatures(Catalog catalog, RelNode root) {
+    if (SubstitutionUtils.hasExternalQueries(root) || hasTableFunctions(root)) {
+      // the results depend on a source, not on datasets
+      logger.debug("Results of query are not cached (external query or table function).");
+      return null;
+    }
+
+    final Map<String, String> signatures = Maps.newHashMap();
+    for (DremioTable dataset : catalog.getAllRequestedTables()) {
+      final DatasetConfig datasetConfig;
+      try {
+        datasetConfig = dataset.getDatasetConfig();
+      } catch (IllegalStateException ignore) {
+        logger.debug("Results of query on dataset {} are not cached (no dataset config available).", dataset.getPath());
+        return null;
+      }
+      if (datasetConfig == null || datasetConfig.getId() == null) {
+        logger.debug("Results of query on dataset {} are not cached (no dataset config available).", dataset.getPath());
+        return null;
+      }
+
+      final ReadDefinition readDefinition = datasetConfig.getReadDefinition();
+      final StringBuilder signature = new StringBuilder(String.valueOf(datasetConfig.getTag()));
+      if (datasetConfig.getPhysicalDataset() != null) {
+        if (readDefinition == null || readDefinition.getReadSignature() == null) {
+          logger.debug("Results of query on dataset {} are not cached (no read signature available).", dataset.getPath());
+          return null;
+        }
+        signature.append(':')
+          .append(Hashing.sha256().hashBytes(readDefinition.getReadSignature().toByteArray()));
+      }
+      signatures.put(datasetConfig.getId().getId(), signature.toString());
+    }
+    if (signatures.isEmpty()) {
+      logger.debug("Results of query are not cached (no dataset read).");
+      return null;
+    }
+    return signatures;
+  }
+
+  private static boolean hasTableFunctions(RelNode node) {
+    if (node instanceof TableFunctionScan) {
+      return true;
+    }
+    for (RelNode input : node.getInputs()) {
+      if (hasTableFunctions(input)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Builds the ORDER BY clause which restores the order of the results of a query, when they are read again.
+   *
+   * @param root       root of the converted query
+   * @param fieldCount number of fields returned by the query
+   * @return the ORDER BY clause, empty if the results are not ordered, or null if the order of the results can't be
+   *         restored
+   */
+  public static String getOrderBy(RelNode root, int fieldCount) {
+    if (root instanceof Project && root.getInput(0) instanceof Sort
+      && !((Sort) root.getInput(0)).getCollation().getFieldCollations().isEmpty()) {
+      // ordered on fields that are not returned
+      return null;
+    }
+    if (!(root instanceof Sort) || ((Sort) root).getCollation().getFieldCollations().isEmpty()) {
+      return "";
+    }
+    if (root.getRowType().getFieldCount() != fieldCount) {
+      return null;
+    }
+
+    final StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+    boolean first = true;
+    for (RelFieldCollation collation : ((Sort) root).getCollation().getFieldCollations()) {
+      if (!first) {
+        orderBy.append(", ");
+      }
+      first = false;
+      orderBy.append(collation.getFieldIndex() + 1)
+        .append(collation.getDirection().isDescending() ? " DESC" : " ASC");
+      if (collation.nullDirection != RelFieldCollation.NullDirection.UNSPECIFIED) {
+        orderBy.append(" NULLS ").append(collation.nullDirection.name().toUpperCase(Locale.ROOT));
+      }
+    }
+    return orderBy.toString();
+  }
+
+  /**
+   * Gets the cached results of a query, if the datasets read by the query didn't change since the results were
+   * cached and the results are still in the job results store.
+   */
+  public CachedResult getIfPresentAndValid(String cacheKey, Map<String, String> datasetSignatures) {
+    final CachedResult cachedResult = cachedResults.getIfPresent(cacheKey);
+    if (cachedResult != null) {
+      if (cachedResult.getDatasetSignatures().equals(datasetSignatures) && exists(cachedResult)) {
+        HITS.increment();
+        return cachedResult;
+      }
+      cachedResults.invalidate(cacheKey);
+    }
+    MISSES.increment();
+    return null;
+  }
+
+  private static boolean exists(CachedResult cachedResult) {
+    try {
+      return cachedResult.getFileSystem().exists(cachedResult.getLocation());
+    } catch (IOException e) {
+      logger.debug("Failure while checking cached results {}", cachedResult.getLocation(), e);
+      return false;
+    }
+  }
+
+  /**
+   * Registers the results a query is going to store, to be cached when the query completes.
+   */
+  public void addPending(QueryId queryId, String cacheKey, CachedResult cachedResult) {
+    pendingResults.put(queryId, new PendingResult(cacheKey, cachedResult));
+  }
+
+  /**
+   * Caches the results of a query once it completed, or drops them if the query failed or was canceled. Results
+   * already cached for the same query are kept, and expire as planned.
+   */
+  public void complete(QueryId queryId, boolean succeeded) {
+    final PendingResult pending = pendingResults.remove(queryId);
+    if (pending == null || !succeeded) {
+      return;
+    }
+
+    final CachedResult cachedResult = pending.cachedResult;
+    final FileSystem fs = cachedResult.getFileSystem();
+    long size = 0;
+    try (DirectoryStream<FileAttributes> files = fs.listFiles(cachedResult.getLocation(), true)) {
+      for (FileAttributes attributes : files) {
+        size += attributes.size();
+      }
+    } catch (IOException e) {
+      logger.debug("Results of query stored in {} are not cached", cachedResult.getLocation(), e);
+      return;
+    }
+    cachedResults.asMap().putIfAbsent(pending.cacheKey, cachedResult.withSizeInBytes(size));
+  }
+
+  private static final class PendingResult {
+    private final String cacheKey;
+    private final CachedResult cachedResult;
+
+    private PendingResult(String cacheKey, CachedResult cachedResult) {
+      this.cacheKey = cacheKey;
+      this.cachedResult = cachedResult;
+    }
+  }
+}
@@ -21,8 +21,10 @@ import java.util.Objects;
 import java.util.Set;
 
 import org.apache.calcite.plan.RelOptMaterialization;
+import org.apache.calcite.rel.RelNode;
 
 import com.dremio.exec.planner.acceleration.substitution.MaterializationProvider;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils;
 import com.dremio.exec.planner.sql.SqlConverter;
 import com.dremio.exec.server.MaterializationDescriptorProvider;
 import com.dremio.sabot.rpc.user.UserSession;
@@ -45,6 +47,8 @@ public class MaterializationList implements MaterializationProvider {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MaterializationList.class);
 
   private final Map<TablePath, MaterializationDescriptor> mapping = Maps.newHashMap();
+  // materializations expanded so far by materialization id, null if the expansion failed
+  private final Map<String, DremioMaterialization> expanded = Maps.newLinkedHashMap();
   private final Supplier<List<DremioMaterialization>> factory = Suppliers.memoize(new Supplier<List<DremioMaterialization>>() {
     @Override
     public List<DremioMaterialization> get() {
@@ -74,6 +78,34 @@ public class MaterializationList implements MaterializationProvider {
     return factory.get();
   }
 
+  /**
+   * Returns list of materializations that may substitute part of the given query.
+   *
+   * Only the {@link MaterializationDescriptor descriptors} using one of the tables or VDS of the query are requested
+   * from the provider and converted to {@link RelOptMaterialization materializations}, the conversions being cached
+   * for the next queries planned with this list.
+   */
+  @Override
+  public List<DremioMaterialization> getApplicableMaterializations(RelNode query) {
+    final Set<List<String>> datasetPaths = Sets.newHashSet(SubstitutionUtils.findTables(query));
+    datasetPaths.addAll(SubstitutionUtils.findExpansionNodes(query));
+    return SubstitutionUtils.findApplicableMaterializations(query, build(provider.get(datasetPaths)));
+  }
+
+  /**
+   * Returns the materializations converted so far, either because they were applicable to a query or because all the
+   * available materializations were requested.
+   */
+  public List<DremioMaterialization> getExpandedMaterializations() {
+    final List<DremioMaterialization> materializations = Lists.newArrayList();
+    for (DremioMaterialization materialization : expanded.values()) {
+      if (materialization != null) {
+        materializations.add(materialization);
+      }
+    }
+    return materializations;
+  }
+
   @Override
   public java.util.Optional<DremioMaterialization> getDefaultRawMaterialization(NamespaceKey path, List<String> vdsFields) {
     return getDefaultRawMaterialization(provider, path, vdsFields);
@@ -96,11 +128,15 @@ public class MaterializationList implements MaterializationProvider {
    */
   @VisibleForTesting
   protected List<DremioMaterialization> build(final MaterializationDescriptorProvider provider) {
+    return build(provider.get());
+  }
+
+  private List<DremioMaterialization> build(final List<MaterializationDescriptor> descriptors) {
     final Set<String> exclusions = Sets.newHashSet(session.getSubstitutionSettings().getExclusions());
     final Set<String> inclusions = Sets.newHashSet(session.getSubstitutionSettings().getInclusions());
     final boolean hasInclusions = !inclusions.isEmpty();
     final List<DremioMaterialization> materializations = Lists.newArrayList();
-    for (final MaterializationDescriptor descriptor : provider.get()) {
+    for (final MaterializationDescriptor descriptor : descriptors) {
 
       if(
           (hasInclusions && !inclusions.contains(descriptor.getLayoutId()))
@@ -110,21 +146,32 @@ public class MaterializationList implements MaterializationProvider {
           continue;
       }
 
-      try {
-        final DremioMaterialization materialization = descriptor.getMaterializationFor(converter);
-        if (materialization == null) {
-          continue;
-        }
-
-        mapping.put(TablePath.of(descriptor.getPath()), descriptor);
+      final DremioMaterialization materialization = expand(descriptor);
+      if (materialization != null) {
         materializations.add(materialization);
-      } catch (Throwable e) {
-        logger.warn("failed to expand materialization {}", descriptor.getMaterializationId(), e);
       }
     }
     return materializations;
   }
 
+  private DremioMaterialization expand(final MaterializationDescriptor descriptor) {
+    if (expanded.containsKey(descriptor.getMaterializationId())) {
+      return expanded.get(descriptor.getMaterializationId());
+    }
+
+    DremioMaterialization materialization = null;
+    try {
+      materialization = descriptor.getMaterializationFor(converter);
+      if (materialization != null) {
+        mapping.put(TablePath.of(descriptor.getPath()), descriptor);
+      }
+    } catch (Throwable e) {
+      logger.warn("failed to expand materialization {}", descriptor.getMaterializationId(), e);
+    }
+    expanded.put(descriptor.getMaterializationId(), materialization);
+    return materialization;
+  }
+
   /**
    * Returns available default raw materialization from the given provider and the path for the VDS/PDS
    *
@@ -19,6 +19,8 @@ package com.dremio.exec.planner.acceleration.substitution;
 import java.util.List;
 import java.util.Optional;
 
+import org.apache.calcite.rel.RelNode;
+
 import com.dremio.exec.planner.acceleration.DremioMaterialization;
 import com.dremio.exec.planner.sql.handlers.RelTransformer;
 import com.dremio.service.namespace.NamespaceKey;
@@ -45,6 +47,10 @@ public abstract class AbstractSubstitutionProvider implements SubstitutionProvid
     return getMaterializationProvider().getMaterializations();
   }
 
+  public List<DremioMaterialization> getApplicableMaterializations(RelNode query) {
+    return getMaterializationProvider().getApplicableMaterializations(query);
+  }
+
   public Optional<DremioMaterialization> getDefaultRawMaterialization(NamespaceKey path, List<String> vdsFields) {
     return getMaterializationProvider().getDefaultRawMaterialization(path, vdsFields);
   }
@@ -203,6 +203,13 @@ public final class SubstitutionUtils {
     return externalQueries;
   }
 
+  /**
+   * @return true if the given plan runs external queries, which are matched on their sql rather than on a table
+   */
+  public static boolean hasExternalQueries(RelNode rel) {
+    return !findExternalQueries(rel).isEmpty();
+  }
+
   public static List<DremioMaterialization> findApplicableMaterializations(
     final RelNode query, final Collection<DremioMaterialization> materializations) {
     final Set<List<String>> queryTablesUsed = SubstitutionUtils.findTables(query);
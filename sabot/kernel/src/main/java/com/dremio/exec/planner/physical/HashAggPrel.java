@@ -334,6 +334,8 @@ public class HashAggPrel extends AggregatePrel implements Prel{
       lowLimit = Long.max(lowLimit, estimator.getMemTotal() * 2);
       hashTableBatchSize = estimator.getHashTableBatchSize();
     }
+    // lets the operator size its partitions for the number of groups it is expected to hold
+    final double estimatedGroups = getCluster().getMetadataQuery().getRowCount(this);
     return new HashAggregate(
         creator.props(this, null, schema, reservation, LIMIT, lowLimit)
           .cloneWithBound(creator.getOptionManager().getOption(BOUNDED) && canSpill && canVectorize)
@@ -345,8 +347,9 @@ public class HashAggPrel extends AggregatePrel implements Prel{
         aggExprs,
         canVectorize,
         canSpill,
-        1.0f,
-        hashTableBatchSize);
+        (float) estimatedGroups,
+        hashTableBatchSize,
+        operPhase == OperatorPhase.PHASE_1of2);
   }
 
 
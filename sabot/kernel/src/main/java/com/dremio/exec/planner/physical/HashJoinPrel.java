@@ -66,6 +66,7 @@ public class HashJoinPrel extends JoinPrel {
 
   public static final DoubleValidator FACTOR = new RangeDoubleValidator("planner.op.hashjoin.factor", 0.0, 1000.0, 1.0d);
   public static final BooleanValidator BOUNDED = new BooleanValidator("planner.op.hashjoin.bounded", false);
+  public static final BooleanValidator SHARED_BROADCAST_BUILD = new BooleanValidator("planner.op.hashjoin.shared_broadcast_build", true);
 
   private final boolean swapped;
   private final RexNode extraCondition;
@@ -154,6 +155,12 @@ public class HashJoinPrel extends JoinPrel {
 
     final LogicalExpression extraJoinCondition = buildExtraJoinCondition(vectorize);
 
+    // the fragments running on the same node receive the same broadcast build side, so they can share one table
+    final boolean sharedBuild = vectorize
+        && creator.getOptionManager().getOption(SHARED_BROADCAST_BUILD)
+        && (joinType == JoinRelType.INNER || joinType == JoinRelType.LEFT)
+        && isBroadcast(currentRight);
+
     SchemaBuilder b = BatchSchema.newBuilder();
     for (Field f : rightPop.getProps().getSchema()) {
       b.addField(f);
@@ -175,10 +182,20 @@ public class HashJoinPrel extends JoinPrel {
       extraJoinCondition,
       joinType,
       vectorize,
-      buildRuntimeFilterInfo(creator)
+      buildRuntimeFilterInfo(creator),
+      sharedBuild
     );
   }
 
+  private static boolean isBroadcast(RelNode relNode) {
+    if (relNode instanceof BroadcastExchangePrel) {
+      return true;
+    } else if (relNode instanceof ExchangePrel || relNode.getInputs().size() != 1) {
+      return false;
+    }
+    return isBroadcast(relNode.getInput(0));
+  }
+
   private RuntimeFilterInfo buildRuntimeFilterInfo(PhysicalPlanCreator creator) {
     if(null == runtimeFilterId) {
       return null;
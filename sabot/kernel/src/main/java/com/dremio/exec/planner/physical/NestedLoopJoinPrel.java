@@ -57,6 +57,7 @@ public class NestedLoopJoinPrel  extends JoinPrel {
   public static final LongValidator LIMIT = new PositiveLongValidator("planner.op.nlj.limit_bytes", Long.MAX_VALUE, DEFAULT_LIMIT);
   public static final LongValidator OUTPUT_COUNT = new PositiveLongValidator("planner.op.nlj.output_count", Long.MAX_VALUE, 1048576L);
   public static final BooleanValidator VECTORIZED = new BooleanValidator("planner.op.nlj.vectorized", true);
+  public static final BooleanValidator BAND_JOIN = new BooleanValidator("planner.op.nlj.band_join", true);
 
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(NestedLoopJoinPrel.class);
 
@@ -117,6 +118,10 @@ public class NestedLoopJoinPrel  extends JoinPrel {
     return vectorExpression != null;
   }
 
+  public RexNode getVectorExpression() {
+    return vectorExpression;
+  }
+
   @Override
   public PhysicalOperator getPhysicalOperator(PhysicalPlanCreator creator) throws IOException {
     assert isUnique(getRowType().getFieldNames());
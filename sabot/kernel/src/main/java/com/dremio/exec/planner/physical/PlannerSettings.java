@@ -369,6 +369,10 @@ public class PlannerSettings implements Context{
    * Options to enable/disable plan cache and set plan cache policy
    */
   public static final BooleanValidator QUERY_PLAN_CACHE_ENABLED = new BooleanValidator("planner.query_plan_cache_enabled", true);
+  // also cache plans by query shape, re-binding the literals of the cached plan to the literals of the query
+  public static final BooleanValidator QUERY_PLAN_CACHE_PARAMETERIZED = new BooleanValidator("planner.query_plan_cache_parameterized", false);
+  // reuse the stored results of an identical query when none of the datasets it reads changed
+  public static final BooleanValidator QUERY_RESULT_CACHE_ENABLED = new BooleanValidator("planner.query_result_cache_enabled", false);
 
   private final SabotConfig sabotConfig;
   private final ExecutionControls executionControls;
@@ -568,6 +572,14 @@ public class PlannerSettings implements Context{
     return options.getOption(QUERY_PLAN_CACHE_ENABLED);
   }
 
+  public boolean isParameterizedPlanCacheEnabled() {
+    return options.getOption(QUERY_PLAN_CACHE_PARAMETERIZED);
+  }
+
+  public boolean isResultCacheEnabled() {
+    return options.getOption(QUERY_RESULT_CACHE_ENABLED);
+  }
+
   public long getCaseExpressionsThreshold() {
     return options.getOption(CASE_EXPRESSIONS_THRESHOLD);
   }
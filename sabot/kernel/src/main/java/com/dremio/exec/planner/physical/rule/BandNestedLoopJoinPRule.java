@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.physical.rule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.RelRule;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.sql.type.SqlTypeName;
+
+import com.dremio.exec.planner.physical.NestedLoopJoinPrel;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.physical.PrelUtil;
+
+/**
+ * Turns the inequality conditions of a nested loop join between a probe field and build fields, such as
+ * {@code probe.ts >= build.start AND probe.ts <= build.end}, into the vector expression of the join, so that
+ * the join is evaluated as a band join rather than by comparing all pairs of records.
+ *
+ * @see com.dremio.sabot.op.join.nlje.BandJoinFunction
+ */
+public class BandNestedLoopJoinPRule extends RelRule<BandNestedLoopJoinPRule.Config> {
+  public static final RelOptRule INSTANCE = Config.DEFAULT.toRule();
+
+  private BandNestedLoopJoinPRule(Config config) {
+    super(config);
+  }
+
+  @Override
+  public boolean matches(RelOptRuleCall call) {
+    final NestedLoopJoinPrel join = call.rel(0);
+    final PlannerSettings settings = PrelUtil.getPlannerSettings(call.getPlanner());
+    return !join.hasVectorExpression()
+        && (join.getJoinType() == JoinRelType.INNER || join.getJoinType() == JoinRelType.LEFT)
+        && settings.getOptions().getOption(NestedLoopJoinPrel.VECTORIZED)
+        && settings.getOptions().getOption(NestedLoopJoinPrel.BAND_JOIN);
+  }
+
+  @Override
+  public void onMatch(RelOptRuleCall call) {
+    final NestedLoopJoinPrel join = call.rel(0);
+    final int leftCount = join.getLeft().getRowType().getFieldCount();
+    final List<RexNode> conjunctions = RelOptUtil.conjunctions(join.getCondition());
+
+    // find a lower and an upper bound on the same probe field, otherwise a single bound.
+    RexNode lower = null;
+    RexNode upper = null;
+    int probeField = -1;
+    for (RexNode node : conjunctions) {
+      final Bound bound = Bound.of(node, leftCount);
+      if (bound == null || (probeField != -1 && bound.probeField != probeField)) {
+        continue;
+      }
+      if (bound.lower && lower == null) {
+        lower = node;
+        probeField = bound.probeField;
+      } else if (!bound.lower && upper == null) {
+        upper = node;
+        probeField = bound.probeField;
+      }
+    }
+
+    if (probeField == -1) {
+      return;
+    }
+
+    final List<RexNode> band = new ArrayList<>();
+    final List<RexNode> residue = new ArrayList<>();
+    for (RexNode node : conjunctions) {
+      if (node == lower || node == upper) {
+        band.add(node);
+      } else {
+        residue.add(node);
+      }
+    }
+
+    call.transformTo(join.copy(
+        RexUtil.composeConjunction(join.getCluster().getRexBuilder(), residue, false),
+        RexUtil.composeConjunction(join.getCluster().getRexBuilder(), band, false)));
+  }
+
+  /**
+   * A comparison between a probe field and a build field, bounding the probe field.
+   */
+  private static final class Bound {
+    private final int probeField;
+    private final boolean lower;
+
+    private Bound(int probeField, boolean lower) {
+      this.probeField = probeField;
+      this.lower = lower;
+    }
+
+    private static Bound of(RexNode node, int leftCount) {
+      if (!(node instanceof RexCall)) {
+        return null;
+      }
+      final RexCall call = (RexCall) node;
+      final boolean greater;
+      switch (call.getKind()) {
+      case GREATER_THAN:
+      case GREATER_THAN_OR_EQUAL:
+        greater = true;
+        break;
+      case LESS_THAN:
+      case LESS_THAN_OR_EQUAL:
+        greater = false;
+        break;
+      default:
+        return null;
+      }
+
+      if (!(call.getOperands().get(0) instanceof RexInputRef) || !(call.getOperands().get(1) instanceof RexInputRef)) {
+        return null;
+      }
+      final RexInputRef first = (RexInputRef) call.getOperands().get(0);
+      final RexInputRef second = (RexInputRef) call.getOperands().get(1);
+      final SqlTypeName type = first.getType().getSqlTypeName();
+      if (type != second.getType().getSqlTypeName() || !isSupported(type)) {
+        return null;
+      }
+
+      if (first.getIndex() < leftCount && second.getIndex() >= leftCount) {
+        // probe > build
+        return new Bound(first.getIndex(), greater);
+      }
+      if (second.getIndex() < leftCount && first.getIndex() >= leftCount) {
+        // build > probe
+        return new Bound(second.getIndex(), !greater);
+      }
+      return null;
+    }
+
+    private static boolean isSupported(SqlTypeName type) {
+      switch (type) {
+      case INTEGER:
+      case BIGINT:
+      case DATE:
+      case TIME:
+      case TIMESTAMP:
+        return true;
+      default:
+        return false;
+      }
+    }
+  }
+
+  public interface Config extends RelRule.Config {
+    Config DEFAULT = EMPTY
+      .withDescription("BandNestedLoopJoinPRule")
+      .withOperandSupplier(os1 -> os1.operand(NestedLoopJoinPrel.class).anyInputs())
+      .as(Config.class);
+
+    @Override default BandNestedLoopJoinPRule toRule() {
+      return new BandNestedLoopJoinPRule(this);
+    }
+  }
+}
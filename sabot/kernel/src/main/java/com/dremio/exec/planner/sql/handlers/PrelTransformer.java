@@ -596,7 +596,7 @@ public class PrelTransformer {
 
   private static RelNode processBoostedMaterializations(SqlHandlerConfig config, RelNode relNode) {
     final Set<List<String>> qualifiedNames = config.getMaterializations().isPresent() ?
-      config.getMaterializations().get().getMaterializations()
+      config.getMaterializations().get().getExpandedMaterializations()
         .stream()
         .filter(m -> m.getLayoutInfo().isArrowCachingEnabled())
         .map(DremioMaterialization::getTableRel)
@@ -18,6 +18,7 @@ package com.dremio.exec.planner.sql.handlers.query;
 import static com.dremio.exec.planner.physical.PlannerSettings.STORE_QUERY_RESULTS;
 
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
@@ -28,16 +29,22 @@ import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.sql.dialect.CalciteSqlDialect;
 import org.apache.calcite.util.Pair;
 
+import com.dremio.common.utils.PathUtils;
 import com.dremio.exec.catalog.Catalog;
 import com.dremio.exec.physical.PhysicalPlan;
 import com.dremio.exec.physical.base.PhysicalOperator;
 import com.dremio.exec.planner.CachedAccelDetails;
 import com.dremio.exec.planner.CachedPlan;
+import com.dremio.exec.planner.CachedResult;
 import com.dremio.exec.planner.DremioVolcanoPlanner;
+import com.dremio.exec.planner.NormalizedQuery;
 import com.dremio.exec.planner.PlanCache;
+import com.dremio.exec.planner.PlanTemplate;
+import com.dremio.exec.planner.ResultCache;
 import com.dremio.exec.planner.logical.Rel;
 import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.physical.WriterPrel;
 import com.dremio.exec.planner.physical.explain.PrelSequencer;
 import com.dremio.exec.planner.physical.visitor.WriterPathUpdater;
 import com.dremio.exec.planner.sql.SqlExceptionHelper;
@@ -45,6 +52,9 @@ import com.dremio.exec.planner.sql.handlers.ConvertedRelNode;
 import com.dremio.exec.planner.sql.handlers.PrelTransformer;
 import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
 import com.dremio.exec.planner.sql.handlers.ViewAccessEvaluator;
+import com.dremio.exec.planner.sql.parser.CheckPlanCacheable;
+import com.dremio.exec.store.dfs.FileSystemCreateTableEntry;
+import com.dremio.io.file.Path;
 import com.dremio.options.OptionManager;
 
 /**
@@ -63,6 +73,10 @@ public class NormalHandler implements SqlToPlanHandler {
       final long cachedKey = planCache.generateCacheKey(sqlNode.toSqlString(CalciteSqlDialect.DEFAULT).getSql(),
         config.getContext());
       config.getObserver().setCacheKey(cachedKey);
+      final NormalizedQuery normalizedQuery = plannerSettings.isPlanCacheEnabled()
+        && plannerSettings.isParameterizedPlanCacheEnabled() ? NormalizedQuery.normalize(sqlNode) : null;
+      final long templateKey = normalizedQuery != null
+        ? planCache.generateCacheKey(normalizedQuery.getNormalizedSql(), config.getContext()) : 0;
       final ConvertedRelNode convertedRelNode = PrelTransformer.validateAndConvert(config, sqlNode);
       final RelDataType validatedRowType = convertedRelNode.getValidatedRowType();
       final RelNode queryRelNode = convertedRelNode.getConvertedNode();
@@ -73,9 +87,37 @@ public class NormalHandler implements SqlToPlanHandler {
         config.getContext().getExecutorService().submit(viewAccessEvaluator);
       }
       final Catalog catalog = config.getContext().getCatalog();
+      // look for the stored results of an identical query, if none of the datasets it reads changed
+      final ResultCache resultCache = plannerSettings.isResultCacheEnabled() && planCache != null
+        ? planCache.getResultCache() : null;
+      String resultKey = null;
+      String orderBy = null;
+      Map<String, String> datasetSignatures = null;
+      CachedResult cachedResult = null;
+      if (resultCache != null && isResultCacheable(config, sqlNode)) {
+        orderBy = ResultCache.getOrderBy(queryRelNode, validatedRowType.getFieldCount());
+        datasetSignatures = orderBy != null ? ResultCache.getDatasetSignatures(catalog, queryRelNode) : null;
+        if (datasetSignatures != null) {
+          resultKey = ResultCache.generateCacheKey(sql, config.getContext());
+          cachedResult = resultCache.getIfPresentAndValid(resultKey, datasetSignatures);
+        }
+      }
       CachedPlan cachedPlan = (planCache != null) ? planCache.getIfPresentAndValid(catalog, cachedKey) : null;
+      // when there is no plan for the query, look for a plan of its shape that can be re-bound to its literals
+      CachedPlan templatePlan = null;
+      Prel reboundPrel = null;
+      if (cachedPlan == null && normalizedQuery != null && planCache != null) {
+        templatePlan = planCache.getIfPresentAndValid(catalog, templateKey);
+        if (templatePlan != null && templatePlan.getTemplateState() == CachedPlan.TemplateState.VERIFIED) {
+          reboundPrel = PlanTemplate.rebind(templatePlan.getPrel(), templatePlan.getTemplateParameters(),
+            normalizedQuery.getParameters());
+        }
+      }
       Prel prel;
-      if (!plannerSettings.isPlanCacheEnabled() || cachedPlan == null) {
+      if (cachedResult != null) {
+        logger.debug("Reading results of query {} from {}", sql, cachedResult.getLocation());
+        prel = convertCachedResult(config, cachedResult);
+      } else if (!plannerSettings.isPlanCacheEnabled() || (cachedPlan == null && reboundPrel == null)) {
         final Rel drel = PrelTransformer.convertToDrel(config, queryRelNode, validatedRowType);
 
         final Pair<Prel, String> convertToPrel = PrelTransformer.convertToPrel(config, drel);
@@ -90,9 +132,17 @@ public class NormalHandler implements SqlToPlanHandler {
             config.getObserver().setCachedAccelDetails(newCachedPlan);
             planCache.getCachePlans().put(cachedKey, newCachedPlan);
           }
+          if (normalizedQuery != null) {
+            cacheTemplate(config, planCache, catalog, templateKey, templatePlan, normalizedQuery, sql, prel);
+          }
         }
       } else {
-        prel = cachedPlan.getPrel();
+        if (cachedPlan == null) {
+          cachedPlan = templatePlan;
+          prel = reboundPrel;
+        } else {
+          prel = cachedPlan.getPrel();
+        }
 
         // After the plan has been cached during planning, the job could be canceled during execution.
         // Reset the cancel flag in cached plan, otherwise the job will always be canceled.
@@ -122,6 +172,11 @@ public class NormalHandler implements SqlToPlanHandler {
           textPlan = "";
         }
       }
+      if (datasetSignatures != null && cachedResult == null) {
+        // the results read from the cache stay cached until they expire, so that a repeated query doesn't keep
+        // them alive forever
+        addPendingResult(config, resultCache, resultKey, datasetSignatures, orderBy, prel);
+      }
       final PhysicalOperator pop = PrelTransformer.convertToPop(config, prel);
       PhysicalPlan plan = PrelTransformer.convertToPlan(config, pop);
       logger.debug("Final Physical Plan {}", textPlan);
@@ -140,6 +195,90 @@ public class NormalHandler implements SqlToPlanHandler {
     }
   }
 
+  /**
+   * Results can be cached if they are stored in the job results store under the id of the query, and if they only
+   * depend on the datasets read by the query.
+   */
+  private static boolean isResultCacheable(SqlHandlerConfig config, SqlNode sqlNode) {
+    final PlannerSettings.StoreQueryResultsPolicy storeQueryResultsPolicy = Optional
+      .ofNullable(config.getContext().getOptions().getOption(STORE_QUERY_RESULTS.getOptionName()))
+      .map(o -> PlannerSettings.StoreQueryResultsPolicy.valueOf(o.getStringVal().toUpperCase(Locale.ROOT)))
+      .orElse(PlannerSettings.StoreQueryResultsPolicy.NO);
+    return storeQueryResultsPolicy == PlannerSettings.StoreQueryResultsPolicy.PATH_AND_ATTEMPT_ID
+      && config.getConverter().getFunctionContext().getContextInformation().isPlanCacheable()
+      && CheckPlanCacheable.create(config.getContext(), sqlNode).isPlanCacheable();
+  }
+
+  /**
+   * Plans reading the cached results of the query from the job results store, instead of running the query.
+   */
+  private Prel convertCachedResult(SqlHandlerConfig config, CachedResult cachedResult) throws Exception {
+    final String cachedSql = String.format("SELECT * FROM TABLE(%s(type => 'arrow'))%s",
+      PathUtils.constructFullPath(cachedResult.getTablePath()), cachedResult.getOrderBy());
+    final SqlNode cachedNode = config.getConverter().parse(cachedSql);
+    final ConvertedRelNode convertedRelNode = PrelTransformer.validateAndConvert(config, cachedNode);
+    final Rel drel = PrelTransformer.convertToDrel(config, convertedRelNode.getConvertedNode(),
+      convertedRelNode.getValidatedRowType());
+    final Pair<Prel, String> convertToPrel = PrelTransformer.convertToPrel(config, drel);
+    textPlan = convertToPrel.getValue();
+    return convertToPrel.getKey();
+  }
+
+  /**
+   * Registers the results stored by the query, to be cached once the query completes.
+   */
+  private static void addPendingResult(SqlHandlerConfig config, ResultCache resultCache, String resultKey,
+                                       Map<String, String> datasetSignatures, String orderBy, Prel prel) {
+    final WriterPrel writer = findWriter(prel);
+    if (writer == null || !(writer.getCreateTableEntry() instanceof FileSystemCreateTableEntry)) {
+      return;
+    }
+    final FileSystemCreateTableEntry tableEntry = (FileSystemCreateTableEntry) writer.getCreateTableEntry();
+    if (tableEntry.getDatasetPath() == null) {
+      return;
+    }
+    resultCache.addPending(config.getContext().getQueryId(), resultKey,
+      new CachedResult(tableEntry.getDatasetPath().getPathComponents(), tableEntry.getPlugin().getSystemUserFS(),
+        Path.of(tableEntry.getLocation()), datasetSignatures, orderBy));
+  }
+
+  private static WriterPrel findWriter(Prel prel) {
+    if (prel instanceof WriterPrel) {
+      return (WriterPrel) prel;
+    }
+    for (Prel input : prel) {
+      final WriterPrel writer = findWriter(input);
+      if (writer != null) {
+        return writer;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Caches the plan for the shape of the query the first time the shape is planned, and verifies the cached plan
+   * the first time a query of the same shape with different literals is planned.
+   */
+  private void cacheTemplate(SqlHandlerConfig config, PlanCache planCache, Catalog catalog, long templateKey,
+                             CachedPlan templatePlan, NormalizedQuery normalizedQuery, String sql, Prel prel) {
+    if (templatePlan == null) {
+      if (PlanTemplate.isParameterizable(prel)
+        && PlanTemplate.containsParameters(prel, normalizedQuery.getParameters())
+        && planCache.addCacheToDatasetMap(catalog, templateKey)) {
+        final CachedPlan newTemplatePlan = CachedPlan.createTemplatePlan(sql, prel, textPlan, prel.getEstimatedSize(),
+          normalizedQuery.getParameters());
+        config.getObserver().setCachedAccelDetails(newTemplatePlan);
+        planCache.getCachePlans().put(templateKey, newTemplatePlan);
+      }
+    } else if (templatePlan.getTemplateState() == CachedPlan.TemplateState.PENDING
+      && PlanTemplate.changesAllParameters(templatePlan.getTemplateParameters(), normalizedQuery.getParameters())) {
+      final boolean matches = PlanTemplate.matches(templatePlan.getPrel(), templatePlan.getTemplateParameters(),
+        prel, normalizedQuery.getParameters());
+      logger.debug("Plan cached for the shape of query {} is {}", sql, matches ? "verified" : "rejected");
+      templatePlan.setTemplateState(matches ? CachedPlan.TemplateState.VERIFIED : CachedPlan.TemplateState.REJECTED);
+    }
+  }
+
   @Override
   public String getTextPlan() {
     return textPlan;
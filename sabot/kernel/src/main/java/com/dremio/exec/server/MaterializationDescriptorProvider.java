@@ -17,6 +17,7 @@ package com.dremio.exec.server;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
 import com.dremio.service.namespace.NamespaceKey;
@@ -33,6 +34,18 @@ public interface MaterializationDescriptorProvider {
    */
   List<MaterializationDescriptor> get();
 
+  /**
+   * Provides the materialization instances whose plan may use one of the given tables or VDS. Only these
+   * materializations can substitute part of a query using these datasets, so the others don't need to be expanded.
+   * Providers that don't track the datasets used by the materializations return all of them.
+   *
+   * @param datasetPaths paths of the tables and VDS used by the query.
+   * @return a list of {@code Materialization} instances. Might be empty.
+   */
+  default List<MaterializationDescriptor> get(Set<List<String>> datasetPaths) {
+    return get();
+  }
+
   /**
    * Returns the default raw materialization that provider considers for substitution
    * for the VDS with the given path
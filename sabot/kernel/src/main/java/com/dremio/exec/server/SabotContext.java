@@ -52,6 +52,8 @@ import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.server.options.SystemOptionManager;
 import com.dremio.exec.store.CatalogService;
 import com.dremio.exec.store.dfs.FileSystemWrapper;
+import com.dremio.exec.store.parquet.ParquetFooterCache;
+import com.dremio.exec.store.parquet.ParquetWriterFlushPool;
 import com.dremio.exec.store.sys.accel.AccelerationListManager;
 import com.dremio.exec.store.sys.accel.AccelerationManager;
 import com.dremio.exec.store.sys.accesscontrol.AccessControlListingManager;
@@ -97,6 +99,8 @@ public class SabotContext implements AutoCloseable {
   private final Provider<WorkStats> workStatsProvider;
   private final CodeCompiler compiler;
   private final ExpressionSplitCache expressionSplitCache;
+  private final ParquetWriterFlushPool parquetWriterFlushPool;
+  private final ParquetFooterCache parquetFooterCache;
   private final ScanResult classpathScan;
   private final LogicalPlanPersistence lpPersistence;
   private final Provider<MaterializationDescriptorProvider> materializationProvider;
@@ -244,6 +248,8 @@ public class SabotContext implements AutoCloseable {
     this.conduitInProcessChannelProviderProvider = conduitInProcessChannelProviderProvider;
     this.sysFlightChannelProviderProvider = sysFlightChannelProviderProvider;
     expressionSplitCache = new ExpressionSplitCache(optionManager, config);
+    parquetWriterFlushPool = new ParquetWriterFlushPool();
+    parquetFooterCache = new ParquetFooterCache(config);
   }
 
   private static List<RulesFactory> getRulesFactories(ScanResult scan) {
@@ -364,6 +370,8 @@ public class SabotContext implements AutoCloseable {
     this.conduitInProcessChannelProviderProvider = conduitInProcessChannelProviderProvider;
     this.sysFlightChannelProviderProvider = sysFlightChannelProviderProvider;
     expressionSplitCache = new ExpressionSplitCache(optionManager, config);
+    parquetWriterFlushPool = new ParquetWriterFlushPool();
+    parquetFooterCache = new ParquetFooterCache(config);
   }
 
   private void checkIfCoordinator() {
@@ -576,7 +584,7 @@ public class SabotContext implements AutoCloseable {
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(fileSystemWrapper);
+    AutoCloseables.close(fileSystemWrapper, parquetWriterFlushPool);
   }
 
   public Provider<WorkStats> getWorkStatsProvider() {
@@ -675,4 +683,12 @@ public class SabotContext implements AutoCloseable {
   public ExpressionSplitCache getExpressionSplitCache() {
     return expressionSplitCache;
   }
+
+  public ParquetWriterFlushPool getParquetWriterFlushPool() {
+    return parquetWriterFlushPool;
+  }
+
+  public ParquetFooterCache getParquetFooterCache() {
+    return parquetFooterCache;
+  }
 }
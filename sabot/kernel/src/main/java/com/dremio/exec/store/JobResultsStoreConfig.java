@@ -26,11 +26,17 @@ public final class JobResultsStoreConfig {
   private final String storageName;
   private final Path storagePath;
   private final FileSystem fileSystem;
+  private final long cacheMaxSizeBytes;
 
   public JobResultsStoreConfig(String storageName, Path storagePath, FileSystem fileSystem) {
+    this(storageName, storagePath, fileSystem, 0);
+  }
+
+  public JobResultsStoreConfig(String storageName, Path storagePath, FileSystem fileSystem, long cacheMaxSizeBytes) {
     this.storageName = storageName;
     this.storagePath = storagePath;
     this.fileSystem = fileSystem;
+    this.cacheMaxSizeBytes = cacheMaxSizeBytes;
   }
 
   public String getStorageName() {
@@ -44,4 +50,11 @@ public final class JobResultsStoreConfig {
   public FileSystem getFileSystem() {
     return fileSystem;
   }
+
+  /**
+   * Maximum size of the record batches of job results cached in memory, 0 to disable the cache.
+   */
+  public long getCacheMaxSizeBytes() {
+    return cacheMaxSizeBytes;
+  }
 }
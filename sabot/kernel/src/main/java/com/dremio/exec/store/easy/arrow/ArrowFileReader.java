@@ -192,6 +192,28 @@ public class ArrowFileReader implements AutoCloseable {
     return batches;
   }
 
+  /**
+   * Read a whole record batch of the file.
+   * @param batchIndex index of the batch in the footer batch list
+   * @return
+   * @throws IOException
+   */
+  public RecordBatchData readBatch(final int batchIndex) throws IOException {
+    final ArrowFileFooter footer = metadata.getFooter();
+    final int numBatches = footer.getBatchList() == null ? 0 : footer.getBatchList().size();
+    checkArgument(batchIndex >= 0 && batchIndex < numBatches,
+        "Invalid batch index (%s). Batch count in file (%s)", batchIndex, numBatches);
+
+    if (inputStream == null) {
+      openFile();
+    }
+
+    final VectorAccessibleSerializable vectorAccessibleSerializable = new VectorAccessibleSerializable(allocator);
+    inputStream.setPosition(footer.getBatchList().get(batchIndex).getOffset());
+    vectorAccessibleSerializable.readFromStream(inputStream);
+    return new RecordBatchData(vectorAccessibleSerializable.get(), allocator);
+  }
+
   @Override
   public void close() throws IOException {
     if (inputStream != null) {
@@ -64,6 +64,9 @@ public class ArrowRecordReader extends AbstractRecordReader {
 
   private final FileSystem dfs;
   private final Path path;
+  // split of the file to read, only the batches starting in the split are read
+  private final long splitStart;
+  private final long splitLength;
 
   private FSInputStream inputStream;
   private ArrowFileFooter footer;
@@ -79,9 +82,16 @@ public class ArrowRecordReader extends AbstractRecordReader {
 
   public ArrowRecordReader(final OperatorContext context, final FileSystem dfs, final Path path,
       List<SchemaPath> columns) {
+    this(context, dfs, path, columns, 0, Long.MAX_VALUE);
+  }
+
+  public ArrowRecordReader(final OperatorContext context, final FileSystem dfs, final Path path,
+      List<SchemaPath> columns, long splitStart, long splitLength) {
     super(context, columns);
     this.dfs = dfs;
     this.path = path;
+    this.splitStart = splitStart;
+    this.splitLength = splitLength;
   }
 
   @Override
@@ -166,27 +176,31 @@ public class ArrowRecordReader extends AbstractRecordReader {
     // no-op as this allocates buffers based on the size of the buffers in file.
   }
 
+  /**
+   * Whether the batch is read by this reader, when it has records and starts in the split.
+   */
+  private boolean isReadBatch(ArrowRecordBatchSummary batchSummary) {
+    // If the batch has no records, go to the next non-zero record batch. Returning a zero record batch to ScanBatch
+    // ends up closing the RecordReader as it assumes there are no more records in the reader.
+    return batchSummary.getRecordCount() != 0
+      && batchSummary.getOffset() >= splitStart
+      && batchSummary.getOffset() - splitStart < splitLength;
+  }
+
   @Override
   public int next() {
+    while (nextBatchIndex < footer.getBatchCount() && !isReadBatch(footer.getBatch(nextBatchIndex))) {
+      nextBatchIndex++;
+    }
+
     if (nextBatchIndex >= footer.getBatchCount()) {
+      // no more batches in the split
       return 0;
     }
 
     try {
       // Get the next batch info and seek to the location where the batch starts
-      ArrowRecordBatchSummary batchSummary = footer.getBatch(nextBatchIndex);
-
-      while (batchSummary.getRecordCount() == 0) {
-        // If the batch has no records, go to the next non-zero record batch. Returning a zero record batch to ScanBatch
-        // ends up closing the RecordReader as it assumes there are no more records in the reader.
-        if (nextBatchIndex == footer.getBatchCount()) {
-          // no more batches in the file
-          return 0;
-        }
-
-        batchSummary = footer.getBatch(++nextBatchIndex);
-      }
-
+      final ArrowRecordBatchSummary batchSummary = footer.getBatch(nextBatchIndex);
       inputStream.setPosition(batchSummary.getOffset());
 
       // Read the RecordBatchDef
@@ -22,6 +22,7 @@ import java.util.Objects;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.expression.SchemaPath;
 import com.dremio.common.logical.FormatPluginConfig;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.proto.UserBitShared.CoreOperatorType;
 import com.dremio.exec.server.SabotContext;
 import com.dremio.exec.store.EasyCoercionReader;
@@ -54,9 +55,21 @@ public class JSONFormatPlugin extends EasyFormatPlugin<JSONFormatConfig> {
     super(name, context, formatPluginConfig, true, false, false, IS_COMPRESSIBLE, formatPluginConfig.getExtensions(), DEFAULT_NAME, fsPlugin);
   }
 
+  /**
+   * Json files are only split at newlines when enabled, as records written over several lines can't be split.
+   *
+   * This is only checked when the splits of a dataset are built: they are kept with its metadata, and readers
+   * always read their own split, whatever the option is when querying, so that no record is read twice.
+   */
+  @Override
+  public boolean isBlockSplittable() {
+    return getContext().getOptionManager().getOption(ExecConstants.JSON_READER_NDJSON_SPLITS);
+  }
+
   @Override
   public RecordReader getRecordReader(OperatorContext context, FileSystem dfs, EasyDatasetSplitXAttr splitAttributes, List<SchemaPath> columns) throws ExecutionSetupException {
-    return new JSONRecordReader(context, splitAttributes.getPath(), getFsPlugin().getCompressionCodecFactory(), dfs, columns);
+    return new JSONRecordReader(context, splitAttributes.getPath(), getFsPlugin().getCompressionCodecFactory(), dfs,
+      columns, splitAttributes.getStart(), splitAttributes.getLength());
   }
 
   @Override
@@ -15,8 +15,10 @@
  */
 package com.dremio.exec.store.easy.json;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
 import java.util.List;
 
 import org.apache.arrow.memory.OutOfMemoryException;
@@ -42,6 +44,7 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
 
 public class JSONRecordReader extends AbstractRecordReader {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(JSONRecordReader.class);
@@ -56,9 +59,14 @@ public class JSONRecordReader extends AbstractRecordReader {
 
   private final CompressionCodecFactory codecFactory;
   private final FileSystem fileSystem;
+  // split of the file to read, the whole file by default
+  private final long splitStart;
+  private final long splitLength;
 
   private VectorContainerWriter writer;
   private JsonProcessor jsonReader;
+  // set when the top level fields found by sampling are written directly into their vectors
+  private JsonReader topLevelVectorsReader;
   private int recordCount;
   private long runningRecordCount = 0;
 
@@ -79,7 +87,29 @@ public class JSONRecordReader extends AbstractRecordReader {
       final CompressionCodecFactory codecFactory,
       final FileSystem fileSystem,
       final List<SchemaPath> columns) throws OutOfMemoryException {
-    this(context, inputPath, null, codecFactory, fileSystem, columns);
+    this(context, inputPath, null, codecFactory, fileSystem, columns, 0, Long.MAX_VALUE);
+  }
+
+  /**
+   * Create a JSON Record Reader that reads the records starting in a split of a newline delimited file.
+   * @param context
+   * @param inputPath
+   * @param codecFactory
+   * @param fileSystem
+   * @param columns  pathnames of columns/subfields to read
+   * @param splitStart offset of the split in the file
+   * @param splitLength length of the split
+   * @throws OutOfMemoryException
+   */
+  public JSONRecordReader(
+      final OperatorContext context,
+      final String inputPath,
+      final CompressionCodecFactory codecFactory,
+      final FileSystem fileSystem,
+      final List<SchemaPath> columns,
+      final long splitStart,
+      final long splitLength) throws OutOfMemoryException {
+    this(context, inputPath, null, codecFactory, fileSystem, columns, splitStart, splitLength);
   }
 
   @Override
@@ -99,7 +129,7 @@ public class JSONRecordReader extends AbstractRecordReader {
   public JSONRecordReader(final OperatorContext context, final JsonNode embeddedContent,
       final CompressionCodecFactory codecFactory, final FileSystem fileSystem, final List<SchemaPath> columns)
       throws OutOfMemoryException {
-    this(context, null, embeddedContent, codecFactory, fileSystem, columns);
+    this(context, null, embeddedContent, codecFactory, fileSystem, columns, 0, Long.MAX_VALUE);
   }
 
   private JSONRecordReader(final OperatorContext operatorContext,
@@ -107,7 +137,9 @@ public class JSONRecordReader extends AbstractRecordReader {
                            final JsonNode embeddedContent,
                            final CompressionCodecFactory codecFactory,
                            final FileSystem fileSystem,
-                           final List<SchemaPath> columns) {
+                           final List<SchemaPath> columns,
+                           final long splitStart,
+                           final long splitLength) {
     super(operatorContext, columns);
 
     Preconditions.checkArgument(
@@ -127,6 +159,8 @@ public class JSONRecordReader extends AbstractRecordReader {
     this.codecFactory = codecFactory;
     this.fileSystem = fileSystem;
     this.context = operatorContext;
+    this.splitStart = splitStart;
+    this.splitLength = splitLength;
 
     // only enable all text mode if we aren't using embedded content mode.
     final OptionManager options = operatorContext.getOptions();
@@ -134,6 +168,10 @@ public class JSONRecordReader extends AbstractRecordReader {
     this.readNumbersAsDouble = embeddedContent == null && options.getOption(ExecConstants.JSON_READ_NUMBERS_AS_DOUBLE_VALIDATOR);
   }
 
+  private boolean isSplit() {
+    return splitStart != 0 || splitLength != Long.MAX_VALUE;
+  }
+
   public void resetSpecialSchemaOptions() {
     this.enableAllTextMode = false;
     this.readNumbersAsDouble = false;
@@ -151,7 +189,11 @@ public class JSONRecordReader extends AbstractRecordReader {
   public void setup(final OutputMutator output) throws ExecutionSetupException {
     try{
       if (fsPath != null) {
-        this.stream = FileSystemUtils.openPossiblyCompressedStream(codecFactory, fileSystem, fsPath);
+        if (isSplit() && codecFactory.getCodec(fsPath) == null) {
+          this.stream = NewlineSplitInputStream.open(fileSystem.open(fsPath), splitStart, splitLength);
+        } else {
+          this.stream = FileSystemUtils.openPossiblyCompressedStream(codecFactory, fileSystem, fsPath);
+        }
       }
 
       this.writer = new VectorContainerWriter(output);
@@ -161,8 +203,13 @@ public class JSONRecordReader extends AbstractRecordReader {
       } else {
         final int sizeLimit = Math.toIntExact(this.context.getOptions().getOption(ExecConstants.LIMIT_FIELD_SIZE_BYTES));
         final int maxLeafLimit = Math.toIntExact(this.context.getOptions().getOption(CatalogOptions.METADATA_LEAF_COLUMN_MAX));
-        this.jsonReader = new JsonReader(
+        final JsonReader reader = new JsonReader(
           context.getManagedBuffer(), ImmutableList.copyOf(getColumns()), sizeLimit, maxLeafLimit, enableAllTextMode, true, readNumbersAsDouble);
+        this.jsonReader = reader;
+        if (fsPath != null && sampleSchema(sizeLimit, maxLeafLimit) && !enableAllTextMode) {
+          reader.setTopLevelVectors(output.getVectors());
+          this.topLevelVectorsReader = reader;
+        }
       }
       setupParser();
     } catch(final Exception e) {
@@ -174,6 +221,48 @@ public class JSONRecordReader extends AbstractRecordReader {
     }
   }
 
+  /**
+   * Reads the records at the start of the file before the first batch, so that all the fields of these records are
+   * part of the schema at setup. Otherwise each batch bringing a new field fails the query with a schema change,
+   * and learning the schema of a heterogeneous file takes as many attempts.
+   * @return true if at least one record was sampled
+   */
+  private boolean sampleSchema(int sizeLimit, int maxLeafLimit) throws IOException {
+    final int sampleBytes = Math.toIntExact(context.getOptions().getOption(ExecConstants.JSON_READER_SCHEMA_SAMPLE_BYTES));
+    if (sampleBytes == 0) {
+      return false;
+    }
+
+    final byte[] sample = new byte[sampleBytes];
+    final int length = ByteStreams.read(stream, sample, 0, sampleBytes);
+    // the sampled records are read again from the start of the file
+    stream = new SequenceInputStream(new ByteArrayInputStream(sample, 0, length), stream);
+
+    final JsonReader sampleReader = new JsonReader(
+      context.getManagedBuffer(), ImmutableList.copyOf(getColumns()), sizeLimit, maxLeafLimit, enableAllTextMode, true, readNumbersAsDouble);
+    sampleReader.setSource(new ByteArrayInputStream(sample, 0, length));
+    int sampledRecords = 0;
+    try {
+      while (true) {
+        if (sampledRecords % numRowsPerBatch == 0) {
+          // only the fields are kept, the sampled values are dropped
+          writer.allocate();
+          writer.reset();
+        }
+        writer.setPosition(sampledRecords % numRowsPerBatch);
+        if (sampleReader.write(writer) != ReadState.WRITE_SUCCEED) {
+          break;
+        }
+        sampledRecords++;
+      }
+    } catch (IOException | UserException e) {
+      // most likely the sample ends in the middle of a record, any other error is raised when the file is read
+      logger.debug("Stopped sampling schema of {} after {} records", fsPath, sampledRecords, e);
+    }
+    writer.setValueCount(0);
+    return sampledRecords > 0;
+  }
+
   private void setupParser() throws IOException {
     if(fsPath != null){
       jsonReader.setSource(stream);
@@ -223,6 +312,9 @@ public class JSONRecordReader extends AbstractRecordReader {
     try{
       outside: while(recordCount < numRowsPerBatch) {
         writer.setPosition(recordCount);
+        if (topLevelVectorsReader != null) {
+          topLevelVectorsReader.setPosition(recordCount);
+        }
         write = jsonReader.write(writer);
 
         if(write == ReadState.WRITE_SUCCEED) {
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.dremio.io.FSInputStream;
+
+/**
+ * Stream of the lines of a file starting in a split of the file, so that the records of a newline delimited file are
+ * read by several readers. A split starting in the middle of a line skips it, and the last line starting in the split
+ * is read up to its end, past the end of the split.
+ */
+final class NewlineSplitInputStream extends InputStream {
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final InputStream in;
+  private final long end;
+  private long position;
+  private boolean done;
+
+  private NewlineSplitInputStream(InputStream in, long position, long end) {
+    this.in = in;
+    this.position = position;
+    this.end = end;
+  }
+
+  /**
+   * Opens the lines starting in a split of a file.
+   *
+   * @param stream stream of the file, closed with the returned stream
+   * @param start  offset of the split in the file
+   * @param length length of the split
+   */
+  static NewlineSplitInputStream open(FSInputStream stream, long start, long length) throws IOException {
+    final long end = length > Long.MAX_VALUE - start ? Long.MAX_VALUE : start + length;
+    if (start == 0) {
+      return new NewlineSplitInputStream(new BufferedInputStream(stream, BUFFER_SIZE), 0, end);
+    }
+
+    // the line before the split ends at the first newline from the last byte before the split
+    stream.setPosition(start - 1);
+    final NewlineSplitInputStream split = new NewlineSplitInputStream(new BufferedInputStream(stream, BUFFER_SIZE), start - 1, end);
+    split.skipLine();
+    return split;
+  }
+
+  private void skipLine() throws IOException {
+    int b;
+    do {
+      b = in.read();
+      if (b == -1) {
+        done = true;
+        return;
+      }
+      position++;
+    } while (b != '\n');
+    // a line starting at the end of the split belongs to the next split
+    done = position >= end;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (done) {
+      return -1;
+    }
+    final int b = in.read();
+    if (b == -1) {
+      done = true;
+      return -1;
+    }
+    position++;
+    if (b == '\n' && position >= end) {
+      done = true;
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (done) {
+      return -1;
+    }
+    if (len == 0) {
+      return 0;
+    }
+
+    // the bytes before the last byte of the split can't end the last line
+    final long beforeEnd = end - 1 - position;
+    if (beforeEnd > 0) {
+      final int read = in.read(b, off, (int) Math.min(len, beforeEnd));
+      if (read == -1) {
+        done = true;
+        return -1;
+      }
+      position += read;
+      return read;
+    }
+
+    int count = 0;
+    while (count < len) {
+      final int c = read();
+      if (c == -1) {
+        break;
+      }
+      b[off + count++] = (byte) c;
+      if (done) {
+        break;
+      }
+    }
+    return count == 0 ? -1 : count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
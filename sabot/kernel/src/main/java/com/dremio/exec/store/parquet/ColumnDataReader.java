@@ -58,6 +58,10 @@ public class ColumnDataReader {
     target.writerIndex(pageLength);
   }
 
+  public void skipPage(int pageLength) throws IOException {
+    input.seek(input.getPos() + pageLength);
+  }
+
   public void clear(){
     try{
       input.close();
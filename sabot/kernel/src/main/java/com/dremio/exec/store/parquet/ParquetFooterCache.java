@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+
+import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.ExecConstants;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+/**
+ * Node wide cache of parsed parquet footers, shared by all the fragments reading the same files.
+ *
+ * Entries are keyed by the path, length and modification time of the file, so a rewritten file is never served a
+ * stale footer, and the cache is bounded by the estimated heap size of the parsed footers. Readers prune the row
+ * groups of the footer they are handed in place, so every lookup returns its own copy of the row group list.
+ */
+public class ParquetFooterCache {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetFooterCache.class);
+
+  // rough heap footprint of the parsed footer objects, excluding min/max statistics values
+  private static final int FOOTER_OVERHEAD = 1024;
+  private static final int SCHEMA_COLUMN_SIZE = 256;
+  private static final int BLOCK_SIZE = 128;
+  private static final int COLUMN_CHUNK_SIZE = 320;
+
+  private final long maxSize;
+  private final Cache<FooterKey, CachedFooter> cache;
+  private final AtomicLong size = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  /**
+   * Reads a footer from the file on a cache miss.
+   */
+  public interface FooterLoader {
+    ParquetMetadata load() throws IOException;
+  }
+
+  /**
+   * @param config node config, holding the cache size as {@link ExecConstants#PARQUET_FOOTER_CACHE_SIZE_CONFIG}
+   */
+  public ParquetFooterCache(SabotConfig config) {
+    this(config.hasPath(ExecConstants.PARQUET_FOOTER_CACHE_SIZE_CONFIG) ?
+      config.getBytes(ExecConstants.PARQUET_FOOTER_CACHE_SIZE_CONFIG) : 0);
+    logger.debug("Caching up to {} bytes of parquet footers", maxSize);
+  }
+
+  @VisibleForTesting
+  ParquetFooterCache(long maxSize) {
+    this.maxSize = maxSize;
+    this.cache = CacheBuilder.newBuilder()
+      .maximumWeight(Math.max(maxSize, 0))
+      .weigher((FooterKey key, CachedFooter value) -> value.size)
+      .removalListener(notification -> {
+        size.addAndGet(-notification.getValue().size);
+        if (notification.wasEvicted()) {
+          evictionCount.incrementAndGet();
+        }
+      })
+      .recordStats()
+      .build();
+  }
+
+  /**
+   * Returns the footer of the given file, loading it if it is not cached. The file is not cached if its length or
+   * modification time is unknown.
+   *
+   * @param path file path
+   * @param fileLength file length, -1 if unknown
+   * @param mTime file modification time, 0 or less if unknown
+   * @param loader reads the footer from the file
+   * @return footer whose row group list can be modified by the caller
+   */
+  public ParquetMetadata getFooter(String path, long fileLength, long mTime, FooterLoader loader) throws IOException {
+    if (maxSize <= 0 || fileLength < 0 || mTime <= 0) {
+      return loader.load();
+    }
+
+    final CachedFooter cached;
+    try {
+      cached = cache.get(new FooterKey(path, fileLength, mTime), () -> {
+        final ParquetMetadata footer = loader.load();
+        final CachedFooter value = new CachedFooter(footer, estimateSize(footer));
+        size.addAndGet(value.size);
+        return value;
+      });
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IOException("Failed to read parquet footer for file " + path, e.getCause());
+    }
+    return new ParquetMetadata(cached.footer.getFileMetaData(), new ArrayList<>(cached.footer.getBlocks()));
+  }
+
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  public long getEntryCount() {
+    return cache.size();
+  }
+
+  public long getSize() {
+    return size.get();
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  @VisibleForTesting
+  void invalidateAll() {
+    cache.invalidateAll();
+    cache.cleanUp();
+  }
+
+  @VisibleForTesting
+  static int estimateSize(ParquetMetadata footer) {
+    long estimate = FOOTER_OVERHEAD;
+    estimate += (long) footer.getFileMetaData().getSchema().getColumns().size() * SCHEMA_COLUMN_SIZE;
+    for (Map.Entry<String, String> entry : footer.getFileMetaData().getKeyValueMetaData().entrySet()) {
+      estimate += 2L * (entry.getKey().length() + entry.getValue().length());
+    }
+    for (BlockMetaData block : footer.getBlocks()) {
+      estimate += BLOCK_SIZE;
+      for (ColumnChunkMetaData column : block.getColumns()) {
+        estimate += COLUMN_CHUNK_SIZE;
+        final Statistics<?> statistics = column.getStatistics();
+        if (statistics != null && statistics.hasNonNullValue()) {
+          estimate += statistics.getMinBytes().length + statistics.getMaxBytes().length;
+        }
+      }
+    }
+    return (int) Math.min(estimate, Integer.MAX_VALUE);
+  }
+
+  private static final class CachedFooter {
+    private final ParquetMetadata footer;
+    private final int size;
+
+    private CachedFooter(ParquetMetadata footer, int size) {
+      this.footer = footer;
+      this.size = size;
+    }
+  }
+
+  private static final class FooterKey {
+    private final String path;
+    private final long fileLength;
+    private final long mTime;
+
+    private FooterKey(String path, long fileLength, long mTime) {
+      this.path = path;
+      this.fileLength = fileLength;
+      this.mTime = mTime;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final FooterKey that = (FooterKey) o;
+      return fileLength == that.fileLength && mTime == that.mTime && path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, fileLength, mTime);
+    }
+  }
+}
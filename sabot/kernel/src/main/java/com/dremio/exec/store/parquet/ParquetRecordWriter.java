@@ -28,9 +28,19 @@ import static org.apache.parquet.hadoop.ParquetWriter.MAX_PADDING_SIZE_DEFAULT;
 import static org.apache.parquet.schema.Type.Repetition.OPTIONAL;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.Nullable;
 
@@ -94,6 +104,7 @@ import com.dremio.exec.planner.physical.WriterPrel;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.exec.proto.UserBitShared;
 import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.server.SabotContext;
 import com.dremio.exec.store.EventBasedRecordWriter;
 import com.dremio.exec.store.EventBasedRecordWriter.FieldConverter;
 import com.dremio.exec.store.ParquetOutputRecordWriter;
@@ -113,6 +124,8 @@ import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.store.iceberg.proto.IcebergProtobuf;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.protobuf.InvalidProtocolBufferException;
@@ -133,6 +146,10 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     MAX_IO_WRITE_TIME, // Maximum IO write time
     AVG_IO_WRITE_TIME, // Avg IO write time
     NUM_IO_WRITE,      // Total Number of IO writes
+    COMPRESS_TIME_NANOS, // Time spent compressing pages
+    ENCODE_TIME_NANOS, // Time spent encoding the last pages of closed files
+    UPLOAD_TIME_NANOS, // Time spent writing the column chunks and footer of closed files
+    FLUSH_WAIT_TIME_NANOS, // Time spent waiting for the background writes of closed files
     ;
 
     @Override
@@ -163,6 +180,7 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   private boolean enableDictionaryForBinary = false;
   private CompressionCodecName codec = CompressionCodecName.SNAPPY;
   private WriterVersion writerVersion = WriterVersion.PARQUET_1_0;
+  // one codec factory per file, as the compressors of a file being flushed are used from the flush pool
   private CompressionCodecFactory codecFactory;
   private FileSystem fs;
   private Path path;
@@ -197,6 +215,17 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   private final int parquetFileWriteTimeThresholdMilliSecs;
   private final double parquetFileWriteIoRateThresholdMbps;
 
+  // pool of the node writing the closed files in the background, null if the files are written by the writer
+  private final ExecutorService flushPool;
+  private final int maxPendingFlushes;
+  // closed files being written by the flush pool, in the order they were closed
+  private final Deque<FileFlush> pendingFlushes = new ArrayDeque<>();
+  // updated from the flush pool
+  private final AtomicLong compressNanos = new AtomicLong();
+  private final AtomicLong encodeNanos = new AtomicLong();
+  private final AtomicLong uploadNanos = new AtomicLong();
+  private long flushWaitNanos;
+
   // metrics workspace variables
   int numFilesWritten = 0;
   long minFileSize = Long.MAX_VALUE;
@@ -209,8 +238,6 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     this.context = context;
     this.codecAllocator = context.getAllocator().newChildAllocator("ParquetCodecFactory", 0, Long.MAX_VALUE);
     this.columnEncoderAllocator = context.getAllocator().newChildAllocator("ParquetColEncoder", 0, Long.MAX_VALUE);
-    this.codecFactory = CodecFactory.createDirectCodecFactory(new Configuration(),
-        new ParquetDirectByteBufferAllocator(codecAllocator), pageSize);
     this.extraMetaData.put(DREMIO_VERSION_PROPERTY, DremioVersionInfo.getVersion());
     this.extraMetaData.put(IS_DATE_CORRECT_PROPERTY, "true");
 
@@ -263,6 +290,10 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     minRecordsForFlush = context.getOptions().getOption(ExecConstants.PARQUET_MIN_RECORDS_FOR_FLUSH_VALIDATOR);
     parquetFileWriteTimeThresholdMilliSecs = (int)context.getOptions().getOption(ExecConstants.PARQUET_WRITE_TIME_THRESHOLD_MILLI_SECS_VALIDATOR);
     parquetFileWriteIoRateThresholdMbps = context.getOptions().getOption(ExecConstants.PARQUET_WRITE_IO_RATE_THRESHOLD_MBPS_VALIDATOR);
+    final SabotContext sabotContext = writer.getFormatPlugin().getContext();
+    flushPool = sabotContext == null ? null : sabotContext.getParquetWriterFlushPool();
+    maxPendingFlushes = flushPool == null ? 0
+      : (int) context.getOptions().getOption(ExecConstants.PARQUET_WRITER_MAX_PENDING_FLUSHES_VALIDATOR);
   }
 
   @Override
@@ -367,8 +398,11 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
       .withEnableDictionarForBinaryType(enableDictionaryForBinary)
       .withPageRowCountLimit(Integer.MAX_VALUE) // Bug 16118
       .build();
+    releaseCodecFactory(codecFactory);
+    codecFactory = CodecFactory.createDirectCodecFactory(new Configuration(),
+        new ParquetDirectByteBufferAllocator(codecAllocator), pageSize);
     pageStore = ColumnChunkPageWriteStoreExposer.newColumnChunkPageWriteStore(
-        toDeprecatedBytesCompressor(codecFactory.getCompressor(codec)), schema, parquetProperties);
+        toDeprecatedBytesCompressor(codecFactory.getCompressor(codec), compressNanos), schema, parquetProperties);
     store = new ColumnWriteStoreV1(pageStore, parquetProperties);
     MessageColumnIO columnIO = new ColumnIOFactory(false).getColumnIO(this.schema);
     consumer = columnIO.getRecordWriter(store);
@@ -398,11 +432,16 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
   }
 
   @SuppressWarnings("deprecation")
-  private static BytesCompressor toDeprecatedBytesCompressor(final BytesInputCompressor compressor) {
+  private static BytesCompressor toDeprecatedBytesCompressor(final BytesInputCompressor compressor, final AtomicLong compressNanos) {
     return new BytesCompressor() {
       @Override
       public BytesInput compress(BytesInput bytes) throws IOException {
-        return compressor.compress(bytes);
+        final long start = System.nanoTime();
+        try {
+          return compressor.compress(bytes);
+        } finally {
+          compressNanos.addAndGet(System.nanoTime() - start);
+        }
       }
 
       @Override
@@ -587,42 +626,150 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     }
 
     if (recordCount > 0) {
+      // the file is written by the flush pool, which now owns its store, page store and codec factory
+      final byte[] metadata = this.trackingConverter == null ? null : trackingConverter.getMetadata();
+      final FileFlush flush = new FileFlush(parquetFileWriter, store, pageStore, consumer, codecFactory, path, partition,
+        recordCount, store.getBufferedSize(), metadata, new HashMap<>(extraMetaData));
+      parquetFileWriter = null;
+      store = null;
+      pageStore = null;
+      codecFactory = null;
+      recordCount = 0;
+
+      if (maxPendingFlushes == 0) {
+        final FutureTask<Void> task = new FutureTask<>(flush);
+        flush.future = task;
+        pendingFlushes.add(flush);
+        task.run();
+      } else {
+        flush.future = flushPool.submit(flush);
+        pendingFlushes.add(flush);
+      }
+      completeFlushes(maxPendingFlushes);
+    }
+
+    if(store != null){
+      store.close();
+    }
+    releaseCodecFactory(codecFactory);
+
+    store = null;
+    pageStore = null;
+    codecFactory = null;
+    index++;
+  }
+
+  /**
+   * Reports the closed files written by the flush pool, waiting for the oldest ones while more than the given number
+   * of files are still being written.
+   */
+  private void completeFlushes(int maxPending) throws IOException {
+    while (!pendingFlushes.isEmpty()) {
+      final FileFlush flush = pendingFlushes.peek();
+      if (pendingFlushes.size() <= maxPending && !flush.future.isDone()) {
+        break;
+      }
+
+      pendingFlushes.poll();
+      final Stopwatch stopwatch = Stopwatch.createStarted();
+      try {
+        flush.future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        flush.abort();
+        throw new IOException("Interrupted while writing file " + flush.path, e);
+      } catch (ExecutionException e) {
+        flush.abort();
+        Throwables.propagateIfPossible(e.getCause(), IOException.class);
+        throw new IOException("Failure while writing file " + flush.path, e.getCause());
+      } finally {
+        flushWaitNanos += stopwatch.elapsed(TimeUnit.NANOSECONDS);
+      }
+
+      final long fileSize = flush.fileWriter.getPos();
+      listener.recordsWritten(flush.recordCount, fileSize, flush.path.toString(), flush.metadata /** TODO: add parquet footer **/,
+        flush.partition.getBucketNumber(), getIcebergMetaData(flush), null, null);
+      updateStats(flush.memSize, flush.recordCount);
+    }
+  }
+
+  private static void releaseCodecFactory(CompressionCodecFactory codecFactory) {
+    if (codecFactory != null) {
+      codecFactory.release();
+    }
+  }
+
+  /**
+   * A closed file, whose last pages, column chunks and footer are written by the flush pool while the writer encodes
+   * the records of the next file.
+   */
+  private final class FileFlush implements Callable<Void> {
+    private final ParquetFileWriter fileWriter;
+    private final ColumnWriteStore store;
+    private final PageWriteStore pageStore;
+    private final RecordConsumer consumer;
+    private final CompressionCodecFactory codecFactory;
+    private final Path path;
+    private final WritePartition partition;
+    private final long recordCount;
+    private final long memSize;
+    private final byte[] metadata;
+    private final Map<String, String> extraMetaData;
+    // set by the first of the flush pool, to write the file, and of the writer, to abort it
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private Future<?> future;
+
+    private FileFlush(ParquetFileWriter fileWriter, ColumnWriteStore store, PageWriteStore pageStore,
+                      RecordConsumer consumer, CompressionCodecFactory codecFactory, Path path, WritePartition partition,
+                      long recordCount, long memSize, byte[] metadata, Map<String, String> extraMetaData) {
+      this.fileWriter = fileWriter;
+      this.store = store;
+      this.pageStore = pageStore;
+      this.consumer = consumer;
+      this.codecFactory = codecFactory;
+      this.path = path;
+      this.partition = partition;
+      this.recordCount = recordCount;
+      this.memSize = memSize;
+      this.metadata = metadata;
+      this.extraMetaData = extraMetaData;
+    }
+
+    @Override
+    public Void call() throws Exception {
+      if (!claimed.compareAndSet(false, true)) {
+        // aborted before it started
+        return null;
+      }
       long writeFileStartTimeMillis = System.currentTimeMillis();
-      long memSize = store.getBufferedSize();
-      parquetFileWriter.startBlock(recordCount);
+      final Stopwatch stopwatch = Stopwatch.createStarted();
+      fileWriter.startBlock(recordCount);
       consumer.flush();
       store.flush();
-      ColumnChunkPageWriteStoreExposer.flushPageStore(pageStore, parquetFileWriter);
-      parquetFileWriter.endBlock();
-      long recordsWritten = recordCount;
+      encodeNanos.addAndGet(stopwatch.elapsed(TimeUnit.NANOSECONDS));
+
+      stopwatch.reset().start();
+      ColumnChunkPageWriteStoreExposer.flushPageStore(pageStore, fileWriter);
+      fileWriter.endBlock();
 
       long footerWriteAndFlushStartTimeMillis = System.currentTimeMillis();
       // we are writing one single block per file
-      parquetFileWriter.end(extraMetaData);
+      fileWriter.end(extraMetaData);
+      uploadNanos.addAndGet(stopwatch.elapsed(TimeUnit.NANOSECONDS));
 
       long writeFileEndTimeMillis = System.currentTimeMillis();
+      logSlowIoWrite(writeFileStartTimeMillis, footerWriteAndFlushStartTimeMillis, writeFileEndTimeMillis,
+        fileWriter.getPos(), recordCount, path);
 
-      logSlowIoWrite(writeFileStartTimeMillis, footerWriteAndFlushStartTimeMillis,  writeFileEndTimeMillis,
-        parquetFileWriter.getPos(), recordsWritten, path);
-
-      byte[] metadata = this.trackingConverter == null ? null : trackingConverter.getMetadata();
-      final long fileSize = parquetFileWriter.getPos();
-      listener.recordsWritten(recordsWritten, fileSize, path.toString(), metadata /** TODO: add parquet footer **/,
-        partition.getBucketNumber(), getIcebergMetaData(), null, null);
-      parquetFileWriter = null;
-
-      updateStats(memSize, recordCount);
-
-      recordCount = 0;
-    }
-
-    if(store != null){
       store.close();
+      releaseCodecFactory(codecFactory);
+      return null;
     }
 
-    store = null;
-    pageStore = null;
-    index++;
+    private void abort() {
+      NoExceptionAutoCloseables.close(store, pageStore, fileWriter);
+      releaseCodecFactory(codecFactory);
+    }
   }
 
   private void logSlowIoWrite(long writeFileStartTimeMillis, long footerWriteAndFlushStartTimeMillis,
@@ -643,29 +790,29 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     }
   }
 
-  private byte[] getIcebergMetaData() throws IOException {
+  private byte[] getIcebergMetaData(FileFlush flush) throws IOException {
     if (!this.isIcebergWriter) {
       return null;
     }
 
-    final long fileSize = parquetFileWriter.getPos();
-    String datafileLocation = IcebergUtils.getValidIcebergPath(DremioHadoopUtils.toHadoopPath(path),
+    final long fileSize = flush.fileWriter.getPos();
+    String datafileLocation = IcebergUtils.getValidIcebergPath(DremioHadoopUtils.toHadoopPath(flush.path),
       plugin.getFsConfCopy(),
       fs.getScheme());
     DataFiles.Builder dataFileBuilder =
       DataFiles.builder(IcebergUtils.getIcebergPartitionSpec(this.batchSchema, this.partitionColumns, this.icebergSchema))
         .withPath(datafileLocation)
         .withFileSizeInBytes(fileSize)
-        .withRecordCount(recordCount)
+        .withRecordCount(flush.recordCount)
         .withFormat(FileFormat.PARQUET);
 
     // add partition info
     if (partitionColumns != null) {
-      dataFileBuilder = dataFileBuilder.withPartition(partition.getIcebergPartitionData());
+      dataFileBuilder = dataFileBuilder.withPartition(flush.partition.getIcebergPartitionData());
     }
 
     // add column level metrics
-    Metrics metrics = ParquetToIcebergStatsConvertor.toMetrics(context, parquetFileWriter.getFooter(), icebergSchema);
+    Metrics metrics = ParquetToIcebergStatsConvertor.toMetrics(context, flush.fileWriter.getFooter(), icebergSchema);
     dataFileBuilder = dataFileBuilder.withMetrics(metrics);
     IcebergMetadataInformation icebergMetadata = new IcebergMetadataInformation(
       IcebergSerDe.serializeDataFile(dataFileBuilder.build()),
@@ -839,6 +986,10 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
 
   private void checkBlockSizeReached() throws IOException {
     if (recordCount >= recordCountForNextMemCheck && recordCount >= minRecordsForFlush) { // checking the memory size is relatively expensive, so let's not do it for every record.
+      if (context.getAllocator().getHeadroom() < memoryThreshold && !pendingFlushes.isEmpty()) {
+        // the files being written in the background hold memory too, wait for them before closing this file early
+        completeFlushes(0);
+      }
       long memSize = store.getBufferedSize();
       if (context.getAllocator().getHeadroom() < memoryThreshold || memSize >= blockSize) {
         logger.debug("Reached block size " + blockSize);
@@ -1045,12 +1196,23 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     stats.setLongStat(Metric.AVG_FILE_SIZE, avgFileSize);
     stats.setLongStat(Metric.MIN_RECORD_COUNT_IN_FILE, minRecordCountInFile);
     stats.setLongStat(Metric.MAX_RECORD_COUNT_IN_FILE, maxRecordCountInFile);
+    updateFlushStats();
+  }
+
+  private void updateFlushStats() {
+    final OperatorStats stats = context.getStats();
+    stats.setLongStat(Metric.COMPRESS_TIME_NANOS, compressNanos.get());
+    stats.setLongStat(Metric.ENCODE_TIME_NANOS, encodeNanos.get());
+    stats.setLongStat(Metric.UPLOAD_TIME_NANOS, uploadNanos.get());
+    stats.setLongStat(Metric.FLUSH_WAIT_TIME_NANOS, flushWaitNanos);
   }
 
   @Override
   public void close() throws Exception {
     try {
       flushAndClose();
+      completeFlushes(0);
+      updateFlushStats();
       OperatorStats operatorStats = context.getStats();
       OperatorStats.IOStats ioStats = operatorStats.getWriteIOStats();
 
@@ -1068,12 +1230,13 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
       }
     } finally {
       try {
+        abortFlushes();
         NoExceptionAutoCloseables.close(store, pageStore, parquetFileWriter);
       } finally {
         AutoCloseables.close(new AutoCloseable() {
             @Override
             public void close() throws Exception {
-              codecFactory.release();
+              releaseCodecFactory(codecFactory);
             }
           },
           codecAllocator, columnEncoderAllocator);
@@ -1081,6 +1244,29 @@ public class ParquetRecordWriter extends ParquetOutputRecordWriter {
     }
   }
 
+  /**
+   * Cancels the files not written yet after a failure, waits for the files being written, and releases them.
+   */
+  private void abortFlushes() {
+    FileFlush flush;
+    while ((flush = pendingFlushes.poll()) != null) {
+      if (flush.claimed.compareAndSet(false, true)) {
+        // not started, the flush pool won't write it
+        flush.future.cancel(true);
+        flush.abort();
+        continue;
+      }
+      try {
+        flush.future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        logger.debug("Failure while writing file {}", flush.path, e.getCause());
+      }
+      flush.abort();
+    }
+  }
+
   @Override
   public FieldConverter getNewNullConverter(int fieldId, String fieldName, FieldReader reader) {
     return new NullParquetConverter(fieldId, fieldName, reader);
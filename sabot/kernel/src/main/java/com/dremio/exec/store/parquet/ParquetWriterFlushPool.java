@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.dremio.common.concurrent.CloseableExecutorService;
+import com.dremio.common.concurrent.CloseableSchedulerThreadPool;
+import com.dremio.common.concurrent.NamedThreadFactory;
+
+/**
+ * Thread pool of a node, shared by the parquet writers to write their closed files in the background.<br>
+ * <br>
+ * The queue of the pool is bounded: once it is full, the writers write their closed files themselves, so the files
+ * waiting to be written don't pile up when the writers close files faster than the pool writes them.
+ */
+public class ParquetWriterFlushPool extends ThreadPoolExecutor implements CloseableExecutorService {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetWriterFlushPool.class);
+
+  public ParquetWriterFlushPool() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  ParquetWriterFlushPool(int poolSize) {
+    super(poolSize, poolSize, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(2 * poolSize),
+      new NamedThreadFactory("parquet-writer-flush-"), (task, pool) -> {
+        if (pool.isShutdown()) {
+          throw new RejectedExecutionException("Parquet writer flush pool is closed");
+        }
+        task.run();
+      });
+    allowCoreThreadTimeOut(true);
+  }
+
+  @Override
+  public void close() {
+    CloseableSchedulerThreadPool.close(this, logger);
+  }
+}
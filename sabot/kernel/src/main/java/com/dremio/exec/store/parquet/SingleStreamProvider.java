@@ -24,8 +24,10 @@ import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.util.AutoCloseables;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 import org.apache.parquet.io.SeekableInputStream;
 
+import com.dremio.exec.store.parquet.ParquetFooterCache.FooterLoader;
 import com.dremio.io.ArrowBufFSInputStream;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
@@ -40,6 +42,7 @@ public class SingleStreamProvider implements InputStreamProvider {
   private final Path path;
   private final BufferAllocator allocator;
   private final long fileLength;
+  private final long mTime;
   private final long maxFooterLen;
   private final boolean readFullFile;
   private BulkInputStream stream;
@@ -49,9 +52,14 @@ public class SingleStreamProvider implements InputStreamProvider {
   private boolean readColumnOffsetIndices;
 
   public SingleStreamProvider(FileSystem fs, Path path, long fileLength, long maxFooterLen, boolean readFullFile, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndices) {
+    this(fs, path, fileLength, -1, maxFooterLen, readFullFile, footer, context, readColumnOffsetIndices);
+  }
+
+  public SingleStreamProvider(FileSystem fs, Path path, long fileLength, long mTime, long maxFooterLen, boolean readFullFile, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndices) {
     this.fs = fs;
     this.path = path;
     this.fileLength = fileLength;
+    this.mTime = mTime;
     this.maxFooterLen = maxFooterLen;
     this.readFullFile = readFullFile;
     this.footer = footer;
@@ -148,12 +156,20 @@ public class SingleStreamProvider implements InputStreamProvider {
   @Override
   public MutableParquetMetadata getFooter() throws IOException {
     if(footer == null) {
-      SingletonParquetFooterCache footerCache = new SingletonParquetFooterCache();
-      footer = new MutableParquetMetadata(footerCache.getFooter(getStream(null), path.toString(), fileLength, fs, maxFooterLen), path.getName());
+      footer = new MutableParquetMetadata(readFooter(), path.getName());
     }
     return footer;
   }
 
+  private ParquetMetadata readFooter() throws IOException {
+    final FooterLoader loader = () -> new SingletonParquetFooterCache().getFooter(getStream(null), path.toString(), fileLength, fs, maxFooterLen);
+    final ParquetFooterCache footerCache = context == null ? null : context.getParquetFooterCache();
+    if (footerCache == null) {
+      return loader.load();
+    }
+    return footerCache.getFooter(path.toString(), fileLength, mTime, loader);
+  }
+
   @Override
   public boolean isSingleStream() {
     return true;
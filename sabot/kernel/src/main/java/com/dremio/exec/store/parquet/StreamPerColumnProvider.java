@@ -21,8 +21,10 @@ import java.util.List;
 
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 
 import com.dremio.common.AutoCloseables;
+import com.dremio.exec.store.parquet.ParquetFooterCache.FooterLoader;
 import com.dremio.io.FSInputStream;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
@@ -37,6 +39,7 @@ public class StreamPerColumnProvider implements InputStreamProvider {
   private final FileSystem fs;
   private final Path path;
   private final long length;
+  private final long mTime;
   private MutableParquetMetadata footer;
   private final long maxFooterLen;
   private boolean readColumnOffsetIndexes;
@@ -46,9 +49,14 @@ public class StreamPerColumnProvider implements InputStreamProvider {
   private final List<BulkInputStream> streams = new ArrayList<>();
 
   public StreamPerColumnProvider(FileSystem fs, Path path, long length, long maxFooterLen, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndexes) {
+    this(fs, path, length, -1, maxFooterLen, footer, context, readColumnOffsetIndexes);
+  }
+
+  public StreamPerColumnProvider(FileSystem fs, Path path, long length, long mTime, long maxFooterLen, MutableParquetMetadata footer, OperatorContext context, boolean readColumnOffsetIndexes) {
     this.fs = fs;
     this.path = path;
     this.length = length;
+    this.mTime = mTime;
     this.maxFooterLen = maxFooterLen;
     this.footer = footer;
     this.readColumnOffsetIndexes = readColumnOffsetIndexes;
@@ -128,12 +136,20 @@ public class StreamPerColumnProvider implements InputStreamProvider {
   @Override
   public MutableParquetMetadata getFooter() throws IOException {
     if(footer == null) {
-      SingletonParquetFooterCache footerCache = new SingletonParquetFooterCache();
-      footer = new MutableParquetMetadata(footerCache.getFooter(getStream(null), path.toString(), length, fs, maxFooterLen), path.getName());
+      footer = new MutableParquetMetadata(readFooter(), path.getName());
     }
     return footer;
   }
 
+  private ParquetMetadata readFooter() throws IOException {
+    final FooterLoader loader = () -> new SingletonParquetFooterCache().getFooter(getStream(null), path.toString(), length, fs, maxFooterLen);
+    final ParquetFooterCache footerCache = context == null ? null : context.getParquetFooterCache();
+    if (footerCache == null) {
+      return loader.load();
+    }
+    return footerCache.getFooter(path.toString(), length, mTime, loader);
+  }
+
   @Override
   public void close() throws IOException {
     try {
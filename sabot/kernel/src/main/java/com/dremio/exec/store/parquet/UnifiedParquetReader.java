@@ -64,6 +64,7 @@ import com.dremio.exec.store.CompositeColumnFilter;
 import com.dremio.exec.store.RecordReader;
 import com.dremio.exec.store.RuntimeFilter;
 import com.dremio.exec.store.parquet.columnreaders.DeprecatedParquetVectorizedReader;
+import com.dremio.exec.store.parquet.columnreaders.PageFilter;
 import com.dremio.exec.store.parquet2.LogicalListL1Converter;
 import com.dremio.exec.store.parquet2.ParquetRowiseReader;
 import com.dremio.exec.util.ColumnUtils;
@@ -435,9 +436,10 @@ public class UnifiedParquetReader implements RecordReader {
     final Map<String, ColumnChunkMetaData> fieldsWithEncodingsSupportedByVectorizedReader = new HashMap<>();
     final List<Type> nonVectorizableTypes = new ArrayList<>();
     final List<Type> vectorizableTypes = new ArrayList<>();
+    final boolean vectorizedReaderEnabled = context.getOptions().getOption(ExecConstants.PARQUET_VECTORIZED_READER);
 
     for (ColumnChunkMetaData c : block.getColumns()) {
-      if (!readerFactory.isSupported(c)) {
+      if (!vectorizedReaderEnabled || !readerFactory.isSupported(c)) {
         // we'll skip columns we can't read.
          continue;
       }
@@ -790,6 +792,10 @@ public class UnifiedParquetReader implements RecordReader {
     if ((globalDictionaryFieldInfoMap != null && !globalDictionaryFieldInfoMap.isEmpty())) {
       return ExecutionPath.DEPRECATED_VECTORIZED;
     }
+    if (isPrunedByRuntimeFilters()) {
+      context.getStats().addLongStat(Metric.NUM_ROW_GROUPS_PRUNED, 1);
+      return ExecutionPath.SKIP_ALL;
+    }
     if (!vectorize || !determineFilterConditions(nonVectorizableReaderColumns)) {
       return ExecutionPath.ROWWISE;
     }
@@ -800,6 +806,33 @@ public class UnifiedParquetReader implements RecordReader {
     return ExecutionPath.VECTORIZED;
   }
 
+  /**
+   * @return true if the column chunk statistics of the row group prove that no row qualifies a runtime filter on a
+   * non partition column
+   */
+  private boolean isPrunedByRuntimeFilters() {
+    if (!isNonPartitionColFilterPresent()) {
+      return false;
+    }
+    final BlockMetaData block = footer.getBlocks().get(readEntry.getRowGroupIndex());
+    if (block == null) {
+      return false;
+    }
+    for (RuntimeFilter runtimeFilter : runtimeFilters) {
+      for (CompositeColumnFilter columnFilter : runtimeFilter.getNonPartitionColumnFilters()) {
+        if (columnFilter.getValueList() == null || columnFilter.getColumnsList().size() != 1) {
+          continue;
+        }
+        final ColumnChunkMetaData chunk = PageFilter.findColumnChunk(block, columnResolver, columnFilter.getColumnsList().get(0));
+        final PageFilter filter = chunk == null ? null : PageFilter.fromValueList(chunk, columnFilter.getValueList());
+        if (filter != null && !filter.mightMatch(chunk.getStatistics())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   private boolean filterCanContainNull() {
     return CollectionUtils.isEmpty(filterConditions)
             && runtimeFilters
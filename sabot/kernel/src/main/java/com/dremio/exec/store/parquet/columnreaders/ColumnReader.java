@@ -23,10 +23,12 @@ import org.apache.arrow.vector.ValueVector;
 import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.format.SchemaElement;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.io.SeekableInputStream;
 import org.apache.parquet.schema.PrimitiveType;
 import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
 
 import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.exec.store.parquet.InputStreamProvider;
 
 public abstract class ColumnReader<V extends ValueVector> {
   static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ColumnReader.class);
@@ -81,9 +83,7 @@ public abstract class ColumnReader<V extends ValueVector> {
     this.isFixedLength = fixedLength;
     this.schemaElement = schemaElement;
     this.valueVec =  v;
-    this.pageReader = (parentReader.getSingleStream() != null)?
-      new DeprecatedSingleStreamPageReader(this, parentReader.getSingleStream(), parentReader.getFsPath(), columnChunkMetaData) :
-      new PageReader(this, parentReader.getFileSystem(), parentReader.getFsPath(), columnChunkMetaData);
+    this.pageReader = newPageReader(parentReader, columnChunkMetaData);
 
     if (columnDescriptor.getType() != PrimitiveType.PrimitiveTypeName.BINARY) {
       if (columnDescriptor.getType() == PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY) {
@@ -100,6 +100,27 @@ public abstract class ColumnReader<V extends ValueVector> {
     }
   }
 
+  private PageReader newPageReader(DeprecatedParquetVectorizedReader parentReader, ColumnChunkMetaData columnChunkMetaData)
+    throws ExecutionSetupException {
+    final InputStreamProvider inputStreamProvider = parentReader.getInputStreamProvider();
+    if (inputStreamProvider != null) {
+      final SeekableInputStream stream;
+      try {
+        stream = inputStreamProvider.getStream(columnChunkMetaData).asSeekableInputStream();
+      } catch (IOException e) {
+        throw new ExecutionSetupException("Error opening stream for column " + columnChunkMetaData.getPath()
+          + " of parquet file at location: " + parentReader.getFsPath(), e);
+      }
+      // a shared stream is repositioned by every column, so remember the position between reads
+      return inputStreamProvider.isSingleStream() ?
+        new DeprecatedSingleStreamPageReader(this, stream, parentReader.getFsPath(), columnChunkMetaData) :
+        new PageReader(this, stream, parentReader.getFsPath(), columnChunkMetaData);
+    }
+    return (parentReader.getSingleStream() != null)?
+      new DeprecatedSingleStreamPageReader(this, parentReader.getSingleStream(), parentReader.getFsPath(), columnChunkMetaData) :
+      new PageReader(this, parentReader.getFileSystem(), parentReader.getFsPath(), columnChunkMetaData);
+  }
+
   public int getRecordsReadInCurrentPass() {
     return valuesReadInCurrentPass;
   }
@@ -55,9 +55,12 @@ import com.dremio.common.types.TypeProtos.MinorType;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.expr.TypeHelper;
 import com.dremio.exec.planner.physical.visitor.GlobalDictionaryFieldInfo;
+import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.AbstractRecordReader;
 import com.dremio.exec.store.parquet.GlobalDictionaries;
+import com.dremio.exec.store.parquet.InputStreamProvider;
 import com.dremio.exec.store.parquet.MutableParquetMetadata;
+import com.dremio.exec.store.parquet.ParquetColumnResolver;
 import com.dremio.exec.store.parquet.ParquetReaderStats;
 import com.dremio.exec.store.parquet.ParquetReaderUtility;
 import com.dremio.exec.store.parquet.ParquetScanProjectedColumns;
@@ -90,7 +93,7 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
   // For columns not found in the file, we need to return a schema element with the correct number of values
   // at that position in the schema. Currently this requires a vector be present. Here is a list of all of these vectors
   // that need only have their value count set at the end of each call to next(), as the values default to null.
-  private List<IntVector> nullFilledVectors;
+  private List<ValueVector> nullFilledVectors;
   // Keeps track of the number of records returned in the case where only columns outside of the file were selected.
   // No actual data needs to be read out of the file, we only need to return batches until we have 'read' the number of
   // records specified in the row group metadata
@@ -106,6 +109,13 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
   private final GlobalDictionaries globalDictionaries;
   public ParquetReaderStats parquetReaderStats = new ParquetReaderStats();
   private final Map<String, GlobalDictionaryFieldInfo> globalDictionaryColumns;
+  // when set, column chunks are read through the provider's streams instead of opening the file again
+  private final InputStreamProvider inputStreamProvider;
+  // when set, columns missing from the file are null filled with their table type instead of INT
+  private final BatchSchema tableSchema;
+  private ParquetColumnResolver columnResolver;
+  // when set, the column readers skip the pages of row ranges that can't qualify
+  private PageSkipPlan pageSkipPlan;
 
   public DeprecatedParquetVectorizedReader(
     OperatorContext operatorContext,
@@ -118,6 +128,23 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
     SchemaDerivationHelper schemHelper,
     Map<String, GlobalDictionaryFieldInfo> globalDictionaryColumns,
     GlobalDictionaries globalDictionaries) throws ExecutionSetupException {
+    this(operatorContext, path, rowGroupIndex, fs, codecFactory, footer, projectedColumns, schemHelper,
+      globalDictionaryColumns, globalDictionaries, null, null);
+  }
+
+  public DeprecatedParquetVectorizedReader(
+    OperatorContext operatorContext,
+    String path,
+    int rowGroupIndex,
+    FileSystem fs,
+    CompressionCodecFactory codecFactory,
+    MutableParquetMetadata footer,
+    ParquetScanProjectedColumns projectedColumns,
+    SchemaDerivationHelper schemHelper,
+    Map<String, GlobalDictionaryFieldInfo> globalDictionaryColumns,
+    GlobalDictionaries globalDictionaries,
+    InputStreamProvider inputStreamProvider,
+    BatchSchema tableSchema) throws ExecutionSetupException {
     super(operatorContext, projectedColumns.getBatchSchemaProjectedColumns());
     this.fsPath = Path.of(path);
     this.fileSystem = fs;
@@ -129,6 +156,8 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
     this.globalDictionaries = globalDictionaries;
     this.singleInputStream = null;
     this.projectedColumns = projectedColumns;
+    this.inputStreamProvider = inputStreamProvider;
+    this.tableSchema = tableSchema;
   }
 
   /**
@@ -157,6 +186,10 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
     return fileSystem;
   }
 
+  public InputStreamProvider getInputStreamProvider() {
+    return inputStreamProvider;
+  }
+
   public int getRowGroupIndex() {
     return rowGroupIndex;
   }
@@ -177,6 +210,27 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
     return varLengthReader;
   }
 
+  /**
+   * @return metadata of the column chunks decoded by the column readers, available once the reader is set up
+   */
+  List<ColumnChunkMetaData> getReadColumnChunks() {
+    final List<ColumnChunkMetaData> chunks = new ArrayList<>();
+    columnStatuses.forEach(c -> chunks.add(c.columnChunkMetaData));
+    varLengthReader.columns.forEach(c -> chunks.add(c.columnChunkMetaData));
+    return chunks;
+  }
+
+  PageSkipPlan getPageSkipPlan() {
+    return pageSkipPlan;
+  }
+
+  /**
+   * Must be set before the first call to {@link #next()}.
+   */
+  void setPageSkipPlan(PageSkipPlan pageSkipPlan) {
+    this.pageSkipPlan = pageSkipPlan;
+  }
+
   /**
    * @param type a fixed length type from the parquet library enum
    * @return the length in pageDataByteArray of the type
@@ -196,16 +250,23 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
   }
 
   private boolean fieldSelected(Field field) {
+    return fieldSelected(field.getName());
+  }
+
+  private boolean fieldSelected(String fieldName) {
     // TODO - not sure if this is how we want to represent this
     // for now it makes the existing tests pass, simply selecting
     // all available data if no columns are provided
     if (isStarQuery()) {
       return true;
     }
+    if (fieldName == null) {
+      return false;
+    }
 
     int i = 0;
     for (SchemaPath expr : getColumns()) {
-      if ( field.getName().equalsIgnoreCase(expr.getAsUnescapedPath())) {
+      if ( fieldName.equalsIgnoreCase(expr.getAsUnescapedPath())) {
         columnsFound[i] = true;
         return true;
       }
@@ -250,6 +311,7 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
     columnStatuses = new ArrayList<>();
 //    totalRecords = footer.getBlocks().get(rowGroupIndex).getRowCount();
     List<ColumnDescriptor> columns = footer.getFileMetaData().getSchema().getColumns();
+    columnResolver = projectedColumns.getColumnResolver(footer.getFileMetaData().getSchema());
     Schema arrowSchema = parseArrowSchema();
     allFieldsFixedLength = true;
     ColumnDescriptor column;
@@ -268,7 +330,8 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
     totalRecordsRead = 0;
 
     boolean useSingleStream = context.getOptions().getOption(ExecConstants.PARQUET_SINGLE_STREAM);
-    if (useSingleStream || columns.size()  >= context.getOptions().getOption(ExecConstants.PARQUET_SINGLE_STREAM_COLUMN_THRESHOLD)) {
+    if (inputStreamProvider == null
+        && (useSingleStream || columns.size() >= context.getOptions().getOption(ExecConstants.PARQUET_SINGLE_STREAM_COLUMN_THRESHOLD))) {
       try {
         singleInputStream = Streams.wrap(fileSystem.open(fsPath));
       } catch (IOException ioe) {
@@ -287,6 +350,9 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
       SchemaElement se = schemaElements.get(column.getPath()[0]);
       final SchemaPath schemaPath = toSchemaPath(column.getPath());
       String fieldName = schemaPath.getAsUnescapedPath();
+      if (!fieldSelected(toBatchFieldName(column.getPath()))) {
+        continue;
+      }
       final MajorType mt;
       final int dataTypeLength;
       if (globalDictionaryColumns.containsKey(fieldName)) {
@@ -304,10 +370,6 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
         );
         dataTypeLength = getDataTypeLength(column, se);
       }
-      field = getFieldForNameAndMajorType(fieldName, mt);
-      if ( ! fieldSelected(field)) {
-        continue;
-      }
       columnsToScan++;
       if (dataTypeLength == -1) {
         allFieldsFixedLength = false;
@@ -345,11 +407,17 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
       }
       for (int i = 0; i < columns.size(); ++i) {
         column = columns.get(i);
+        final String batchFieldName = toBatchFieldName(column.getPath());
+        // the field was not requested to be read
+        if (!fieldSelected(batchFieldName)) {
+          continue;
+        }
         columnChunkMetaData = rowGroupMetadata.getColumns().get(columnChunkMetadataPositionsInList.get(Arrays.toString(column.getPath())));
         schemaElement = schemaElements.get(column.getPath()[0]);
         Field childArrowField = arrowSchema == null ? null : arrowSchema.findField(schemaElement.getName());
         if(childArrowField != null){
-          field = childArrowField;
+          field = childArrowField.getName().equals(batchFieldName) ? childArrowField :
+            new Field(batchFieldName, childArrowField.getFieldType(), childArrowField.getChildren());
         } else {
           MajorType type = ParquetToMinorTypeConverter.toMajorType(
             column.getType(),
@@ -360,12 +428,7 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
             childArrowField,
             schemaHelper.readInt96AsTimeStamp()
           );
-          field = getFieldForNameAndMajorType(toFieldName(column.getPath()), type);
-        }
-
-        // the field was not requested to be read
-        if ( !fieldSelected(field)) {
-          continue;
+          field = getFieldForNameAndMajorType(batchFieldName, type);
         }
 
         final CompleteType type = CompleteType.fromField(field);
@@ -411,8 +474,12 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
           col = projectedColumns.get(i);
           assert col!=null;
           if ( ! columnsFound[i] && !col.equals(STAR_COLUMN)) {
-            nullFilledVectors.add((IntVector)output.addField(new Field(col.getAsUnescapedPath(), new FieldType(true, getArrowMinorType(MinorType.INT).getType(), null), null),
-                (Class<? extends ValueVector>) TypeHelper.getValueVectorClass(getArrowMinorType(TypeProtos.MinorType.INT))));
+            final Field tableField = tableSchema == null ? null :
+              tableSchema.findFieldIgnoreCase(col.getAsUnescapedPath()).orElse(null);
+            final Field nullField = tableField != null ? tableField :
+              new Field(col.getAsUnescapedPath(), new FieldType(true, getArrowMinorType(MinorType.INT).getType(), null), null);
+            nullFilledVectors.add(output.addField(nullField,
+                (Class<? extends ValueVector>) TypeHelper.getValueVectorClass(nullField)));
 
           }
         }
@@ -457,6 +524,15 @@ public class DeprecatedParquetVectorizedReader extends AbstractRecordReader {
     return SchemaPath.getCompoundPath(paths).getAsUnescapedPath();
   }
 
+  /**
+   * Returns the name under which a parquet column is exposed in the batch schema, or null if the
+   * column does not map to any column of the batch schema.
+   */
+  private String toBatchFieldName(String[] paths) {
+    final String fieldName = toFieldName(paths);
+    return columnResolver == null ? fieldName : columnResolver.getBatchSchemaColumnName(fieldName);
+  }
+
   private SchemaPath toSchemaPath(String[] paths) {
     return SchemaPath.getCompoundPath(paths);
   }
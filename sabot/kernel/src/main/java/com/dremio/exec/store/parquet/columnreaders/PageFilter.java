@@ -0,0 +1,425 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnreaders;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveComparator;
+import org.apache.parquet.schema.PrimitiveType;
+
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.expression.ValueExpressions;
+import com.dremio.exec.store.parquet.ParquetColumnResolver;
+import com.dremio.exec.util.ValueListFilter;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Decides, from the page level min/max statistics stored in the column index of a parquet column chunk, which pages
+ * may contain values qualifying a pushed down filter condition or a runtime filter. Only types whose parquet
+ * representation matches the value read by Dremio are handled, any other filter can't be evaluated on the index.
+ * The column chunk statistics are checked the same way to rule out a complete row group.
+ */
+public final class PageFilter {
+
+  private static final ImmutableSet<OriginalType> SUPPORTED_ORIGINAL_TYPES = ImmutableSet.of(
+    OriginalType.INT_8, OriginalType.INT_16, OriginalType.INT_32, OriginalType.INT_64, OriginalType.UTF8);
+
+  private static final long MILLIS_PER_DAY = 86_400_000L;
+
+  private final ColumnChunkMetaData chunk;
+  private final PageMatcher matcher;
+  private final boolean nullsMatch;
+
+  private PageFilter(ColumnChunkMetaData chunk, PageMatcher matcher, boolean nullsMatch) {
+    this.chunk = chunk;
+    this.matcher = matcher;
+    this.nullsMatch = nullsMatch;
+  }
+
+  /**
+   * @return a page filter for a pushed down filter condition on the given column chunk, or null if the condition
+   * can't be evaluated on the page statistics
+   */
+  public static PageFilter fromCondition(ColumnChunkMetaData chunk, SchemaPath column, LogicalExpression expr) {
+    if (!isSupported(chunk.getPrimitiveType())) {
+      return null;
+    }
+    final PageMatcher matcher = toMatcher(expr, column, chunk.getPrimitiveType());
+    return matcher == null ? null : new PageFilter(chunk, matcher, false);
+  }
+
+  /**
+   * @return a page filter for the value list of a runtime filter on the given column chunk, or null if the value list
+   * keys can't be compared with the page statistics
+   */
+  public static PageFilter fromValueList(ColumnChunkMetaData chunk, ValueListFilter filter) {
+    final PrimitiveType type = chunk.getPrimitiveType();
+    if (filter == null || !(isSupported(type) || isSupportedTemporal(type))) {
+      return null;
+    }
+
+    final List<Object> keys = new ArrayList<>();
+    if (filter.isBoolField()) {
+      if (type.getPrimitiveTypeName() != PrimitiveType.PrimitiveTypeName.BOOLEAN) {
+        return null;
+      }
+      if (filter.isContainsFalse()) {
+        keys.add(false);
+      }
+      if (filter.isContainsTrue()) {
+        keys.add(true);
+      }
+    } else if (filter.isFixedWidth()) {
+      final ArrowBuf values = filter.valOnlyBuf();
+      if (filter.getFieldType() == MinorType.INT && filter.getBlockSize() == 4
+        && type.getPrimitiveTypeName() == PrimitiveType.PrimitiveTypeName.INT32 && isSupported(type)) {
+        for (int i = 0; i < filter.getValueCount(); i++) {
+          keys.add(values.getInt(i * 4L));
+        }
+      } else if (filter.getFieldType() == MinorType.BIGINT && filter.getBlockSize() == 8
+        && type.getPrimitiveTypeName() == PrimitiveType.PrimitiveTypeName.INT64 && isSupported(type)) {
+        for (int i = 0; i < filter.getValueCount(); i++) {
+          keys.add(values.getLong(i * 8L));
+        }
+      } else if (filter.getFieldType() == MinorType.TIMESTAMPMILLI && filter.getBlockSize() == 8
+        && type.getOriginalType() == OriginalType.TIMESTAMP_MILLIS) {
+        for (int i = 0; i < filter.getValueCount(); i++) {
+          keys.add(values.getLong(i * 8L));
+        }
+      } else if (filter.getFieldType() == MinorType.DATEMILLI && filter.getBlockSize() == 8
+        && type.getOriginalType() == OriginalType.DATE) {
+        // parquet dates are days since epoch
+        for (int i = 0; i < filter.getValueCount(); i++) {
+          keys.add((int) Math.floorDiv(values.getLong(i * 8L), MILLIS_PER_DAY));
+        }
+      } else {
+        return null;
+      }
+    } else {
+      // variable width values longer than the block size are not part of the list, so no page can be ruled out
+      return null;
+    }
+
+    final Object[] sortedKeys = keys.toArray();
+    Arrays.sort(sortedKeys, comparator(type));
+    final PageMatcher matcher = filter.isRange() && sortedKeys.length > 0 ?
+      new RangeMatcher(comparator(type), sortedKeys[0], sortedKeys[sortedKeys.length - 1]) :
+      new ValueSetMatcher(comparator(type), sortedKeys);
+    return new PageFilter(chunk, matcher, filter.isContainsNull());
+  }
+
+  /**
+   * @return the column chunk of a top level column in the row group, or null if the column is not in the file
+   */
+  public static ColumnChunkMetaData findColumnChunk(BlockMetaData block, ParquetColumnResolver columnResolver, String column) {
+    final String parquetColumn = columnResolver.getParquetColumnName(column);
+    if (parquetColumn == null) {
+      return null;
+    }
+    return block.getColumns().stream()
+      .filter(c -> c.getPath().size() == 1 && c.getPath().toArray()[0].equalsIgnoreCase(parquetColumn))
+      .findFirst()
+      .orElse(null);
+  }
+
+  public ColumnChunkMetaData getColumnChunk() {
+    return chunk;
+  }
+
+  /**
+   * @return false if the statistics of the column chunk prove that no value of the chunk qualifies
+   */
+  public boolean mightMatch(Statistics<?> statistics) {
+    // binary statistics written by older writers are not reliable
+    if (statistics == null || statistics.isEmpty()
+      || chunk.getPrimitiveType().getPrimitiveTypeName() == PrimitiveType.PrimitiveTypeName.BINARY) {
+      return true;
+    }
+    final boolean hasNulls = !statistics.isNumNullsSet() || statistics.getNumNulls() > 0;
+    if (nullsMatch && hasNulls) {
+      return true;
+    }
+    if (!statistics.hasNonNullValue()) {
+      // only nulls
+      return false;
+    }
+    return matcher.mightMatch(statistics.genericGetMin(), statistics.genericGetMax());
+  }
+
+  /**
+   * @return for every page of the column index, whether it may contain qualifying values
+   */
+  public boolean[] getMatchingPages(ColumnIndex columnIndex) {
+    final List<Boolean> nullPages = columnIndex.getNullPages();
+    final List<ByteBuffer> minValues = columnIndex.getMinValues();
+    final List<ByteBuffer> maxValues = columnIndex.getMaxValues();
+    final List<Long> nullCounts = columnIndex.getNullCounts();
+    final PrimitiveType type = chunk.getPrimitiveType();
+
+    final boolean[] matching = new boolean[nullPages.size()];
+    for (int i = 0; i < matching.length; i++) {
+      if (nullPages.get(i)) {
+        matching[i] = nullsMatch;
+        continue;
+      }
+      final boolean hasNulls = nullCounts == null || nullCounts.get(i) > 0;
+      matching[i] = (nullsMatch && hasNulls)
+        || matcher.mightMatch(decode(type, minValues.get(i)), decode(type, maxValues.get(i)));
+    }
+    return matching;
+  }
+
+  private static boolean isSupported(PrimitiveType type) {
+    switch (type.getPrimitiveTypeName()) {
+      case BOOLEAN:
+      case INT32:
+      case INT64:
+      case FLOAT:
+      case DOUBLE:
+        return type.getOriginalType() == null || SUPPORTED_ORIGINAL_TYPES.contains(type.getOriginalType());
+      case BINARY:
+        return type.getOriginalType() == OriginalType.UTF8;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isSupportedTemporal(PrimitiveType type) {
+    return (type.getPrimitiveTypeName() == PrimitiveType.PrimitiveTypeName.INT32 && type.getOriginalType() == OriginalType.DATE)
+      || (type.getPrimitiveTypeName() == PrimitiveType.PrimitiveTypeName.INT64 && type.getOriginalType() == OriginalType.TIMESTAMP_MILLIS);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static PrimitiveComparator<Object> comparator(PrimitiveType type) {
+    return (PrimitiveComparator<Object>) type.comparator();
+  }
+
+  private static Object decode(PrimitiveType type, ByteBuffer value) {
+    final ByteBuffer buffer = value.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    switch (type.getPrimitiveTypeName()) {
+      case BOOLEAN:
+        return buffer.get(buffer.position()) != 0;
+      case INT32:
+        return buffer.getInt(buffer.position());
+      case INT64:
+        return buffer.getLong(buffer.position());
+      case FLOAT:
+        return buffer.getFloat(buffer.position());
+      case DOUBLE:
+        return buffer.getDouble(buffer.position());
+      default:
+        return Binary.fromConstantByteBuffer(buffer);
+    }
+  }
+
+  /**
+   * Converts a literal of a comparison into the java type the parquet comparator of the column expects.
+   */
+  private static Object toParquetValue(LogicalExpression literal, PrimitiveType type) {
+    switch (type.getPrimitiveTypeName()) {
+      case BOOLEAN:
+        return literal instanceof ValueExpressions.BooleanExpression ?
+          ((ValueExpressions.BooleanExpression) literal).getBoolean() : null;
+      case INT32:
+        if (literal instanceof ValueExpressions.IntExpression) {
+          return ((ValueExpressions.IntExpression) literal).getInt();
+        }
+        return null;
+      case INT64:
+        if (literal instanceof ValueExpressions.IntExpression) {
+          return (long) ((ValueExpressions.IntExpression) literal).getInt();
+        } else if (literal instanceof ValueExpressions.LongExpression) {
+          return ((ValueExpressions.LongExpression) literal).getLong();
+        }
+        return null;
+      case FLOAT:
+        return literal instanceof ValueExpressions.FloatExpression ?
+          ((ValueExpressions.FloatExpression) literal).getFloat() : null;
+      case DOUBLE:
+        if (literal instanceof ValueExpressions.DoubleExpression) {
+          return ((ValueExpressions.DoubleExpression) literal).getDouble();
+        } else if (literal instanceof ValueExpressions.FloatExpression) {
+          return (double) ((ValueExpressions.FloatExpression) literal).getFloat();
+        }
+        return null;
+      case BINARY:
+        return literal instanceof ValueExpressions.QuotedString ?
+          Binary.fromString(((ValueExpressions.QuotedString) literal).getString()) : null;
+      default:
+        return null;
+    }
+  }
+
+  private static PageMatcher toMatcher(LogicalExpression expr, SchemaPath column, PrimitiveType type) {
+    if (!(expr instanceof FunctionCall)) {
+      return null;
+    }
+    final FunctionCall call = (FunctionCall) expr;
+    switch (call.getName()) {
+      case "booleanAnd": {
+        // unsupported conjuncts only make the filter less selective
+        final List<PageMatcher> matchers = new ArrayList<>();
+        for (LogicalExpression arg : call.args) {
+          final PageMatcher matcher = toMatcher(arg, column, type);
+          if (matcher != null) {
+            matchers.add(matcher);
+          }
+        }
+        return matchers.isEmpty() ? null : (min, max) -> matchers.stream().allMatch(m -> m.mightMatch(min, max));
+      }
+      case "booleanOr": {
+        final List<PageMatcher> matchers = new ArrayList<>();
+        for (LogicalExpression arg : call.args) {
+          final PageMatcher matcher = toMatcher(arg, column, type);
+          if (matcher == null) {
+            return null;
+          }
+          matchers.add(matcher);
+        }
+        return (min, max) -> matchers.stream().anyMatch(m -> m.mightMatch(min, max));
+      }
+      default:
+        return toComparison(call, column, type);
+    }
+  }
+
+  private static PageMatcher toComparison(FunctionCall call, SchemaPath column, PrimitiveType type) {
+    if (call.args.size() != 2) {
+      return null;
+    }
+
+    String name = call.getName();
+    final LogicalExpression literal;
+    if (isColumn(call.args.get(0), column)) {
+      literal = call.args.get(1);
+    } else if (isColumn(call.args.get(1), column)) {
+      literal = call.args.get(0);
+      name = mirror(name);
+    } else {
+      return null;
+    }
+
+    final Object value = toParquetValue(literal, type);
+    if (value == null || name == null) {
+      return null;
+    }
+
+    final PrimitiveComparator<Object> comparator = comparator(type);
+    switch (name) {
+      case "equal":
+        return (min, max) -> comparator.compare(min, value) <= 0 && comparator.compare(max, value) >= 0;
+      case "less_than":
+        return (min, max) -> comparator.compare(min, value) < 0;
+      case "less_than_or_equal_to":
+        return (min, max) -> comparator.compare(min, value) <= 0;
+      case "greater_than":
+        return (min, max) -> comparator.compare(max, value) > 0;
+      case "greater_than_or_equal_to":
+        return (min, max) -> comparator.compare(max, value) >= 0;
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isColumn(LogicalExpression expr, SchemaPath column) {
+    return expr instanceof SchemaPath
+      && ((SchemaPath) expr).getRootSegment().getPath().equalsIgnoreCase(column.getRootSegment().getPath());
+  }
+
+  private static String mirror(String name) {
+    switch (name) {
+      case "equal":
+        return name;
+      case "less_than":
+        return "greater_than";
+      case "less_than_or_equal_to":
+        return "greater_than_or_equal_to";
+      case "greater_than":
+        return "less_than";
+      case "greater_than_or_equal_to":
+        return "less_than_or_equal_to";
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Checks whether a page whose non null values lie in [min, max] may qualify.
+   */
+  private interface PageMatcher {
+    boolean mightMatch(Object min, Object max);
+  }
+
+  private static final class ValueSetMatcher implements PageMatcher {
+    private final PrimitiveComparator<Object> comparator;
+    private final Object[] keys;
+
+    private ValueSetMatcher(PrimitiveComparator<Object> comparator, Object[] keys) {
+      this.comparator = comparator;
+      this.keys = keys;
+    }
+
+    @Override
+    public boolean mightMatch(Object min, Object max) {
+      // find the first key that is not smaller than min
+      int low = 0;
+      int high = keys.length;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        if (comparator.compare(keys[mid], min) < 0) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low < keys.length && comparator.compare(keys[low], max) <= 0;
+    }
+  }
+
+  /**
+   * Matches the pages overlapping the [lower, upper] range of a min/max runtime filter.
+   */
+  private static final class RangeMatcher implements PageMatcher {
+    private final PrimitiveComparator<Object> comparator;
+    private final Object lower;
+    private final Object upper;
+
+    private RangeMatcher(PrimitiveComparator<Object> comparator, Object lower, Object upper) {
+      this.comparator = comparator;
+      this.lower = lower;
+      this.upper = upper;
+    }
+
+    @Override
+    public boolean mightMatch(Object min, Object max) {
+      return comparator.compare(max, lower) >= 0 && comparator.compare(min, upper) <= 0;
+    }
+  }
+}
@@ -99,6 +99,9 @@ public class PageReader {
 
   int currentPageCount = -1;
 
+  // ordinal of the current data page in the column chunk, dictionary pages are not counted
+  private int dataPageOrdinal = -1;
+
   private SeekableInputStream inputStream;
 
   // These need to be held throughout reading of the entire column chunk
@@ -222,7 +225,6 @@ public class PageReader {
    * @throws java.io.IOException
    */
   public boolean next() throws IOException {
-    Stopwatch timer = Stopwatch.createUnstarted();
     currentPageCount = -1;
     valuesRead = 0;
     valuesReadyToRead = 0;
@@ -234,25 +236,16 @@ public class PageReader {
     }
     clearBuffers();
 
-    // next, we need to decompress the bytes
-    // TODO - figure out if we need multiple dictionary pages, I believe it may be limited to one
-    // I think we are clobbering parts of the dictionary if there can be multiple pages of dictionary
-    do {
-      long start=inputStream.getPos();
-      timer.start();
-      pageHeader = dataReader.readPageHeader();
-      long timeToRead = timer.elapsed(TimeUnit.MICROSECONDS);
-      this.updateStats(pageHeader, "Page Header Read", start, timeToRead, 0,0);
-      if (logger.isTraceEnabled()) {
-        logger.trace("ParquetTrace,{},{},{},{},{},{},{},{}", "Page Header Read", "",
-          this.parentColumnReader.parentReader.fsPath,
-          this.parentColumnReader.columnDescriptor, start, 0, 0, timeToRead);
-      }
-      timer.reset();
-      if (pageHeader.getType() == PageType.DICTIONARY_PAGE) {
-        readDictionaryPage(pageHeader, parentColumnReader);
+    readDataPageHeader();
+    while (isSkipped()) {
+      // the values of a skipped page are accounted as read, all columns skip the same rows
+      dataReader.skipPage(pageHeader.getCompressed_page_size());
+      parentColumnReader.totalValuesRead += pageHeader.data_page_header.num_values;
+      if (!dataReader.hasRemainder() || parentColumnReader.totalValuesRead == parentColumnReader.columnChunkMetaData.getValueCount()) {
+        return false;
       }
-    } while (pageHeader.getType() == PageType.DICTIONARY_PAGE);
+      readDataPageHeader();
+    }
 
     //TODO: Handle buffer allocation exception
 
@@ -317,6 +310,42 @@ public class PageReader {
     return true;
   }
 
+  /**
+   * Reads the header of the next data page, loading any dictionary page found on the way.
+   */
+  private void readDataPageHeader() throws IOException {
+    Stopwatch timer = Stopwatch.createUnstarted();
+    // TODO - figure out if we need multiple dictionary pages, I believe it may be limited to one
+    // I think we are clobbering parts of the dictionary if there can be multiple pages of dictionary
+    do {
+      long start=inputStream.getPos();
+      timer.start();
+      pageHeader = dataReader.readPageHeader();
+      long timeToRead = timer.elapsed(TimeUnit.MICROSECONDS);
+      this.updateStats(pageHeader, "Page Header Read", start, timeToRead, 0,0);
+      if (logger.isTraceEnabled()) {
+        logger.trace("ParquetTrace,{},{},{},{},{},{},{},{}", "Page Header Read", "",
+          this.parentColumnReader.parentReader.fsPath,
+          this.parentColumnReader.columnDescriptor, start, 0, 0, timeToRead);
+      }
+      timer.reset();
+      if (pageHeader.getType() == PageType.DICTIONARY_PAGE) {
+        readDictionaryPage(pageHeader, parentColumnReader);
+      }
+    } while (pageHeader.getType() == PageType.DICTIONARY_PAGE);
+    dataPageOrdinal++;
+  }
+
+  /**
+   * @return true if the page skip plan of the reader rules out all rows of the current data page
+   */
+  private boolean isSkipped() {
+    final PageSkipPlan skipPlan = parentColumnReader.parentReader.getPageSkipPlan();
+    return skipPlan != null
+      && pageHeader.getType() == PageType.DATA_PAGE
+      && skipPlan.isPageSkipped(parentColumnReader.columnChunkMetaData.getPath(), dataPageOrdinal);
+  }
+
   /**
    * Allocate a page data buffer. Note that only one page data buffer should be active at a time. The reader will ensure
    * that the page data is released after the reader is completed.
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnreaders;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.offsetindex.OffsetIndex;
+
+/**
+ * Row ranges of a row group that don't need to be read, and the pages of the read column chunks covering them.
+ *
+ * The page filters are evaluated on the column index of their column, and the pages that can't qualify are mapped to
+ * row ranges through the offset index. The column readers of the vectorized reader read the same rows of every column,
+ * so rows are only skipped in segments that start and end at a page boundary in every read column chunk: in such a
+ * segment every column skips whole pages, without decoding them.
+ */
+public final class PageSkipPlan {
+
+  private final long rowCount;
+  // sorted, non adjacent [start, end) row ranges that are skipped
+  private final List<long[]> skippedRanges;
+  private final Map<ColumnPath, BitSet> skippedPages;
+  private final int checkedPageCount;
+  private final int skippedPageCount;
+
+  private PageSkipPlan(long rowCount, List<long[]> skippedRanges, Map<ColumnPath, BitSet> skippedPages,
+                       int checkedPageCount, int skippedPageCount) {
+    this.rowCount = rowCount;
+    this.skippedRanges = skippedRanges;
+    this.skippedPages = skippedPages;
+    this.checkedPageCount = checkedPageCount;
+    this.skippedPageCount = skippedPageCount;
+  }
+
+  /**
+   * @param rowCount number of rows in the row group
+   * @param readColumns column chunks decoded by the column readers
+   * @param filters page filters, all of which rows must qualify
+   * @param columnIndexes column index lookup, returns null if the chunk has no column index
+   * @param offsetIndexes offset index lookup, returns null if the chunk has no offset index
+   * @return the plan, or null if no row can be skipped
+   */
+  public static PageSkipPlan create(long rowCount,
+                                    List<ColumnChunkMetaData> readColumns,
+                                    List<PageFilter> filters,
+                                    Function<ColumnChunkMetaData, ColumnIndex> columnIndexes,
+                                    Function<ColumnChunkMetaData, OffsetIndex> offsetIndexes) {
+    List<long[]> qualifying = null;
+    int checkedPageCount = 0;
+    for (PageFilter filter : filters) {
+      final ColumnIndex columnIndex = columnIndexes.apply(filter.getColumnChunk());
+      final OffsetIndex offsetIndex = offsetIndexes.apply(filter.getColumnChunk());
+      if (columnIndex == null || offsetIndex == null || columnIndex.getNullPages().size() != offsetIndex.getPageCount()) {
+        continue;
+      }
+
+      final boolean[] matching = filter.getMatchingPages(columnIndex);
+      checkedPageCount += matching.length;
+      final List<long[]> ranges = new ArrayList<>();
+      for (int i = 0; i < matching.length; i++) {
+        if (matching[i]) {
+          addRange(ranges, offsetIndex.getFirstRowIndex(i), offsetIndex.getLastRowIndex(i, rowCount) + 1);
+        }
+      }
+      qualifying = qualifying == null ? ranges : intersect(qualifying, ranges);
+    }
+
+    if (qualifying == null) {
+      return null;
+    }
+
+    // rows can only be skipped between page boundaries common to all the read columns
+    final Map<ColumnPath, OffsetIndex> readOffsetIndexes = new HashMap<>();
+    TreeSet<Long> boundaries = null;
+    for (ColumnChunkMetaData column : readColumns) {
+      final OffsetIndex offsetIndex = offsetIndexes.apply(column);
+      if (offsetIndex == null) {
+        boundaries = null;
+        readOffsetIndexes.clear();
+        break;
+      }
+      readOffsetIndexes.put(column.getPath(), offsetIndex);
+      final TreeSet<Long> firstRows = new TreeSet<>();
+      for (int i = 0; i < offsetIndex.getPageCount(); i++) {
+        firstRows.add(offsetIndex.getFirstRowIndex(i));
+      }
+      if (boundaries == null) {
+        boundaries = firstRows;
+      } else {
+        boundaries.retainAll(firstRows);
+      }
+    }
+    if (boundaries == null) {
+      boundaries = new TreeSet<>();
+    }
+    boundaries.add(0L);
+    boundaries.add(rowCount);
+
+    final List<long[]> skippedRanges = new ArrayList<>();
+    Long start = null;
+    for (Long end : boundaries) {
+      if (start != null && !overlaps(qualifying, start, end)) {
+        addRange(skippedRanges, start, end);
+      }
+      start = end;
+    }
+    if (skippedRanges.isEmpty()) {
+      return null;
+    }
+
+    final Map<ColumnPath, BitSet> skippedPages = new HashMap<>();
+    int skippedPageCount = 0;
+    for (Map.Entry<ColumnPath, OffsetIndex> entry : readOffsetIndexes.entrySet()) {
+      final OffsetIndex offsetIndex = entry.getValue();
+      final BitSet pages = new BitSet(offsetIndex.getPageCount());
+      for (int i = 0; i < offsetIndex.getPageCount(); i++) {
+        if (contains(skippedRanges, offsetIndex.getFirstRowIndex(i))) {
+          pages.set(i);
+          skippedPageCount++;
+        }
+      }
+      skippedPages.put(entry.getKey(), pages);
+    }
+    return new PageSkipPlan(rowCount, skippedRanges, skippedPages, checkedPageCount, skippedPageCount);
+  }
+
+  /**
+   * @return true if no row of the row group can qualify
+   */
+  public boolean skipsAllRows() {
+    return skippedRanges.size() == 1 && skippedRanges.get(0)[0] == 0 && skippedRanges.get(0)[1] == rowCount;
+  }
+
+  /**
+   * @return true if the data page with the given ordinal, dictionary pages not counted, must not be read
+   */
+  public boolean isPageSkipped(ColumnPath column, int pageOrdinal) {
+    final BitSet pages = skippedPages.get(column);
+    return pages != null && pages.get(pageOrdinal);
+  }
+
+  /**
+   * @return sorted, non adjacent [start, end) ranges of skipped rows
+   */
+  public List<long[]> getSkippedRanges() {
+    return skippedRanges;
+  }
+
+  public int getCheckedPageCount() {
+    return checkedPageCount;
+  }
+
+  public int getSkippedPageCount() {
+    return skippedPageCount;
+  }
+
+  private static void addRange(List<long[]> ranges, long start, long end) {
+    final long[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+    if (last != null && last[1] >= start) {
+      last[1] = Math.max(last[1], end);
+    } else {
+      ranges.add(new long[] {start, end});
+    }
+  }
+
+  private static List<long[]> intersect(List<long[]> left, List<long[]> right) {
+    final List<long[]> result = new ArrayList<>();
+    int i = 0;
+    int j = 0;
+    while (i < left.size() && j < right.size()) {
+      final long start = Math.max(left.get(i)[0], right.get(j)[0]);
+      final long end = Math.min(left.get(i)[1], right.get(j)[1]);
+      if (start < end) {
+        result.add(new long[] {start, end});
+      }
+      if (left.get(i)[1] < right.get(j)[1]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return result;
+  }
+
+  private static boolean overlaps(List<long[]> ranges, long start, long end) {
+    for (long[] range : ranges) {
+      if (range[0] < end && range[1] > start) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean contains(List<long[]> ranges, long row) {
+    for (long[] range : ranges) {
+      if (range[0] <= row && row < range[1]) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,592 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnreaders;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.BitVectorHelper;
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.Types;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.common.expression.FunctionCallFactory;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.expr.ClassGenerator;
+import com.dremio.exec.expr.ReturnValueExpression;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.exec.store.CompositeColumnFilter;
+import com.dremio.exec.store.RuntimeFilter;
+import com.dremio.exec.store.parquet.AbstractParquetReader;
+import com.dremio.exec.store.parquet.ColumnIndexProvider;
+import com.dremio.exec.store.parquet.InputStreamProvider;
+import com.dremio.exec.store.parquet.MutableParquetMetadata;
+import com.dremio.exec.store.parquet.OffsetIndexProvider;
+import com.dremio.exec.store.parquet.ParquetColumnResolver;
+import com.dremio.exec.store.parquet.ParquetFilterCondition;
+import com.dremio.exec.store.parquet.ParquetScanProjectedColumns;
+import com.dremio.exec.store.parquet.SchemaDerivationHelper;
+import com.dremio.exec.util.ValueListFilter;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.filter.Filterer;
+import com.dremio.sabot.op.filter.VectorContainerWithSV;
+import com.dremio.sabot.op.scan.OutputMutator;
+import com.dremio.sabot.op.scan.ScanOperator.Metric;
+import com.google.common.base.Stopwatch;
+
+/**
+ * Vectorized reader for the flat columns of a parquet row group.
+ *
+ * Pages are decoded directly into the output arrow vectors by the column readers of
+ * {@link DeprecatedParquetVectorizedReader}. Pushed down filter conditions and runtime filters are then evaluated on
+ * the decoded batch, before any of the remaining (row-wise) columns of the same rows are materialized. Rows that do not
+ * qualify are either removed from the batch and reported to the row-wise reader through the deltas vector, or, when
+ * filters span columns of both readers, marked as invalid in the shared validity buffer.
+ *
+ * When the file has column and offset indexes, the filters are first evaluated on the page statistics, and the pages
+ * of row ranges that can't qualify are neither fetched nor decoded. See {@link PageSkipPlan}.
+ */
+public class ParquetVectorizedReader extends AbstractParquetReader {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(ParquetVectorizedReader.class);
+
+  private final DeprecatedParquetVectorizedReader delegate;
+  private final ParquetScanProjectedColumns projectedColumns;
+  private final MutableParquetMetadata footer;
+  private final int rowGroupIndex;
+  private final InputStreamProvider inputStreamProvider;
+  private final List<ParquetFilterCondition> filterConditions;
+  private final List<RuntimeFilter> runtimeFilters;
+  private final ArrowBuf validityBuf;
+
+  private final List<ValueVector> vectors = new ArrayList<>();
+  private final List<ValueListMatcher> matchers = new ArrayList<>();
+  private VectorContainerWithSV filterOutput;
+  private Filterer filterer;
+  private int[] selected = new int[0];
+
+  // records dropped after the last selected record of the previous batch, not yet reported through deltas
+  private int pendingSkippedRecords;
+
+  private PageSkipPlan pageSkipPlan;
+  // position in the row group of the next record returned by the delegate, and the next skipped row range after it
+  private long nextRow;
+  private int nextSkippedRange;
+  // rows skipped by the page skip plan before records of the current batch: gapLengths[i] rows before record gapIndexes[i]
+  private int[] gapIndexes = new int[0];
+  private int[] gapLengths = new int[0];
+  private int gapCount;
+  private int gapCursor;
+
+  public ParquetVectorizedReader(OperatorContext context,
+                                 ParquetScanProjectedColumns projectedColumns,
+                                 String path,
+                                 CompressionCodecFactory codecFactory,
+                                 List<ParquetFilterCondition> filterConditions,
+                                 MutableParquetMetadata footer,
+                                 int rowGroupIndex,
+                                 SimpleIntVector deltas,
+                                 SchemaDerivationHelper schemaHelper,
+                                 InputStreamProvider inputStreamProvider,
+                                 List<RuntimeFilter> runtimeFilters,
+                                 ArrowBuf validityBuf,
+                                 BatchSchema tableSchema) throws ExecutionSetupException {
+    super(context, projectedColumns.getBatchSchemaProjectedColumns(), deltas);
+    this.filterConditions = filterConditions == null ? new ArrayList<>() : filterConditions.stream()
+      .filter(c -> c.getExpr() != null)
+      .collect(Collectors.toList());
+    this.runtimeFilters = runtimeFilters == null ? new ArrayList<>() : runtimeFilters;
+    this.validityBuf = validityBuf;
+    this.projectedColumns = projectedColumns;
+    this.footer = footer;
+    this.rowGroupIndex = rowGroupIndex;
+    this.inputStreamProvider = inputStreamProvider;
+    this.delegate = new DeprecatedParquetVectorizedReader(context, path, rowGroupIndex, null, codecFactory, footer,
+      projectedColumns, schemaHelper, null, null, inputStreamProvider, tableSchema);
+  }
+
+  @Override
+  public void setup(OutputMutator output) throws ExecutionSetupException {
+    delegate.setup(output);
+
+    for (SchemaPath column : getColumns()) {
+      final ValueVector vector = output.getVector(column.getRootSegment().getPath());
+      if (vector != null) {
+        vectors.add(vector);
+      }
+    }
+
+    if (!filterConditions.isEmpty()) {
+      setupFilterer();
+    }
+
+    for (RuntimeFilter runtimeFilter : runtimeFilters) {
+      for (CompositeColumnFilter columnFilter : runtimeFilter.getNonPartitionColumnFilters()) {
+        final ValueListMatcher matcher = ValueListMatcher.create(findVector(columnFilter), columnFilter.getValueList());
+        if (matcher != null) {
+          matchers.add(matcher);
+        }
+      }
+    }
+    if (!matchers.isEmpty()) {
+      context.getStats().addLongStat(Metric.ROW_GROUPS_SCANNED_WITH_RUNTIME_FILTER, 1);
+    }
+
+    pageSkipPlan = planPageSkipping();
+    delegate.setPageSkipPlan(pageSkipPlan);
+  }
+
+  /**
+   * Evaluates the filters on the column indexes of the row group.
+   * @return the pages to skip, or null if no row range can be ruled out
+   */
+  private PageSkipPlan planPageSkipping() {
+    // skipped rows must be reported to the row-wise reader
+    if (deltas == null || inputStreamProvider == null || !context.getOptions().getOption(ExecConstants.READ_COLUMN_INDEXES)) {
+      return null;
+    }
+
+    final BlockMetaData block = footer.getBlocks().get(rowGroupIndex);
+    final ParquetColumnResolver columnResolver = projectedColumns.getColumnResolver(footer.getFileMetaData().getSchema());
+    final List<PageFilter> pageFilters = new ArrayList<>();
+    for (ParquetFilterCondition condition : filterConditions) {
+      final ColumnChunkMetaData chunk = PageFilter.findColumnChunk(block, columnResolver, condition.getPath().getRootSegment().getPath());
+      final PageFilter pageFilter = chunk == null ? null : PageFilter.fromCondition(chunk, condition.getPath(), condition.getExpr());
+      if (pageFilter != null) {
+        pageFilters.add(pageFilter);
+      }
+    }
+    for (RuntimeFilter runtimeFilter : runtimeFilters) {
+      for (CompositeColumnFilter columnFilter : runtimeFilter.getNonPartitionColumnFilters()) {
+        if (columnFilter.getValueList() == null || columnFilter.getColumnsList().size() != 1) {
+          continue;
+        }
+        final ColumnChunkMetaData chunk = PageFilter.findColumnChunk(block, columnResolver, columnFilter.getColumnsList().get(0));
+        final PageFilter pageFilter = chunk == null ? null : PageFilter.fromValueList(chunk, columnFilter.getValueList());
+        if (pageFilter != null) {
+          pageFilters.add(pageFilter);
+        }
+      }
+    }
+    if (pageFilters.isEmpty()) {
+      return null;
+    }
+
+    final List<ColumnChunkMetaData> filterChunks = pageFilters.stream()
+      .map(PageFilter::getColumnChunk)
+      .distinct()
+      .collect(Collectors.toList());
+    final List<ColumnChunkMetaData> readChunks = delegate.getReadColumnChunks();
+    final LinkedHashSet<ColumnChunkMetaData> indexedChunks = new LinkedHashSet<>(filterChunks);
+    indexedChunks.addAll(readChunks);
+    try {
+      inputStreamProvider.enableColumnIndices(new ArrayList<>(indexedChunks));
+    } catch (IOException e) {
+      logger.debug("Unable to enable column indexes, reading all pages of row group {}", rowGroupIndex, e);
+      return null;
+    }
+
+    try (ColumnIndexProvider columnIndexProvider = inputStreamProvider.getColumnIndexProvider(filterChunks);
+         OffsetIndexProvider offsetIndexProvider = inputStreamProvider.getOffsetIndexProvider(new ArrayList<>(indexedChunks))) {
+      if (columnIndexProvider == null || offsetIndexProvider == null) {
+        return null;
+      }
+      final PageSkipPlan plan = PageSkipPlan.create(block.getRowCount(), readChunks, pageFilters,
+        columnIndexProvider::getColumnIndex, offsetIndexProvider::getOffsetIndex);
+      if (plan != null) {
+        context.getStats().addLongStat(Metric.NUM_PAGES_READ, plan.getCheckedPageCount());
+        context.getStats().addLongStat(Metric.NUM_PAGES_PRUNED, plan.getSkippedPageCount());
+        if (plan.skipsAllRows()) {
+          context.getStats().addLongStat(Metric.NUM_ROW_GROUPS_PRUNED, 1);
+        }
+      }
+      return plan;
+    }
+  }
+
+  private void setupFilterer() throws ExecutionSetupException {
+    // the vectors are owned by the output mutator, the container is only used to resolve the expression
+    final VectorContainer filterInput = new VectorContainer();
+    vectors.forEach(filterInput::add);
+    filterInput.buildSchema();
+
+    final List<LogicalExpression> expressions = filterConditions.stream()
+      .map(ParquetFilterCondition::getExpr)
+      .collect(Collectors.toList());
+    final LogicalExpression filterExpr = expressions.size() == 1 ? expressions.get(0) :
+      FunctionCallFactory.createBooleanOperator("and", expressions);
+
+    final ClassGenerator<Filterer> cg = context.getClassProducer().createGenerator(Filterer.TEMPLATE_DEFINITION2).getRoot();
+    final LogicalExpression expr = context.getClassProducer().materializeAndAllowComplex(filterExpr, filterInput);
+    cg.addExpr(new ReturnValueExpression(expr), ClassGenerator.BlockCreateMode.MERGE);
+
+    filterOutput = new VectorContainerWithSV(context.getAllocator(), new SelectionVector2(context.getAllocator()));
+    filterer = cg.getCodeGenerator().getImplementationClass();
+    try {
+      filterer.setup(context.getClassProducer().getFunctionContext(), filterInput, filterOutput);
+    } catch (Exception e) {
+      throw new ExecutionSetupException("Failure while setting up filter for parquet vectorized reader", e);
+    }
+  }
+
+  private ValueVector findVector(CompositeColumnFilter columnFilter) {
+    if (columnFilter.getValueList() == null || columnFilter.getColumnsList().size() != 1) {
+      return null;
+    }
+    final String column = columnFilter.getColumnsList().get(0);
+    return vectors.stream()
+      .filter(v -> v.getField().getName().equalsIgnoreCase(column))
+      .findFirst()
+      .orElse(null);
+  }
+
+  @Override
+  public void allocate(Map<String, ValueVector> vectorMap) throws OutOfMemoryException {
+    delegate.allocate(vectorMap);
+  }
+
+  @Override
+  public int next() {
+    if (pageSkipPlan != null && pageSkipPlan.skipsAllRows()) {
+      setAllSelected(0);
+      return 0;
+    }
+
+    final boolean filtersPresent = filterer != null || !matchers.isEmpty();
+    while (true) {
+      final int records = delegate.next();
+      locateSkippedRows(records);
+      if (records == 0 || !filtersPresent) {
+        setAllSelected(records);
+        return records;
+      }
+
+      final Stopwatch filterWatch = Stopwatch.createStarted();
+      final int selectedCount = select(records);
+      filterWatch.stop();
+      context.getStats().addLongStat(Metric.FILTER_NS, filterWatch.elapsed(TimeUnit.NANOSECONDS));
+
+      if (validityBuf != null) {
+        // the unified reader removes invalid rows once every reader has filled the batch
+        markInvalid(records, selectedCount);
+        setAllSelected(records);
+        return records;
+      }
+
+      if (selectedCount == 0) {
+        // nothing qualified, decode the next batch without materializing the row-wise columns
+        pendingSkippedRecords += records + skippedRowsUpTo(Integer.MAX_VALUE);
+        for (ValueVector vector : vectors) {
+          vector.reset();
+        }
+        continue;
+      }
+
+      compact(records, selectedCount);
+      return selectedCount;
+    }
+  }
+
+  /**
+   * Finds the row ranges skipped by the page skip plan between the records of the batch just read.
+   */
+  private void locateSkippedRows(int records) {
+    gapCount = 0;
+    gapCursor = 0;
+    if (pageSkipPlan == null) {
+      return;
+    }
+
+    final List<long[]> skippedRanges = pageSkipPlan.getSkippedRanges();
+    int index = 0;
+    while (nextSkippedRange < skippedRanges.size()) {
+      final long[] range = skippedRanges.get(nextSkippedRange);
+      final long readableRows = range[0] - nextRow;
+      if (index + readableRows >= records) {
+        // the range starts after the last record of this batch
+        break;
+      }
+      index += (int) readableRows;
+      if (gapCount == gapIndexes.length) {
+        gapIndexes = Arrays.copyOf(gapIndexes, gapCount * 2 + 1);
+        gapLengths = Arrays.copyOf(gapLengths, gapCount * 2 + 1);
+      }
+      gapIndexes[gapCount] = index;
+      gapLengths[gapCount++] = (int) (range[1] - range[0]);
+      nextRow = range[1];
+      nextSkippedRange++;
+    }
+    nextRow += records - index;
+  }
+
+  /**
+   * @return number of rows skipped by the page skip plan before the batch record at the given index, and after the
+   * record passed to the previous call
+   */
+  private int skippedRowsUpTo(int index) {
+    int skipped = 0;
+    while (gapCursor < gapCount && gapIndexes[gapCursor] <= index) {
+      skipped += gapLengths[gapCursor++];
+    }
+    return skipped;
+  }
+
+  /**
+   * Evaluates the filter conditions and runtime filters on the current batch.
+   * @return number of qualifying records, whose indices are stored in {@link #selected}
+   */
+  private int select(int records) {
+    if (selected.length < records) {
+      selected = new int[records];
+    }
+
+    int count;
+    if (filterer != null) {
+      count = filterer.filterBatch(records);
+      final SelectionVector2 sv2 = filterOutput.getSelectionVector2();
+      for (int i = 0; i < count; i++) {
+        selected[i] = sv2.getIndex(i);
+      }
+    } else {
+      count = records;
+      for (int i = 0; i < count; i++) {
+        selected[i] = i;
+      }
+    }
+
+    for (ValueListMatcher matcher : matchers) {
+      int retained = 0;
+      for (int i = 0; i < count; i++) {
+        if (matcher.matches(selected[i])) {
+          selected[retained++] = selected[i];
+        }
+      }
+      count = retained;
+    }
+    return count;
+  }
+
+  private void markInvalid(int records, int selectedCount) {
+    int next = 0;
+    for (int i = 0; i < records; i++) {
+      if (next < selectedCount && selected[next] == i) {
+        next++;
+      } else {
+        BitVectorHelper.unsetBit(validityBuf, i);
+      }
+    }
+  }
+
+  private void compact(int records, int selectedCount) {
+    if (selectedCount < records) {
+      for (int i = 0; i < selectedCount; i++) {
+        final int from = selected[i];
+        if (from != i) {
+          for (ValueVector vector : vectors) {
+            vector.copyFrom(from, i, vector);
+          }
+        }
+      }
+      for (ValueVector vector : vectors) {
+        vector.setValueCount(selectedCount);
+      }
+    }
+
+    if (deltas != null) {
+      int previous = -1;
+      for (int i = 0; i < selectedCount; i++) {
+        deltas.setSafe(i, selected[i] - previous - 1 + skippedRowsUpTo(selected[i]));
+        previous = selected[i];
+      }
+      deltas.set(0, deltas.get(0) + pendingSkippedRecords);
+      deltas.setValueCount(selectedCount);
+    }
+    pendingSkippedRecords = records - selected[selectedCount - 1] - 1 + skippedRowsUpTo(Integer.MAX_VALUE);
+  }
+
+  private void setAllSelected(int records) {
+    if (deltas == null) {
+      return;
+    }
+    for (int i = 0; i < records; i++) {
+      deltas.setSafe(i, skippedRowsUpTo(i));
+    }
+    if (records > 0) {
+      deltas.set(0, deltas.get(0) + pendingSkippedRecords);
+      pendingSkippedRecords = 0;
+    }
+    deltas.setValueCount(records);
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(delegate, filterOutput, deltas);
+  }
+
+  @Override
+  public boolean supportsSkipAllQuery() {
+    return true;
+  }
+
+  /**
+   * Checks decoded values against the sorted value list, or the min/max range, of a join runtime filter. Only layouts
+   * where the value list keys are byte compatible with the arrow vector are supported; any other column is left
+   * unfiltered.
+   */
+  private static final class ValueListMatcher {
+    private final ValueVector vector;
+    private final ValueListFilter filter;
+    private final ArrowBuf values;
+    private final int blockSize;
+    private final int valueCount;
+
+    private ValueListMatcher(ValueVector vector, ValueListFilter filter) {
+      this.vector = vector;
+      this.filter = filter;
+      this.values = filter.valOnlyBuf();
+      this.blockSize = filter.getBlockSize();
+      this.valueCount = filter.getValueCount();
+    }
+
+    static ValueListMatcher create(ValueVector vector, ValueListFilter filter) {
+      if (vector == null || filter == null || filter.getFieldType() != vector.getMinorType()) {
+        return null;
+      }
+      if (filter.isBoolField()) {
+        return vector instanceof BitVector ? new ValueListMatcher(vector, filter) : null;
+      }
+      if (filter.isFixedWidth()) {
+        final boolean supported = vector instanceof BaseFixedWidthVector
+          && filter.getFieldType() != Types.MinorType.DECIMAL
+          && (filter.getBlockSize() == 4 || filter.getBlockSize() == 8)
+          && ((BaseFixedWidthVector) vector).getTypeWidth() == filter.getBlockSize();
+        return supported ? new ValueListMatcher(vector, filter) : null;
+      }
+      return vector instanceof BaseVariableWidthVector ? new ValueListMatcher(vector, filter) : null;
+    }
+
+    boolean matches(int index) {
+      if (vector.isNull(index)) {
+        return filter.isContainsNull();
+      }
+      if (filter.isBoolField()) {
+        return ((BitVector) vector).get(index) == 1 ? filter.isContainsTrue() : filter.isContainsFalse();
+      }
+      if (filter.isFixedWidth()) {
+        return blockSize == 4 ? containsInt(((BaseFixedWidthVector) vector).getDataBuffer().getInt(index * 4L)) :
+          containsLong(((BaseFixedWidthVector) vector).getDataBuffer().getLong(index * 8L));
+      }
+      return containsBytes((BaseVariableWidthVector) vector, index);
+    }
+
+    private boolean containsInt(int value) {
+      if (filter.isRange()) {
+        return valueCount == 2 && values.getInt(0) <= value && value <= values.getInt(4);
+      }
+      int low = 0;
+      int high = valueCount - 1;
+      while (low <= high) {
+        final int mid = (low + high) >>> 1;
+        final int cmp = Integer.compare(values.getInt(mid * 4L), value);
+        if (cmp == 0) {
+          return true;
+        } else if (cmp < 0) {
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      return false;
+    }
+
+    private boolean containsLong(long value) {
+      if (filter.isRange()) {
+        return valueCount == 2 && values.getLong(0) <= value && value <= values.getLong(8);
+      }
+      int low = 0;
+      int high = valueCount - 1;
+      while (low <= high) {
+        final int mid = (low + high) >>> 1;
+        final int cmp = Long.compare(values.getLong(mid * 8L), value);
+        if (cmp == 0) {
+          return true;
+        } else if (cmp < 0) {
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Variable width keys are stored right aligned in fixed blocks, with the value length in the first byte.
+     * Longer values were trimmed while building the filter, so they can't be ruled out here.
+     */
+    private boolean containsBytes(BaseVariableWidthVector vector, int index) {
+      final ArrowBuf offsets = vector.getOffsetBuffer();
+      final long start = offsets.getInt((long) index * BaseVariableWidthVector.OFFSET_WIDTH);
+      final int length = offsets.getInt((long) (index + 1) * BaseVariableWidthVector.OFFSET_WIDTH) - (int) start;
+      if (length > blockSize - 1) {
+        return true;
+      }
+
+      final ArrowBuf data = vector.getDataBuffer();
+      int low = 0;
+      int high = valueCount - 1;
+      while (low <= high) {
+        final int mid = (low + high) >>> 1;
+        final long blockStart = (long) mid * blockSize;
+        final int storedLength = values.getByte(blockStart);
+        final long storedStart = blockStart + blockSize - storedLength;
+        int cmp = 0;
+        for (int i = 0; i < Math.min(storedLength, length) && cmp == 0; i++) {
+          cmp = Integer.compare(values.getByte(storedStart + i) & 0xFF, data.getByte(start + i) & 0xFF);
+        }
+        if (cmp == 0) {
+          cmp = Integer.compare(storedLength, length);
+        }
+        if (cmp == 0) {
+          return true;
+        } else if (cmp < 0) {
+          low = mid + 1;
+        } else {
+          high = mid - 1;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnreaders;
+
+import java.util.List;
+import java.util.Set;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Type.Repetition;
+
+import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.RecordReader;
+import com.dremio.exec.store.RuntimeFilter;
+import com.dremio.exec.store.parquet.InputStreamProvider;
+import com.dremio.exec.store.parquet.ManagedSchema;
+import com.dremio.exec.store.parquet.MutableParquetMetadata;
+import com.dremio.exec.store.parquet.ParquetDictionaryConvertor;
+import com.dremio.exec.store.parquet.ParquetFilterCondition;
+import com.dremio.exec.store.parquet.ParquetFilterCreator;
+import com.dremio.exec.store.parquet.ParquetReaderFactory;
+import com.dremio.exec.store.parquet.ParquetScanProjectedColumns;
+import com.dremio.exec.store.parquet.SchemaDerivationHelper;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * {@link ParquetReaderFactory} backed by {@link ParquetVectorizedReader}. Flat, non-repeated columns whose pages
+ * are encoded in a way the column readers can decode are read vectorized; everything else is left to the row-wise
+ * reader by {@link com.dremio.exec.store.parquet.UnifiedParquetReader}.
+ */
+public class VectorizedParquetReaderFactory implements ParquetReaderFactory {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(VectorizedParquetReaderFactory.class);
+
+  private static final Set<Encoding> SUPPORTED_ENCODINGS = ImmutableSet.of(
+    Encoding.PLAIN, Encoding.PLAIN_DICTIONARY, Encoding.RLE, Encoding.BIT_PACKED);
+
+  @Override
+  public boolean isSupported(ColumnChunkMetaData chunk) {
+    if (chunk.getPath().size() != 1 || !SUPPORTED_ENCODINGS.containsAll(chunk.getEncodings())) {
+      return false;
+    }
+
+    final PrimitiveType type = chunk.getPrimitiveType();
+    if (type.getRepetition() == Repetition.REPEATED || type.getOriginalType() == OriginalType.INTERVAL) {
+      return false;
+    }
+
+    final boolean dictionaryEncoded = chunk.getEncodings().contains(Encoding.PLAIN_DICTIONARY);
+    final boolean nullable = type.getRepetition() == Repetition.OPTIONAL;
+    if (type.getPrimitiveTypeName() == PrimitiveTypeName.INT96) {
+      // only the nullable plain reader knows how to read int96 as a timestamp
+      return nullable && !dictionaryEncoded;
+    }
+    if (type.getPrimitiveTypeName() == PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY && nullable) {
+      return type.getOriginalType() == OriginalType.DECIMAL && !dictionaryEncoded;
+    }
+    return true;
+  }
+
+  @Override
+  public RecordReader newReader(OperatorContext context,
+                                ParquetScanProjectedColumns projectedColumns,
+                                String path,
+                                CompressionCodecFactory codecFactory,
+                                List<ParquetFilterCondition> conditions,
+                                ParquetFilterCreator filterCreator,
+                                ParquetDictionaryConvertor dictionaryConvertor,
+                                boolean enableDetailedTracing,
+                                MutableParquetMetadata footer,
+                                int rowGroupIndex,
+                                SimpleIntVector deltas,
+                                SchemaDerivationHelper schemaHelper,
+                                InputStreamProvider inputStreamProvider,
+                                List<RuntimeFilter> runtimeFilters,
+                                ArrowBuf validityBuf,
+                                BatchSchema tableSchema,
+                                boolean ignoreSchemaLearning) {
+    try {
+      return new ParquetVectorizedReader(context, projectedColumns, path, codecFactory, conditions, footer,
+        rowGroupIndex, deltas, schemaHelper, inputStreamProvider, runtimeFilters, validityBuf, tableSchema);
+    } catch (ExecutionSetupException e) {
+      throw UserException.dataReadError(e)
+        .message("Failure while creating vectorized reader for parquet file %s", path)
+        .build(logger);
+    }
+  }
+
+  @Override
+  public ParquetFilterCreator newFilterCreator(OperatorContext operatorContext, ManagedSchemaType type, ManagedSchema schema, BufferAllocator allocator) {
+    return ParquetFilterCreator.DEFAULT;
+  }
+
+  @Override
+  public ParquetDictionaryConvertor newDictionaryConvertor(ManagedSchemaType type, ManagedSchema schema) {
+    return ParquetDictionaryConvertor.DEFAULT;
+  }
+}
@@ -52,11 +52,22 @@ public class RuntimeFilterManager implements AutoCloseable {
     private long subFilterDropCount = 0L;
     private final BufferAllocator allocator;
     private final int valFilterMaxSize;
+    private final boolean minMaxEnabled;
 
     public RuntimeFilterManager(final BufferAllocator allocator, final int valFilterMaxSize, final Set<Integer> allMinorFragments) {
+        this(allocator, valFilterMaxSize, allMinorFragments, false);
+    }
+
+    /**
+     * @param minMaxEnabled true to merge the value lists of fixed width columns into a min/max range when the merged
+     *                      list exceeds valFilterMaxSize, instead of dropping the column filter
+     */
+    public RuntimeFilterManager(final BufferAllocator allocator, final int valFilterMaxSize, final Set<Integer> allMinorFragments,
+                                final boolean minMaxEnabled) {
         this.allMinorFragments = allMinorFragments;
         this.allocator = allocator;
         this.valFilterMaxSize = valFilterMaxSize;
+        this.minMaxEnabled = minMaxEnabled;
     }
 
     /**
@@ -289,13 +300,31 @@ public class RuntimeFilterManager implements AutoCloseable {
 
                 final ValueListFilter thisFilter = getNonPartitionColFilter(fieldName);
                 checkArgument(thisFilter.isBoolField() == thatFilter.isBoolField(), "Cannot merge a boolean filter from a non-boolean one.");
-                ValueListFilter mergedFilter = ValueListFilterBuilder.buildPlainInstance(allocator,
-                        thatFilter.getBlockSize(), valFilterMaxSize, thisFilter.isBoolField());
-                closeables.add(mergedFilter);
+                final boolean rangeAllowed = minMaxEnabled && thisFilter.supportsRange();
+                ValueListFilter mergedFilter = null;
+                if (!thisFilter.isRange() && !thatFilter.isRange()) {
+                    // make room for the complete union if it can be turned into a range
+                    final long maxElements = rangeAllowed ?
+                            Math.max(valFilterMaxSize, (long) thisFilter.getValueCount() + thatFilter.getValueCount()) : valFilterMaxSize;
+                    final ValueListFilter plainFilter = ValueListFilterBuilder.buildPlainInstance(allocator,
+                            thatFilter.getBlockSize(), maxElements, thisFilter.isBoolField());
+                    closeables.add(plainFilter);
+                    ValueListFilter.merge(thisFilter, thatFilter, plainFilter);
+                    if (plainFilter.getValueCount() <= valFilterMaxSize) {
+                        mergedFilter = plainFilter;
+                    } else {
+                        checkState(rangeAllowed, "Merged valuelistfilter overflown for %s.", fieldName);
+                    }
+                } else {
+                    checkState(rangeAllowed, "Range filters are not allowed for %s.", fieldName);
+                }
 
-                ValueListFilter.merge(thisFilter, thatFilter, mergedFilter);
-                checkState(mergedFilter.getValueCount() <= valFilterMaxSize, "Merged valuelistfilter overflown for %s.", fieldName);
-                logger.debug("Merged value list filter for column {}", fieldName);
+                if (mergedFilter == null) {
+                    mergedFilter = ValueListFilterBuilder.buildPlainInstance(allocator, thatFilter.getBlockSize(), 2, false);
+                    closeables.add(mergedFilter);
+                    ValueListFilter.mergeRange(thisFilter, thatFilter, mergedFilter);
+                }
+                logger.debug("Merged value list filter for column {}, range: {}", fieldName, mergedFilter.isRange());
                 closeables.remove(mergedFilter);
                 closeables.add(thisFilter);
                 nonPartitionColFilters.put(fieldName, mergedFilter);
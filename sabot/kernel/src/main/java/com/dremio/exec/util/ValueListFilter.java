@@ -33,7 +33,8 @@ import com.dremio.sabot.op.common.ht2.Copier;
 import io.netty.util.internal.PlatformDependent;
 
 /**
- * Used for runtime filtering at joins. Contains list of unique and sorted join key values
+ * Used for runtime filtering at joins. Contains list of unique and sorted join key values, or only the min and max
+ * join key values if the filter is a range (fixed width non boolean fields only).
  */
 public class ValueListFilter implements AutoCloseable {
     private static final Logger logger = LoggerFactory.getLogger(ValueListFilter.class);
@@ -48,6 +49,7 @@ public class ValueListFilter implements AutoCloseable {
     private boolean isFixedWidth = true;
     private boolean isBoolField;
     private boolean containsNull;
+    private boolean isRange;
     private Types.MinorType fieldType;
     private byte precision;
     private byte scale;
@@ -80,14 +82,15 @@ public class ValueListFilter implements AutoCloseable {
         this.precision = fullBuffer.getByte(30);
         this.scale = fullBuffer.getByte(31);
 
-        // Control bits are organized as - 0:isFixedWidth, 1:containsNull, 2:isBoolField, 3:containsTrue, 4:containsFalse
-        // 3 & 4 are applicable only if vector is representing a boolean value set. Set to zero otherwise.
+        // Control bits are organized as - 0:isFixedWidth, 1:containsNull, 2:isBoolField, 3:containsTrue, 4:containsFalse,
+        // 5:isRange. 3 & 4 are applicable only if vector is representing a boolean value set. Set to zero otherwise.
         final byte controlByte = fullBuffer.getByte(32);
         this.isFixedWidth = getBit(controlByte, 0);
         this.containsNull = getBit(controlByte, 1);
         this.isBoolField = getBit(controlByte, 2);
         this.containsTrue = getBit(controlByte, 3);
         this.containsFalse = getBit(controlByte, 4);
+        this.isRange = getBit(controlByte, 5);
 
         fullBuffer.readerIndex(0);
         fullBuffer.writerIndex(META_SIZE + (blockSize * valueCount));
@@ -115,6 +118,7 @@ public class ValueListFilter implements AutoCloseable {
         controlByte = copySetBit(controlByte, 2, isBoolField);
         controlByte = copySetBit(controlByte, 3, containsTrue);
         controlByte = copySetBit(controlByte, 4, containsFalse);
+        controlByte = copySetBit(controlByte, 5, isRange);
         this.fullBuffer.setByte(32, controlByte);
 
         fullBuffer.readerIndex(0);
@@ -169,6 +173,26 @@ public class ValueListFilter implements AutoCloseable {
         isBoolField = boolField;
     }
 
+    /**
+     * @return true if the filter only holds the min (first) and max (second) values of the join keys, any value in
+     * between may be a join key
+     */
+    public boolean isRange() {
+        return isRange;
+    }
+
+    public void setRange(boolean range) {
+        isRange = range;
+    }
+
+    /**
+     * @return true if the values of the filter can be replaced by their min/max range
+     */
+    public boolean supportsRange() {
+        // decimal values are not compared across buffers
+        return isFixedWidth && !isBoolField && fieldType != null && fieldType != Types.MinorType.DECIMAL;
+    }
+
     public boolean isContainsNull() {
         return containsNull;
     }
@@ -275,6 +299,43 @@ public class ValueListFilter implements AutoCloseable {
         mergedValList.writeMetaToBuffer();
     }
 
+    /**
+     * Merges two compatible filters into the range spanning the values of both. The values of each incoming filter
+     * are sorted, whether it is a range or not, so only the first and last values are compared.
+     *
+     * @param valList1
+     * @param valList2
+     * @param mergedValList filter with room for two values
+     */
+    public static void mergeRange(final ValueListFilter valList1, final ValueListFilter valList2, final ValueListFilter mergedValList) {
+        checkArgument(valList1.isCompatible(valList2), "Incompatible value list filters %s %s", valList1, valList2);
+        checkArgument(valList1.supportsRange(), "Range is not supported for %s", valList1);
+        checkState(mergedValList.valOnlyBuf().capacity() >= 2L * valList1.getBlockSize(), "Merged buffer overflown.");
+        mergedValList.copyMetaProperties(valList1);
+        mergedValList.setContainsNull(valList1.isContainsNull() || valList2.isContainsNull());
+        mergedValList.setRange(true);
+
+        final ArrowCrossBufComparator comparator = valList1.getComparator();
+        final ValueListFilter minSrc;
+        final ValueListFilter maxSrc;
+        if (valList1.getValueCount() == 0 || valList2.getValueCount() == 0) {
+            minSrc = maxSrc = valList1.getValueCount() == 0 ? valList2 : valList1;
+        } else {
+            minSrc = comparator.compare(valList1.valOnlyBuf(), 0, valList2.valOnlyBuf(), 0) <= 0 ? valList1 : valList2;
+            maxSrc = comparator.compare(valList1.valOnlyBuf(), valList1.getValueCount() - 1,
+                    valList2.valOnlyBuf(), valList2.getValueCount() - 1) >= 0 ? valList1 : valList2;
+        }
+
+        if (minSrc.getValueCount() == 0) {
+            mergedValList.setValueCount(0);
+        } else {
+            copyValue(minSrc, 0, mergedValList, 0);
+            copyValue(maxSrc, maxSrc.getValueCount() - 1, mergedValList, 1);
+            mergedValList.setValueCount(2);
+        }
+        mergedValList.writeMetaToBuffer();
+    }
+
     public boolean isContainsTrue() {
         return containsTrue;
     }
@@ -321,6 +382,7 @@ public class ValueListFilter implements AutoCloseable {
                 ", name='" + name + '\'' +
                 ", fieldType=" + fieldType +
                 ", fixedWidth=" + isFixedWidth() +
+                ", range=" + isRange() +
                 '}';
     }
 
@@ -34,7 +34,9 @@ import com.dremio.common.expression.fn.impl.MurmurHash3;
 import com.dremio.sabot.op.common.ht2.Copier;
 
 /**
- * Helps to prepare value list with unique values in a sorted fashion.
+ * Helps to prepare value list with unique values in a sorted fashion. If the range fallback is enabled, a fixed
+ * width non boolean value list that outgrows its capacity is turned into a range holding only the min and max values
+ * instead of failing.
  */
 public class ValueListFilterBuilder implements AutoCloseable{
     // Arranged as hash buckets pointing to a linked list of values. hashBuckets contains hashKey positions,
@@ -51,6 +53,8 @@ public class ValueListFilterBuilder implements AutoCloseable{
     private int nextEmptyIndex = 0;
     private int maxHashBuckets;
     private boolean isBoolean;
+    private boolean rangeFallback;
+    private boolean isRange;
 
     private List<AutoCloseable> closeables = new ArrayList<>();
 
@@ -97,11 +101,17 @@ public class ValueListFilterBuilder implements AutoCloseable{
         checkArgument(!isBoolean, "Insertion for boolean should be done via insertTrue() / insertFalse()");
         checkArgument(keyBuf.capacity() >= blockSize, "Invalid key size %s. Compatible key size is %s",
                 keyBuf.capacity(), blockSize); // KeyBuf can round up and have extra bytes than the capacity it asked for.
+        if (isRange) {
+            return updateRange(keyBuf);
+        }
         final long hashIndex = hash(keyBuf);
         int keyIndex = hashBuckets.getInt(hashIndex);
 
         if (keyIndex == -1) {
             // new entry
+            if (switchToRangeIfFull()) {
+                return updateRange(keyBuf);
+            }
             final int insertedValIndex = insertNewElement(keyBuf);
             hashBuckets.setInt(hashIndex, insertedValIndex);
             return true;
@@ -119,6 +129,9 @@ public class ValueListFilterBuilder implements AutoCloseable{
             int nextValIndex = hashKeyNextIndexes.getInt(keyIndex * 4);
             if (nextValIndex == -1) {
                 // At tail node, this is a distinct new key.
+                if (switchToRangeIfFull()) {
+                    return updateRange(keyBuf);
+                }
                 final int insertedValIndex = insertNewElement(keyBuf);
                 hashKeyNextIndexes.setInt(keyIndex * 4, insertedValIndex);
                 return true;
@@ -136,6 +149,52 @@ public class ValueListFilterBuilder implements AutoCloseable{
         return insertionIndex;
     }
 
+    /**
+     * Moves the min and max values of a full store to the first two positions; only these positions are used once
+     * the builder is a range.
+     *
+     * @return true if the builder is now a range
+     */
+    private boolean switchToRangeIfFull() {
+        if (isNotFull() || !rangeFallback || !valueListFilter.supportsRange() || capacity < 2) {
+            return false;
+        }
+
+        final ArrowCrossBufComparator comparator = valueListFilter.getComparator();
+        int minIndex = 0;
+        int maxIndex = 0;
+        for (int i = 1; i < nextEmptyIndex; i++) {
+            if (comparator.compare(valuesList, i, valuesList, minIndex) < 0) {
+                minIndex = i;
+            } else if (comparator.compare(valuesList, i, valuesList, maxIndex) > 0) {
+                maxIndex = i;
+            }
+        }
+
+        try (ArrowBuf bounds = allocator.buffer(2L * blockSize)) {
+            Copier.copy(valuesList.memoryAddress() + (minIndex * blockSize), bounds.memoryAddress(), blockSize);
+            Copier.copy(valuesList.memoryAddress() + (maxIndex * blockSize), bounds.memoryAddress() + blockSize, blockSize);
+            Copier.copy(bounds.memoryAddress(), valuesList.memoryAddress(), 2 * blockSize);
+        }
+        nextEmptyIndex = 2;
+        isRange = true;
+        this.valueListFilter.setRange(true);
+        return true;
+    }
+
+    private boolean updateRange(final ArrowBuf keyBuf) {
+        final ArrowCrossBufComparator comparator = valueListFilter.getComparator();
+        if (comparator.compare(keyBuf, 0, valuesList, 0) < 0) {
+            Copier.copy(keyBuf.memoryAddress(), valuesList.memoryAddress(), blockSize);
+            return true;
+        }
+        if (comparator.compare(keyBuf, 0, valuesList, 1) > 0) {
+            Copier.copy(keyBuf.memoryAddress(), valuesList.memoryAddress() + blockSize, blockSize);
+            return true;
+        }
+        return false;
+    }
+
     public void insertNull() {
         this.valueListFilter.setContainsNull(true);
         checkBooleanCombinationsLeft();
@@ -182,6 +241,14 @@ public class ValueListFilterBuilder implements AutoCloseable{
         return this;
     }
 
+    /**
+     * Enables turning the value list into a min/max range once it is full, instead of failing the insertion.
+     */
+    public ValueListFilterBuilder setRangeFallback(boolean rangeFallback) {
+        this.rangeFallback = rangeFallback;
+        return this;
+    }
+
     public ValueListFilter build() {
         this.valueListFilter.setBlockSize(this.blockSize);
         this.valueListFilter.setValueCount(this.nextEmptyIndex);
@@ -226,7 +293,7 @@ public class ValueListFilterBuilder implements AutoCloseable{
     }
 
     private void sortValList() {
-        if (this.valueListFilter.isBoolField()) {
+        if (this.valueListFilter.isBoolField() || this.valueListFilter.isRange()) {
             return;
         }
 
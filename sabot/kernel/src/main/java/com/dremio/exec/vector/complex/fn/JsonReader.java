@@ -19,8 +19,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VarCharVector;
 import org.apache.arrow.vector.complex.writer.BaseWriter;
 import org.apache.arrow.vector.complex.writer.BaseWriter.ComplexWriter;
 import org.apache.arrow.vector.complex.writer.BaseWriter.ListWriter;
@@ -74,6 +81,13 @@ public class JsonReader extends BaseJsonProcessor {
 
   private FieldSelection selection;
 
+  /**
+   * Vectors of the top level primitive fields written directly instead of through the complex writer, by field name.
+   * Field names are case insensitive, as in the output mutator.
+   */
+  private final Map<String, ValueVector> topLevelVectors = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+  private int position;
+
   public JsonReader(ArrowBuf managedBuf, int maxFieldSize, int maxLeafLimit, boolean allTextMode, boolean skipOuterList, boolean readNumbersAsDouble) {
     this(managedBuf, GroupScan.ALL_COLUMNS, maxFieldSize, maxLeafLimit, allTextMode, skipOuterList, readNumbersAsDouble);
   }
@@ -96,6 +110,32 @@ public class JsonReader extends BaseJsonProcessor {
     this.currentLeafCount = 0;
   }
 
+  /**
+   * Write the values of the top level fields of the given vectors directly into the vectors, as long as they have the
+   * type of the vector. A field getting a value of another type, or a field without a vector, is written through the
+   * complex writer, which promotes the field to a union or adds the field.
+   *
+   * Only valid when the records are written at the position given by {@link #setPosition(int)}, and not in all text
+   * mode, which writes every value as text.
+   */
+  public void setTopLevelVectors(Iterable<ValueVector> vectors) {
+    Preconditions.checkState(!allTextMode, "Top level vectors are not supported in all text mode");
+    topLevelVectors.clear();
+    for (ValueVector vector : vectors) {
+      if (vector instanceof BigIntVector || vector instanceof Float8Vector || vector instanceof BitVector
+        || vector instanceof VarCharVector) {
+        topLevelVectors.put(vector.getField().getName(), vector);
+      }
+    }
+  }
+
+  /**
+   * Set the position of the next record in the top level vectors.
+   */
+  public void setPosition(int position) {
+    this.position = position;
+  }
+
   @Override
   public void resetDataSizeCounter() {
     dataSizeReadSoFar = 0;
@@ -296,7 +336,7 @@ public class JsonReader extends BaseJsonProcessor {
     if (this.allTextMode) {
       writeStructDataAllText(w, this.selection, true);
     } else {
-      writeStructData(w, this.selection, true);
+      writeStructData(w, this.selection, true, true);
     }
   }
 
@@ -331,6 +371,11 @@ public class JsonReader extends BaseJsonProcessor {
    * @throws IOException
    */
   private void writeStructData(BaseWriter.StructWriter map, FieldSelection selection, boolean moveForward) throws IOException {
+    writeStructData(map, selection, moveForward, false);
+  }
+
+  private void writeStructData(BaseWriter.StructWriter map, FieldSelection selection, boolean moveForward,
+                               boolean topLevel) throws IOException {
     //
     map.start();
     try {
@@ -359,7 +404,12 @@ public class JsonReader extends BaseJsonProcessor {
           continue outside;
         }
 
-        switch (parser.nextToken()) {
+        final JsonToken valueToken = parser.nextToken();
+        if (topLevel && !topLevelVectors.isEmpty() && writeTopLevelValue(fieldName, valueToken)) {
+          continue outside;
+        }
+
+        switch (valueToken) {
         case START_ARRAY:
           writeListData(map.list(fieldName), childSelection);
           break;
@@ -416,6 +466,67 @@ public class JsonReader extends BaseJsonProcessor {
     }
   }
 
+  /**
+   * Write a value of a top level field directly into the vector of the field.
+   * @return false if the value is to be written through the complex writer
+   */
+  private boolean writeTopLevelValue(String fieldName, JsonToken t) throws IOException {
+    final ValueVector vector = topLevelVectors.get(fieldName);
+    if (vector == null) {
+      return false;
+    }
+
+    switch (t) {
+    case VALUE_FALSE:
+    case VALUE_TRUE:
+      if (vector instanceof BitVector) {
+        incrementLeafCount();
+        ((BitVector) vector).setSafe(position, t == JsonToken.VALUE_TRUE ? 1 : 0);
+        return true;
+      }
+      break;
+    case VALUE_NULL:
+      // nothing to write either way
+      return true;
+    case VALUE_NUMBER_FLOAT:
+      if (vector instanceof Float8Vector) {
+        incrementLeafCount();
+        ((Float8Vector) vector).setSafe(position, parser.getDoubleValue());
+        return true;
+      }
+      break;
+    case VALUE_NUMBER_INT:
+      if (readNumbersAsDouble && vector instanceof Float8Vector) {
+        incrementLeafCount();
+        ((Float8Vector) vector).setSafe(position, parser.getDoubleValue());
+        return true;
+      } else if (!readNumbersAsDouble && vector instanceof BigIntVector) {
+        incrementLeafCount();
+        ((BigIntVector) vector).setSafe(position, parser.getLongValue());
+        return true;
+      }
+      break;
+    case VALUE_STRING:
+      if (vector instanceof VarCharVector) {
+        incrementLeafCount();
+        final int size = workingBuffer.prepareVarCharHolder(parser.getText());
+        FieldSizeLimitExceptionHelper.checkSizeLimit(size, maxFieldSize, currentFieldName, logger);
+        ((VarCharVector) vector).setSafe(position, 0, size, workingBuffer.getBuf());
+        dataSizeReadSoFar += size;
+        return true;
+      }
+      break;
+    default:
+      break;
+    }
+
+    // the field got a value of another type: stop writing it directly, as the complex writer might replace its
+    // vector, and leave the vector as if all its values had been written through the complex writer
+    topLevelVectors.remove(fieldName);
+    vector.setValueCount(position);
+    return false;
+  }
+
   private void writeStructDataAllText(BaseWriter.StructWriter map, FieldSelection selection, boolean moveForward) throws IOException {
     //
     map.start();
@@ -30,6 +30,7 @@ import com.dremio.common.utils.protos.QueryWritableBatch;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.maestro.MaestroService;
 import com.dremio.exec.ops.QueryContext;
+import com.dremio.exec.planner.PlanCache;
 import com.dremio.exec.planner.observer.AttemptObserver;
 import com.dremio.exec.planner.sql.handlers.commands.AsyncCommand;
 import com.dremio.exec.planner.sql.handlers.commands.CommandCreator;
@@ -750,6 +751,11 @@ public class AttemptManager implements Runnable {
           logger.warn("Exception sending result to client", resultException);
         }
 
+        final PlanCache planCache = queryContext.getPlanCache();
+        if (planCache != null && planCache.getResultCache() != null) {
+          planCache.getResultCache().complete(queryId, resultState == QueryState.COMPLETED);
+        }
+
         try {
           if (command != null) {
             command.close();
@@ -43,7 +43,9 @@ import com.dremio.exec.ExecConstants;
 import com.dremio.exec.maestro.MaestroForwarder;
 import com.dremio.exec.maestro.MaestroService;
 import com.dremio.exec.planner.CachedPlan;
+import com.dremio.exec.planner.CachedResult;
 import com.dremio.exec.planner.PlanCache;
+import com.dremio.exec.planner.ResultCache;
 import com.dremio.exec.planner.observer.OutOfBandQueryObserver;
 import com.dremio.exec.planner.observer.QueryObserver;
 import com.dremio.exec.planner.sql.handlers.commands.PreparedPlan;
@@ -233,7 +235,16 @@ public class ForemenWorkManager implements Service, SafeExit {
       .expireAfterAccess(dbContext.get().getDremioConfig().getLong(DremioConfig.PLAN_CACHE_TIMEOUT_MINUTES), TimeUnit.MINUTES)
       .build();
 
-    planCache = new PlanCache(cachedPlans, Multimaps.synchronizedListMultimap(ArrayListMultimap.create()));
+    // cache for query results, weighted by the size in KB of the results in the job results store.
+    final Cache<String, CachedResult> cachedResults = CacheBuilder.newBuilder()
+      .maximumWeight(dbContext.get().getDremioConfig().getLong(DremioConfig.RESULT_CACHE_MAX_SIZE_BYTES) / 1024)
+      .weigher((Weigher<String, CachedResult>) (key, cachedResult) ->
+        (int) Math.min(Integer.MAX_VALUE, cachedResult.getSizeInBytes() / 1024 + 1))
+      .expireAfterWrite(dbContext.get().getDremioConfig().getLong(DremioConfig.RESULT_CACHE_TIMEOUT_MINUTES), TimeUnit.MINUTES)
+      .build();
+
+    planCache = new PlanCache(cachedPlans, Multimaps.synchronizedListMultimap(ArrayListMultimap.create()),
+      new ResultCache(cachedResults));
 
   }
 
@@ -341,7 +341,8 @@ public class FragmentWorkManager implements Service, SafeExit {
         ClusterCoordinator.Role.fromEndpointRoles(identity.get().getRoles()),
         jobResultsClientFactoryProvider,
         identity,
-        bitContext.getExpressionSplitCache());
+        bitContext.getExpressionSplitCache(),
+        bitContext.getParquetFooterCache());
 
     executorService = new ExecutorServiceImpl(fragmentExecutors,
             bitContext, builder);
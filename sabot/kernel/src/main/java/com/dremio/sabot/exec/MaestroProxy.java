@@ -39,6 +39,7 @@ import com.dremio.exec.proto.ExecProtos;
 import com.dremio.exec.proto.UserBitShared.QueryId;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.cursors.FileCursorManagerFactory;
+import com.dremio.sabot.op.join.vhash.SharedJoinTables;
 import com.dremio.service.coordinator.ClusterCoordinator;
 import com.dremio.service.jobtelemetry.client.JobTelemetryExecutorClientFactory;
 import com.dremio.service.maestroservice.MaestroClientFactory;
@@ -176,6 +177,10 @@ public class MaestroProxy implements AutoCloseable {
     return trackers.getUnchecked(queryId).getFileCursorManagerFactory();
   }
 
+  public SharedJoinTables getSharedJoinTables(QueryId queryId) {
+    return trackers.getUnchecked(queryId).getSharedJoinTables();
+  }
+
   @Override
   public void close() throws Exception {
     AutoCloseables.close(trackers, retryPool);
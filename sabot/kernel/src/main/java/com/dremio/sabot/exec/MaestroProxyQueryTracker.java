@@ -46,6 +46,7 @@ import com.dremio.exec.proto.UserBitShared.QueryId;
 import com.dremio.exec.proto.UserBitShared.StreamProfile;
 import com.dremio.sabot.exec.cursors.FileCursorManagerFactory;
 import com.dremio.sabot.exec.cursors.FileCursorManagerFactoryImpl;
+import com.dremio.sabot.op.join.vhash.SharedJoinTables;
 import com.dremio.service.coordinator.ClusterCoordinator;
 import com.dremio.service.coordinator.NodeStatusListener;
 import com.dremio.service.jobtelemetry.client.JobTelemetryExecutorClient;
@@ -73,6 +74,7 @@ class MaestroProxyQueryTracker implements QueryTracker {
   private final Map<FragmentHandle, FragmentStatus> lastFragmentStatuses = new HashMap<>();
   private final ForemanDeathListener foremanDeathListener = new ForemanDeathListener();
   private final FileCursorManagerFactory fileCursorManagerFactory = new FileCursorManagerFactoryImpl();
+  private final SharedJoinTables sharedJoinTables = new SharedJoinTables();
 
   private State state = State.INVALID;
   private boolean cancelled;
@@ -401,6 +403,13 @@ class MaestroProxyQueryTracker implements QueryTracker {
       return;
     }
 
+    // the fragments release the shared join tables when done, close the tables of fragments that never ran
+    try {
+      sharedJoinTables.close();
+    } catch (Exception e) {
+      logger.warn("closing the shared join tables of query {} failed", QueryIdHelper.getQueryId(queryId), e);
+    }
+
     // This is required so that all of the final metrics are reflected accurately.
     ExecutorQueryProfile finalQueryProfile = getExecutorQueryProfile();
     sendNodeCompletion(finalQueryProfile);
@@ -535,6 +544,11 @@ class MaestroProxyQueryTracker implements QueryTracker {
     return fileCursorManagerFactory;
   }
 
+  @Override
+  public SharedJoinTables getSharedJoinTables() {
+    return sharedJoinTables;
+  }
+
   private class ForemanDeathListener implements NodeStatusListener {
 
     @Override
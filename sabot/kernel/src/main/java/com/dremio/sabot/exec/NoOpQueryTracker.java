@@ -19,6 +19,7 @@ import java.util.Optional;
 
 import com.dremio.exec.proto.CoordinationProtos;
 import com.dremio.sabot.exec.cursors.FileCursorManagerFactory;
+import com.dremio.sabot.op.join.vhash.SharedJoinTables;
 import com.dremio.service.jobtelemetry.client.JobTelemetryExecutorClient;
 import com.dremio.service.maestroservice.MaestroClient;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -77,4 +78,9 @@ public class NoOpQueryTracker implements QueryTracker {
   public FileCursorManagerFactory getFileCursorManagerFactory() {
     return null;
   }
+
+  @Override
+  public SharedJoinTables getSharedJoinTables() {
+    return null;
+  }
 }
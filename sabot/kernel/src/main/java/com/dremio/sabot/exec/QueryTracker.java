@@ -23,6 +23,7 @@ import com.dremio.exec.proto.CoordExecRPC;
 import com.dremio.exec.proto.CoordinationProtos;
 import com.dremio.exec.proto.ExecProtos;
 import com.dremio.sabot.exec.cursors.FileCursorManagerFactory;
+import com.dremio.sabot.op.join.vhash.SharedJoinTables;
 import com.dremio.service.jobtelemetry.client.JobTelemetryExecutorClient;
 import com.dremio.service.maestroservice.MaestroClient;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -105,4 +106,10 @@ interface QueryTracker extends MayExpire {
   void setQuerySentTime(long querySentTime);
 
   FileCursorManagerFactory getFileCursorManagerFactory();
+
+  /**
+   * Get the join tables shared by the fragments of the query running on this node
+   * @return
+   */
+  SharedJoinTables getSharedJoinTables();
 }
@@ -43,6 +43,7 @@ import com.dremio.exec.proto.UserBitShared.QueryId;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.exec.server.NodeDebugContextProvider;
+import com.dremio.exec.store.parquet.ParquetFooterCache;
 import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
@@ -132,6 +133,8 @@ public abstract class OperatorContext {
 
   public abstract ExpressionSplitCache getExpressionSplitCache();
 
+  public abstract ParquetFooterCache getParquetFooterCache();
+
   public static int getChildCount(PhysicalOperator popConfig) {
     Iterator<PhysicalOperator> iter = popConfig.iterator();
     int i = 0;
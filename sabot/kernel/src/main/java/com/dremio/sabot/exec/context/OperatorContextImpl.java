@@ -52,6 +52,7 @@ import com.dremio.exec.proto.UserBitShared.QueryId;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.selection.SelectionVector2;
 import com.dremio.exec.server.NodeDebugContextProvider;
+import com.dremio.exec.store.parquet.ParquetFooterCache;
 import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.fragment.FragmentExecutorBuilder;
@@ -91,6 +92,7 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
   private final Map<Integer, MajorFragmentAssignment> majorFragmentAssignments;
   private final List<MinorFragmentEndpoint> minorFragmentEndpoints;
   private final ExpressionSplitCache expressionSplitCache;
+  private final ParquetFooterCache parquetFooterCache;
 
   public OperatorContextImpl(
     SabotConfig sabotConfig,
@@ -116,7 +118,8 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider,
     EndpointsIndex endpointsIndex,
     List<MinorFragmentEndpoint> minorFragmentEndpoints,
-    ExpressionSplitCache expressionSplitCache) throws OutOfMemoryException {
+    ExpressionSplitCache expressionSplitCache,
+    ParquetFooterCache parquetFooterCache) throws OutOfMemoryException {
     this.config = sabotConfig;
     this.dremioConfig = dremioConfig;
     this.handle = handle;
@@ -147,6 +150,7 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
             .orElse(Collections.emptyMap());
     this.minorFragmentEndpoints = minorFragmentEndpoints;
     this.expressionSplitCache = expressionSplitCache;
+    this.parquetFooterCache = parquetFooterCache;
   }
 
   public OperatorContextImpl(
@@ -158,7 +162,7 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
 
     this(config, dremioConfig, null, null, allocator, allocator, null, null, null, null, null, null, null,
       optionManager, null, NodeDebugContextProvider.NOOP, targetBatchSize, null, ImmutableList.of(), ImmutableList.of(), null, null, null,
-      expressionSplitCache);
+      expressionSplitCache, null);
   }
 
   @Override
@@ -203,6 +207,11 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     return expressionSplitCache;
   }
 
+  @Override
+  public ParquetFooterCache getParquetFooterCache() {
+    return parquetFooterCache;
+  }
+
   @Override
   public QueryId getQueryIdForLocalQuery() {
     if (fragmentExecutorBuilder == null) {
@@ -504,6 +504,11 @@ public class FragmentExecutor {
     clusterCoordinator.getServiceSet(ClusterCoordinator.Role.COORDINATOR).removeNodeStatusListener(crashListener);
 
     deferredException.suppressingClose(contextCreator);
+    if (tunnelProvider != null) {
+      // release the shared join tables before the allocator of the phase they're allocated from, even if the fragment
+      // failed before setting up its joins
+      deferredException.suppressingClose(tunnelProvider::releaseSharedJoinTables);
+    }
     deferredException.suppressingClose(outputAllocator);
     synchronized (allocatorLock) {
       workQueue.retire();
@@ -52,6 +52,7 @@ import com.dremio.exec.server.options.DefaultOptionManager;
 import com.dremio.exec.server.options.FragmentOptionManager;
 import com.dremio.exec.server.options.OptionManagerWrapper;
 import com.dremio.exec.store.CatalogService;
+import com.dremio.exec.store.parquet.ParquetFooterCache;
 import com.dremio.exec.testing.ControlsInjector;
 import com.dremio.exec.testing.ControlsInjectorFactory;
 import com.dremio.exec.testing.ExecutionControls;
@@ -116,6 +117,7 @@ public class FragmentExecutorBuilder {
   private final DecimalFunctionImplementationRegistry decimalFuncRegistry;
   private final CodeCompiler compiler;
   private final ExpressionSplitCache expressionSplitCache;
+  private final ParquetFooterCache parquetFooterCache;
   private final PhysicalPlanReader planReader;
   private final Set<ClusterCoordinator.Role> roles;
   private final CatalogService sources;
@@ -149,7 +151,8 @@ public class FragmentExecutorBuilder {
     Set<ClusterCoordinator.Role> roles,
     Provider<JobResultsClientFactory> jobResultsClientFactoryProvider,
     Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider,
-    ExpressionSplitCache expressionSplitCache) {
+    ExpressionSplitCache expressionSplitCache,
+    ParquetFooterCache parquetFooterCache) {
     this.clerk = clerk;
     this.fragmentExecutors = fragmentExecutors;
     this.nodeEndpoint = nodeEndpoint;
@@ -161,6 +164,7 @@ public class FragmentExecutorBuilder {
     this.optionManager = optionManager;
     this.dataCreator = dataCreator;
     this.expressionSplitCache = expressionSplitCache;
+    this.parquetFooterCache = parquetFooterCache;
     this.namespace = namespace;
     this.planReader = planReader;
     this.opCreator = operatorCreatorRegistry;
@@ -292,7 +296,9 @@ public class FragmentExecutorBuilder {
         final StatusHandler handler = new StatusHandler(exception);
         final FileCursorManagerFactory fileCursorManagerFactory = maestroProxy.getFileCursorMangerFactory(fragment.getHandle().getQueryId());
         final TunnelProvider tunnelProvider = new TunnelProviderImpl(flushable.getAccountor(), jobResultsTunnel, dataCreator, handler, sharedResources.getGroup(PIPELINE_RES_GRP),
-          fileCursorManagerFactory);
+          fileCursorManagerFactory, maestroProxy.getSharedJoinTables(fragment.getHandle().getQueryId()), handle);
+        // the fragment executor releases the shared join tables once done, unless it fails to be built
+        services.protect(tunnelProvider::releaseSharedJoinTables);
 
         final OperatorContextCreator creator = new OperatorContextCreator(
             stats,
@@ -316,7 +322,8 @@ public class FragmentExecutorBuilder {
             cachedReader.getPlanFragmentsIndex().getEndpointsIndex(),
             nodeEndpointProvider,
             major.getExtFragmentAssignmentsList(),
-            expressionSplitCache
+            expressionSplitCache,
+            parquetFooterCache
           );
 
         final FragmentStatusReporter statusReporter = new FragmentStatusReporter(fragment.getHandle(), schedulingWeight, stats,
@@ -42,6 +42,7 @@ import com.dremio.exec.proto.CoordExecRPC.FragmentAssignment;
 import com.dremio.exec.proto.CoordinationProtos;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.exec.server.NodeDebugContextProvider;
+import com.dremio.exec.store.parquet.ParquetFooterCache;
 import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.ContextInformation;
@@ -82,6 +83,7 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
   private final List<CoordExecRPC.MajorFragmentAssignment> extFragmentAssignments;
   private List<MinorFragmentEndpoint> minorFragmentEndpoints;
   private final ExpressionSplitCache expressionSplitCache;
+  private final ParquetFooterCache parquetFooterCache;
 
   public OperatorContextCreator(FragmentStats stats, BufferAllocator allocator, CodeCompiler compiler,
                                 SabotConfig config, DremioConfig dremioConfig, FragmentHandle handle, ExecutionControls executionControls,
@@ -91,7 +93,8 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
                                 NodeDebugContextProvider nodeDebugContextProvider, TunnelProvider tunnelProvider,
                                 List<FragmentAssignment> assignments, EndpointsIndex endpointsIndex,
                                 Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider,
-                                List<CoordExecRPC.MajorFragmentAssignment> extFragmentAssignments, ExpressionSplitCache expressionSplitCache) {
+                                List<CoordExecRPC.MajorFragmentAssignment> extFragmentAssignments, ExpressionSplitCache expressionSplitCache,
+                                ParquetFooterCache parquetFooterCache) {
     super();
     this.stats = stats;
     this.allocator = allocator;
@@ -116,6 +119,7 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
     this.endpointsIndex = endpointsIndex;
     this.extFragmentAssignments = extFragmentAssignments;
     this.expressionSplitCache = expressionSplitCache;
+    this.parquetFooterCache = parquetFooterCache;
   }
 
   public void setFragmentOutputAllocator(BufferAllocator fragmentOutputAllocator) {
@@ -170,7 +174,8 @@ class OperatorContextCreator implements OperatorContext.Creator, AutoCloseable {
         nodeEndpointProvider,
         endpointsIndex,
         minorFragmentEndpoints,
-        expressionSplitCache);
+        expressionSplitCache,
+        parquetFooterCache);
       operatorContexts.add(context);
       closeable.commit();
       return context;
@@ -16,9 +16,11 @@
 package com.dremio.sabot.exec.fragment;
 
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.exec.proto.GeneralRPCProtos.Ack;
 import com.dremio.exec.rpc.RpcOutcomeListener;
 import com.dremio.sabot.exec.FragmentWorkManager.ExecConnectionCreator;
@@ -29,6 +31,8 @@ import com.dremio.sabot.exec.rpc.AccountingFileTunnel;
 import com.dremio.sabot.exec.rpc.FileStreamManager;
 import com.dremio.sabot.exec.rpc.FileTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.op.join.vhash.SharedJoinTable;
+import com.dremio.sabot.op.join.vhash.SharedJoinTables;
 import com.dremio.sabot.threads.SendingAccountor;
 import com.dremio.sabot.threads.SendingMonitor;
 import com.dremio.sabot.threads.sharedres.SharedResource;
@@ -50,6 +54,8 @@ class TunnelProviderImpl implements TunnelProvider {
   private final SharedResourceGroup resourceGroup;
   private final RpcOutcomeListener<Ack> statusHandler;
   private final FileCursorManagerFactory cursorManagerFactory;
+  private final SharedJoinTables sharedJoinTables;
+  private final FragmentHandle handle;
 
   public TunnelProviderImpl(
       SendingAccountor accountor,
@@ -57,7 +63,9 @@ class TunnelProviderImpl implements TunnelProvider {
       ExecConnectionCreator connectionCreator,
       RpcOutcomeListener<Ack> statusHandler,
       SharedResourceGroup resourceGroup,
-      FileCursorManagerFactory cursorManagerFactory) {
+      FileCursorManagerFactory cursorManagerFactory,
+      SharedJoinTables sharedJoinTables,
+      FragmentHandle handle) {
     super();
     this.accountor = accountor;
     this.statusHandler = statusHandler;
@@ -68,6 +76,8 @@ class TunnelProviderImpl implements TunnelProvider {
     this.connectionCreator = connectionCreator;
     this.resourceGroup = resourceGroup;
     this.cursorManagerFactory = cursorManagerFactory;
+    this.sharedJoinTables = sharedJoinTables;
+    this.handle = handle;
   }
 
   @Override
@@ -93,4 +103,22 @@ class TunnelProviderImpl implements TunnelProvider {
     final FileTunnel fileTunnel = new FileTunnel(streamManager, maxBatchesPerFile);
     return new AccountingFileTunnel(fileTunnel, cursorManagerFactory, resource);
   }
+
+  @Override
+  public SharedJoinTable.Handle getSharedJoinTable(String id, List<Integer> minorFragmentIds) {
+    if (sharedJoinTables == null) {
+      return null;
+    }
+    final SharedResource resource = resourceGroup.createResource("shared-join-table-" + id,
+      SharedResourceType.SHARED_JOIN_TABLE_BUILD);
+    return sharedJoinTables.get(id, handle.getMajorFragmentId(), minorFragmentIds)
+      .newHandle(handle.getMinorFragmentId(), resource);
+  }
+
+  @Override
+  public void releaseSharedJoinTables() throws Exception {
+    if (sharedJoinTables != null) {
+      sharedJoinTables.release(handle.getMajorFragmentId(), handle.getMinorFragmentId());
+    }
+  }
 }
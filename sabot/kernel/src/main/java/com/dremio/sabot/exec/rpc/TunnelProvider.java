@@ -16,11 +16,27 @@
 package com.dremio.sabot.exec.rpc;
 
 import java.io.IOException;
+import java.util.List;
 
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.sabot.op.join.vhash.SharedJoinTable;
 
 public interface TunnelProvider {
   AccountingExecToCoordTunnel getCoordTunnel();
   AccountingExecTunnel getExecTunnel(final NodeEndpoint endpoint);
   AccountingFileTunnel getFileTunnel(FileStreamManager streamManager, int maxBatchesPerFile) throws IOException;
+
+  /**
+   * Get the join table shared by the fragments of a broadcast hash join running on this node.
+   *
+   * @param id id of the join in the query
+   * @param minorFragmentIds minor fragments of the join running on this node
+   * @return the handle of the table for this fragment, or null if the fragments can't share tables
+   */
+  SharedJoinTable.Handle getSharedJoinTable(String id, List<Integer> minorFragmentIds);
+
+  /**
+   * Release the shared join tables of this fragment once done, including the tables it never got a handle of.
+   */
+  void releaseSharedJoinTables() throws Exception;
 }
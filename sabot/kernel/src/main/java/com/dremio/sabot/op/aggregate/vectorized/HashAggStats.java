@@ -88,6 +88,14 @@ public class HashAggStats {
     OOB_DROP_NO_VICTIM, // Number of times OOB dropped spilling notification as all allocations were minimal.
     OOB_SPILL, // Spill was done due to oob.
     OOB_DROP_ALREADY_SPILLING, // Number of times operator dropped spilling notification as it was already spilling
+
+    // spill compression related metrics
+    SPILL_UNCOMPRESSED_BYTES,   /* total size (in bytes) of spilled data before compression */
+    SPILL_COMPRESSED_BYTES,     /* total size (in bytes) of spilled data written to disk after compression */
+    SPILL_COMPRESSION_NANOS,    /* total time spent compressing spilled data */
+    SPILL_DECOMPRESSION_NANOS,  /* total time spent decompressing spilled data */
+    PARTIAL_BYPASS,             /* 1 if the phase 1 aggregation stopped accumulating the input as it wasn't reducing it */
+    PARTIAL_FLUSHES,            /* number of times the groups were output early by a bypassed phase 1 aggregation */
     ;
 
     @Override
@@ -16,7 +16,7 @@
 
 package com.dremio.sabot.op.aggregate.vectorized;
 
-import org.apache.hadoop.fs.FSDataOutputStream;
+import java.io.OutputStream;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.sabot.op.sort.external.SpillManager;
@@ -74,7 +74,7 @@ public class VectorizedHashAggDiskPartition implements AutoCloseable {
   private final SpillFile spillFile;
   private final String identifier;
   private VectorizedHashAggPartition inmemoryPartitionBackPointer;
-  private FSDataOutputStream outputStream;
+  private OutputStream outputStream;
 
   public void addNewSpilledBatches(final long newBatches) {
     this.numberOfBatches += newBatches;
@@ -86,7 +86,7 @@ public class VectorizedHashAggDiskPartition implements AutoCloseable {
 
   VectorizedHashAggDiskPartition(final long numberOfBatches, final SpillManager.SpillFile partitionSpillFile,
                                  final VectorizedHashAggPartition inmemoryPartitionBackPointer,
-                                 final FSDataOutputStream outputStream) {
+                                 final OutputStream outputStream) {
     Preconditions.checkArgument(partitionSpillFile != null && numberOfBatches > 0, "Error: must provide valid spill info for creating a disk partition.");
     Preconditions.checkArgument(outputStream != null, "Error: need a valid output stream for writing to spill file");
     this.numberOfBatches = numberOfBatches;
@@ -106,7 +106,7 @@ public class VectorizedHashAggDiskPartition implements AutoCloseable {
     inmemoryPartitionBackPointer = null;
   }
 
-  public FSDataOutputStream getSpillStream() {
+  public OutputStream getSpillStream() {
     return outputStream;
   }
 
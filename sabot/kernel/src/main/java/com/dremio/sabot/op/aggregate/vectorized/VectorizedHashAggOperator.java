@@ -39,6 +39,7 @@ import com.dremio.common.expression.CompleteType;
 import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.types.TypeProtos;
+import com.dremio.common.util.Numbers;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.expr.TypeHelper;
 import com.dremio.exec.expr.ValueVectorReadExpression;
@@ -57,6 +58,7 @@ import com.dremio.options.OptionManager;
 import com.dremio.options.Options;
 import com.dremio.options.TypeValidators.BooleanValidator;
 import com.dremio.options.TypeValidators.DoubleValidator;
+import com.dremio.options.TypeValidators.EnumValidator;
 import com.dremio.options.TypeValidators.PositiveLongValidator;
 import com.dremio.options.TypeValidators.PowerOfTwoLongValidator;
 import com.dremio.options.TypeValidators.RangeDoubleValidator;
@@ -75,6 +77,7 @@ import com.dremio.sabot.op.common.ht2.PivotBuilder;
 import com.dremio.sabot.op.common.ht2.PivotBuilder.PivotInfo;
 import com.dremio.sabot.op.common.ht2.PivotDef;
 import com.dremio.sabot.op.common.ht2.VariableBlockVector;
+import com.dremio.sabot.op.common.spill.SpillCompression;
 import com.dremio.sabot.op.spi.SingleInputOperator;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -364,12 +367,26 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
   public static final DoubleValidator OOB_SPILL_TRIGGER_HEADROOM_FACTOR = new RangeDoubleValidator("exec.operator.aggregate.vectorize.oob_trigger_headroom_factor", 0.0d, 10.0d, .2d);
   public static final BooleanValidator OOB_SPILL_TRIGGER_ENABLED = new BooleanValidator("exec.operator.aggregate.vectorize.oob_trigger_enabled", true);
   public static final BooleanValidator VECTORIZED_HASHAGG_ENABLE_MICRO_SPILLS = new BooleanValidator("exec.operator.aggregate.vectorize.enable_micro_spills", true);
+  /* codec used to compress spilled partitions, one of {@link SpillCompression} */
+  public static final EnumValidator<SpillCompression> VECTORIZED_HASHAGG_SPILL_COMPRESSION =
+    new EnumValidator<>("exec.operator.aggregate.vectorize.spill_compression", SpillCompression.class, SpillCompression.LZ4);
   /*
    * If variable column records size is much larger then default (15) size, let the vector created for new batches
    * can go up to 1M (256 * 4K). Config option can be used to reduce, if really needed.
    */
   public static final PositiveLongValidator VECTORIZED_HASHAGG_MAX_VARIABLE_SIZE =
     new PositiveLongValidator("exec.operator.aggregate.vectorize.max_variable_size", 256, 256);
+  /* use fewer partitions than num_partitions when the planner expects the groups to fit in fewer hash table batches */
+  public static final BooleanValidator VECTORIZED_HASHAGG_ADAPTIVE_PARTITIONS = new BooleanValidator("exec.operator.aggregate.vectorize.adaptive_partitions", true);
+  /*
+   * A phase 1 aggregation which doesn't reduce the number of records by at least min_reduction over the first
+   * sample_records records stops holding the groups until the end of the input, and outputs them after each batch.
+   */
+  public static final BooleanValidator VECTORIZED_HASHAGG_PARTIAL_BYPASS_ENABLED = new BooleanValidator("exec.operator.aggregate.vectorize.partial_bypass.enabled", true);
+  public static final PositiveLongValidator VECTORIZED_HASHAGG_PARTIAL_BYPASS_SAMPLE_RECORDS =
+    new PositiveLongValidator("exec.operator.aggregate.vectorize.partial_bypass.sample_records", Integer.MAX_VALUE, 100_000);
+  public static final DoubleValidator VECTORIZED_HASHAGG_PARTIAL_BYPASS_MIN_REDUCTION =
+    new RangeDoubleValidator("exec.operator.aggregate.vectorize.partial_bypass.min_reduction", 0.0d, 1.0d, 0.1d);
 
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(VectorizedHashAggOperator.class);
 
@@ -395,9 +412,16 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
   private InternalState internalStateMachine;
 
   /* configured options */
-  private final int numPartitions;
+  private final int maxNumPartitions;
+  private final boolean adaptivePartitions;
   private final int minHashTableSize;
-  private final int minHashTableSizePerPartition;
+  private final boolean partialBypassEnabled;
+  private final long partialBypassSampleRecords;
+  private final double partialBypassMinReduction;
+
+  /* number of partitions, chosen when the structures are initialized */
+  private int numPartitions;
+  private int minHashTableSizePerPartition;
   private final int estimatedVariableWidthKeySize;
   private final int maxVariableWidthKeySize;
   private final VarLenVectorResizerImpl varLenVectorResizer = new VarLenVectorResizerImpl();
@@ -417,6 +441,13 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
   private int oobDropNoVictim;
   private int oobSpills;
   private int oobDropSpill;
+  /* records consumed from the pipeline, used to sample the reduction of a phase 1 aggregation */
+  private long recordsConsumedFromPipeline;
+  private boolean partialBypassDecided;
+  private boolean partialBypass;
+  /* in-memory partitions are being output before consuming the next batch */
+  private boolean flushing;
+  private int partialFlushes;
   private final BufferAllocator allocator;
   private final VectorizedHashAggDebug debug;
   private boolean closed;
@@ -481,9 +512,14 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     this.context = context;
     this.allocator = context.getAllocator();
     this.popConfig = popConfig;
-    this.numPartitions = (int)options.getOption(VECTORIZED_HASHAGG_NUMPARTITIONS);
+    this.maxNumPartitions = (int)options.getOption(VECTORIZED_HASHAGG_NUMPARTITIONS);
+    this.adaptivePartitions = options.getOption(VECTORIZED_HASHAGG_ADAPTIVE_PARTITIONS);
+    this.numPartitions = maxNumPartitions;
     this.minHashTableSize = (int)options.getOption(ExecConstants.MIN_HASH_TABLE_SIZE);
     this.minHashTableSizePerPartition = (int)Math.ceil((minHashTableSize * 1.0)/numPartitions);
+    this.partialBypassEnabled = popConfig.isPartial() && options.getOption(VECTORIZED_HASHAGG_PARTIAL_BYPASS_ENABLED);
+    this.partialBypassSampleRecords = options.getOption(VECTORIZED_HASHAGG_PARTIAL_BYPASS_SAMPLE_RECORDS);
+    this.partialBypassMinReduction = options.getOption(VECTORIZED_HASHAGG_PARTIAL_BYPASS_MIN_REDUCTION);
     this.estimatedVariableWidthKeySize = (int)options.getOption(ExecConstants.BATCH_VARIABLE_FIELD_SIZE_ESTIMATE);
     this.maxVariableWidthKeySize = (int)options.getOption(VECTORIZED_HASHAGG_MAX_VARIABLE_SIZE);
     this.maxHashTableBatchSize = popConfig.getHashTableBatchSize();
@@ -575,6 +611,31 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     this.chunkOffsetMask = hashAggPartitions[0].hashTable.getChunkOffsetMask();
   }
 
+  /**
+   * Chooses the number of partitions from the number of groups the operator is expected to hold. There is no need
+   * for more partitions than hash table batches needed by the groups, and since each partition preallocates a batch,
+   * the partitions shouldn't take more than half of the memory available to the operator. At least two partitions
+   * are kept so that spilled partitions are split when they are processed again.
+   *
+   * @param maxPartitions      configured number of partitions, a power of two
+   * @param estimatedGroups    number of groups estimated by the planner
+   * @param hashTableBatchSize number of groups in a hash table batch
+   * @param memPerPartition    memory preallocated for a single partition
+   * @param memoryLimit        memory available to the operator
+   * @return the number of partitions, a power of two
+   */
+  @VisibleForTesting
+  static int computeNumPartitions(int maxPartitions, double estimatedGroups, int hashTableBatchSize,
+                                  long memPerPartition, long memoryLimit) {
+    final int minPartitions = Math.min(maxPartitions, 2);
+    final double batches = Math.ceil(estimatedGroups / hashTableBatchSize);
+    int partitions = batches >= maxPartitions ? maxPartitions : Math.max(minPartitions, Numbers.nextPowerOfTwo((int) batches));
+    while (partitions > minPartitions && partitions * memPerPartition > memoryLimit / 2) {
+      partitions /= 2;
+    }
+    return partitions;
+  }
+
   /**
    * The hash aggregation algorithm works at a partition level by
    * hash-partitioning the incoming batch into a fixed number of
@@ -602,8 +663,6 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
   private void initStructures() throws Exception {
     final long memoryUsageBeforeInit = allocator.getAllocatedMemory();
     debug.setAllocatedMemoryBeforeInit(memoryUsageBeforeInit);
-    final int numPartitions = this.numPartitions;
-    this.hashAggPartitions = new VectorizedHashAggPartition[numPartitions];
 
     /*
      * STEP 1: Materialize the aggregate expressions once as opposed to repeating it for
@@ -641,6 +700,18 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     );
     debug.setPreAllocEstimator(estimator);
 
+    if (adaptivePartitions && popConfig.getCardinality() > 1) {
+      /* the estimator preallocates a batch in each of the configured partitions */
+      final long memPerPartition = ((long) estimator.getMemHashTable() + estimator.getMemAccumulators()) / maxNumPartitions;
+      this.numPartitions = computeNumPartitions(maxNumPartitions, popConfig.getCardinality(), maxHashTableBatchSize,
+        memPerPartition, allocator.getLimit());
+      this.minHashTableSizePerPartition = (int)Math.ceil((minHashTableSize * 1.0)/numPartitions);
+      this.hashPartitionMask = numPartitions - 1;
+      logger.debug("partitions:{} for {} estimated groups", numPartitions, popConfig.getCardinality());
+    }
+    final int numPartitions = this.numPartitions;
+    this.hashAggPartitions = new VectorizedHashAggPartition[numPartitions];
+
     /* Now allocate temporary buffers for accumulators which output variable size data */
     tempAccumulatorHolder = new BaseVariableWidthVector[accumulatorTypes.length];
     for (int i = 0; i < accumulatorTypes.length; ++i) {
@@ -865,6 +936,43 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
       VariableLengthValidator.validateVariable(v, records);
     }
     consumeDataHelper(records);
+    if (partialBypassEnabled) {
+      checkPartialBypass(records);
+    }
+  }
+
+  /**
+   * A phase 1 aggregation only reduces the number of records sent to the phase 2 aggregation. Once the sampled
+   * records show that it doesn't reduce them enough, holding the groups until the end of the input only costs
+   * memory and spills, so the in-memory groups are output after each consumed batch instead.
+   *
+   * @param records number of records consumed from the pipeline
+   */
+  private void checkPartialBypass(final int records) {
+    recordsConsumedFromPipeline += records;
+    if (!partialBypassDecided) {
+      if (partitionSpillHandler.getNumberOfSpills() > 0) {
+        /* the groups in memory don't tell the reduction anymore, keep aggregating */
+        partialBypassDecided = true;
+        return;
+      }
+      if (recordsConsumedFromPipeline < partialBypassSampleRecords) {
+        return;
+      }
+      partialBypassDecided = true;
+      final double reduction = 1.0d - ((double) getHashTableSize()) / recordsConsumedFromPipeline;
+      partialBypass = reduction < partialBypassMinReduction;
+      logger.debug("phase 1 aggregation reduced {} records by {}, bypass: {}", recordsConsumedFromPipeline,
+        reduction, partialBypass);
+    }
+
+    /* spilled partitions can only be output once the entire input has been consumed */
+    if (partialBypass && state == State.CAN_CONSUME && getHashTableSize() > 0 &&
+      partitionSpillHandler.getActiveSpilledPartitionCount() == 0 && partitionSpillHandler.isSpillQueueEmpty()) {
+      flushing = true;
+      partialFlushes++;
+      moveToOutputState();
+    }
   }
 
   /**
@@ -1987,6 +2095,13 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
     stats.setLongStat(Metric.OOB_SPILL, oobSpills);
     stats.setLongStat(Metric.OOB_DROP_ALREADY_SPILLING, oobDropSpill);
 
+    stats.setLongStat(Metric.SPILL_UNCOMPRESSED_BYTES, partitionSpillHandler.getSpillUncompressedBytes());
+    stats.setLongStat(Metric.SPILL_COMPRESSED_BYTES, partitionSpillHandler.getSpillCompressedBytes());
+    stats.setLongStat(Metric.SPILL_COMPRESSION_NANOS, partitionSpillHandler.getSpillCompressionNanos());
+    stats.setLongStat(Metric.SPILL_DECOMPRESSION_NANOS, partitionSpillHandler.getSpillDecompressionNanos());
+    stats.setLongStat(Metric.PARTIAL_BYPASS, partialBypass ? 1 : 0);
+    stats.setLongStat(Metric.PARTIAL_FLUSHES, partialFlushes);
+
     if (iterations == 1) {
       stats.setLongStat(Metric.ALLOCATED_FOR_FIXED_KEYS, statsHolder.allocatedForFixedBlocks);
       stats.setLongStat(Metric.UNUSED_FOR_FIXED_KEYS, statsHolder.unusedForFixedBlocks);
@@ -2389,7 +2504,14 @@ public class VectorizedHashAggOperator implements SingleInputOperator {
   private int outputPartitions() throws Exception {
 
     if (outputPartitionIndex == numPartitions) {
-      postOutputProcessing();
+      if (flushing) {
+        /* the groups of the batches consumed so far were output, consume the next batch */
+        flushing = false;
+        state = State.CAN_CONSUME;
+        internalStateMachine = InternalState.NONE;
+      } else {
+        postOutputProcessing();
+      }
       outputPartitionIndex = 0;
       outputBatchIndex = 0;
       return 0;
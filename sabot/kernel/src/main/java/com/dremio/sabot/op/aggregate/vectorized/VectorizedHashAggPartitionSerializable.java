@@ -153,8 +153,13 @@ public class VectorizedHashAggPartitionSerializable extends AbstractStreamSerial
 
     /* STEP 3: read info on types of accumulators -- sum, min, max etc */
     final byte[] accumulatorTypes = partitionToLoadSpilledData.getAccumulatorTypes();
-    Preconditions.checkArgument(input.read(accumulatorTypes, 0, numAccumulators) == numAccumulators,
-      "ERROR: read incorrect length of accumulator types");
+    /* a compressed spill stream may return fewer bytes than requested at a block boundary */
+    int accumulatorTypesRead = 0;
+    while (accumulatorTypesRead < numAccumulators) {
+      final int numBytesRead = input.read(accumulatorTypes, accumulatorTypesRead, numAccumulators - accumulatorTypesRead);
+      Preconditions.checkArgument(numBytesRead != -1, "ERROR: read incorrect length of accumulator types");
+      accumulatorTypesRead += numBytesRead;
+    }
 
     /* STEP 4: read metadata for accumulator vectors */
     final UserBitShared.RecordBatchDef accumulatorBatchDef;
@@ -1610,6 +1610,8 @@ public final class LBlockHashTable implements HashTable, AutoCloseable {
       filterBuilder.setFieldName(fieldName);
       filterBuilder.setName(Thread.currentThread().getName());
       setFieldType(filterBuilder, fieldName);
+      // keep the min/max range of the keys when there are too many of them
+      filterBuilder.setRangeFallback(true);
       final ArrowBuf key = keyReader.getKeyValBuf();
       while (keyReader.loadNextKey()) {
         if (keyReader.areAllValuesNull()) {
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.spill;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Compression codecs for operator spill files.
+ *
+ * Spilled data is compressed in independent blocks, and a flush of the spill stream ends the current block so that
+ * everything flushed so far can be read back.
+ */
+public enum SpillCompression {
+  NONE {
+    @Override
+    public OutputStream compress(OutputStream out) {
+      return out;
+    }
+
+    @Override
+    public InputStream decompress(InputStream in) {
+      return in;
+    }
+  },
+
+  /**
+   * LZ4 fast compressor, cheap enough to pay off on any spill disk
+   */
+  LZ4 {
+    @Override
+    public OutputStream compress(OutputStream out) {
+      return lz4(out, LZ4Factory.fastestInstance().fastCompressor());
+    }
+  },
+
+  /**
+   * LZ4 high compression, a better ratio for a higher cpu cost, read back at the same speed as LZ4
+   */
+  LZ4_HC {
+    @Override
+    public OutputStream compress(OutputStream out) {
+      return lz4(out, LZ4Factory.fastestInstance().highCompressor());
+    }
+  };
+
+  private static final int BLOCK_SIZE = 64 * 1024;
+  // seed used by the lz4 block streams for their checksums
+  private static final int CHECKSUM_SEED = 0x9747b28c;
+
+  public abstract OutputStream compress(OutputStream out);
+
+  public InputStream decompress(InputStream in) {
+    return new LZ4BlockInputStream(in, LZ4Factory.fastestInstance().fastDecompressor());
+  }
+
+  /**
+   * @param value option value, case insensitive
+   * @return the codec for the option value, {@link #NONE} if not set
+   */
+  public static SpillCompression fromOption(String value) {
+    return value == null || value.isEmpty() ? NONE : valueOf(value.toUpperCase(Locale.ROOT));
+  }
+
+  private static OutputStream lz4(OutputStream out, LZ4Compressor compressor) {
+    return new LZ4BlockOutputStream(out, BLOCK_SIZE, compressor,
+      XXHashFactory.fastestInstance().newStreamingHash32(CHECKSUM_SEED).asChecksum(), true);
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.spill;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Wraps the spill file streams of an operator with its {@link SpillCompression} codec, and accumulates the compression
+ * stats of all the streams it wrapped.
+ *
+ * Compression and decompression time is measured as the time spent in the codec streams minus the time spent in the
+ * underlying file streams.
+ */
+public class SpillCompressionStreams {
+
+  private final SpillCompression compression;
+  private long uncompressedWriteBytes;
+  private long compressedWriteBytes;
+  private long codecWriteNanos;
+  private long ioWriteNanos;
+  private long codecReadNanos;
+  private long ioReadNanos;
+
+  public SpillCompressionStreams(SpillCompression compression) {
+    this.compression = compression;
+  }
+
+  public SpillCompression getCompression() {
+    return compression;
+  }
+
+  /**
+   * @param out spill file stream
+   * @return stream compressing the data written to the spill file
+   */
+  public OutputStream wrap(OutputStream out) {
+    if (compression == SpillCompression.NONE) {
+      return out;
+    }
+    return new TimedOutputStream(compression.compress(new TimedOutputStream(out, false)), true);
+  }
+
+  /**
+   * @param in spill file stream
+   * @return stream decompressing the data read from the spill file
+   */
+  public InputStream wrap(InputStream in) {
+    if (compression == SpillCompression.NONE) {
+      return in;
+    }
+    return new TimedInputStream(compression.decompress(new TimedInputStream(in, false)), true);
+  }
+
+  /**
+   * @return bytes written to the spill streams, before compression
+   */
+  public long getUncompressedBytes() {
+    return uncompressedWriteBytes;
+  }
+
+  /**
+   * @return bytes written to the spill files, after compression
+   */
+  public long getCompressedBytes() {
+    return compressedWriteBytes;
+  }
+
+  public long getCompressionNanos() {
+    return Math.max(0, codecWriteNanos - ioWriteNanos);
+  }
+
+  public long getDecompressionNanos() {
+    return Math.max(0, codecReadNanos - ioReadNanos);
+  }
+
+  private final class TimedOutputStream extends FilterOutputStream {
+    private final boolean codecSide;
+
+    private TimedOutputStream(OutputStream out, boolean codecSide) {
+      super(out);
+      this.codecSide = codecSide;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      final long start = System.nanoTime();
+      out.write(b);
+      record(1, System.nanoTime() - start);
+    }
+
+    /*
+     * If this override is missing, the code falls back to the default implementation in FilterOutputStream which writes
+     * byte by byte and so, is very inefficient.
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      final long start = System.nanoTime();
+      out.write(b, off, len);
+      record(len, System.nanoTime() - start);
+    }
+
+    @Override
+    public void flush() throws IOException {
+      final long start = System.nanoTime();
+      out.flush();
+      record(0, System.nanoTime() - start);
+    }
+
+    @Override
+    public void close() throws IOException {
+      final long start = System.nanoTime();
+      try {
+        out.close();
+      } finally {
+        record(0, System.nanoTime() - start);
+      }
+    }
+
+    private void record(long bytes, long nanos) {
+      if (codecSide) {
+        uncompressedWriteBytes += bytes;
+        codecWriteNanos += nanos;
+      } else {
+        compressedWriteBytes += bytes;
+        ioWriteNanos += nanos;
+      }
+    }
+  }
+
+  private final class TimedInputStream extends FilterInputStream {
+    private final boolean codecSide;
+
+    private TimedInputStream(InputStream in, boolean codecSide) {
+      super(in);
+      this.codecSide = codecSide;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final long start = System.nanoTime();
+      try {
+        return in.read();
+      } finally {
+        record(System.nanoTime() - start);
+      }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      final long start = System.nanoTime();
+      try {
+        return in.read(b, off, len);
+      } finally {
+        record(System.nanoTime() - start);
+      }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      final long start = System.nanoTime();
+      try {
+        return in.skip(n);
+      } finally {
+        record(System.nanoTime() - start);
+      }
+    }
+
+    private void record(long nanos) {
+      if (codecSide) {
+        codecReadNanos += nanos;
+      } else {
+        ioReadNanos += nanos;
+      }
+    }
+  }
+}
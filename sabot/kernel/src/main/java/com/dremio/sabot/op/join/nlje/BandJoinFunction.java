@@ -0,0 +1,491 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.nlje;
+
+import java.util.List;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.complex.FieldIdUtil2;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.hadoop.util.IndexedSortable;
+import org.apache.hadoop.util.QuickSort;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.AutoCloseables.RollbackCloseable;
+import com.dremio.common.expression.BooleanOperator;
+import com.dremio.common.expression.FieldReference;
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.FunctionCallFactory;
+import com.dremio.common.expression.InputReference;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.exec.record.TypedFieldId;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorWrapper;
+import com.google.common.base.Preconditions;
+
+/**
+ * A DualRange vector function for band joins, where a probe key falls between one or two bounds from the build side,
+ * such as {@code probe.ts >= build.start AND probe.ts <= build.end}.
+ *
+ * The build records are sorted on their lower bound (or on their upper bound if there is no lower bound), so each
+ * probe record is only matched with the build records found by binary search rather than with all of them. With two
+ * bounds, the build records whose lower bound is below the probe key are searched for upper bounds above it in a max
+ * tree of the upper bounds, so the cost per probe record grows with the number of matches rather than with the width
+ * of the build intervals.
+ *
+ * Keys are compared as signed integers, so only integer, date, time and timestamp keys of the same type on both
+ * sides are supported. Records with a null key never match.
+ */
+public class BandJoinFunction implements DualRangeFunctionFactory {
+
+  private static final int PROBE = 0;
+  private static final int BUILD = 1;
+
+  @Override
+  public DualRange create(BufferAllocator allocator, VectorAccessible left, VectorAccessible right,
+      int targetOutputSize, int targetGeneratedAtOnce, int[] buildCounts, LogicalExpression vectorExpression) throws Exception {
+    final BandCondition condition = BandCondition.of(vectorExpression);
+    Preconditions.checkArgument(condition != null, "Not a band join condition: %s", vectorExpression);
+
+    final FieldVector probeKey = getVector(left, condition.probe).getValueVector();
+    final FieldVector[] lowerKeys = condition.lower == null ? null : getVector(right, condition.lower).getValueVectors();
+    final FieldVector[] upperKeys = condition.upper == null ? null : getVector(right, condition.upper).getValueVectors();
+    Preconditions.checkArgument(isSupported(probeKey.getField().getType()), "Unsupported band join key type %s",
+      probeKey.getField().getType());
+
+    try (RollbackCloseable rbc = new RollbackCloseable()) {
+      final VectorRange vectorRange = rbc.add(new VectorRange(targetGeneratedAtOnce, targetOutputSize));
+      vectorRange.allocate(allocator);
+      final BandIndex index = rbc.add(new BandIndex(allocator, condition, lowerKeys, upperKeys, buildCounts));
+      // the range closes the index through its iterator from now on.
+      vectorRange.provideIterator(new Iter(index, probeKey, vectorRange));
+      rbc.commit();
+      return vectorRange;
+    }
+  }
+
+  private static VectorWrapper<FieldVector> getVector(VectorAccessible accessible, FieldReference reference) {
+    final TypedFieldId fieldId = FieldIdUtil2.getFieldId(accessible.getSchema(), reference);
+    Preconditions.checkArgument(fieldId != null, "Unable to find the referenced field: [%s].", reference.getAsUnescapedPath());
+    return accessible.getValueAccessorById(FieldVector.class, fieldId.getFieldIds());
+  }
+
+  /**
+   * Whether the expression is a band condition that this function can evaluate.
+   */
+  public static boolean isBandCondition(LogicalExpression expression) {
+    return BandCondition.of(expression) != null;
+  }
+
+  /**
+   * Whether keys of the given type can be compared by a band join.
+   */
+  static boolean isSupported(ArrowType type) {
+    switch (type.getTypeID()) {
+    case Int:
+      final ArrowType.Int intType = (ArrowType.Int) type;
+      return intType.getIsSigned() && (intType.getBitWidth() == 32 || intType.getBitWidth() == 64);
+    case Date:
+    case Time:
+    case Timestamp:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private static long getKey(FieldVector vector, int index) {
+    final BaseFixedWidthVector fixed = (BaseFixedWidthVector) vector;
+    if (fixed.getTypeWidth() == 8) {
+      return fixed.getDataBuffer().getLong(index * 8L);
+    }
+    return fixed.getDataBuffer().getInt(index * 4L);
+  }
+
+  /**
+   * The bounds of a band join condition, as references to the probe key and to the build bounds.
+   */
+  static final class BandCondition {
+    private final FieldReference probe;
+    private final FieldReference lower;
+    private final boolean lowerInclusive;
+    private final FieldReference upper;
+    private final boolean upperInclusive;
+
+    private BandCondition(FieldReference probe, FieldReference lower, boolean lowerInclusive, FieldReference upper,
+        boolean upperInclusive) {
+      this.probe = probe;
+      this.lower = lower;
+      this.lowerInclusive = lowerInclusive;
+      this.upper = upper;
+      this.upperInclusive = upperInclusive;
+    }
+
+    /**
+     * Gets the band condition of an expression, either a single comparison between a probe and a build field, or a
+     * conjunction of a lower bound and an upper bound comparison on the same probe field.
+     *
+     * @return the condition, or null if the expression is not a band condition
+     */
+    static BandCondition of(LogicalExpression expression) {
+      if (expression instanceof FunctionCall) {
+        return comparison((FunctionCall) expression);
+      }
+
+      if (!(expression instanceof BooleanOperator)) {
+        return null;
+      }
+      final BooleanOperator and = (BooleanOperator) expression;
+      if (!"booleanAnd".equals(FunctionCallFactory.replaceOpWithFuncName(and.getName())) || and.args.size() != 2) {
+        return null;
+      }
+      final List<LogicalExpression> args = and.args;
+      if (!(args.get(0) instanceof FunctionCall) || !(args.get(1) instanceof FunctionCall)) {
+        return null;
+      }
+      final BandCondition first = comparison((FunctionCall) args.get(0));
+      final BandCondition second = comparison((FunctionCall) args.get(1));
+      if (first == null || second == null || !first.probe.equals(second.probe)) {
+        return null;
+      }
+      if (first.lower != null && second.upper != null) {
+        return new BandCondition(first.probe, first.lower, first.lowerInclusive, second.upper, second.upperInclusive);
+      }
+      if (first.upper != null && second.lower != null) {
+        return new BandCondition(first.probe, second.lower, second.lowerInclusive, first.upper, first.upperInclusive);
+      }
+      return null;
+    }
+
+    private static BandCondition comparison(FunctionCall call) {
+      if (call.args.size() != 2
+          || !(call.args.get(0) instanceof InputReference)
+          || !(call.args.get(1) instanceof InputReference)) {
+        return null;
+      }
+      InputReference probe = (InputReference) call.args.get(0);
+      InputReference build = (InputReference) call.args.get(1);
+      String name = FunctionCallFactory.replaceOpWithFuncName(call.getName());
+      if (probe.getInputOrdinal() == BUILD && build.getInputOrdinal() == PROBE) {
+        // rewrite as probe <op> build
+        final InputReference tmp = probe;
+        probe = build;
+        build = tmp;
+        name = flip(name);
+      }
+      if (name == null || probe.getInputOrdinal() != PROBE || build.getInputOrdinal() != BUILD) {
+        return null;
+      }
+
+      switch (name) {
+      case "greater_than":
+        return new BandCondition(probe.getReference(), build.getReference(), false, null, false);
+      case "greater_than_or_equal_to":
+        return new BandCondition(probe.getReference(), build.getReference(), true, null, false);
+      case "less_than":
+        return new BandCondition(probe.getReference(), null, false, build.getReference(), false);
+      case "less_than_or_equal_to":
+        return new BandCondition(probe.getReference(), null, false, build.getReference(), true);
+      default:
+        return null;
+      }
+    }
+
+    private static String flip(String name) {
+      switch (name) {
+      case "greater_than":
+        return "less_than";
+      case "greater_than_or_equal_to":
+        return "less_than_or_equal_to";
+      case "less_than":
+        return "greater_than";
+      case "less_than_or_equal_to":
+        return "greater_than_or_equal_to";
+      default:
+        return null;
+      }
+    }
+  }
+
+  /**
+   * Build records with non null bounds, sorted on their first bound.
+   *
+   * When both bounds are present, the upper bounds are kept in an implicit binary tree whose nodes hold the largest
+   * upper bound of their leaves, so that the build records covering a probe key are found without scanning the
+   * records whose interval ends before it, even when some intervals are much wider than others.
+   */
+  static final class BandIndex implements IndexedSortable, AutoCloseable {
+    private final boolean hasLower;
+    private final boolean lowerInclusive;
+    private final boolean checkUpper;
+    private final boolean upperInclusive;
+    private final int count;
+    // sorted keys, the lower bounds if any, the upper bounds otherwise.
+    private final ArrowBuf keys;
+    // when both bounds are present, tree of the upper bounds: the leaves, from position leaves, are the
+    // upper bounds of the sorted build records and each node holds the largest upper bound of its children.
+    private final ArrowBuf ends;
+    private final int leaves;
+    // compound indices of the build records.
+    private final ArrowBuf indices;
+
+    BandIndex(BufferAllocator allocator, BandCondition condition, FieldVector[] lowerKeys, FieldVector[] upperKeys,
+        int[] buildCounts) throws Exception {
+      this.hasLower = lowerKeys != null;
+      this.lowerInclusive = condition.lowerInclusive;
+      this.checkUpper = lowerKeys != null && upperKeys != null;
+      this.upperInclusive = condition.upperInclusive;
+
+      int count = 0;
+      for (int batch = 0; batch < buildCounts.length; batch++) {
+        for (int i = 0; i < buildCounts[batch]; i++) {
+          if (isIndexed(lowerKeys, upperKeys, batch, i)) {
+            count++;
+          }
+        }
+      }
+      this.count = count;
+      this.leaves = Integer.highestOneBit(Math.max(count, 1) * 2 - 1);
+
+      try (RollbackCloseable rbc = new RollbackCloseable()) {
+        keys = rbc.add(allocator.buffer(Math.max(count, 1) * 8L));
+        ends = checkUpper ? rbc.add(allocator.buffer(leaves * 16L)) : null;
+        indices = rbc.add(allocator.buffer(Math.max(count, 1) * 4L));
+        rbc.commit();
+      }
+
+      int offset = 0;
+      for (int batch = 0; batch < buildCounts.length; batch++) {
+        for (int i = 0; i < buildCounts[batch]; i++) {
+          if (!isIndexed(lowerKeys, upperKeys, batch, i)) {
+            continue;
+          }
+          final long key = getKey(hasLower ? lowerKeys[batch] : upperKeys[batch], i);
+          keys.setLong(offset * 8L, key);
+          if (checkUpper) {
+            ends.setLong((leaves + offset) * 8L, getKey(upperKeys[batch], i));
+          }
+          indices.setInt(offset * 4L, (batch << 16) | (i & 65535));
+          offset++;
+        }
+      }
+
+      new QuickSort().sort(this, 0, count);
+
+      if (checkUpper) {
+        for (int leaf = leaves + count; leaf < 2 * leaves; leaf++) {
+          ends.setLong(leaf * 8L, Long.MIN_VALUE);
+        }
+        for (int node = leaves - 1; node > 0; node--) {
+          ends.setLong(node * 8L, Math.max(ends.getLong(node * 16L), ends.getLong(node * 16L + 8)));
+        }
+      }
+    }
+
+    private boolean isIndexed(FieldVector[] lowerKeys, FieldVector[] upperKeys, int batch, int index) {
+      if (lowerKeys != null && lowerKeys[batch].isNull(index)) {
+        return false;
+      }
+      if (upperKeys != null && upperKeys[batch].isNull(index)) {
+        return false;
+      }
+      // an empty interval never matches.
+      return !checkUpper || getKey(lowerKeys[batch], index) <= getKey(upperKeys[batch], index);
+    }
+
+    @Override
+    public int compare(int i, int j) {
+      return Long.compare(keys.getLong(i * 8L), keys.getLong(j * 8L));
+    }
+
+    @Override
+    public void swap(int i, int j) {
+      final long key = keys.getLong(i * 8L);
+      keys.setLong(i * 8L, keys.getLong(j * 8L));
+      keys.setLong(j * 8L, key);
+      if (checkUpper) {
+        final long end = ends.getLong((leaves + i) * 8L);
+        ends.setLong((leaves + i) * 8L, ends.getLong((leaves + j) * 8L));
+        ends.setLong((leaves + j) * 8L, end);
+      }
+      final int index = indices.getInt(i * 4L);
+      indices.setInt(i * 4L, indices.getInt(j * 4L));
+      indices.setInt(j * 4L, index);
+    }
+
+    /**
+     * @return the position of the first sorted key greater than (or equal to, if inclusive) the given value
+     */
+    private int search(long value, boolean inclusive) {
+      int low = 0;
+      int high = count;
+      while (low < high) {
+        final int mid = (low + high) >>> 1;
+        final long key = keys.getLong(mid * 8L);
+        if (key < value || (!inclusive && key == value)) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * Gets the first position of the build records that may match the probe key.
+     */
+    int start(long probe) {
+      if (!hasLower) {
+        return search(probe, upperInclusive);
+      }
+      return 0;
+    }
+
+    /**
+     * Gets the position after the last build record that may match the probe key.
+     */
+    int end(long probe) {
+      if (!hasLower) {
+        return count;
+      }
+      // the first key which is not a lower bound of the probe key.
+      return search(probe, !lowerInclusive);
+    }
+
+    /**
+     * Gets the first position, from the given position and before the given end, of a build record matching the
+     * probe key.
+     *
+     * @return the position of the matching build record, or end if there is none
+     */
+    int next(int position, int end, long probe) {
+      if (!checkUpper || position >= end) {
+        return position;
+      }
+
+      // move up the tree until a node on the right of the visited leaves covers the probe key.
+      int node = leaves + position;
+      while (!covers(node, probe)) {
+        while ((node & 1) == 1) {
+          node >>>= 1;
+        }
+        if (node == 0) {
+          return end;
+        }
+        node++;
+      }
+      // then down to its first leaf covering the probe key.
+      while (node < leaves) {
+        node <<= 1;
+        if (!covers(node, probe)) {
+          node++;
+        }
+      }
+      return Math.min(node - leaves, end);
+    }
+
+    private boolean covers(int node, long probe) {
+      final long end = ends.getLong(node * 8L);
+      return upperInclusive ? probe <= end : probe < end;
+    }
+
+    int getCompoundIndex(int position) {
+      return indices.getInt(position * 4L);
+    }
+
+    @Override
+    public void close() throws Exception {
+      AutoCloseables.close(keys, ends, indices);
+    }
+  }
+
+  /**
+   * Generates the candidate pairs of a probe batch, a range of build records per probe record.
+   */
+  private static class Iter implements InputRangeIterator {
+
+    private final BandIndex index;
+    private final FieldVector probeKey;
+    private final VectorRange output;
+
+    private int probeRecords;
+    private int probeIndex;
+    private long probeValue;
+    private int position;
+    private int end;
+
+    Iter(BandIndex index, FieldVector probeKey, VectorRange output) {
+      this.index = index;
+      this.probeKey = probeKey;
+      this.output = output;
+    }
+
+    @Override
+    public void startNextProbe(int probeRecords) {
+      this.probeRecords = probeRecords;
+      this.probeIndex = -1;
+      nextProbeRecord();
+    }
+
+    /**
+     * Moves to the next probe record with build records to check.
+     */
+    private void nextProbeRecord() {
+      while (++probeIndex < probeRecords) {
+        if (probeKey.isNull(probeIndex)) {
+          continue;
+        }
+        probeValue = getKey(probeKey, probeIndex);
+        end = index.end(probeValue);
+        position = index.next(index.start(probeValue), end, probeValue);
+        if (position < end) {
+          return;
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return probeIndex < probeRecords;
+    }
+
+    @Override
+    public int next() {
+      final long probeOutputAddr = output.getProbeOffsets2();
+      final long buildOutputAddr = output.getBuildOffsets4();
+      final int maxOutput = output.getMaxOutputCount();
+
+      int outputIndex = 0;
+      while (outputIndex < maxOutput && probeIndex < probeRecords) {
+        VectorRange.set(probeOutputAddr, buildOutputAddr, outputIndex, (short) probeIndex, index.getCompoundIndex(position));
+        outputIndex++;
+        position = index.next(position + 1, end, probeValue);
+        if (position == end) {
+          nextProbeRecord();
+        }
+      }
+      return outputIndex;
+    }
+
+    @Override
+    public void close() throws Exception {
+      index.close();
+    }
+  }
+}
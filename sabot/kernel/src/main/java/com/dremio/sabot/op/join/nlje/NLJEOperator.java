@@ -30,6 +30,7 @@ import org.apache.calcite.rel.core.JoinRelType;
 
 import com.dremio.common.exceptions.UserException;
 import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.LogicalExpression;
 import com.dremio.exec.physical.config.NestedLoopJoinPOP;
 import com.dremio.exec.planner.physical.NestedLoopJoinPrel;
 import com.dremio.exec.record.ExpandableHyperContainer;
@@ -55,6 +56,9 @@ import com.google.common.collect.ImmutableMap;
  * <li>For each build batch, we generate the list of outputs. Because this list could be n^2 in size, we do this a partial probe batch at a time.
  * </ul>
  *
+ * When the vector operation is a band condition, the build records are sorted on their bounds instead so that each
+ * probe record is only evaluated against the build records in its band (see {@link BandJoinFunction}).
+ *
  */
 public class NLJEOperator implements DualInputOperator {
 
@@ -164,17 +168,23 @@ public class NLJEOperator implements DualInputOperator {
     if(config.getVectorOp() == null) {
       return new IndexRange(targetGenerateAtOnce, counts);
     } else {
-      return getVectorRange((FunctionCall) config.getVectorOp(), targetGenerateAtOnce, counts);
+      return getVectorRange(config.getVectorOp(), targetGenerateAtOnce, counts);
     }
   }
 
-  private DualRange getVectorRange(FunctionCall expression, int targetGenerateAtOnce, int[] batchCounts) throws Exception {
-    String factoryName = VECTOR_MAP.get(expression.getName());
-    if(factoryName == null) {
-      throw new UnsupportedOperationException("Unknown vector operation " + expression.getName());
+  private DualRange getVectorRange(LogicalExpression expression, int targetGenerateAtOnce, int[] batchCounts) throws Exception {
+    final DualRangeFunctionFactory factory;
+    if(BandJoinFunction.isBandCondition(expression)) {
+      factory = new BandJoinFunction();
+    } else {
+      final String name = ((FunctionCall) expression).getName();
+      String factoryName = VECTOR_MAP.get(name);
+      if(factoryName == null) {
+        throw new UnsupportedOperationException("Unknown vector operation " + name);
+      }
+      factory = (DualRangeFunctionFactory) Class.forName(factoryName).newInstance();
     }
 
-    DualRangeFunctionFactory factory = (DualRangeFunctionFactory) Class.forName(factoryName).newInstance();
     return factory.create(context.getAllocator(), probeIncoming, build, context.getTargetBatchSize(), targetGenerateAtOnce, batchCounts, expression);
   }
 
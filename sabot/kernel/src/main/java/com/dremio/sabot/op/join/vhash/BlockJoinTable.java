@@ -49,6 +49,8 @@ public class BlockJoinTable implements JoinTable {
   private final Stopwatch pivotBuildWatch = Stopwatch.createUnstarted();
   private final Stopwatch insertWatch = Stopwatch.createUnstarted();
   private boolean tableTracing;
+  // false for the views probing a table owned by another instance
+  private final boolean ownsTable;
   private final Stopwatch buildHashComputationWatch = Stopwatch.createUnstarted();
   private final Stopwatch probeHashComputationWatch = Stopwatch.createUnstarted();
 
@@ -64,6 +66,22 @@ public class BlockJoinTable implements JoinTable {
     this.probePivot = probePivot;
     this.allocator = allocator;
     this.tableTracing = false;
+    this.ownsTable = true;
+  }
+
+  private BlockJoinTable(HashTable table, PivotDef buildPivot, PivotDef probePivot, BufferAllocator allocator) {
+    Preconditions.checkArgument(buildPivot.getBlockWidth() == probePivot.getBlockWidth());
+    this.table = table;
+    this.buildPivot = buildPivot;
+    this.probePivot = probePivot;
+    this.allocator = allocator;
+    this.tableTracing = false;
+    this.ownsTable = false;
+  }
+
+  @Override
+  public JoinTable newProbeView(PivotDef probeDef, BufferAllocator allocator) {
+    return new BlockJoinTable(table, buildPivot, probeDef, allocator);
   }
 
   /* Copy the keys of the records specified in keyOffsetAddr to destination memory
@@ -223,7 +241,9 @@ public class BlockJoinTable implements JoinTable {
 
   @Override
   public void close() throws Exception {
-    table.close();
+    if (ownsTable) {
+      table.close();
+    }
   }
 
   @Override
@@ -58,6 +58,8 @@ public class EightByteInnerLeftProbeOff implements JoinTable {
   private final BufferAllocator allocator;
   private final Stopwatch buildHashComputationWatch = Stopwatch.createUnstarted();
   private final Stopwatch probeHashComputationWatch = Stopwatch.createUnstarted();
+  // false for the views probing a map owned by another instance
+  private final boolean ownsMap;
 
   public EightByteInnerLeftProbeOff(BufferAllocator allocator, int initialSize, PivotDef probeDef, PivotDef buildDef, boolean isEqualForNullKey){
     Preconditions.checkArgument(probeDef.getFixedPivots().size() == 1);
@@ -67,6 +69,24 @@ public class EightByteInnerLeftProbeOff implements JoinTable {
     this.build = buildDef.getFixedPivots().get(0).getIncomingVector();
     this.map = new LBlockHashTableEight(HashConfig.getDefault(), allocator, initialSize);
     this.isEqualForNullKey = isEqualForNullKey;
+    this.ownsMap = true;
+  }
+
+  private EightByteInnerLeftProbeOff(BufferAllocator allocator, LBlockHashTableEight map, FieldVector probe,
+                                     FieldVector build, boolean isEqualForNullKey) {
+    this.allocator = allocator;
+    this.probe = probe;
+    this.build = build;
+    this.map = map;
+    this.isEqualForNullKey = isEqualForNullKey;
+    this.ownsMap = false;
+  }
+
+  @Override
+  public JoinTable newProbeView(PivotDef probeDef, BufferAllocator allocator) {
+    Preconditions.checkArgument(probeDef.getFixedPivots().size() == 1);
+    return new EightByteInnerLeftProbeOff(allocator, map, probeDef.getFixedPivots().get(0).getIncomingVector(), build,
+      isEqualForNullKey);
   }
 
   @Override
@@ -332,7 +352,9 @@ public class EightByteInnerLeftProbeOff implements JoinTable {
 
   @Override
   public void close() throws Exception {
-    map.close();
+    if (ownsMap) {
+      map.close();
+    }
   }
 
   @Override
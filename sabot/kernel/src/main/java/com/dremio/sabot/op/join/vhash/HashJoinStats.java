@@ -59,7 +59,8 @@ public class HashJoinStats {
     EXTRA_CONDITION_EVALUATION_COUNT,
     EXTRA_CONDITION_EVALUATION_MATCHED,
     EXTRA_CONDITION_SETUP_NANOS,
-    BUILD_CARRYOVER_COPY_NANOS;
+    BUILD_CARRYOVER_COPY_NANOS,
+    SHARED_BUILD_PEAK_MEMORY;    /* peak memory of the table built for the fragments of the join on the node */
 
     @Override
     public int metricId() {
@@ -19,8 +19,11 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.arrow.memory.BufferAllocator;
+
 import com.dremio.exec.util.BloomFilter;
 import com.dremio.exec.util.ValueListFilter;
+import com.dremio.sabot.op.common.ht2.PivotDef;
 
 public interface JoinTable extends AutoCloseable {
   public void insert(final long outputAddr, final int records);
@@ -50,6 +53,15 @@ public interface JoinTable extends AutoCloseable {
   public long getBuildHashComputationTime(TimeUnit unit);
   public long getProbeHashComputationTime(TimeUnit unit);
 
+  /**
+   * Creates a view probing this table once it's built. The views and the table can probe concurrently, as
+   * probing doesn't modify the table. Closing a view doesn't close the table.
+   * @param probeDef pivot of the probe side keys of the view
+   * @param allocator allocator of the buffers used by the view while probing
+   * @return
+   */
+  public JoinTable newProbeView(PivotDef probeDef, BufferAllocator allocator);
+
   /**
    * Prepares a bloomfilter from the selective field keys. Since this is an optimisation, errors are not propagated to
    * the consumer. Instead, they get an empty optional.
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.record.ExpandableHyperContainer;
+import com.dremio.sabot.op.join.hash.BuildInfo;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.google.common.base.Preconditions;
+
+/**
+ * Join table built by one fragment of a broadcast hash join, and probed by all the fragments of the join running on
+ * the same node. Once published, the table is read-only. It is closed when all the fragments released it, including
+ * the fragments that never used it, such as fragments failing before setting up the join.
+ */
+public class SharedJoinTable {
+
+  private final int majorFragmentId;
+  // minor fragment building the table
+  private final int builder;
+  // minor fragments that didn't release the table yet
+  private final Set<Integer> users;
+  private final Runnable onClose;
+  // fragments waiting for the table to be published
+  private final List<SharedResource> waiting = new ArrayList<>();
+  private boolean published;
+  private boolean aborted;
+
+  private BufferAllocator allocator;
+  private JoinTable table;
+  private ExpandableHyperContainer hyperContainer;
+  private List<BuildInfo> buildInfos;
+  private List<ArrowBuf> startIndices;
+  private int maxHashTableIndex;
+
+  /**
+   * @param majorFragmentId  major fragment of the join
+   * @param minorFragmentIds minor fragments of the join running on this node, which all release the table once done
+   * @param onClose          called once the table is closed
+   */
+  SharedJoinTable(int majorFragmentId, Collection<Integer> minorFragmentIds, Runnable onClose) {
+    Preconditions.checkArgument(!minorFragmentIds.isEmpty(), "At least one user is required");
+    this.majorFragmentId = majorFragmentId;
+    this.builder = Collections.min(minorFragmentIds);
+    this.users = new HashSet<>(minorFragmentIds);
+    this.onClose = onClose;
+  }
+
+  int getMajorFragmentId() {
+    return majorFragmentId;
+  }
+
+  /**
+   * Gets a handle on the table for one of its users.
+   *
+   * @param minorFragmentId minor fragment of the user
+   * @param resource        resource blocking the user while the table is not published
+   */
+  public Handle newHandle(int minorFragmentId, SharedResource resource) {
+    return new Handle(minorFragmentId, resource);
+  }
+
+  private synchronized void publish(BufferAllocator allocator, JoinTable table, ExpandableHyperContainer hyperContainer,
+                                    List<BuildInfo> buildInfos, List<ArrowBuf> startIndices, int maxHashTableIndex) {
+    Preconditions.checkState(!published && !aborted, "Join table already published");
+    this.allocator = allocator;
+    this.table = table;
+    this.hyperContainer = hyperContainer;
+    this.buildInfos = new ArrayList<>(buildInfos);
+    this.startIndices = new ArrayList<>(startIndices);
+    this.maxHashTableIndex = maxHashTableIndex;
+    published = true;
+    wakeUpWaiting();
+  }
+
+  private synchronized boolean awaitPublished(SharedResource resource) {
+    if (published) {
+      return true;
+    }
+    Preconditions.checkState(!aborted, "Fragment building the shared join table failed");
+    waiting.add(resource);
+    resource.markBlocked();
+    return false;
+  }
+
+  private synchronized void abort() {
+    if (!published) {
+      aborted = true;
+      wakeUpWaiting();
+    }
+  }
+
+  private void wakeUpWaiting() {
+    for (SharedResource resource : waiting) {
+      resource.markAvailable();
+    }
+    waiting.clear();
+  }
+
+  /**
+   * Releases the table for a minor fragment done with it. Releasing the same fragment twice has no effect.
+   */
+  void release(int minorFragmentId) throws Exception {
+    synchronized (this) {
+      if (!users.remove(minorFragmentId)) {
+        return;
+      }
+      if (minorFragmentId == builder) {
+        // the table won't be published if not already
+        abort();
+      }
+      if (!users.isEmpty()) {
+        return;
+      }
+    }
+
+    onClose.run();
+    if (published) {
+      final List<AutoCloseable> closeables = new ArrayList<>();
+      closeables.add(hyperContainer);
+      closeables.add(table);
+      closeables.addAll(buildInfos);
+      closeables.addAll(startIndices);
+      closeables.add(allocator);
+      AutoCloseables.close(closeables);
+    }
+  }
+
+  /**
+   * Releases the table for all the fragments that didn't release it yet.
+   */
+  void releaseAll() throws Exception {
+    final List<Integer> remaining;
+    synchronized (this) {
+      remaining = new ArrayList<>(users);
+    }
+    for (int minorFragmentId : remaining) {
+      release(minorFragmentId);
+    }
+  }
+
+  /**
+   * Access to the shared table by one of its users.
+   */
+  public final class Handle {
+    private final int minorFragmentId;
+    private final SharedResource resource;
+
+    private Handle(int minorFragmentId, SharedResource resource) {
+      this.minorFragmentId = minorFragmentId;
+      this.resource = resource;
+    }
+
+    /**
+     * Publishes the table once built, transferring the ownership of the table and its memory to the shared table.
+     */
+    public void publish(BufferAllocator allocator, JoinTable table, ExpandableHyperContainer hyperContainer,
+                        List<BuildInfo> buildInfos, List<ArrowBuf> startIndices, int maxHashTableIndex) {
+      SharedJoinTable.this.publish(allocator, table, hyperContainer, buildInfos, startIndices, maxHashTableIndex);
+    }
+
+    /**
+     * Checks whether the table is published, otherwise blocks the fragment until it is.
+     *
+     * @return true if the table is published
+     */
+    public boolean awaitPublished() {
+      return SharedJoinTable.this.awaitPublished(resource);
+    }
+
+    /**
+     * Releases the table once the fragment is done with it. If the fragment building the table releases it before
+     * publishing it, the fragments waiting for the table are notified that it won't be published.
+     */
+    public void release() throws Exception {
+      SharedJoinTable.this.release(minorFragmentId);
+    }
+
+    public JoinTable getTable() {
+      return table;
+    }
+
+    public ExpandableHyperContainer getHyperContainer() {
+      return hyperContainer;
+    }
+
+    public List<BuildInfo> getBuildInfos() {
+      return buildInfos;
+    }
+
+    public List<ArrowBuf> getStartIndices() {
+      return startIndices;
+    }
+
+    public int getMaxHashTableIndex() {
+      return maxHashTableIndex;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.dremio.common.AutoCloseables;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+
+/**
+ * Join tables of a query shared by the fragments running on this node. A broadcast hash join sends the same build
+ * side to all its fragments, so one fragment per node builds the table and the other fragments of the join on the
+ * node probe it.
+ *
+ * Every fragment releases the tables of its major fragment when it's done, even if it never set up the join, so that
+ * the tables are closed before the allocator of the phase.
+ */
+public class SharedJoinTables implements AutoCloseable {
+  private final Map<String, SharedJoinTable> tables = new HashMap<>();
+  // minor fragments done with the query, by major fragment
+  private final SetMultimap<Integer, Integer> doneFragments = HashMultimap.create();
+
+  /**
+   * Gets the table of a join, created by the first fragment asking for it.
+   *
+   * @param id               id of the join in the query
+   * @param majorFragmentId  major fragment of the join
+   * @param minorFragmentIds minor fragments of the join running on this node
+   */
+  public synchronized SharedJoinTable get(String id, int majorFragmentId, List<Integer> minorFragmentIds) {
+    return tables.computeIfAbsent(id, k -> {
+      final SharedJoinTable table = new SharedJoinTable(majorFragmentId, minorFragmentIds, () -> remove(k));
+      // fragments already done never release the table, so they don't use it
+      for (int minorFragmentId : minorFragmentIds) {
+        if (!doneFragments.containsEntry(majorFragmentId, minorFragmentId)) {
+          continue;
+        }
+        try {
+          // the fragment asking for the table is still a user, so the table isn't closed
+          table.release(minorFragmentId);
+        } catch (Exception e) {
+          throw new IllegalStateException(e);
+        }
+      }
+      return table;
+    });
+  }
+
+  /**
+   * Releases the tables of a fragment done with the query, whether it used them or not.
+   */
+  public void release(int majorFragmentId, int minorFragmentId) throws Exception {
+    final List<SharedJoinTable> fragmentTables;
+    synchronized (this) {
+      doneFragments.put(majorFragmentId, minorFragmentId);
+      fragmentTables = tables.values().stream()
+        .filter(table -> table.getMajorFragmentId() == majorFragmentId)
+        .collect(Collectors.toList());
+    }
+    AutoCloseables.close(fragmentTables.stream()
+      .map(table -> (AutoCloseable) () -> table.release(minorFragmentId))
+      .collect(Collectors.toList()));
+  }
+
+  private synchronized void remove(String id) {
+    tables.remove(id);
+  }
+
+  /**
+   * Closes the tables still open once the query is done on this node.
+   */
+  @Override
+  public void close() throws Exception {
+    final List<SharedJoinTable> remaining;
+    synchronized (this) {
+      remaining = new ArrayList<>(tables.values());
+    }
+    AutoCloseables.close(remaining.stream()
+      .map(table -> (AutoCloseable) table::releaseAll)
+      .collect(Collectors.toList()));
+  }
+}
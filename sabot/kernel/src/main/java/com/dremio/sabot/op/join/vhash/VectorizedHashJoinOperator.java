@@ -33,6 +33,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VarBinaryVector;
@@ -167,15 +168,27 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   private int runtimeValFilterCap;
   private long duplicateBuildRecordCount;
 
+  // allocator of the table and the build batches
+  private BufferAllocator buildAllocator;
+  // table shared with the other fragments of the join running on this node, null if the table is not shared
+  private SharedJoinTable.Handle sharedTable;
+  // true if this fragment builds the shared table
+  private boolean sharedTableBuilder;
+  // true once the table built by this fragment is published, and owned by the shared table
+  private boolean buildPublished;
+  private boolean waitingForSharedTable;
+
   public VectorizedHashJoinOperator(OperatorContext context, HashJoinPOP popConfig) throws OutOfMemoryException {
     this.context = context;
     this.config = popConfig;
     this.joinType = popConfig.getJoinType();
     this.outgoing = new VectorContainer(context.getAllocator());
+    this.buildAllocator = context.getAllocator();
     final Set<Integer> allMinorFragments = context.getAssignments().stream().flatMap(a -> a.getMinorFragmentIdList().stream())
               .collect(Collectors.toSet()); // all minor fragments across all assignments
     runtimeValFilterCap = (int) context.getOptions().getOption(ExecConstants.RUNTIME_FILTER_VALUE_FILTER_MAX_SIZE);
-    this.filterManager = new RuntimeFilterManager(context.getAllocator(), runtimeValFilterCap, allMinorFragments);
+    this.filterManager = new RuntimeFilterManager(context.getAllocator(), runtimeValFilterCap, allMinorFragments,
+      context.getOptions().getOption(ExecConstants.RUNTIME_FILTER_MIN_MAX_ENABLED));
   }
 
   @Override
@@ -325,24 +338,31 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     Preconditions.checkArgument(probePivot.getBitCount() == buildPivot.getBitCount(), "Bit width of build [%s] and probe pivots are not equal [%s].", buildPivot.getBitCount(), probePivot.getBitCount());
 
     this.mode = mode;
+    openSharedTable();
+    // the fragments probing a shared table don't build any table
+    final boolean buildsTable = sharedTable == null || sharedTableBuilder;
     switch(mode){
       case VECTORIZED_BIGINT:
         // For only one eight byte key, we keep key in hyper container, so we don't need to unpivot the key
         this.buildUnpivot = null;
-        // Create the hyper container that all the fields, including key, will be added
-        hyperContainer = new ExpandableHyperContainer(context.getAllocator(), right.getSchema());
-        // Create eight byte key hash table to improve the performance for only one eight byte key
-        this.table = new EightByteInnerLeftProbeOff(context.getAllocator(), (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), probePivot, buildPivot, isEqualForNullKey);
+        if (buildsTable) {
+          // Create the hyper container that all the fields, including key, will be added
+          hyperContainer = new ExpandableHyperContainer(buildAllocator, right.getSchema());
+          // Create eight byte key hash table to improve the performance for only one eight byte key
+          this.table = new EightByteInnerLeftProbeOff(buildAllocator, (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), probePivot, buildPivot, isEqualForNullKey);
+        }
         break;
       case VECTORIZED_GENERIC:
         // Create the PivotDef for unpivot in projectBuildNonMatches
         this.buildUnpivot = PivotBuilder.getBlockDefinition(buildOutputFields);
-        // Create the hyper container with isKeyBits that indicates which field is key and will not be added to hyper container
-        hyperContainer = new ExpandableHyperContainer(context.getAllocator(), right.getSchema(), isKeyBits);
-        // Create generic hash table
-        this.table = new BlockJoinTable(buildPivot, probePivot, context.getAllocator(), comparator,
-          (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), INITIAL_VAR_FIELD_AVERAGE_SIZE,
-          context.getConfig(), context.getOptions());
+        if (buildsTable) {
+          // Create the hyper container with isKeyBits that indicates which field is key and will not be added to hyper container
+          hyperContainer = new ExpandableHyperContainer(buildAllocator, right.getSchema(), isKeyBits);
+          // Create generic hash table
+          this.table = new BlockJoinTable(buildPivot, probePivot, buildAllocator, comparator,
+            (int)context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE), INITIAL_VAR_FIELD_AVERAGE_SIZE,
+            context.getConfig(), context.getOptions());
+        }
         break;
       default:
         throw new UnsupportedOperationException();
@@ -354,6 +374,50 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     return outgoing;
   }
 
+  /**
+   * Shares the table of a broadcast join with the other fragments of the join running on this node. All the fragments
+   * receive the same build batches, so the fragment with the lowest minor fragment id builds the table, and the other
+   * fragments drop the build batches and probe the table once built.
+   */
+  private void openSharedTable() {
+    if (!config.isSharedBuild() || context.getTunnelProvider() == null) {
+      return;
+    }
+    if (mode == Mode.VECTORIZED_GENERIC && context.getOptions().getOption(ExecConstants.ENABLE_NATIVE_HASHTABLE_FOR_JOIN)) {
+      // only the java hash table is known to support concurrent probes
+      return;
+    }
+
+    final int minorFragmentId = context.getFragmentHandle().getMinorFragmentId();
+    final List<Integer> localMinorFragments = context.getAssignments().stream()
+      .map(FragmentAssignment::getMinorFragmentIdList)
+      .filter(minorFragments -> minorFragments.contains(minorFragmentId))
+      .findFirst()
+      .orElse(Collections.emptyList());
+    if (localMinorFragments.size() < 2) {
+      return;
+    }
+
+    // the table is closed by the last fragment done with it, so it's allocated from the allocator of the phase, which
+    // outlives all the fragments of the phase running on this node
+    final BufferAllocator fragmentAllocator = context.getAllocator().getParentAllocator();
+    final BufferAllocator phaseAllocator = fragmentAllocator == null ? null : fragmentAllocator.getParentAllocator();
+    if (phaseAllocator == null) {
+      return;
+    }
+
+    final String id = String.valueOf(config.getProps().getOperatorId());
+    sharedTable = context.getTunnelProvider().getSharedJoinTable(id, localMinorFragments);
+    if (sharedTable == null) {
+      return;
+    }
+    sharedTableBuilder = minorFragmentId == Collections.min(localMinorFragments);
+    if (sharedTableBuilder) {
+      // the table is built on behalf of this operator, so it's held to the memory limit of the operator
+      buildAllocator = phaseAllocator.newChildAllocator("shared-join:" + id, 0, context.getAllocator().getLimit());
+    }
+  }
+
   // Get ids for a field
   private int[] getFieldIds(VectorAccessible accessible, LogicalExpression expr){
     final LogicalExpression materialized = context.getClassProducer().materialize(expr, accessible);
@@ -378,6 +442,11 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public void consumeDataRight(int records) throws Exception {
     state.is(State.CAN_CONSUME_R);
 
+    if (sharedTable != null && !sharedTableBuilder) {
+      // the same batch is inserted in the shared table by the fragment building it
+      return;
+    }
+
     // ensure that none of the variable length vectors are corrupt so we can avoid doing bounds checking later.
     for(FieldVector v : buildVectorsToValidate){
       VariableLengthValidator.validateVariable(v, records);
@@ -403,7 +472,7 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
      * to the hyper vector container. Will be used when we want to retrieve
      * records that have matching keys on the probe side.
      */
-    hyperContainer.addBatch(VectorContainer.getTransferClone(right, context.getAllocator()));
+    hyperContainer.addBatch(VectorContainer.getTransferClone(right, buildAllocator));
     // completed processing a batch, increment batch index
 
     buildBatchIndex++;
@@ -512,6 +581,10 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     stats.setLongStat(Metric.VECTORIZED, mode.ordinal());
     stats.setLongStat(Metric.LINK_TIME_NANOS, linkWatch.elapsed(ns));
     stats.setLongStat(Metric.DUPLICATE_BUILD_RECORD_COUNT, duplicateBuildRecordCount);
+    if (sharedTableBuilder) {
+      // the shared table isn't allocated by the operator allocator, so it's not part of the operator peak memory
+      stats.setLongStat(Metric.SHARED_BUILD_PEAK_MEMORY, buildAllocator.getPeakMemoryAllocation());
+    }
 
     if(probe != null){
       stats.setLongStat(Metric.PROBE_PIVOT_NANOS, table.getProbePivotTime(ns));
@@ -537,13 +610,61 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public void noMoreToConsumeRight() throws Exception {
     state.is(State.CAN_CONSUME_R);
 
-    if ((table.size() == 0) && !(joinType == JoinRelType.LEFT || joinType == JoinRelType.FULL)) {
+    if (sharedTable != null && !sharedTableBuilder) {
+      // wait for the fragment building the shared table
+      waitingForSharedTable = true;
+      state = State.CAN_PRODUCE;
+      attachSharedTable();
+      return;
+    }
+
+    if (sharedTable != null) {
+      // from now on, the table is owned by the shared table, and also probed by the other fragments on this node
+      sharedTable.publish(buildAllocator, table, hyperContainer, buildInfoList, startIndices, maxHashTableIndex);
+      buildPublished = true;
+    }
+
+    if (isBuildEmptyForJoin()) {
       // nothing needs to be read on the left side as right side is empty
       state = State.DONE;
       return;
     }
 
     tryPushRuntimeFilter();
+    setupProbe(hyperContainer, buildInfoList, startIndices, maxHashTableIndex);
+  }
+
+  private boolean isBuildEmptyForJoin() {
+    return (table.size() == 0) && !(joinType == JoinRelType.LEFT || joinType == JoinRelType.FULL);
+  }
+
+  /**
+   * Starts probing the shared table if it's published, otherwise blocks the fragment until it is.
+   */
+  private void attachSharedTable() {
+    if (!sharedTable.awaitPublished()) {
+      return;
+    }
+
+    waitingForSharedTable = false;
+    table = sharedTable.getTable().newProbeView(probePivot, context.getAllocator());
+    // the matches are tracked by each fragment
+    for (int i = 0; i < sharedTable.getStartIndices().size(); i++) {
+      keyMatchBitVectors.add(new MatchBitSet(HashTable.BATCH_SIZE, context.getAllocator()));
+    }
+
+    if (isBuildEmptyForJoin()) {
+      state = State.DONE;
+      return;
+    }
+
+    // the runtime filters are sent by the fragment building the table
+    setupProbe(sharedTable.getHyperContainer(), sharedTable.getBuildInfos(), sharedTable.getStartIndices(),
+      sharedTable.getMaxHashTableIndex());
+  }
+
+  private void setupProbe(ExpandableHyperContainer hyperContainer, List<BuildInfo> buildInfoList,
+                          List<ArrowBuf> startIndices, int maxHashTableIndex) {
     this.probe = new VectorizedProbe();
     this.probe.setup(
         context,
@@ -584,6 +705,11 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
 
     updateStats();
 
+    if (waitingForSharedTable) {
+      attachSharedTable();
+      return 0;
+    }
+
     if(!finishedProbe){
       final int probedRecords = probe.probeBatch(left.getRecordCount());
       outputRecords += Math.abs(probedRecords);
@@ -625,7 +751,7 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public ArrowBuf newLinksBuffer(int recordCount) {
     // Each link is 6 bytes.
     // First 4 bytes are used to identify the batch and remaining 2 bytes for record within the batch.
-    final ArrowBuf linkBuf = context.getAllocator().buffer(recordCount * HashTable.BUILD_RECORD_LINK_SIZE);
+    final ArrowBuf linkBuf = buildAllocator.buffer(recordCount * HashTable.BUILD_RECORD_LINK_SIZE);
 
     // Initialize the buffer. Write -1 (int) in the first four bytes.
     long bufOffset = linkBuf.memoryAddress();
@@ -806,6 +932,11 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     for (int colId = 0; colId < probeTarget.getNonPartitionBuildTableKeys().size(); colId++) {
       Optional<ValueListFilter> valueListFilter = table.prepareValueListFilter(
               probeTarget.getNonPartitionBuildTableKeys().get(colId), runtimeValFilterCap);
+      if (valueListFilter.isPresent() && valueListFilter.get().isRange()
+        && !context.getOptions().getOption(ExecConstants.RUNTIME_FILTER_MIN_MAX_ENABLED)) {
+        AutoCloseables.closeNoChecked(valueListFilter.get());
+        valueListFilter = Optional.empty();
+      }
       if (valueListFilter.isPresent()) {
         closeOnErr.add(valueListFilter.get());
         final CompositeColumnFilter nonPartitionColFilter = CompositeColumnFilter.newBuilder()
@@ -999,15 +1130,27 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     updateStats();
     List<AutoCloseable> autoCloseables = new ArrayList<>();
     autoCloseables.add(filterManager);
-    autoCloseables.add(hyperContainer);
-    autoCloseables.add(table);
+    if (!buildPublished) {
+      autoCloseables.add(hyperContainer);
+      autoCloseables.add(table);
+    }
     autoCloseables.add(probe);
     autoCloseables.add(outgoing);
-    autoCloseables.addAll(buildInfoList);
+    if (!buildPublished) {
+      autoCloseables.addAll(buildInfoList);
+    }
     autoCloseables.addAll(probeIncomingKeys);
     autoCloseables.addAll(buildOutputKeys);
-    autoCloseables.addAll(startIndices);
+    if (!buildPublished) {
+      autoCloseables.addAll(startIndices);
+    }
     autoCloseables.addAll(keyMatchBitVectors);
+    if (sharedTable != null) {
+      if (sharedTableBuilder && !buildPublished) {
+        autoCloseables.add(buildAllocator);
+      }
+      autoCloseables.add(sharedTable::release);
+    }
     AutoCloseables.close(autoCloseables);
   }
 
@@ -100,7 +100,8 @@ public class VectorizedSpillingHashJoinOperator implements DualInputOperator {
     targetOutputBatchSize = context.getTargetBatchSize();
     // TODO ravindra: re-enable runtime filters
     runtimeValFilterCap = (int) context.getOptions().getOption(ExecConstants.RUNTIME_FILTER_VALUE_FILTER_MAX_SIZE);
-    filterManager = new RuntimeFilterManager(context.getAllocator(), runtimeValFilterCap, allMinorFragments);
+    filterManager = new RuntimeFilterManager(context.getAllocator(), runtimeValFilterCap, allMinorFragments,
+      context.getOptions().getOption(ExecConstants.RUNTIME_FILTER_MIN_MAX_ENABLED));
   }
 
   @Override
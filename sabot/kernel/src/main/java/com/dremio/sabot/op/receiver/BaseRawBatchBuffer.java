@@ -130,7 +130,16 @@ public abstract class BaseRawBatchBuffer<T> implements RawBatchBuffer {
   }
 
   @Override
-  public synchronized RawFragmentBatch getNext() {
+  public RawFragmentBatch getNext() {
+    return getNext(true);
+  }
+
+  @Override
+  public RawFragmentBatch getNextIfAvailable() {
+    return getNext(false);
+  }
+
+  private synchronized RawFragmentBatch getNext(boolean markBlocked) {
     RawFragmentBatch b;
 
     synchronized(resource) {
@@ -139,7 +148,7 @@ public abstract class BaseRawBatchBuffer<T> implements RawBatchBuffer {
         if(queueMonitor.get() == 0) {
           // poll didn't return anything and the queue monitor states we have no messages.
 
-          if(state == BufferState.RUN) {
+          if(markBlocked && state == BufferState.RUN) {
             // if we're still running, mark this resource as unavailable.
             resource.markBlocked();
           }
@@ -19,4 +19,14 @@ public interface RawFragmentBatchProvider extends AutoCloseable {
 
   public RawFragmentBatch getNext();
   public boolean isStreamDone();
+
+  /**
+   * Returns the next batch if one is already available. Unlike {@link #getNext()}, an empty provider is not marked as
+   * blocking the fragment, so consumers can use it to read ahead on the streams they are not waiting on.
+   *
+   * @return the next batch, or null if there is none or the provider doesn't support reading ahead.
+   */
+  default RawFragmentBatch getNextIfAvailable() {
+    return null;
+  }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.receiver.merging;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Tournament tree of losers used to merge sorted inputs. Each internal node keeps the input which lost the match
+ * played at that node, and the overall winner is kept apart. When the current value of the winner changes, only the
+ * matches on the path from its leaf to the root are replayed, so each merged record costs log2(inputs) comparisons
+ * instead of the ~2*log2(inputs) of a binary heap.
+ */
+class LoserTree {
+
+  /**
+   * The inputs being merged, identified by their index.
+   */
+  interface Inputs {
+    /**
+     * @return true if the input has no more values
+     */
+    boolean isDone(int input);
+
+    /**
+     * Compares the current values of two inputs that are not done.
+     */
+    int compare(int left, int right);
+  }
+
+  private final Inputs inputs;
+  private final int size;
+  // tree[0] is the winner, tree[1..size-1] are the losers of the internal nodes. The leaf of input i is node size + i.
+  private final int[] tree;
+
+  LoserTree(int size, Inputs inputs) {
+    Preconditions.checkArgument(size > 0, "At least one input is required");
+    this.inputs = inputs;
+    this.size = size;
+    this.tree = new int[size];
+  }
+
+  /**
+   * Plays all the matches, once the current value of all the inputs is available.
+   */
+  void init() {
+    tree[0] = play(1);
+  }
+
+  private int play(int node) {
+    if (node >= size) {
+      return node - size;
+    }
+
+    final int left = play(2 * node);
+    final int right = play(2 * node + 1);
+    if (beats(left, right)) {
+      tree[node] = right;
+      return left;
+    }
+    tree[node] = left;
+    return right;
+  }
+
+  /**
+   * @return the input with the lowest current value, or -1 if all the inputs are done
+   */
+  int peek() {
+    final int winner = tree[0];
+    return inputs.isDone(winner) ? -1 : winner;
+  }
+
+  /**
+   * Replays the matches of the winner, after its current value changed.
+   */
+  void update() {
+    int winner = tree[0];
+    for (int node = (winner + size) / 2; node > 0; node /= 2) {
+      if (beats(tree[node], winner)) {
+        final int loser = winner;
+        winner = tree[node];
+        tree[node] = loser;
+      }
+    }
+    tree[0] = winner;
+  }
+
+  private boolean beats(int left, int right) {
+    if (inputs.isDone(left)) {
+      return false;
+    }
+    return inputs.isDone(right) || inputs.compare(left, right) <= 0;
+  }
+}
@@ -15,10 +15,11 @@
  */
 package com.dremio.sabot.op.receiver.merging;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
-import java.util.PriorityQueue;
 
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.AllocationHelper;
@@ -44,6 +45,11 @@ import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.vector.CopyUtil;
+import com.dremio.options.OptionManager;
+import com.dremio.options.Options;
+import com.dremio.options.TypeValidators.BooleanValidator;
+import com.dremio.options.TypeValidators.LongValidator;
+import com.dremio.options.TypeValidators.PositiveLongValidator;
 import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
@@ -56,30 +62,48 @@ import com.sun.codemodel.JExpr;
 
 /**
  * The MergingRecordBatch merges pre-sorted record batches from remote senders.
+ *
+ * The senders are merged with a {@link LoserTree} over the generated comparator. While merging, the batches already
+ * received from each sender are read ahead, within a memory budget, so the senders keep being acknowledged and
+ * don't stall on the slowest one.
  */
+@Options
 public class MergingReceiverOperator implements ProducerOperator {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(MergingReceiverOperator.class);
 
+  // maximum number of batches read ahead of the current one, for each sender
+  public static final LongValidator PREFETCH_BATCHES = new PositiveLongValidator("exec.operator.merging_receiver.prefetch_batches", 1024, 4);
+  // maximum size of the batches read ahead, for all the senders
+  public static final LongValidator PREFETCH_BYTES = new PositiveLongValidator("exec.operator.merging_receiver.prefetch_bytes", Long.MAX_VALUE, 64 * 1024 * 1024);
+  // whether the receiver of a single merge exchange spools the batches of over-full senders to disk
+  public static final BooleanValidator SPOOLING = new BooleanValidator("exec.operator.merging_receiver.spooling", true);
+
   private final OperatorContext context;
   private final VectorContainer outgoingContainer;
   private final MergingReceiverPOP config;
   private final Node[] nodes;
   private final BatchStreamProvider streamProvider;
   private final OperatorStats stats;
+  private final int prefetchBatches;
+  private final long prefetchBytes;
 
   private static enum OutputState {INIT_ON_NEXT, ACTIVE_OUTPUT};
 
   private State state = State.NEEDS_SETUP;
   private OutputState outputState = OutputState.INIT_ON_NEXT;
-  private PriorityQueue<Node> pqueue;
+  private LoserTree tree;
   private Merger merger;
+  // the last winner moved to a batch that was not received yet, its matches are replayed once it is
+  private boolean winnerPending;
+  private long prefetchedBytes;
 
   private int outgoingPosition = 0;
 
   public static enum Metric implements MetricDef{
     BYTES_RECEIVED,
     NUM_SENDERS,
-    NEXT_WAIT_NANOS;
+    NEXT_WAIT_NANOS,
+    PREFETCHED_BATCHES;
 
     @Override
     public int metricId() {
@@ -96,6 +120,9 @@ public class MergingReceiverOperator implements ProducerOperator {
     this.streamProvider = streamProvider;
     this.stats = context.getStats();
     this.config = config;
+    final OptionManager options = context.getOptions();
+    this.prefetchBatches = (int) options.getOption(PREFETCH_BATCHES);
+    this.prefetchBytes = options.getOption(PREFETCH_BYTES);
     this.outgoingContainer = context.createOutputVectorContainer(config.getSchema());
     this.stats.setLongStat(Metric.NUM_SENDERS, config.getNumSenders());
     this.nodes = new Node[config.getNumSenders()];
@@ -115,20 +142,17 @@ public class MergingReceiverOperator implements ProducerOperator {
   public VectorAccessible setup() throws Exception {
     state.is(State.NEEDS_SETUP);
     this.merger = createMerger();
-
-    // allocate the priority queue with the generated comparator
-    this.pqueue = new PriorityQueue<>(nodes.length);
     state = State.CAN_PRODUCE;
     return outgoingContainer;
   }
 
   private boolean ensureReady() {
-    // populate the priority queue with initial values
+    // load the first batch of each sender, or the next batch of the last winner
     for (Node node : nodes) {
       if(node.isReady()){
         continue;
       } else {
-        if(!node.nextPosition()){
+        if(!node.nextBatch()){
           return false;
         }
       }
@@ -137,16 +161,45 @@ public class MergingReceiverOperator implements ProducerOperator {
     return true;
   }
 
+  private void prefetch() {
+    for (Node node : nodes) {
+      node.prefetch();
+    }
+  }
+
+  private LoserTree createTree() {
+    return new LoserTree(nodes.length, new LoserTree.Inputs() {
+      @Override
+      public boolean isDone(int input) {
+        return nodes[input].done;
+      }
+
+      @Override
+      public int compare(int left, int right) {
+        return merger.doEval(nodes[left].getIndex(), nodes[right].getIndex());
+      }
+    });
+  }
+
   @Override
   public int outputData() throws Exception {
     // use getState here so we can transition out of blocked.
     getState().is(State.CAN_PRODUCE);
 
+    prefetch();
     if(!ensureReady()){
       state = State.BLOCKED;
       return 0;
     }
 
+    if (tree == null) {
+      tree = createTree();
+      tree.init();
+    } else if (winnerPending) {
+      tree.update();
+      winnerPending = false;
+    }
+
     if(outputState == OutputState.INIT_ON_NEXT){
       allocateOutgoing();
       outgoingPosition = 0;
@@ -161,20 +214,26 @@ public class MergingReceiverOperator implements ProducerOperator {
      * - when our outgoing batch is full
      * - when there are no more records.
      */
-    while (!pqueue.isEmpty()) {
-      // pop next value from pq and copy to outgoing batch
-      final Node node = pqueue.poll();
+    int winner;
+    while ((winner = tree.peek()) != -1) {
+      // copy the lowest value to outgoing batch, and replay the matches of its sender
+      final Node node = nodes[winner];
       node.copyRecordToOutgoingBatch();
+      final boolean moved = node.nextPosition();
+      if (moved) {
+        tree.update();
+      } else {
+        winnerPending = true;
+      }
 
       if (outgoingPosition == maxRecords) {
         logger.debug("Outgoing vectors space is full; breaking");
         outputState = OutputState.INIT_ON_NEXT;
-
-        node.nextPosition();
         return outgoingContainer.setAllCount(outgoingPosition);
       }
 
-      if(!node.nextPosition()){
+      if(!moved){
+        prefetch();
         state = State.BLOCKED;
         return 0;
       }
@@ -187,9 +246,7 @@ public class MergingReceiverOperator implements ProducerOperator {
     }
     outgoingContainer.setRecordCount(outgoingPosition);
 
-    if (pqueue.isEmpty()) {
-      state = State.DONE;
-    }
+    state = State.DONE;
 
     return outgoingPosition;
   }
@@ -273,13 +330,14 @@ public class MergingReceiverOperator implements ProducerOperator {
   }
 
   /**
-   * A SabotNode contains a reference to a single value in a specific incoming batch.  It is used
-   * as a wrapper for the priority queue.
+   * A SabotNode contains a reference to a single value in a specific incoming batch, and the batches read ahead of
+   * this batch.
    */
-  private class Node implements Comparable<Node>, AutoCloseable {
+  private class Node implements AutoCloseable {
     private final int batchId;      // incoming batch
     private final ArrowRecordBatchLoader loader;
     private final RawFragmentBatchProvider provider;
+    private final Deque<RawFragmentBatch> prefetched = new ArrayDeque<>();
 
     private int valueIndex;   // value within the batch
     private int outputCounts;
@@ -297,48 +355,73 @@ public class MergingReceiverOperator implements ProducerOperator {
       if(currentBatch != null && currentBatch.getBody() != null){
         currentBatch.getBody().close();
       }
+      currentBatch = null;
       valueIndex = 0;
     }
 
     /**
-     * Attempt to get next value and then readd yourself to the priority queue.
-     * @return True if we were able to move forward (whether added to queue or not). False if we are blocked on an incoming message.
+     * Reads ahead the batches already received from the sender, within the prefetch limits.
      */
-    private boolean nextPosition(){
-      if(currentBatch == null || valueIndex == loader.getRecordCount() - 1){
-        clear();
-
-        // get next batch.
-        currentBatch = provider.getNext();
+    private void prefetch() {
+      while (!done && prefetched.size() < prefetchBatches && prefetchedBytes < prefetchBytes) {
+        final RawFragmentBatch batch = provider.getNextIfAvailable();
+        if (batch == null) {
+          return;
+        }
+        prefetched.add(batch);
+        prefetchedBytes += batch.getByteCount();
+        stats.addLongStat(Metric.PREFETCHED_BATCHES, 1);
+      }
+    }
 
+    /**
+     * Move to the next value.
+     * @return True if we were able to move forward (whether done or not). False if we are blocked on an incoming message.
+     */
+    private boolean nextPosition(){
+      if (++valueIndex < loader.getRecordCount()) {
+        return true;
+      }
+      clear();
+      return nextBatch();
+    }
 
-        int size;
-        // we didn't get a batch. this is because we're pending on a message or we're finished.
-        if (currentBatch == null) {
-          if(provider.isStreamDone()){
-            done = true;
-          }
-          return provider.isStreamDone();
+    /**
+     * Load the next non empty batch, reading the prefetched batches first.
+     * @return True if a batch was loaded or the stream is done. False if we are blocked on an incoming message.
+     */
+    private boolean nextBatch(){
+      while (true) {
+        RawFragmentBatch batch = prefetched.poll();
+        if (batch != null) {
+          prefetchedBytes -= batch.getByteCount();
         } else {
-
-          size = loader.load(currentBatch);
-
-          valueIndex = 0;
+          batch = provider.getNext();
+          // we didn't get a batch. this is because we're pending on a message or we're finished.
+          if (batch == null) {
+            if (!provider.isStreamDone()) {
+              return false;
+            }
+            // a last batch may have been received before the stream completed
+            batch = provider.getNext();
+            if (batch == null) {
+              done = true;
+              return true;
+            }
+          }
         }
 
-        // we received actual data, let's set things up and add to priority queue.
+        currentBatch = batch;
+        final int size = loader.load(currentBatch);
         stats.addLongStat(Metric.BYTES_RECEIVED, currentBatch.getByteCount());
         stats.batchReceived(0, loader.getRecordCount(), size);
         inputCounts += loader.getRecordCount();
         valueIndex = 0;
 
-        pqueue.add(this);
-        return true;
-
-      }else{
-        valueIndex++;
-        pqueue.add(this);
-        return true;
+        if (loader.getRecordCount() > 0) {
+          return true;
+        }
+        clear();
       }
     }
 
@@ -346,29 +429,27 @@ public class MergingReceiverOperator implements ProducerOperator {
       return done || currentBatch != null;
     }
 
-    @Override
-    public int compareTo(final Node node2) {
-      final int leftIndex = (this.batchId << 16) + this.valueIndex;
-      final int rightIndex = (node2.batchId << 16) + node2.valueIndex;
-      return merger.doEval(leftIndex, rightIndex);
+    private int getIndex() {
+      return (batchId << 16) + valueIndex;
     }
 
     private void copyRecordToOutgoingBatch() {
       if (!(++outputCounts <= inputCounts)) {
         throw new RuntimeException(String.format("Stream %d input count: %d output count %d", batchId, inputCounts, outputCounts));
       }
-      final int inIndex = (batchId << 16) + valueIndex;
-      merger.doCopy(inIndex, outgoingPosition);
+      merger.doCopy(getIndex(), outgoingPosition);
       outgoingPosition++;
     }
 
     @Override
     public void close() throws Exception {
+      final List<AutoCloseable> closeables = new ArrayList<>();
       if(currentBatch != null){
-        AutoCloseables.close(currentBatch.getBody(), loader);
-      } else {
-        loader.close();
+        closeables.add(currentBatch.getBody());
       }
+      closeables.addAll(prefetched);
+      closeables.add(loader);
+      AutoCloseables.close(closeables);
     }
 
   }
@@ -325,11 +325,11 @@ public class DiskRunManager implements AutoCloseable {
    * Return the total amount of data (in bytes) spilled by {@link ExternalSortOperator}
    * @return total size (in bytes) of data spilled
    */
-  long getTotalDataSpilled() {
+  public long getTotalDataSpilled() {
     return totalDataSpilled;
   }
 
-  long getBatchesSpilled() {
+  public long getBatchesSpilled() {
     return this.batchesSpilled;
   }
 
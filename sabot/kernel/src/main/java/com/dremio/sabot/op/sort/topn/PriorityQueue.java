@@ -33,6 +33,21 @@ public interface PriorityQueue extends AutoCloseable {
   SelectionVector4 getFinalSv4();
   void resetQueue(final VectorContainer newQueue, final SelectionVector4 oldHeap);
 
+  /**
+   * Empties the queue once its records have been spilled. The records which don't sort before the given cutoff
+   * record are discarded from now on, as the spilled records already contain enough better records.
+   *
+   * @param cutoff a batch holding the cutoff record, null if there is no cutoff. The queue takes ownership of it.
+   */
+  void reset(VectorContainer cutoff);
+
+  /**
+   * Moves the current cutoff record out of the queue.
+   *
+   * @return a batch holding the cutoff record, null if there is no cutoff.
+   */
+  VectorContainer takeCutoff();
+
   static TemplateClassDefinition<PriorityQueue> TEMPLATE_DEFINITION = new TemplateClassDefinition<PriorityQueue>(PriorityQueue.class, PriorityQueueTemplate.class);
 
 }
@@ -48,6 +48,11 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
   private int batchCount = 0;
   private boolean hasSv2;
   private int maxSize;
+  private Schema schema;
+  // the records which don't sort before the cutoff record are discarded, the cutoff batch is the last batch of the
+  // hyper batch
+  private VectorContainer cutoffBatch;
+  private int cutoffIndex = -1;
 
   @Override
   public void init(Sv4HyperContainer hyperBatch, int limit, FunctionContext context, BufferAllocator allocator,  boolean hasSv2, int maxSize) {
@@ -58,13 +63,15 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     this.heapSv4 = new SelectionVector4(ArrowBuf, limit, Character.MAX_VALUE);
     this.hasSv2 = hasSv2;
     this.hyperBatch = hyperBatch;
+    this.schema = hyperBatch.getSchema();
     this.maxSize = maxSize;
     doSetup(context, hyperBatch, null);
   }
 
   @Override
   public void resetQueue(final VectorContainer newQueue, final SelectionVector4 oldHeap) {
-    Schema schema = hyperBatch.getSchema();
+    // the cutoff batch is part of the old hyper batch, move it out before the cleanup
+    final VectorContainer cutoff = takeCutoff();
 
     // Cleanup old data.
     close();
@@ -73,6 +80,7 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     hyperBatch = new Sv4HyperContainer(allocator, schema);
     hyperBatch.addBatch(newQueue);
     batchCount = hyperBatch.iterator().next().getValueVectors().length;
+    addCutoff(cutoff);
     final ArrowBuf ArrowBuf = allocator.buffer(4 * (limit + 1));
     heapSv4 = new SelectionVector4(ArrowBuf, limit, Character.MAX_VALUE);
     // Reset queue size (most likely to be set to limit).
@@ -85,6 +93,46 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
     doSetup(context, hyperBatch, null);
   }
 
+  @Override
+  public void reset(VectorContainer cutoff) {
+    // the hyper batch may already be closed by the spill
+    close();
+
+    hyperBatch = new Sv4HyperContainer(allocator, schema);
+    batchCount = 0;
+    finalSv4 = null;
+    final ArrowBuf ArrowBuf = allocator.buffer(4 * (limit + 1));
+    heapSv4 = new SelectionVector4(ArrowBuf, limit, Character.MAX_VALUE);
+    queueSize = 0;
+    addCutoff(cutoff);
+    doSetup(context, hyperBatch, null);
+  }
+
+  @Override
+  public VectorContainer takeCutoff() {
+    if (cutoffBatch == null) {
+      return null;
+    }
+    // the hyper batch keeps the emptied vectors of the cutoff batch, they are not referenced by the heap
+    final VectorContainer cutoff = VectorContainer.create(allocator, cutoffBatch.getSchema());
+    cutoffBatch.transferOut(cutoff);
+    cutoff.setAllCount(1);
+    cutoffBatch = null;
+    cutoffIndex = -1;
+    return cutoff;
+  }
+
+  private void addCutoff(VectorContainer cutoff) {
+    cutoffBatch = cutoff;
+    if (cutoff == null) {
+      cutoffIndex = -1;
+      return;
+    }
+    hyperBatch.addBatch(cutoff);
+    cutoffIndex = batchCount << 16;
+    batchCount++;
+  }
+
   @Override
   public void add(RecordBatchData batch) throws SchemaChangeException{
     Stopwatch watch = Stopwatch.createStarted();
@@ -99,10 +147,15 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
       sv2 = batch.getSv2();
     }
     for (; queueSize < limit && count < batch.getRecordCount();  count++) {
-      heapSv4.set(queueSize, batchCount, hasSv2 ? sv2.getIndex(count) : count);
+      final int index = hasSv2 ? sv2.getIndex(count) : count;
+      if (cutoffIndex >= 0 && doEval((batchCount << 16) | (index & 65535), cutoffIndex) >= 0) {
+        continue;
+      }
+      heapSv4.set(queueSize, batchCount, index);
       queueSize++;
       siftUp();
     }
+    // once the queue is full, its top record sorts before the cutoff record
     for (; count < batch.getRecordCount(); count++) {
       heapSv4.set(limit, batchCount, hasSv2 ? sv2.getIndex(count) : count);
       if (compare(limit, 0) < 0) {
@@ -146,7 +199,9 @@ public abstract class PriorityQueueTemplate implements PriorityQueue {
   @Override
   public void close() {
     try{
+      // the cutoff batch is closed with the hyper batch
       AutoCloseables.close(heapSv4, hyperBatch, finalSv4);
+      cutoffBatch = null;
     }catch(Exception ex){
       throw Throwables.propagate(ex);
     }
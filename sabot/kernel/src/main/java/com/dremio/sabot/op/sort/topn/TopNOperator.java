@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.calcite.rel.RelFieldCollation.Direction;
 
@@ -45,22 +46,67 @@ import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
 import com.dremio.exec.record.selection.SelectionVector4;
+import com.dremio.options.OptionManager;
+import com.dremio.options.Options;
+import com.dremio.options.TypeValidators.BooleanValidator;
+import com.dremio.options.TypeValidators.DoubleValidator;
+import com.dremio.options.TypeValidators.LongValidator;
+import com.dremio.options.TypeValidators.PositiveLongValidator;
+import com.dremio.options.TypeValidators.RangeDoubleValidator;
+import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.copier.Copier;
 import com.dremio.sabot.op.copier.CopierOperator;
 import com.dremio.sabot.op.sort.SortRecordBatchBuilder;
+import com.dremio.sabot.op.sort.external.DiskRunManager;
+import com.dremio.sabot.op.sort.external.ExternalSortTracer;
+import com.dremio.sabot.op.sort.external.PriorityQueueCopier;
 import com.dremio.sabot.op.sort.external.Sv4HyperContainer;
 import com.dremio.sabot.op.spi.SingleInputOperator;
 import com.google.common.base.Stopwatch;
 import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JExpr;
 
+/**
+ * Keeps the first records of its input in a priority queue, purged regularly to only hold the limit records.<br>
+ * <br>
+ * With large limits, the queue may not fit in memory. When the memory left is low, the queue is sorted and spilled to
+ * disk as a run, and emptied. If the run holds limit records, its last record becomes the cutoff: the records which
+ * don't sort before it can't be part of the output anymore and are discarded as they arrive. Once all the input is
+ * consumed, the remaining records are spilled as well, and the runs are merged until the limit is reached.
+ */
+@Options
 public class TopNOperator implements SingleInputOperator {
+  public static final BooleanValidator SPILL_ENABLED = new BooleanValidator("exec.operator.topn.spill.enabled", true);
+  // smaller limits always fit in memory, and don't reserve memory for the spill
+  public static final LongValidator SPILL_MIN_LIMIT = new PositiveLongValidator("exec.operator.topn.spill.min_limit", Integer.MAX_VALUE, 10_000);
+  public static final DoubleValidator SPILL_HEADROOM_FACTOR = new RangeDoubleValidator("exec.operator.topn.spill.headroom_factor", 0.0d, 1.0d, 0.2d);
+
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(TopNOperator.class);
 
+  /**
+   * Metrics of the TopN operator
+   */
+  public enum Metric implements MetricDef {
+    SPILL_COUNT,            // number of times operator spilled to disk
+    MERGE_COUNT,            // number of times spills were merged
+    SPILL_TIME_NANOS,       // time spent spilling to disk
+    MERGE_TIME_NANOS,       // time spent merging disk runs
+    BATCHES_SPILLED,        // total batches spilled to disk
+    TOTAL_SPILLED_DATA_SIZE; // total data spilled by topn operator
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
   private final int batchPurgeThreshold;
   private final TopN config;
   private final OperatorContext context;
+  private final boolean spillEnabled;
+  private final double spillHeadroomFactor;
 
   private State state = State.NEEDS_SETUP;
   private int batchesOutput = 0;
@@ -70,6 +116,7 @@ public class TopNOperator implements SingleInputOperator {
   // used to determine whether we should purge.
   private long countSincePurge;
   private int batchCount;
+  private int batchesSinceSpill;
 
   // used once operator has consumed all data.
   private SelectionVector4 finalOrder;
@@ -78,10 +125,19 @@ public class TopNOperator implements SingleInputOperator {
   private PriorityQueue priorityQueue;
   private Copier copier;
 
+  // used once the operator has spilled.
+  private BufferAllocator copyTargetAllocator;
+  private DiskRunManager diskRuns;
+  private PriorityQueueCopier diskRunCopier;
+  private int recordsOutput;
+
   public TopNOperator(OperatorContext context, TopN popConfig) {
     this.config = popConfig;
     this.context = context;
     this.batchPurgeThreshold = context.getConfig().getInt(ExecConstants.BATCH_PURGE_THRESHOLD);
+    final OptionManager options = context.getOptions();
+    this.spillEnabled = options.getOption(SPILL_ENABLED) && popConfig.getLimit() >= options.getOption(SPILL_MIN_LIMIT);
+    this.spillHeadroomFactor = options.getOption(SPILL_HEADROOM_FACTOR);
   }
 
   @Override
@@ -101,14 +157,31 @@ public class TopNOperator implements SingleInputOperator {
 
     priorityQueue = createNewPriorityQueue(context.getClassProducer(), config.getOrderings());
     copier = CopierOperator.getGenerated4Copier(context.getClassProducer(), priorityQueue.getHyperBatch(), outgoing);
+    if (spillEnabled) {
+      // reserve the memory needed to copy the spilled records
+      copyTargetAllocator = context.getAllocator().newChildAllocator("topn-copy-target", getTargetBatchSizeInBytes(),
+        Long.MAX_VALUE);
+    }
     state = State.CAN_CONSUME;
     return outgoing;
   }
 
+  private int getTargetBatchSizeInBytes() {
+    final OptionManager options = context.getOptions();
+    final int listSizeEstimate = (int) options.getOption(ExecConstants.BATCH_LIST_SIZE_ESTIMATE);
+    final int varFieldSizeEstimate = (int) options.getOption(ExecConstants.BATCH_VARIABLE_FIELD_SIZE_ESTIMATE);
+    return context.getTargetBatchSize() * outgoing.getSchema().estimateRecordSize(listSizeEstimate, varFieldSizeEstimate);
+  }
+
   @Override
   public void consumeData(int records) throws Exception {
 
+    if (spillEnabled && batchesSinceSpill > 0 && isMemoryLow()) {
+      spill();
+    }
+
     countSincePurge += incoming.getRecordCount();
+    batchesSinceSpill++;
     batchCount++;
 
     priorityQueue.add(new RecordBatchData(incoming, context.getAllocator()));
@@ -125,6 +198,13 @@ public class TopNOperator implements SingleInputOperator {
   public void noMoreToConsume() throws Exception {
     state.is(State.CAN_CONSUME);
 
+    if (diskRuns != null) {
+      // the records left in the queue are the last run, all the records are then merged from disk
+      spill();
+      state = State.CAN_PRODUCE;
+      return;
+    }
+
     // get final order.
     priorityQueue.generate();
     finalOrder = priorityQueue.getFinalSv4();
@@ -141,6 +221,10 @@ public class TopNOperator implements SingleInputOperator {
   public int outputData() throws Exception {
     state.is(State.CAN_PRODUCE);
 
+    if (diskRuns != null) {
+      return outputFromDisk();
+    }
+
     if(batchesOutput > 0){
       // only increment sv4 after first return
       final boolean hasMore = finalOrder.next();
@@ -161,6 +245,123 @@ public class TopNOperator implements SingleInputOperator {
     return outgoing.setAllCount(copied);
   }
 
+  private int outputFromDisk() throws Exception {
+    if (diskRunCopier == null) {
+      try {
+        // the runs are merged a few at a time until they can all be read at once
+        if (!diskRuns.consolidateAsNecessary()) {
+          updateStats();
+          return 0;
+        }
+        diskRunCopier = diskRuns.createCopier();
+      } catch (Exception ex) {
+        throw UserException.dataReadError(ex).message("Failure while attempting to read spill data from disk.")
+          .build(logger);
+      }
+    }
+
+    final int remaining = config.getLimit() - recordsOutput;
+    final int copied = remaining > 0 ? diskRunCopier.copy(Math.min(context.getTargetBatchSize(), remaining)) : 0;
+    if (copied == 0) {
+      state = State.DONE;
+      return 0;
+    }
+
+    diskRuns.transferOut(outgoing, copied);
+    recordsOutput += copied;
+    batchesOutput++;
+    return outgoing.setAllCount(copied);
+  }
+
+  /**
+   * @return true if there wouldn't be enough memory left after adding the incoming batch to the queue.
+   */
+  private boolean isMemoryLow() {
+    long batchSize = 0;
+    for (VectorWrapper<?> w : incoming) {
+      batchSize += w.getValueVector().getBufferSize();
+    }
+    final BufferAllocator allocator = context.getAllocator();
+    final double headroom = allocator.getHeadroom() - batchSize;
+    final double total = allocator.getAllocatedMemory() + allocator.getHeadroom();
+    return headroom / total < spillHeadroomFactor;
+  }
+
+  /**
+   * Sorts the records of the queue and spills them as a new run, then empties the queue.
+   */
+  private void spill() throws Exception {
+    if (diskRuns == null) {
+      diskRuns = new DiskRunManager(context.getConfig(), context.getOptions(), context.getTargetBatchSize(),
+        getTargetBatchSizeInBytes(), context.getFragmentHandle(), config.getProps().getLocalOperatorId(),
+        context.getClassProducer(), context.getAllocator(), config.getOrderings(), outgoing.getSchema(),
+        context.getOptions().getOption(ExecConstants.EXTERNAL_SORT_COMPRESS_SPILL_FILES), new ExternalSortTracer(),
+        context.getSpillService(), context.getStats(), context.getExecutionControls());
+    }
+
+    priorityQueue.generate();
+    final SelectionVector4 sortedSv4 = priorityQueue.getFinalSv4();
+    final Sv4HyperContainer source = priorityQueue.getHyperBatch();
+    final int recordCount = sortedSv4.getTotalCount();
+    VectorContainer cutoff = null;
+    try {
+      if (recordCount == config.getLimit()) {
+        cutoff = copyRecord(source, sortedSv4, recordCount - 1);
+      } else {
+        // a run that isn't full keeps the previous cutoff
+        cutoff = priorityQueue.takeCutoff();
+      }
+      if (recordCount > 0) {
+        source.setSelectionVector4(sortedSv4);
+        // the spill closes the hyper batch
+        diskRuns.spill(source, copyTargetAllocator);
+      }
+    } catch (Exception e) {
+      AutoCloseables.close(e, cutoff);
+      throw UserException.dataWriteError(e).message("Failure while attempting to spill topn data to disk.")
+        .build(logger);
+    }
+
+    priorityQueue.reset(cutoff);
+    countSincePurge = 0;
+    batchCount = 0;
+    batchesSinceSpill = 0;
+    logger.debug("Spilled {} records", recordCount);
+    updateStats();
+  }
+
+  private VectorContainer copyRecord(Sv4HyperContainer source, SelectionVector4 sortedSv4, int index) throws SchemaChangeException {
+    final VectorContainer target = VectorContainer.create(context.getAllocator(), outgoing.getSchema());
+    try (SelectionVector4 sv4 = new SelectionVector4(context.getAllocator().buffer(4), 1, 1)) {
+      sv4.set(0, sortedSv4.get(index));
+      source.setSelectionVector4(sv4);
+      copier.setupRemover(context.getFunctionContext(), source, target);
+      if (copier.copyRecords(0, 1) != 1) {
+        throw UserException.memoryError().message("Ran out of memory while trying to spill records.").build(logger);
+      }
+      target.setAllCount(1);
+      return target;
+    } catch (RuntimeException | SchemaChangeException e) {
+      target.close();
+      throw e;
+    } finally {
+      source.setSelectionVector4(sortedSv4);
+    }
+  }
+
+  private void updateStats() {
+    if (diskRuns == null) {
+      return;
+    }
+    final OperatorStats stats = context.getStats();
+    stats.setLongStat(Metric.SPILL_COUNT, diskRuns.spillCount());
+    stats.setLongStat(Metric.MERGE_COUNT, diskRuns.mergeCount());
+    stats.setLongStat(Metric.SPILL_TIME_NANOS, diskRuns.spillTimeNanos());
+    stats.setLongStat(Metric.MERGE_TIME_NANOS, diskRuns.mergeTimeNanos());
+    stats.setLongStat(Metric.BATCHES_SPILLED, diskRuns.getBatchesSpilled());
+    stats.setLongStat(Metric.TOTAL_SPILLED_DATA_SIZE, diskRuns.getTotalDataSpilled());
+  }
+
   private void purge() throws SchemaChangeException {
     final Stopwatch watch = Stopwatch.createStarted();
 
@@ -257,7 +458,8 @@ public class TopNOperator implements SingleInputOperator {
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(outgoing, finalOrder, priorityQueue, copier);
+    updateStats();
+    AutoCloseables.close(outgoing, finalOrder, diskRunCopier, diskRuns, priorityQueue, copier, copyTargetAllocator);
   }
 
   public static class TopNCreator implements SingleInputOperator.Creator<TopN>{
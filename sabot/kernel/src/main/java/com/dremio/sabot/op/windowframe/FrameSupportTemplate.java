@@ -178,6 +178,10 @@ public abstract class FrameSupportTemplate implements WindowFramer {
   }
 
   private int processRANGE(int row) throws Exception {
+    if (requireFullPartition && popConfig.getStart().isCurrent() && popConfig.getEnd().isUnbounded()) {
+      return processRANGEToPartitionEnd(row);
+    }
+
     while (row < outputCount && !isPartitionDone()) {
       if (remainingPeers == 0) {
         // because all peer rows share the same frame, we only need to compute and aggregate the frame once
@@ -200,6 +204,113 @@ public abstract class FrameSupportTemplate implements WindowFramer {
     return row;
   }
 
+  /**
+   * processes the rows of the current batch that are part of the current partition when every frame ends at the end of
+   * the partition (RANGE BETWEEN CURRENT ROW AND UNBOUNDED FOLLOWING) and the size of the partition is known.<br>
+   * The frame of a peer group is the frame of the next peer group plus the rows of the peer group, so the rows of the
+   * partition that follow the current batch are aggregated once, then the peer groups of the current batch are
+   * aggregated from the last one to the first one. This way the following batches, which may have been spilled, are
+   * read once per batch instead of once per peer group.
+   */
+  private int processRANGEToPartitionEnd(int row) throws Exception {
+    // rows of a peer group that started in a previous batch, its frame is already aggregated
+    while (row < outputCount && !isPartitionDone() && remainingPeers > 0) {
+      outputRow(row);
+      writeLastValue(frameLastRow, row);
+
+      remainingRows--;
+      remainingPeers--;
+      row++;
+    }
+
+    if (row == outputCount || isPartitionDone()) {
+      return row;
+    }
+
+    final int end = (int) Math.min(outputCount, row + remainingRows);
+    final long followingRows = remainingRows - (end - row);
+
+    reset();
+    final long followingPeers = aggregatePartitionEnd(end, followingRows);
+
+    setupEvaluatePeer(current, container);
+    int peersEnd = end;
+    int lastPeersStart = end;
+    while (peersEnd > row) {
+      int peersStart = peersEnd - 1;
+      while (peersStart > row && isPeer(peersStart - 1, current, peersEnd - 1, current)) {
+        peersStart--;
+      }
+      if (peersEnd == end) {
+        lastPeersStart = peersStart;
+      }
+
+      for (int i = peersStart; i < peersEnd; i++) {
+        evaluatePeer(i);
+      }
+      saveFirstValue(peersStart);
+      for (int i = peersStart; i < peersEnd; i++) {
+        outputRow(i);
+        writeLastValue(frameLastRow, i);
+      }
+      peersEnd = peersStart;
+    }
+    remainingRows -= end - row;
+
+    if (followingPeers > 0) {
+      // the last peer group continues in the next batch, which needs its frame: aggregate it again
+      reset();
+      saveFirstValue(lastPeersStart);
+      setupEvaluatePeer(current, container);
+      for (int i = lastPeersStart; i < end; i++) {
+        evaluatePeer(i);
+      }
+      aggregatePartitionEnd(end, followingRows);
+    }
+    remainingPeers = followingPeers;
+
+    return end;
+  }
+
+  /**
+   * aggregates the rows of the current partition that follow the current batch
+   * @param end index of the first row after the current partition in the current batch
+   * @param rows number of rows of the partition after the current batch
+   * @return number of these rows that are peers of the last row of the partition in the current batch
+   */
+  private long aggregatePartitionEnd(final int end, final long rows) throws SchemaChangeException {
+    VectorAccessible last = current;
+    frameLastRow = end - 1;
+    long length = 0;
+    long peers = 0;
+    boolean peer = true;
+
+    outer:
+    for (int i = 1; i < batches.size() && length < rows; i++) {
+      final VectorAccessible batch = batches.get(i);
+      setupEvaluatePeer(batch, container);
+      final int recordCount = batch.getRecordCount();
+
+      for (int row = 0; row < recordCount; row++, length++) {
+        if (length >= rows) {
+          break outer;
+        }
+
+        peer = peer && isPeer(end - 1, current, row, batch);
+        if (peer) {
+          peers++;
+        }
+        evaluatePeer(row);
+        last = batch;
+        frameLastRow = row;
+      }
+    }
+
+    setupReadLastValue(last, container);
+
+    return peers;
+  }
+
   /**
    * updates partition's length after computing the number of rows for the current the partition starting at the specified
    * row of the first batch. If !requiresFullPartition, this method will only count the rows in the current batch
@@ -260,7 +371,9 @@ public abstract class FrameSupportTemplate implements WindowFramer {
     long length = 0;
 
     // a single frame can include rows from multiple batches
-    // start processing first batch and, if necessary, move to next batches
+    // start processing first batch and, if necessary, move to next batches. Stop at the first row out of the frame,
+    // the following batches may have been spilled and don't need to be read back
+    outer:
     for (VectorAccessible batch : batches) {
       setupEvaluatePeer(batch, container);
       final int recordCount = batch.getRecordCount();
@@ -269,11 +382,11 @@ public abstract class FrameSupportTemplate implements WindowFramer {
       for (int row = (batch == current) ? start : 0; row < recordCount; row++, length++) {
         if (unboundedFollowing) {
           if (length >= remainingRows) {
-            break;
+            break outer;
           }
         } else {
           if (!isPeer(start, current, row, batch)) {
-            break;
+            break outer;
           }
         }
 
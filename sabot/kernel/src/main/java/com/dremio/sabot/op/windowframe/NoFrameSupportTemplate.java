@@ -256,14 +256,16 @@ public abstract class NoFrameSupportTemplate implements WindowFramer {
     long length = 0;
 
     // a single frame can include rows from multiple batches
-    // start processing first batch and, if necessary, move to next batches
+    // start processing first batch and, if necessary, move to next batches. Stop at the first row out of the frame,
+    // the following batches may have been spilled and don't need to be read back
+    outer:
     for (VectorAccessible batch : batches) {
       final int recordCount = batch.getRecordCount();
 
       // for every remaining row in the partition, count it if it's a peer row
       for (int row = (batch == current) ? start : 0; row < recordCount; row++, length++) {
         if (!isPeer(start, current, row, batch)) {
-          break;
+          break outer;
         }
       }
     }
@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.windowframe;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.apache.arrow.memory.BufferAllocator;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.sabot.op.sort.external.SpillManager;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillInputStream;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillOutputStream;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * The batches buffered by the window operator, some of which may be spilled to disk.<br>
+ * <br>
+ * The first batch (the batch being processed) and the last batch (used to detect the end of the current partition)
+ * always stay in memory. The batches in between are only read by the framers when they compute the size of a
+ * partition or aggregate a frame, always in order, so a spilled batch is loaded back when it's accessed and only the
+ * last {@link #MAX_LOADED_BATCHES} loaded batches are kept in memory.
+ */
+class WindowBatches extends AbstractList<VectorContainer> implements AutoCloseable {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WindowBatches.class);
+
+  // a frame that spans spilled batches may need the batch it ends in and the one before it
+  @VisibleForTesting
+  static final int MAX_LOADED_BATCHES = 2;
+
+  private final BufferAllocator allocator;
+  private final Supplier<SpillManager> spillManagerSupplier;
+  private final boolean compressSpilledBatches;
+  private final List<Entry> entries = new ArrayList<>();
+  private final Deque<Entry> loaded = new ArrayDeque<>(MAX_LOADED_BATCHES);
+
+  private SpillManager spillManager;
+  private BatchSchema schema;
+  private int nextFileId;
+
+  private long spillCount;
+  private long batchesSpilled;
+  private long spilledBytes;
+  private long batchesLoaded;
+
+  /**
+   * @param allocator allocator used to load the spilled batches
+   * @param spillManagerSupplier creates the spill manager the first time batches are spilled
+   * @param compressSpilledBatches true to compress the spill files
+   */
+  WindowBatches(BufferAllocator allocator, Supplier<SpillManager> spillManagerSupplier, boolean compressSpilledBatches) {
+    this.allocator = allocator;
+    this.spillManagerSupplier = spillManagerSupplier;
+    this.compressSpilledBatches = compressSpilledBatches;
+  }
+
+  @Override
+  public VectorContainer get(int index) {
+    final Entry entry = entries.get(index);
+    if (entry.file == null) {
+      return entry.container;
+    }
+
+    if (entry.container != null) {
+      // most recently used
+      loaded.remove(entry);
+      loaded.addLast(entry);
+      return entry.container;
+    }
+
+    while (loaded.size() >= MAX_LOADED_BATCHES) {
+      loaded.removeFirst().unload();
+    }
+    entry.load();
+    loaded.addLast(entry);
+    return entry.container;
+  }
+
+  @Override
+  public int size() {
+    return entries.size();
+  }
+
+  @Override
+  public boolean add(VectorContainer container) {
+    if (schema == null) {
+      schema = container.getSchema();
+    }
+    entries.add(new Entry(container));
+    return true;
+  }
+
+  /**
+   * Only the first batch can be removed, once it has been processed. The caller is responsible for closing it.
+   */
+  @Override
+  public VectorContainer remove(int index) {
+    Preconditions.checkArgument(index == 0, "Only the first batch can be removed");
+    final Entry removed = entries.remove(0);
+    loaded.remove(removed);
+    deleteFile(removed);
+
+    if (!entries.isEmpty()) {
+      // the next batch becomes the batch being processed, keep it in memory until it's removed
+      final Entry first = entries.get(0);
+      if (first.file != null) {
+        get(0);
+        loaded.remove(first);
+        deleteFile(first);
+      }
+    }
+    return removed.container;
+  }
+
+  /**
+   * Spills all the in memory batches, but the first and the last ones, to disk.
+   *
+   * @return number of batches spilled
+   */
+  int spill() {
+    int spilled = 0;
+    for (int i = 1; i < entries.size() - 1; i++) {
+      final Entry entry = entries.get(i);
+      if (entry.file == null) {
+        entry.spill();
+        spilled++;
+      }
+    }
+
+    if (spilled > 0) {
+      spillCount++;
+      batchesSpilled += spilled;
+      logger.debug("Spilled {} batches, {} batches buffered", spilled, entries.size());
+    }
+    return spilled;
+  }
+
+  long getSpillCount() {
+    return spillCount;
+  }
+
+  long getBatchesSpilled() {
+    return batchesSpilled;
+  }
+
+  long getSpilledBytes() {
+    return spilledBytes;
+  }
+
+  long getBatchesLoaded() {
+    return batchesLoaded;
+  }
+
+  SpillManager getSpillManager() {
+    return spillManager;
+  }
+
+  static long getBufferSize(VectorContainer container) {
+    long size = 0;
+    for (VectorWrapper<?> wrapper : container) {
+      size += wrapper.getValueVector().getBufferSize();
+    }
+    return size;
+  }
+
+  private void deleteFile(Entry entry) {
+    if (entry.file == null) {
+      return;
+    }
+    try {
+      entry.file.close();
+    } catch (Exception e) {
+      logger.warn("Failure while deleting spill file {}", entry.file.getPath(), e);
+    }
+    entry.file = null;
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> closeables = new ArrayList<>();
+    for (Entry entry : entries) {
+      closeables.add(entry.container);
+      closeables.add(entry.file);
+    }
+    closeables.add(spillManager);
+    entries.clear();
+    loaded.clear();
+    AutoCloseables.close(closeables);
+  }
+
+  /**
+   * A buffered batch. Spilled batches have a spill file, and a container only while they are loaded.
+   */
+  private final class Entry {
+    private VectorContainer container;
+    private SpillFile file;
+
+    private Entry(VectorContainer container) {
+      this.container = container;
+    }
+
+    private void spill() {
+      if (spillManager == null) {
+        spillManager = spillManagerSupplier.get();
+      }
+      final SpillFile spillFile = spillManager.getSpillFile(String.format("batch-%d", nextFileId++));
+      try (SpillOutputStream output = spillFile.create(compressSpilledBatches)) {
+        spilledBytes += output.writeBatch(container);
+      } catch (Exception e) {
+        AutoCloseables.close(e, spillFile);
+        throw UserException.dataWriteError(e)
+          .message("Failure while spilling window batch")
+          .build(logger);
+      }
+      file = spillFile;
+      unload();
+    }
+
+    private void load() {
+      final VectorContainer batch = VectorContainer.create(allocator, schema);
+      try (SpillInputStream input = file.open(compressSpilledBatches)) {
+        input.load(batch, allocator);
+      } catch (Exception e) {
+        batch.close();
+        throw UserException.dataReadError(e)
+          .message("Failure while reading spilled window batch")
+          .build(logger);
+      }
+      container = batch;
+      batchesLoaded++;
+    }
+
+    private void unload() {
+      container.close();
+      container = null;
+    }
+  }
+}
@@ -18,7 +18,6 @@ package com.dremio.sabot.op.windowframe;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.arrow.memory.OutOfMemoryException;
@@ -30,6 +29,7 @@ import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.logical.data.Order;
+import com.dremio.common.utils.protos.QueryIdHelper;
 import com.dremio.exec.compile.TemplateClassDefinition;
 import com.dremio.exec.compile.sig.GeneratorMapping;
 import com.dremio.exec.compile.sig.MappingSet;
@@ -39,10 +39,19 @@ import com.dremio.exec.expr.ClassGenerator;
 import com.dremio.exec.expr.ClassProducer;
 import com.dremio.exec.expr.fn.FunctionGenerationHelper;
 import com.dremio.exec.physical.config.WindowPOP;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
+import com.dremio.options.OptionManager;
+import com.dremio.options.Options;
+import com.dremio.options.TypeValidators.BooleanValidator;
+import com.dremio.options.TypeValidators.DoubleValidator;
+import com.dremio.options.TypeValidators.RangeDoubleValidator;
+import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.sort.external.SpillManager;
 import com.dremio.sabot.op.spi.SingleInputOperator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
@@ -52,14 +61,44 @@ import com.sun.codemodel.JExpr;
 /**
  * support for OVER(PARTITION BY expression1,expression2,... [ORDER BY expressionA, expressionB,...])
  *
+ * The batches of a partition are buffered until the window functions can process them. When the operator runs low
+ * on memory, the buffered batches that aren't currently processed are spilled to disk and read back when the frames
+ * are computed.
  */
+@Options
 public class WindowFrameOperator implements SingleInputOperator {
   private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(WindowFrameOperator.class);
 
+  public static final BooleanValidator SPILL_ENABLED = new BooleanValidator("exec.operator.window.spill.enabled", true);
+  public static final BooleanValidator SPILL_COMPRESSED = new BooleanValidator("exec.operator.window.spill.compress", true);
+  // spill when the headroom of the operator doesn't fit this many batches anymore
+  public static final DoubleValidator SPILL_HEADROOM_BATCHES = new RangeDoubleValidator("exec.operator.window.spill.headroom_batches", 1.0d, 100.0d, 3.0d);
+
+  public enum Metric implements MetricDef {
+    SPILL_COUNT,            // number of times operator spilled to disk
+    BATCHES_SPILLED,        // total batches spilled to disk
+    BATCHES_LOADED,         // total spilled batches read back from disk
+    TOTAL_SPILLED_DATA_SIZE,  // total data spilled by window operator
+    PEAK_BATCHES_IN_MEMORY, // maximum number of batches buffered
+    IO_BYTES_WRITTEN,
+    IO_BYTES_READ,
+    IO_WRITE_WAIT_NANOS,
+    IO_READ_WAIT_NANOS;
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
   private final OperatorContext context;
   private final List<WindowFunction> functions = Lists.newArrayList();
   private final WindowPOP config;
-  private final LinkedList<VectorContainer> batches = new LinkedList<>();
+  private final WindowBatches batches;
+  private final boolean spillEnabled;
+  private final double spillHeadroomBatches;
+
+  private int peakBatches;
 
   private VectorAccessible incoming;
   private VectorContainer outgoing;
@@ -73,6 +112,18 @@ public class WindowFrameOperator implements SingleInputOperator {
   public WindowFrameOperator(OperatorContext context, WindowPOP config) throws OutOfMemoryException {
     this.context = context;
     this.config = config;
+    final OptionManager options = context.getOptions();
+    this.spillEnabled = options.getOption(SPILL_ENABLED);
+    this.spillHeadroomBatches = options.getOption(SPILL_HEADROOM_BATCHES);
+    this.batches = new WindowBatches(context.getAllocator(), this::createSpillManager, options.getOption(SPILL_COMPRESSED));
+  }
+
+  private SpillManager createSpillManager() {
+    final FragmentHandle handle = context.getFragmentHandle();
+    final String id = String.format("window-%s.%s.%s.%s", QueryIdHelper.getQueryId(handle.getQueryId()),
+      handle.getMajorFragmentId(), handle.getMinorFragmentId(), config.getProps().getLocalOperatorId());
+    return new SpillManager(context.getConfig(), context.getOptions(), id, null, context.getSpillService(),
+      "window", context.getStats());
   }
 
   @Override
@@ -96,9 +147,15 @@ public class WindowFrameOperator implements SingleInputOperator {
   @Override
   public void consumeData(int records) throws Exception {
     state.is(State.CAN_CONSUME);
-    batches.add(VectorContainer.getTransferClone(incoming, context.getAllocator()));
+    final VectorContainer batch = VectorContainer.getTransferClone(incoming, context.getAllocator());
+    batches.add(batch);
+    peakBatches = Math.max(peakBatches, batches.size());
     if(canDoWork()){
       state = State.CAN_PRODUCE;
+    } else if (spillEnabled && context.getAllocator().getHeadroom() < spillHeadroomBatches * WindowBatches.getBufferSize(batch)) {
+      // we need more batches before the current one can be processed, make room for them
+      batches.spill();
+      updateStats();
     }
   }
 
@@ -175,9 +232,9 @@ public class WindowFrameOperator implements SingleInputOperator {
       return false;
     }
 
-    final VectorAccessible current = batches.getFirst();
+    final VectorAccessible current = batches.get(0);
     final int currentSize = current.getRecordCount();
-    final VectorAccessible last = batches.getLast();
+    final VectorAccessible last = batches.get(batches.size() - 1);
     final int lastSize = last.getRecordCount();
 
     final boolean partitionEndReached = !framers[0].isSamePartition(currentSize - 1, current, lastSize - 1, last);
@@ -333,14 +390,32 @@ public class WindowFrameOperator implements SingleInputOperator {
     return visitor.visitSingleInput(this, value);
   }
 
+  private void updateStats() {
+    final OperatorStats stats = context.getStats();
+    stats.setLongStat(Metric.SPILL_COUNT, batches.getSpillCount());
+    stats.setLongStat(Metric.BATCHES_SPILLED, batches.getBatchesSpilled());
+    stats.setLongStat(Metric.BATCHES_LOADED, batches.getBatchesLoaded());
+    stats.setLongStat(Metric.TOTAL_SPILLED_DATA_SIZE, batches.getSpilledBytes());
+    stats.setLongStat(Metric.PEAK_BATCHES_IN_MEMORY, peakBatches);
+
+    final SpillManager spillManager = batches.getSpillManager();
+    if (spillManager != null) {
+      stats.setLongStat(Metric.IO_BYTES_WRITTEN, spillManager.getIOWriteBytes());
+      stats.setLongStat(Metric.IO_BYTES_READ, spillManager.getIOReadBytes());
+      stats.setLongStat(Metric.IO_WRITE_WAIT_NANOS, spillManager.getIOWriteWait());
+      stats.setLongStat(Metric.IO_READ_WAIT_NANOS, spillManager.getIOReadWait());
+    }
+  }
+
   @Override
   public void close() throws Exception {
+    updateStats();
     List<AutoCloseable> closeables = new ArrayList<>();
     closeables.add(outgoing);
     if (framers != null) {
       closeables.addAll(Arrays.asList(framers));
     }
-    closeables.addAll(batches);
+    closeables.add(batches);
     AutoCloseables.close(closeables);
   }
 
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.TaskManager;
+import com.dremio.sabot.task.TaskManager.TaskHandle;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+/**
+ * Scheduling group of the {@link SlicingTaskPool}.<br>
+ * <br>
+ * A group shares the time it is entitled to between its active children, tasks that are not done and groups with at
+ * least one such task, in proportion to their weights, or equally if the group isn't weight based. The share of a
+ * task is the product of its share in its group and the shares of the groups above it.<br>
+ * <br>
+ * Groups don't keep references to their children, only the weight sum of the active ones, so a group is garbage once
+ * its owner and its tasks are gone.
+ */
+final class SlicingSchedulingGroup implements SchedulingGroup<AsyncTaskWrapper> {
+
+  private final SlicingTaskPool pool;
+  private final SlicingSchedulingGroup parent;
+  // weight of this group in its parent
+  private final long weight;
+  private final boolean weightBasedScheduler;
+
+  // guarded by pool.getGroupLock()
+  private int activeChildren;
+  private volatile long activeWeight;
+
+  SlicingSchedulingGroup(SlicingTaskPool pool, SlicingSchedulingGroup parent, long weight, boolean weightBasedScheduler) {
+    this.pool = pool;
+    this.parent = parent;
+    this.weight = weight;
+    this.weightBasedScheduler = weightBasedScheduler;
+  }
+
+  @Override
+  public SchedulingGroup<AsyncTaskWrapper> addGroup(long weight, boolean weightBasedScheduler) {
+    return new SlicingSchedulingGroup(pool, this, childWeight(weight), weightBasedScheduler);
+  }
+
+  @Override
+  public TaskHandle<AsyncTaskWrapper> addTask(AsyncTaskWrapper task, long weight) {
+    final SlicingTaskHandle handle = new SlicingTaskHandle(pool, task, this, childWeight(weight));
+    task.setTaskHandle(handle);
+    childStarted(handle.getWeight());
+    pool.enqueue(handle, false);
+    return handle;
+  }
+
+  /**
+   * Called once the task of the given handle is done.
+   */
+  void taskDone(SlicingTaskHandle handle) {
+    Preconditions.checkArgument(handle.getGroup() == this);
+    childFinished(handle.getWeight());
+  }
+
+  /**
+   * @param childWeight weight of an active child of this group
+   * @return the share of the pool the child is entitled to, in (0, 1]
+   */
+  double getShare(long childWeight) {
+    final double share = (double) childWeight / Math.max(activeWeight, childWeight);
+    return parent == null ? share : share * parent.getShare(weight);
+  }
+
+  @VisibleForTesting
+  long getActiveWeight() {
+    return activeWeight;
+  }
+
+  private long childWeight(long weight) {
+    if (!weightBasedScheduler) {
+      return 1;
+    }
+    return Math.min(Math.max(weight, 1), TaskManager.MAX_WEIGHT);
+  }
+
+  private void childStarted(long childWeight) {
+    synchronized (pool.getGroupLock()) {
+      if (activeChildren++ == 0 && parent != null) {
+        parent.childStarted(weight);
+      }
+      activeWeight += childWeight;
+    }
+  }
+
+  private void childFinished(long childWeight) {
+    synchronized (pool.getGroupLock()) {
+      Preconditions.checkState(activeChildren > 0, "No active child in the group");
+      activeWeight -= childWeight;
+      if (--activeChildren == 0 && parent != null) {
+        parent.childFinished(weight);
+      }
+    }
+  }
+}
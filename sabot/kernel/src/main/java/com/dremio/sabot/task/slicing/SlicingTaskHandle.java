@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.TaskManager.TaskHandle;
+
+/**
+ * Handle of a task scheduled by the {@link SlicingTaskPool}. It is in the run queue of at most one slicing thread at
+ * a time, and only the thread running the task updates its virtual runtime.
+ */
+final class SlicingTaskHandle implements TaskHandle<AsyncTaskWrapper> {
+
+  private final SlicingTaskPool pool;
+  private final AsyncTaskWrapper task;
+  private final SlicingSchedulingGroup group;
+  // weight of the task in its group, as used by the group to share its time between its children
+  private final long weight;
+
+  private volatile int thread = -1;
+  private volatile double vruntime;
+
+  SlicingTaskHandle(SlicingTaskPool pool, AsyncTaskWrapper task, SlicingSchedulingGroup group, long weight) {
+    this.pool = pool;
+    this.task = task;
+    this.group = group;
+    this.weight = weight;
+  }
+
+  @Override
+  public AsyncTaskWrapper getTask() {
+    return task;
+  }
+
+  @Override
+  public void reEnqueue() {
+    pool.enqueue(this, true);
+  }
+
+  @Override
+  public int getThread() {
+    return thread;
+  }
+
+  void setThread(int thread) {
+    this.thread = thread;
+  }
+
+  SlicingSchedulingGroup getGroup() {
+    return group;
+  }
+
+  long getWeight() {
+    return weight;
+  }
+
+  double getVruntime() {
+    return vruntime;
+  }
+
+  void setVruntime(double vruntime) {
+    this.vruntime = vruntime;
+  }
+
+  /**
+   * Charges the task for the time it ran, scaled by the share of the pool it is entitled to.
+   */
+  void charge(long elapsedNanos) {
+    vruntime += elapsedNanos / group.getShare(weight);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s", task.getState());
+  }
+}
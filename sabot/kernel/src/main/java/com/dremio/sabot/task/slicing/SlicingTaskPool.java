@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.GroupManager;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.TaskPool;
+import com.dremio.sabot.task.TaskPoolFactory;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A task pool that time slices the tasks on a fixed number of threads.<br>
+ * <br>
+ * Tasks are cooperative: they are expected to return from {@link AsyncTaskWrapper#run()} after a short amount of
+ * work. Each thread picks the task with the smallest virtual runtime of its run queue, a task being charged for the
+ * time it runs divided by its share of its {@link SchedulingGroup}, so the groups get time in proportion to their
+ * weights. Idle threads steal tasks from the most loaded threads, and blocked tasks don't hold a thread: they are
+ * parked until their {@code AvailabilityCallback} puts them back in a run queue.<br>
+ * <br>
+ * Enabled by setting {@code dremio.task.pool.factory.class} to {@code com.dremio.sabot.task.slicing.SlicingTaskPool$Factory}.
+ */
+public class SlicingTaskPool implements TaskPool {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SlicingTaskPool.class);
+
+  private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+  /**
+   * Factory for {@code SlicingTaskPool}
+   */
+  public static final class Factory implements TaskPoolFactory {
+    @Override
+    public TaskPool newInstance(OptionManager options, DremioConfig config) {
+      final int numThreads = (int) options.getOption(ExecConstants.SLICING_THREAD_COUNT);
+      return new SlicingTaskPool(numThreads > 0 ? numThreads : Runtime.getRuntime().availableProcessors(),
+        TimeUnit.MILLISECONDS.toNanos(options.getOption(ExecConstants.SLICING_TIME_QUANTUM_MS)));
+    }
+  }
+
+  private final Object groupLock = new Object();
+  private final SlicingSchedulingGroup rootGroup = new SlicingSchedulingGroup(this, null, 1, true);
+  private final GroupManager<AsyncTaskWrapper> groupManager = weight -> rootGroup.addGroup(weight, true);
+  private final List<SlicingThread> threads;
+  private final AtomicInteger nextThread = new AtomicInteger();
+
+  private volatile boolean closed;
+
+  @VisibleForTesting
+  SlicingTaskPool(int numThreads, long quantumNanos) {
+    Preconditions.checkArgument(numThreads > 0, "At least one slicing thread is required");
+    final ImmutableList.Builder<SlicingThread> builder = ImmutableList.builder();
+    for (int i = 0; i < numThreads; i++) {
+      builder.add(new SlicingThread(this, i, quantumNanos));
+    }
+    this.threads = builder.build();
+    threads.forEach(Thread::start);
+    logger.info("Started slicing task pool with {} threads", numThreads);
+  }
+
+  @Override
+  public void execute(AsyncTaskWrapper task) {
+    Preconditions.checkState(!closed, "Task pool is closed");
+    final SchedulingGroup<AsyncTaskWrapper> group = task.getSchedulingGroup();
+    // tasks created before the pool, or with a group of another pool, are scheduled at the root
+    (group instanceof SlicingSchedulingGroup ? group : rootGroup).addTask(task, task.getTaskWeight());
+  }
+
+  @Override
+  public GroupManager<AsyncTaskWrapper> getGroupManager() {
+    return groupManager;
+  }
+
+  @Override
+  public Iterable<ThreadInfo> getSlicingThreads() {
+    return threads.stream().map(SlicingThread::getThreadInfo).collect(Collectors.toList());
+  }
+
+  @Override
+  public boolean areAllThreadsAlive() {
+    return threads.stream().allMatch(Thread::isAlive);
+  }
+
+  @Override
+  public void close() throws Exception {
+    closed = true;
+    for (SlicingThread thread : threads) {
+      thread.interrupt();
+    }
+    for (SlicingThread thread : threads) {
+      thread.join(CLOSE_TIMEOUT_MILLIS);
+    }
+  }
+
+  /**
+   * Adds a runnable task to a run queue. Tasks go back to the thread that last ran them, which is likely to still
+   * have their data in its caches, and new tasks are spread round robin.
+   */
+  void enqueue(SlicingTaskHandle handle, boolean wakingUp) {
+    final int lastThread = handle.getThread();
+    final SlicingThread thread = lastThread >= 0 ? threads.get(lastThread)
+      : threads.get(Math.floorMod(nextThread.getAndIncrement(), threads.size()));
+    thread.enqueue(handle, wakingUp);
+
+    if (thread.isBusy() || thread.getQueueSize() > 1) {
+      // let an idle thread steal the task rather than waiting for its thread
+      for (SlicingThread other : threads) {
+        if (other != thread && other.isIdle()) {
+          other.wakeUpIfIdle();
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return a task taken from the thread with the most queued tasks, or null if no task is queued
+   */
+  SlicingTaskHandle steal(SlicingThread thief) {
+    SlicingThread victim = null;
+    for (SlicingThread thread : threads) {
+      if (thread != thief && thread.getQueueSize() > 0
+        && (victim == null || thread.getQueueSize() > victim.getQueueSize())) {
+        victim = thread;
+      }
+    }
+    return victim != null ? victim.poll() : null;
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  Object getGroupLock() {
+    return groupLock;
+  }
+
+  @VisibleForTesting
+  SlicingSchedulingGroup getRootGroup() {
+    return rootGroup;
+  }
+}
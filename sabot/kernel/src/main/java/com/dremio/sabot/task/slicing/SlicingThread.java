@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.dremio.common.perf.StatsCollectionEligibilityRegistrar;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.BlockRun;
+import com.dremio.sabot.task.Task.State;
+import com.dremio.sabot.task.TaskPool.ThreadInfo;
+
+/**
+ * Executing thread of the {@link SlicingTaskPool}.<br>
+ * <br>
+ * Each thread has its own run queue, ordered by virtual runtime. The thread runs the task with the smallest virtual
+ * runtime until it blocks, finishes or uses up its time quantum, and steals runnable tasks from the other threads
+ * when its own queue is empty. Blocked tasks are not in any queue: they are added back to the queue of the thread
+ * that last ran them once they become available.
+ */
+final class SlicingThread extends Thread {
+  private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(SlicingThread.class);
+
+  // how long an idle thread waits before looking for tasks to steal again
+  private static final long IDLE_WAIT_MILLIS = 10;
+
+  private final SlicingTaskPool pool;
+  private final int threadId;
+  private final long quantumNanos;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition workAvailable = lock.newCondition();
+  // guarded by lock
+  private final PriorityQueue<SlicingTaskHandle> runQueue =
+    new PriorityQueue<>(Comparator.comparingDouble(SlicingTaskHandle::getVruntime));
+  // guarded by lock, smallest virtual runtime of the tasks this thread picked, never decreases
+  private double minVruntime;
+
+  private volatile boolean idle;
+  private volatile boolean running;
+  private volatile int queueSize;
+  private volatile int numSteals;
+
+  SlicingThread(SlicingTaskPool pool, int threadId, long quantumNanos) {
+    super("e" + threadId);
+    this.pool = pool;
+    this.threadId = threadId;
+    this.quantumNanos = quantumNanos;
+    setDaemon(true);
+  }
+
+  @Override
+  public void run() {
+    StatsCollectionEligibilityRegistrar.addSelf();
+
+    while (!pool.isClosed()) {
+      try {
+        SlicingTaskHandle handle = poll();
+        if (handle == null) {
+          handle = pool.steal(this);
+          if (handle != null) {
+            numSteals++;
+          }
+        }
+        if (handle == null) {
+          awaitWork();
+          continue;
+        }
+        runSlice(handle);
+      } catch (InterruptedException e) {
+        logger.info("Thread interrupted, exiting.");
+        return;
+      } catch (Throwable t) {
+        // keep the thread alive, the task itself has been dropped by runSlice()
+        logger.error("Unhandled Exception in Slicing Thread.", t);
+      }
+    }
+  }
+
+  private void runSlice(SlicingTaskHandle handle) throws Exception {
+    final AsyncTaskWrapper task = handle.getTask();
+    handle.setThread(threadId);
+    running = true;
+
+    final long start = System.nanoTime();
+    State state;
+    try {
+      do {
+        task.run();
+        state = task.getState();
+      } while (state == State.RUNNABLE && System.nanoTime() - start < quantumNanos && !pool.isClosed());
+    } catch (Throwable t) {
+      // the task is dropped, release its resources before rethrowing
+      try {
+        handle.getGroup().taskDone(handle);
+      } finally {
+        task.getCleaner().close();
+      }
+      throw t;
+    } finally {
+      running = false;
+      handle.charge(System.nanoTime() - start);
+    }
+
+    switch (state) {
+      case BLOCKED_ON_DOWNSTREAM:
+      case BLOCKED_ON_UPSTREAM:
+      case BLOCKED_ON_SHARED_RESOURCE:
+        // the callback may add the task back to a run queue right away, so the handle must not be used after this
+        task.setAvailabilityCallback(new BlockRun(handle));
+        break;
+      case DONE:
+        try {
+          handle.getGroup().taskDone(handle);
+        } finally {
+          task.getCleaner().close();
+        }
+        break;
+      case RUNNABLE:
+      default:
+        enqueue(handle, false);
+        break;
+    }
+  }
+
+  /**
+   * Adds a task to the run queue of this thread.
+   *
+   * @param handle task to add
+   * @param wakingUp true if the task was blocked, which gives it a small credit over the tasks already queued
+   */
+  void enqueue(SlicingTaskHandle handle, boolean wakingUp) {
+    lock.lock();
+    try {
+      // don't let a new task, or one that was blocked for a long time, monopolize the thread
+      final double floor = wakingUp ? minVruntime - quantumNanos : minVruntime;
+      if (handle.getVruntime() < floor) {
+        handle.setVruntime(floor);
+      }
+      runQueue.add(handle);
+      queueSize = runQueue.size();
+      workAvailable.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * @return the queued task with the smallest virtual runtime, or null if the queue is empty
+   */
+  SlicingTaskHandle poll() {
+    lock.lock();
+    try {
+      final SlicingTaskHandle handle = runQueue.poll();
+      queueSize = runQueue.size();
+      if (handle != null) {
+        minVruntime = Math.max(minVruntime, handle.getVruntime());
+      }
+      return handle;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Wakes up the thread if it is waiting for work, so it can look for tasks to steal.
+   */
+  void wakeUpIfIdle() {
+    if (!idle) {
+      return;
+    }
+    lock.lock();
+    try {
+      workAvailable.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void awaitWork() throws InterruptedException {
+    lock.lock();
+    try {
+      if (runQueue.isEmpty() && !pool.isClosed()) {
+        idle = true;
+        try {
+          workAvailable.await(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        } finally {
+          idle = false;
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  boolean isIdle() {
+    return idle;
+  }
+
+  boolean isBusy() {
+    return running;
+  }
+
+  int getQueueSize() {
+    return queueSize;
+  }
+
+  int getThreadId() {
+    return threadId;
+  }
+
+  ThreadInfo getThreadInfo() {
+    return new ThreadInfo(getName(), threadId, -1, -1, queueSize + (running ? 1 : 0), 0, numSteals, getId());
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.compile;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.sabot.op.sort.external.QuickSorterInterface;
+
+/**
+ * Tests for {@link PersistentClassCache}
+ */
+public class TestPersistentClassCache {
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  public void testPutAndGet() throws Exception {
+    final PersistentClassCache cache = new PersistentClassCache(folder.getRoot().toPath(), "1.0.0");
+    final String key = cache.getKey(QuickSorterInterface.TEMPLATE_DEFINITION, "class GenericGenerated {}");
+    assertEquals(key, cache.getKey(QuickSorterInterface.TEMPLATE_DEFINITION, "class GenericGenerated {}"));
+    assertNotEquals(key, cache.getKey(QuickSorterInterface.TEMPLATE_DEFINITION, "class GenericGenerated { int a; }"));
+    assertNull(cache.get(key));
+
+    cache.put(key, "com.dremio.Gen1", new ClassBytes[] {
+      new ClassBytes("com.dremio.Gen1", new byte[] {1, 2, 3}),
+      new ClassBytes("com.dremio.Gen1$Inner", new byte[] {4})});
+
+    // a new cache, after a restart, reads the classes
+    final PersistentClassCache restarted = new PersistentClassCache(folder.getRoot().toPath(), "1.0.0");
+    final PersistentClassCache.Entry entry = restarted.get(key);
+    assertNotNull(entry);
+    assertEquals("com.dremio.Gen1", entry.getClassName());
+    assertEquals(2, entry.getClasses().length);
+    assertEquals("com.dremio.Gen1$Inner", entry.getClasses()[1].getName());
+    assertArrayEquals(new byte[] {1, 2, 3}, entry.getClasses()[0].getBytes());
+    assertEquals(1, restarted.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void testOtherVersionsAreDeleted() throws Exception {
+    final PersistentClassCache previous = new PersistentClassCache(folder.getRoot().toPath(), "1.0.0");
+    final String key = previous.getKey(QuickSorterInterface.TEMPLATE_DEFINITION, "class GenericGenerated {}");
+    previous.put(key, "com.dremio.Gen1", new ClassBytes[] {new ClassBytes("com.dremio.Gen1", new byte[] {1})});
+
+    final PersistentClassCache cache = new PersistentClassCache(folder.getRoot().toPath(), "1.1.0");
+    assertFalse(Files.exists(previous.getDirectory()));
+    assertNull(cache.get(key));
+  }
+
+  @Test
+  public void testOtherDirectoriesAreKept() throws Exception {
+    final Path foreign = folder.newFolder("foreign").toPath();
+    Files.write(foreign.resolve("data"), new byte[] {1, 2, 3});
+    final Path file = folder.newFile("file").toPath();
+
+    final PersistentClassCache cache = new PersistentClassCache(folder.getRoot().toPath(), "1.0.0");
+    assertTrue(Files.isRegularFile(cache.getDirectory().resolve(PersistentClassCache.MARKER)));
+    assertTrue(Files.exists(foreign.resolve("data")));
+    assertTrue(Files.exists(file));
+  }
+
+  @Test
+  public void testCorruptedFile() throws Exception {
+    final PersistentClassCache cache = new PersistentClassCache(folder.getRoot().toPath(), "1.0.0");
+    final String key = cache.getKey(QuickSorterInterface.TEMPLATE_DEFINITION, "class GenericGenerated {}");
+    final Path file = cache.getDirectory().resolve(key + ".classes");
+    Files.write(file, new byte[] {1, 2, 3});
+
+    assertNull(cache.get(key));
+    assertFalse(Files.exists(file));
+    assertTrue(Files.isDirectory(cache.getDirectory()));
+  }
+}
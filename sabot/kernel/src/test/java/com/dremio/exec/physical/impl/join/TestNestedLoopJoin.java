@@ -20,6 +20,7 @@ import org.junit.Test;
 
 import com.dremio.PlanTestBase;
 import com.dremio.common.util.TestTools;
+import com.dremio.exec.planner.physical.NestedLoopJoinPrel;
 import com.dremio.exec.planner.physical.PlannerSettings;
 
 public class TestNestedLoopJoin extends PlanTestBase {
@@ -114,6 +115,16 @@ public class TestNestedLoopJoin extends PlanTestBase {
     testPlanMatchingPatterns(testNlJoinInequality_3, new String[]{nlpattern});
   }
 
+  @Test
+  public void testNlJoinBetweenBand_planning() throws Exception {
+    String query = "select r.r_regionkey, n.n_nationkey from cp.\"tpch/region.parquet\" r "
+        + " inner join cp.\"tpch/nation.parquet\" n on r.r_regionkey between n.n_regionkey and n.n_nationkey";
+    testPlanMatchingPatterns(query, new String[]{"NestedLoopJoin\\(.*vectorCondition="});
+    try (AutoCloseable ignored = withOption(NestedLoopJoinPrel.BAND_JOIN, false)) {
+      testPlanMatchingPatterns(query, new String[]{nlpattern}, "vectorCondition");
+    }
+  }
+
   @Test
   public void testNlJoinAggrs_1_planning() throws Exception {
     String query = "select total1, total2 from "
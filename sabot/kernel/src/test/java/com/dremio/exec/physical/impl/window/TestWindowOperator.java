@@ -24,6 +24,8 @@ import static com.dremio.exec.physical.impl.window.DataPar.dataB4P4;
 import static com.dremio.exec.physical.impl.window.WindowGenerator.generateInput;
 import static com.dremio.exec.physical.impl.window.WindowGenerator.generateOutput;
 import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
 import static java.util.Collections.singletonList;
 import static org.apache.calcite.rel.RelFieldCollation.Direction.DESCENDING;
 import static org.apache.calcite.rel.RelFieldCollation.NullDirection.FIRST;
@@ -121,4 +123,28 @@ public class TestWindowOperator extends BaseTestOperator {
     validateSingle(window, WindowFrameOperator.class, input, output, 20);
   }
 
+  @Test
+  public void testRangeToPartitionEnd() throws Exception {
+    // SELECT position_id, sub, salary, sum(salary), first_value(salary), last_value(salary) OVER(PARTITION BY position_id
+    // ORDER BY sub DESC RANGE BETWEEN CURRENT ROW AND UNBOUNDED FOLLOWING)
+    final WindowPOP window = new WindowPOP(PROPS, null,
+      singletonList(n("position_id")),
+      Arrays.asList(n("sum(salary)", "sum"), n("first_value(salary)", "first"), n("last_value(salary)", "last")),
+      singletonList(ordering("sub", DESCENDING, FIRST)),
+      false, new Bound(false, 0), new Bound(true, Long.MIN_VALUE));
+
+    // with batches of 3 rows, peer groups and partitions cross batch boundaries
+    final Table input = t(WindowGenerator.header,
+      tr(1, 5, 10), tr(1, 5, 20), tr(1, 4, 30),
+      tr(1, 4, 40), tr(1, 4, 50), tr(1, 3, 60),
+      tr(1, 2, 70), tr(1, 2, 80), tr(2, 9, 1),
+      tr(2, 9, 2), tr(2, 1, 3));
+    final Table output = t(th("position_id", "sub", "salary", "sum", "first", "last"),
+      tr(1, 5, 10, 360L, 10, 80), tr(1, 5, 20, 360L, 10, 80), tr(1, 4, 30, 330L, 30, 80),
+      tr(1, 4, 40, 330L, 30, 80), tr(1, 4, 50, 330L, 30, 80), tr(1, 3, 60, 210L, 60, 80),
+      tr(1, 2, 70, 150L, 70, 80), tr(1, 2, 80, 150L, 70, 80), tr(2, 9, 1, 6L, 1, 3),
+      tr(2, 9, 2, 6L, 1, 3), tr(2, 1, 3, 3L, 3, 3));
+    validateSingle(window, WindowFrameOperator.class, input, output, 3);
+  }
+
 }
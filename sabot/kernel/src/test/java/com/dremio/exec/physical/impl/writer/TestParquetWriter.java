@@ -31,6 +31,7 @@ import java.io.File;
 import java.io.FileWriter;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -65,6 +66,7 @@ import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.proto.ExecProtos;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.server.SabotContext;
 import com.dremio.exec.store.RecordWriter;
 import com.dremio.exec.store.WritePartition;
 import com.dremio.exec.store.dfs.FileSystemPlugin;
@@ -72,6 +74,7 @@ import com.dremio.exec.store.parquet.ParquetFormatConfig;
 import com.dremio.exec.store.parquet.ParquetFormatPlugin;
 import com.dremio.exec.store.parquet.ParquetRecordWriter;
 import com.dremio.exec.store.parquet.ParquetWriter;
+import com.dremio.exec.store.parquet.ParquetWriterFlushPool;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
@@ -824,6 +827,91 @@ public class TestParquetWriter extends BaseTestQuery {
     ALLOCATOR.close();
   }
 
+  @Test
+  public void testBackgroundFlush() throws Exception {
+    final Path tmpSchemaPath = new Path(getDfsTestTmpSchemaLocation());
+    final Path targetPath = new Path(tmpSchemaPath, "testBackgroundFlush");
+
+    final Configuration hadoopConf = new Configuration();
+    final FileSystem newFs = targetPath.getFileSystem(hadoopConf);
+    assertTrue(newFs.mkdirs(targetPath));
+
+    final BufferAllocator ALLOCATOR = allocatorRule.newAllocator("test-parquet-writer", 0, Long.MAX_VALUE);
+
+    OptionManager optionManager = mock(OptionManager.class);
+    when(optionManager.getOption(ExecConstants.PARQUET_WRITER_COMPRESSION_TYPE_VALIDATOR)).thenReturn("snappy");
+    when(optionManager.getOption(ExecConstants.PARQUET_PAGE_SIZE_VALIDATOR)).thenReturn(256L);
+    when(optionManager.getOption(ExecConstants.PARQUET_MAXIMUM_PARTITIONS_VALIDATOR)).thenReturn(3L);
+    when(optionManager.getOption(ExecConstants.PARQUET_DICT_PAGE_SIZE_VALIDATOR)).thenReturn(4096L);
+    when(optionManager.getOption(ExecConstants.PARQUET_WRITER_MAX_PENDING_FLUSHES_VALIDATOR)).thenReturn(2L);
+
+    OperatorStats operatorStats = mock(OperatorStats.class);
+
+    OperatorContext opContext = mock(OperatorContext.class);
+    when(opContext.getFragmentHandle()).thenReturn(ExecProtos.FragmentHandle.newBuilder().setMajorFragmentId(2323).setMinorFragmentId(234236).build());
+    when(opContext.getAllocator()).thenReturn(ALLOCATOR);
+    when(opContext.getOptions()).thenReturn(optionManager);
+    when(opContext.getStats()).thenReturn(operatorStats);
+
+    ParquetWriter writerConf = mock(ParquetWriter.class);
+    when(writerConf.getLocation()).thenReturn(targetPath.toUri().toString());
+    OpProps props = mock(OpProps.class);
+    when(writerConf.getProps()).thenReturn(props);
+    when(writerConf.getProps().getUserName()).thenReturn("testuser");
+
+    ParquetFormatPlugin formatPlugin = mock(ParquetFormatPlugin.class);
+    FileSystemPlugin fsPlugin = BaseTestQuery.getMockedFileSystemPlugin();
+    when(fsPlugin.createFS((String) notNull(), (OperatorContext) notNull())).thenReturn(HadoopFileSystem.getLocal(hadoopConf));
+    when(writerConf.getFormatPlugin()).thenReturn(formatPlugin);
+    when(formatPlugin.getFsPlugin()).thenReturn(fsPlugin);
+    final ParquetWriterFlushPool flushPool = new ParquetWriterFlushPool();
+    final SabotContext sabotContext = mock(SabotContext.class);
+    when(sabotContext.getParquetWriterFlushPool()).thenReturn(flushPool);
+    when(formatPlugin.getContext()).thenReturn(sabotContext);
+
+    ParquetRecordWriter writer = new ParquetRecordWriter(opContext, writerConf, new ParquetFormatConfig());
+
+    RecordWriter.OutputEntryListener outputEntryListener = mock(RecordWriter.OutputEntryListener.class);
+    RecordWriter.WriteStatsListener writeStatsListener = mock(RecordWriter.WriteStatsListener.class);
+    ArgumentCaptor<Long> recordWrittenCaptor = ArgumentCaptor.forClass(long.class);
+    ArgumentCaptor<Long> fileSizeCaptor = ArgumentCaptor.forClass(long.class);
+    ArgumentCaptor<String> pathCaptor = ArgumentCaptor.forClass(String.class);
+
+    BigIntVector bigIntVector = new BigIntVector("key", ALLOCATOR);
+    bigIntVector.allocateNew(3);
+    bigIntVector.set(0, 52459253098448904L);
+    bigIntVector.set(1, 1116675951L);
+    bigIntVector.set(2, 42L);
+
+    VectorContainer container = new VectorContainer();
+    container.add(bigIntVector);
+    container.setRecordCount(3);
+    container.buildSchema(BatchSchema.SelectionVectorMode.NONE);
+
+    // each partition is written to its own file, the first one being written in the background
+    writer.setup(container, outputEntryListener, writeStatsListener);
+    writer.startPartition(WritePartition.NONE);
+    writer.writeBatch(0, 2);
+    writer.startPartition(WritePartition.NONE);
+    writer.writeBatch(2, 1);
+
+    container.clear();
+    writer.close();
+
+    verify(outputEntryListener, times(2)).recordsWritten(recordWrittenCaptor.capture(),
+      fileSizeCaptor.capture(), pathCaptor.capture(), any(), any(), any(), any(), any());
+    assertEquals(Arrays.asList(2L, 1L), recordWrittenCaptor.getAllValues());
+
+    for (int i = 0; i < 2; i++) {
+      final Path path = new Path(pathCaptor.getAllValues().get(i));
+      assertEquals(fileSizeCaptor.getAllValues().get(i).longValue(), newFs.getFileStatus(path).getLen());
+    }
+
+    container.close();
+    ALLOCATOR.close();
+    flushPool.close();
+  }
+
   @Test
   public void testOutOfMemory() throws Exception {
     final Path tmpSchemaPath = new Path(getDfsTestTmpSchemaLocation());
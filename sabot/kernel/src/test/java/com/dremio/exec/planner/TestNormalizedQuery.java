@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.apache.calcite.avatica.util.Quoting;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.parser.SqlParseException;
+import org.apache.calcite.sql.parser.SqlParser;
+import org.junit.Test;
+
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.sql.ParserConfig;
+
+/**
+ * Tests for {@link NormalizedQuery} and the parameter checks of {@link PlanTemplate}
+ */
+public class TestNormalizedQuery {
+
+  @Test
+  public void testSameShape() throws Exception {
+    final NormalizedQuery first = normalize("SELECT a, b FROM t WHERE a = 25 AND b IN ('xy', 'zt') AND c BETWEEN 1.5 AND 2.5");
+    final NormalizedQuery second = normalize("SELECT a, b FROM t WHERE a = 37 AND b IN ('ab', 'cd') AND c BETWEEN 3.5 AND 4.5");
+    assertNotNull(first);
+    assertNotNull(second);
+    assertEquals(first.getNormalizedSql(), second.getNormalizedSql());
+    assertEquals(Arrays.asList(new BigDecimal("25"), "xy", "zt", new BigDecimal("1.5"), new BigDecimal("2.5")),
+      first.getParameters());
+  }
+
+  @Test
+  public void testTypesArePartOfTheShape() throws Exception {
+    assertNotEquals(normalize("SELECT a FROM t WHERE b = 'xy'").getNormalizedSql(),
+      normalize("SELECT a FROM t WHERE b = 'xyz'").getNormalizedSql());
+    assertNotEquals(normalize("SELECT a FROM t WHERE b = 1").getNormalizedSql(),
+      normalize("SELECT a FROM t WHERE b = 10000000000").getNormalizedSql());
+  }
+
+  @Test
+  public void testShapeSensitiveLiteralsAreKept() throws Exception {
+    final NormalizedQuery first = normalize("SELECT a, round(b, 2) FROM t WHERE a = 1 ORDER BY 1 LIMIT 10");
+    final NormalizedQuery second = normalize("SELECT a, round(b, 3) FROM t WHERE a = 1 ORDER BY 1 LIMIT 20");
+    assertEquals(1, first.getParameters().size());
+    assertNotEquals(first.getNormalizedSql(), second.getNormalizedSql());
+  }
+
+  @Test
+  public void testNothingToNormalize() throws Exception {
+    assertNull(normalize("SELECT a FROM t LIMIT 10"));
+    assertNull(normalize("SELECT a FROM t WHERE b = ? AND c = 1"));
+  }
+
+  @Test
+  public void testLiteralComparisonsAreKept() throws Exception {
+    assertNull(normalize("SELECT a FROM t WHERE 3 = 4"));
+    assertNull(normalize("SELECT a FROM t WHERE 5 BETWEEN 1 AND 10 OR 'a' IN ('b', 'c')"));
+    assertEquals(Arrays.asList(new BigDecimal("2")), normalize("SELECT a FROM t WHERE 3 = 4 OR a = 2").getParameters());
+  }
+
+  @Test
+  public void testOrderIsPartOfTheShape() throws Exception {
+    assertEquals(normalize("SELECT a FROM t WHERE a > 1 AND a < 10").getNormalizedSql(),
+      normalize("SELECT a FROM t WHERE a > 2 AND a < 20").getNormalizedSql());
+    assertNotEquals(normalize("SELECT a FROM t WHERE a > 10 AND a < 1").getNormalizedSql(),
+      normalize("SELECT a FROM t WHERE a > 1 AND a < 10").getNormalizedSql());
+    assertNotEquals(normalize("SELECT a FROM t WHERE a = 5 OR a = 5").getNormalizedSql(),
+      normalize("SELECT a FROM t WHERE a = 5 OR a = 6").getNormalizedSql());
+  }
+
+  @Test
+  public void testRanks() {
+    assertArrayEquals(new int[] {1, 0, 1, 0, 1},
+      NormalizedQuery.getRanks(Arrays.asList(new BigDecimal("2.0"), new BigDecimal("-1"), new BigDecimal("2"), "a", "b")));
+  }
+
+  @Test
+  public void testChangesAllParameters() {
+    assertTrue(PlanTemplate.changesAllParameters(Arrays.asList(new BigDecimal("1"), "a"),
+      Arrays.asList(new BigDecimal("2"), "b")));
+    assertFalse(PlanTemplate.changesAllParameters(Arrays.asList(new BigDecimal("1"), "a"),
+      Arrays.asList(new BigDecimal("1.0"), "b")));
+    assertFalse(PlanTemplate.changesAllParameters(Arrays.asList(new BigDecimal("1"), "a"),
+      Arrays.asList(new BigDecimal("2"))));
+  }
+
+  private static NormalizedQuery normalize(String sql) throws SqlParseException {
+    final ParserConfig config = new ParserConfig(Quoting.DOUBLE_QUOTE, 255,
+      PlannerSettings.FULL_NESTED_SCHEMA_SUPPORT.getDefault().getBoolVal());
+    final SqlNode sqlNode = SqlParser.create(sql, config).parseStmt();
+    return NormalizedQuery.normalize(sqlNode);
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.DirectoryStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.TableFunctionScan;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.catalog.Catalog;
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.io.file.FileAttributes;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.proto.EntityId;
+import com.google.common.base.Ticker;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Tests for {@link ResultCache}
+ */
+public class TestResultCache {
+
+  private static final String KEY = "user\nkey\nSELECT * FROM t";
+  private static final Map<String, String> SIGNATURES = ImmutableMap.of("t", "tag:signature");
+
+  private final QueryId queryId = QueryId.newBuilder().setPart1(1).setPart2(2).build();
+  private final FileSystem fs = mock(FileSystem.class);
+  private final Path location = Path.of("/results/query");
+  private final AtomicLong nanos = new AtomicLong();
+  private ResultCache resultCache;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setup() throws Exception {
+    final Ticker ticker = new Ticker() {
+      @Override
+      public long read() {
+        return nanos.get();
+      }
+    };
+    resultCache = new ResultCache(CacheBuilder.newBuilder()
+      .ticker(ticker)
+      .expireAfterWrite(10, TimeUnit.MINUTES)
+      .build());
+
+    final FileAttributes file = mock(FileAttributes.class);
+    when(file.size()).thenReturn(2048L);
+    final DirectoryStream<FileAttributes> files = mock(DirectoryStream.class);
+    when(files.iterator()).thenReturn(ImmutableList.of(file, file).iterator());
+    when(fs.listFiles(any(Path.class), anyBoolean())).thenReturn(files);
+    when(fs.exists(location)).thenReturn(true);
+  }
+
+  private CachedResult addCompleted() {
+    resultCache.addPending(queryId, KEY, new CachedResult(ImmutableList.of("results", "query"), fs, location,
+      SIGNATURES, ""));
+    resultCache.complete(queryId, true);
+    return resultCache.getCachedResults().getIfPresent(KEY);
+  }
+
+  @Test
+  public void testCompletedQuery() {
+    final CachedResult cachedResult = addCompleted();
+    assertEquals(4096, cachedResult.getSizeInBytes());
+    assertSame(cachedResult, resultCache.getIfPresentAndValid(KEY, ImmutableMap.of("t", "tag:signature")));
+  }
+
+  @Test
+  public void testFailedQuery() {
+    resultCache.addPending(queryId, KEY, new CachedResult(ImmutableList.of("results", "query"), fs, location,
+      SIGNATURES, ""));
+    resultCache.complete(queryId, false);
+    assertNull(resultCache.getIfPresentAndValid(KEY, SIGNATURES));
+  }
+
+  @Test
+  public void testDatasetChanged() {
+    addCompleted();
+    assertNull(resultCache.getIfPresentAndValid(KEY, ImmutableMap.of("t", "tag2:signature2")));
+    // the outdated results are dropped
+    assertNull(resultCache.getCachedResults().getIfPresent(KEY));
+  }
+
+  @Test
+  public void testDatasetSignatures() {
+    final DremioTable table = mock(DremioTable.class);
+    when(table.getDatasetConfig()).thenReturn(new DatasetConfig().setId(new EntityId("t")).setTag("tag"));
+    final Catalog catalog = mock(Catalog.class);
+    when(catalog.getAllRequestedTables()).thenReturn(ImmutableList.of(table));
+
+    assertEquals(ImmutableMap.of("t", "tag"), ResultCache.getDatasetSignatures(catalog, mock(RelNode.class)));
+  }
+
+  @Test
+  public void testTableFunctionNotCached() {
+    final DremioTable table = mock(DremioTable.class);
+    when(table.getDatasetConfig()).thenReturn(new DatasetConfig().setId(new EntityId("t")).setTag("tag"));
+    final Catalog catalog = mock(Catalog.class);
+    when(catalog.getAllRequestedTables()).thenReturn(ImmutableList.of(table));
+    final RelNode root = mock(RelNode.class);
+    when(root.getInputs()).thenReturn(ImmutableList.of(mock(TableFunctionScan.class)));
+
+    assertNull(ResultCache.getDatasetSignatures(catalog, root));
+  }
+
+  @Test
+  public void testNoDatasetNotCached() {
+    final Catalog catalog = mock(Catalog.class);
+    when(catalog.getAllRequestedTables()).thenReturn(Collections.emptyList());
+
+    assertNull(ResultCache.getDatasetSignatures(catalog, mock(RelNode.class)));
+  }
+
+  @Test
+  public void testResultsCleanedUp() throws Exception {
+    addCompleted();
+    when(fs.exists(location)).thenReturn(false);
+    assertNull(resultCache.getIfPresentAndValid(KEY, SIGNATURES));
+    assertNull(resultCache.getCachedResults().getIfPresent(KEY));
+  }
+
+  @Test
+  public void testHitDoesNotExtendExpiry() {
+    final CachedResult cachedResult = addCompleted();
+
+    // just before expiry, an identical query reads the cached results and stores them again
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(9));
+    assertSame(cachedResult, resultCache.getIfPresentAndValid(KEY, SIGNATURES));
+    final QueryId hitQueryId = QueryId.newBuilder().setPart1(3).setPart2(4).build();
+    resultCache.addPending(hitQueryId, KEY, new CachedResult(ImmutableList.of("results", "hit"), fs,
+      Path.of("/results/hit"), SIGNATURES, ""));
+    resultCache.complete(hitQueryId, true);
+    assertSame(cachedResult, resultCache.getCachedResults().getIfPresent(KEY));
+
+    nanos.addAndGet(TimeUnit.MINUTES.toNanos(2));
+    assertNull(resultCache.getIfPresentAndValid(KEY, SIGNATURES));
+    assertNull(resultCache.getCachedResults().getIfPresent(KEY));
+  }
+}
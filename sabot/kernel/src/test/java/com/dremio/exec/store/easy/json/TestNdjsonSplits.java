@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hadoop.fs.BlockLocation;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.dremio.PlanTestBase;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.catalog.CatalogServiceImpl;
+import com.dremio.exec.catalog.ManagedStoragePlugin;
+import com.dremio.exec.catalog.StoragePluginId;
+import com.dremio.exec.catalog.conf.Property;
+import com.dremio.exec.store.dfs.InternalFileConf;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.source.proto.SourceConfig;
+import com.dremio.service.users.SystemUser;
+
+/**
+ * Tests for querying newline delimited json files split between readers, from a source whose files are made of
+ * small blocks.
+ */
+public class TestNdjsonSplits extends PlanTestBase {
+
+  private static final String SOURCE = "ndjsonSplits";
+  private static final int BLOCK_SIZE = 1000;
+  private static final int RECORDS = 1000;
+  // 10890 bytes of records
+  private static final int SPLITS = 11;
+
+  @ClassRule
+  public static TemporaryFolder testFolder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    final CatalogServiceImpl pluginRegistry = (CatalogServiceImpl) getSabotContext().getCatalogService();
+    final ManagedStoragePlugin msp = pluginRegistry.getManagedSource("dfs_test");
+    final StoragePluginId pluginId = msp.getId();
+    final InternalFileConf conf = pluginId.getConnectionConf();
+    conf.connection = "file:///";
+    conf.path = testFolder.getRoot().getPath();
+    conf.propertyList = new ArrayList<>();
+    conf.propertyList.add(new Property("fs.file.impl", BlockLocalFileSystem.class.getName()));
+    conf.propertyList.add(new Property("fs.file.impl.disable.cache", "true"));
+
+    final SourceConfig config = pluginId.getConfig();
+    config.setId(null);
+    config.setTag(null);
+    config.setConfigOrdinal(null);
+    config.setName(SOURCE);
+    config.setConfig(conf.toBytesString());
+    pluginRegistry.getSystemUserCatalog().createSource(config);
+  }
+
+  @AfterClass
+  public static void shutdown() throws Exception {
+    final SourceConfig config = getSabotContext().getNamespaceService(SystemUser.SYSTEM_USERNAME).getSource(new NamespaceKey(SOURCE));
+    ((CatalogServiceImpl) getSabotContext().getCatalogService()).getSystemUserCatalog().deleteSource(config);
+  }
+
+  private static void writeFile(String name) throws IOException {
+    final StringBuilder content = new StringBuilder();
+    for (int i = 0; i < RECORDS; i++) {
+      content.append(String.format("{\"a\": %d}\n", i));
+    }
+    Files.write(new File(testFolder.getRoot(), name).toPath(), content.toString().getBytes(UTF_8));
+  }
+
+  private static void validate(String name, int splits) throws Exception {
+    final String query = String.format("select count(*) c, sum(a) s from %s.\"%s\"", SOURCE, name);
+    testPlanMatchingPatterns(query, new String[]{String.format("splits=\\[%d\\]", splits)});
+    testBuilder()
+      .sqlQuery(query)
+      .unOrdered()
+      .baselineColumns("c", "s")
+      .baselineValues((long) RECORDS, (long) RECORDS * (RECORDS - 1) / 2)
+      .go();
+  }
+
+  @Test
+  public void testSplitAtRefresh() throws Exception {
+    writeFile("split.json");
+    try (AutoCloseable ignored = withSystemOption(ExecConstants.JSON_READER_NDJSON_SPLITS, true)) {
+      validate("split.json", SPLITS);
+    }
+    // the splits kept with the metadata of the dataset are still read on their own once disabled
+    validate("split.json", SPLITS);
+    try (AutoCloseable ignored = withOption(ExecConstants.JSON_READER_NDJSON_SPLITS, false)) {
+      validate("split.json", SPLITS);
+    }
+  }
+
+  @Test
+  public void testNotSplitAtRefresh() throws Exception {
+    writeFile("whole.json");
+    validate("whole.json", 1);
+    try (AutoCloseable ignored = withSystemOption(ExecConstants.JSON_READER_NDJSON_SPLITS, true);
+         AutoCloseable ignored2 = withOption(ExecConstants.JSON_READER_NDJSON_SPLITS, true)) {
+      validate("whole.json", 1);
+    }
+  }
+
+  /**
+   * Local file system made of blocks of {@link #BLOCK_SIZE} bytes.
+   */
+  public static final class BlockLocalFileSystem extends RawLocalFileSystem {
+    @Override
+    public BlockLocation[] getFileBlockLocations(FileStatus file, long start, long len) throws IOException {
+      final List<BlockLocation> blocks = new ArrayList<>();
+      for (long offset = 0; offset < file.getLen(); offset += BLOCK_SIZE) {
+        if (offset + BLOCK_SIZE > start && offset < start + len) {
+          blocks.add(new BlockLocation(new String[]{"localhost:9866"}, new String[]{"localhost"}, offset,
+            Math.min(BLOCK_SIZE, file.getLen() - offset)));
+        }
+      }
+      return blocks.toArray(new BlockLocation[0]);
+    }
+  }
+}
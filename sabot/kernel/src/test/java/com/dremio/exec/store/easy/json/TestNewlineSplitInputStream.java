@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.json;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.io.ArrowBufFSInputStream;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Tests for {@link NewlineSplitInputStream}
+ */
+public class TestNewlineSplitInputStream extends DremioTest {
+
+  private static final String LINES = "{\"a\":1}\n{\"a\":2}\n{\"a\":3}\n";
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-newline-split", 0, Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    allocator.close();
+  }
+
+  private String read(String content, long start, long length) throws IOException {
+    final byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+    try (ArrowBuf buf = allocator.buffer(bytes.length)) {
+      buf.writeBytes(bytes);
+      try (InputStream stream = NewlineSplitInputStream.open(new ArrowBufFSInputStream(buf), start, length)) {
+        return new String(ByteStreams.toByteArray(stream), StandardCharsets.UTF_8);
+      }
+    }
+  }
+
+  @Test
+  public void testLinesStartingInSplit() throws Exception {
+    assertEquals("{\"a\":1}\n{\"a\":2}\n", read(LINES, 0, 10));
+    assertEquals("", read(LINES, 10, 4));
+    assertEquals("{\"a\":2}\n", read(LINES, 8, 8));
+    assertEquals("{\"a\":3}\n", read(LINES, 14, 10));
+  }
+
+  @Test
+  public void testAllSplitSizes() throws Exception {
+    for (String content : new String[] {LINES, LINES.trim()}) {
+      for (int length = 1; length <= content.length(); length++) {
+        final StringBuilder lines = new StringBuilder();
+        for (int start = 0; start < content.length(); start += length) {
+          lines.append(read(content, start, length));
+        }
+        assertEquals("split length " + length, content, lines.toString());
+      }
+    }
+  }
+}
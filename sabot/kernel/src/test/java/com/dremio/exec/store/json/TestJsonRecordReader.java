@@ -15,6 +15,7 @@
  */
 package com.dremio.exec.store.json;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.Assert.assertEquals;
 
 import org.apache.hadoop.conf.Configuration;
@@ -210,4 +211,64 @@ public class TestJsonRecordReader extends BaseTestQuery {
       setEnableReAttempts(false);
     }
   }
+
+  @Test
+  public void testFieldsFoundBySampling() throws Exception {
+    final Path dir = new Path("/tmp/json_schema_sample");
+    if (fs.exists(dir)) {
+      fs.delete(dir, true);
+    }
+    fs.mkdirs(dir);
+    try {
+      // the field b only appears after the first batch, but is in the sampled bytes
+      try (FSDataOutputStream os = fs.create(new Path(dir, "sample.json"))) {
+        for (int i = 0; i < 5000; i++) {
+          os.write(String.format("{\"a\": %d}\n", i).getBytes(UTF_8));
+        }
+        os.write("{\"a\": 5000, \"b\": \"last\"}\n".getBytes(UTF_8));
+      }
+
+      // fails with a schema change if b is only found when reading the second batch
+      testBuilder()
+        .sqlQuery("select count(a) a, count(b) b from dfs.tmp.json_schema_sample")
+        .unOrdered()
+        .baselineColumns("a", "b")
+        .baselineValues(5001L, 1L)
+        .go();
+    } finally {
+      fs.delete(dir, true);
+    }
+  }
+
+  @Test
+  public void testTypeChangeAfterSample() throws Exception {
+    final Path dir = new Path("/tmp/json_type_change_after_sample");
+    if (fs.exists(dir)) {
+      fs.delete(dir, true);
+    }
+    fs.mkdirs(dir);
+    setEnableReAttempts(true);
+    try {
+      testNoResult("alter session set \"store.json.schema_sample_bytes\" = 1024");
+      // a, b and c are sampled and written directly into their vectors, until a gets a double and d shows up
+      try (FSDataOutputStream os = fs.create(new Path(dir, "sample.json"))) {
+        for (int i = 0; i < 2000; i++) {
+          os.write(String.format("{\"a\": %d, \"b\": \"b%d\", \"c\": true}\n", i, i).getBytes(UTF_8));
+        }
+        os.write("{\"a\": 0.5, \"b\": null, \"c\": false, \"d\": \"last\"}\n".getBytes(UTF_8));
+      }
+
+      testBuilder()
+        .sqlQuery("select sum(a) a, count(b) b, max(b) max_b, count(c) c, max(d) d " +
+          "from dfs.tmp.json_type_change_after_sample where c")
+        .unOrdered()
+        .baselineColumns("a", "b", "max_b", "c", "d")
+        .baselineValues(1999000.0, 2000L, "b999", 2000L, null)
+        .go();
+    } finally {
+      testNoResult("alter session reset \"store.json.schema_sample_bytes\"");
+      setEnableReAttempts(false);
+      fs.delete(dir, true);
+    }
+  }
 }
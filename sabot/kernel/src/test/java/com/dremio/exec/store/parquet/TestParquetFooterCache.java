@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.hadoop.metadata.FileMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.junit.Test;
+
+import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.ExecConstants;
+import com.google.common.collect.ImmutableSet;
+import com.typesafe.config.ConfigValueFactory;
+
+/**
+ * Tests for {@link ParquetFooterCache}
+ */
+public class TestParquetFooterCache {
+  private static final PrimitiveType INT_TYPE = Types.optional(PrimitiveTypeName.INT32).named("a");
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @Test
+  public void testHitsAndMisses() throws Exception {
+    final ParquetFooterCache cache = new ParquetFooterCache(1024 * 1024);
+    final ParquetMetadata first = cache.getFooter("/a.parquet", 100, 10, () -> load(2));
+    final ParquetMetadata second = cache.getFooter("/a.parquet", 100, 10, () -> load(2));
+    assertEquals(1, loads.get());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(1, cache.getEntryCount());
+    assertEquals(ParquetFooterCache.estimateSize(first), cache.getSize());
+
+    // every lookup gets its own list of row groups, as readers prune them in place
+    assertSame(first.getFileMetaData(), second.getFileMetaData());
+    assertNotSame(first.getBlocks(), second.getBlocks());
+    first.getBlocks().set(0, null);
+    assertNull(first.getBlocks().get(0));
+    assertEquals(2, cache.getFooter("/a.parquet", 100, 10, () -> load(2)).getBlocks().stream().filter(b -> b != null).count());
+  }
+
+  @Test
+  public void testModifiedFile() throws Exception {
+    final ParquetFooterCache cache = new ParquetFooterCache(1024 * 1024);
+    cache.getFooter("/a.parquet", 100, 10, () -> load(1));
+    cache.getFooter("/a.parquet", 100, 20, () -> load(1));
+    cache.getFooter("/a.parquet", 200, 20, () -> load(1));
+    assertEquals(3, loads.get());
+    assertEquals(3, cache.getMissCount());
+  }
+
+  @Test
+  public void testUnknownFileAttributes() throws Exception {
+    final ParquetFooterCache cache = new ParquetFooterCache(1024 * 1024);
+    cache.getFooter("/a.parquet", -1, 10, () -> load(1));
+    cache.getFooter("/a.parquet", -1, 10, () -> load(1));
+    cache.getFooter("/a.parquet", 100, 0, () -> load(1));
+    assertEquals(3, loads.get());
+    assertEquals(0, cache.getEntryCount());
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    final ParquetFooterCache cache = new ParquetFooterCache(0);
+    cache.getFooter("/a.parquet", 100, 10, () -> load(1));
+    cache.getFooter("/a.parquet", 100, 10, () -> load(1));
+    assertEquals(2, loads.get());
+    assertEquals(0, cache.getEntryCount());
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    final int footerSize = ParquetFooterCache.estimateSize(load(10));
+    final ParquetFooterCache cache = new ParquetFooterCache(3L * footerSize);
+    for (int i = 0; i < 10; i++) {
+      cache.getFooter("/" + i + ".parquet", 100, 10, () -> load(10));
+    }
+    assertTrue(cache.getEvictionCount() > 0);
+    assertTrue(cache.getSize() <= 3L * footerSize);
+    assertEquals(cache.getEntryCount() * footerSize, cache.getSize());
+
+    cache.invalidateAll();
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void testCachePerNode() throws Exception {
+    final SabotConfig config = SabotConfig.create()
+      .withValue(ExecConstants.PARQUET_FOOTER_CACHE_SIZE_CONFIG, ConfigValueFactory.fromAnyRef(1024 * 1024));
+    final ParquetFooterCache first = new ParquetFooterCache(config);
+    final ParquetFooterCache second = new ParquetFooterCache(config);
+    assertEquals(1024 * 1024, first.getMaxSize());
+
+    // each node context owns its cache
+    first.getFooter("/a.parquet", 100, 10, () -> load(1));
+    second.getFooter("/a.parquet", 100, 10, () -> load(1));
+    assertEquals(2, loads.get());
+    assertEquals(1, first.getEntryCount());
+    assertEquals(1, second.getEntryCount());
+  }
+
+  private ParquetMetadata load(int rowGroups) {
+    loads.incrementAndGet();
+    final List<BlockMetaData> blocks = new ArrayList<>();
+    for (int i = 0; i < rowGroups; i++) {
+      final BlockMetaData block = new BlockMetaData();
+      block.setRowCount(10);
+      block.addColumn(ColumnChunkMetaData.get(ColumnPath.get("a"), INT_TYPE, CompressionCodecName.UNCOMPRESSED, null,
+        ImmutableSet.of(Encoding.PLAIN), Statistics.createStats(INT_TYPE), 4, 0, 10, 40, 40));
+      blocks.add(block);
+    }
+    return new ParquetMetadata(new FileMetaData(new MessageType("root", INT_TYPE), Collections.emptyMap(), "test"), blocks);
+  }
+}
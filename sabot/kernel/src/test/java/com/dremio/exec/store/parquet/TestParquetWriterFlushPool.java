@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link ParquetWriterFlushPool}
+ */
+public class TestParquetWriterFlushPool {
+
+  @Test
+  public void testFullQueueRunsInCaller() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final ParquetWriterFlushPool pool = new ParquetWriterFlushPool(1);
+    try {
+      // one running task, and a full queue of two
+      final CountDownLatch started = new CountDownLatch(1);
+      pool.submit(() -> {
+        started.countDown();
+        release.await();
+        return null;
+      });
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+      for (int i = 0; i < 2; i++) {
+        pool.submit(() -> {
+          release.await();
+          return null;
+        });
+      }
+      assertEquals(2, pool.getQueue().size());
+
+      final Thread[] runner = new Thread[1];
+      final Future<?> future = pool.submit(() -> runner[0] = Thread.currentThread());
+      assertTrue(future.isDone());
+      assertSame(Thread.currentThread(), runner[0]);
+    } finally {
+      release.countDown();
+      pool.close();
+    }
+  }
+
+  @Test
+  public void testClosedPoolRejects() {
+    final ParquetWriterFlushPool pool = new ParquetWriterFlushPool(1);
+    pool.close();
+    try {
+      pool.submit(() -> null);
+      fail("Closed pool should not run tasks");
+    } catch (RejectedExecutionException expected) {
+      // expected
+    }
+  }
+}
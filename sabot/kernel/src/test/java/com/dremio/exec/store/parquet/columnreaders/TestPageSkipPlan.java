@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnreaders;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.statistics.IntStatistics;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.ColumnIndexBuilder;
+import org.apache.parquet.internal.column.offsetindex.OffsetIndex;
+import org.apache.parquet.internal.column.offsetindex.OffsetIndexBuilder;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.junit.Test;
+
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.expression.ValueExpressions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for {@link PageSkipPlan} and {@link PageFilter}
+ */
+public class TestPageSkipPlan {
+  private static final PrimitiveType INT_TYPE = Types.optional(PrimitiveTypeName.INT32).named("a");
+  private static final SchemaPath A = SchemaPath.getSimplePath("a");
+
+  // column a: 4 pages of 100 rows, sorted values 0-9, 10-19, 20-29 and 30-39
+  private final ColumnChunkMetaData a = chunk("a");
+  private final ColumnIndex aColumnIndex = columnIndex(new int[] {0, 9}, new int[] {10, 19}, new int[] {20, 29}, new int[] {30, 39});
+  private final OffsetIndex aOffsetIndex = offsetIndex(0, 100, 200, 300);
+
+  @Test
+  public void testEquality() {
+    final PageSkipPlan plan = plan(Collections.singletonList(a), ImmutableMap.of(a, aOffsetIndex),
+      call("equal", A, ValueExpressions.getInt(25)));
+    assertNotNull(plan);
+    assertEquals(2, plan.getSkippedRanges().size());
+    assertArrayEquals(new long[] {0, 200}, plan.getSkippedRanges().get(0));
+    assertArrayEquals(new long[] {300, 400}, plan.getSkippedRanges().get(1));
+    assertTrue(plan.isPageSkipped(a.getPath(), 0));
+    assertTrue(plan.isPageSkipped(a.getPath(), 1));
+    assertFalse(plan.isPageSkipped(a.getPath(), 2));
+    assertTrue(plan.isPageSkipped(a.getPath(), 3));
+    assertEquals(4, plan.getCheckedPageCount());
+    assertEquals(3, plan.getSkippedPageCount());
+    assertFalse(plan.skipsAllRows());
+  }
+
+  @Test
+  public void testRangeWithLiteralOnTheLeft() {
+    // 15 < a and a <= 20
+    final PageSkipPlan plan = plan(Collections.singletonList(a), ImmutableMap.of(a, aOffsetIndex),
+      call("booleanAnd", call("less_than", ValueExpressions.getInt(15), A),
+        call("less_than_or_equal_to", A, ValueExpressions.getInt(20))));
+    assertNotNull(plan);
+    assertEquals(2, plan.getSkippedRanges().size());
+    assertArrayEquals(new long[] {0, 100}, plan.getSkippedRanges().get(0));
+    assertArrayEquals(new long[] {300, 400}, plan.getSkippedRanges().get(1));
+  }
+
+  @Test
+  public void testOnlyCommonPageBoundariesAreSkipped() {
+    // column b has two pages of 200 rows, so rows can only be skipped in [0, 200) and [200, 400)
+    final ColumnChunkMetaData b = chunk("b");
+    final PageSkipPlan plan = plan(Arrays.asList(a, b), ImmutableMap.of(a, aOffsetIndex, b, offsetIndex(0, 200)),
+      call("equal", A, ValueExpressions.getInt(25)));
+    assertNotNull(plan);
+    assertEquals(1, plan.getSkippedRanges().size());
+    assertArrayEquals(new long[] {0, 200}, plan.getSkippedRanges().get(0));
+    assertTrue(plan.isPageSkipped(a.getPath(), 0));
+    assertTrue(plan.isPageSkipped(a.getPath(), 1));
+    assertFalse(plan.isPageSkipped(a.getPath(), 3));
+    assertTrue(plan.isPageSkipped(b.getPath(), 0));
+    assertFalse(plan.isPageSkipped(b.getPath(), 1));
+  }
+
+  @Test
+  public void testNoQualifyingRows() {
+    final PageSkipPlan plan = plan(Collections.singletonList(a), ImmutableMap.of(a, aOffsetIndex),
+      call("greater_than", A, ValueExpressions.getInt(39)));
+    assertNotNull(plan);
+    assertTrue(plan.skipsAllRows());
+  }
+
+  @Test
+  public void testAllPagesQualify() {
+    assertNull(plan(Collections.singletonList(a), ImmutableMap.of(a, aOffsetIndex),
+      call("booleanOr", call("less_than", A, ValueExpressions.getInt(5)), call("greater_than", A, ValueExpressions.getInt(5)))));
+  }
+
+  @Test
+  public void testUnsupportedCondition() {
+    assertNull(PageFilter.fromCondition(a, A, call("equal", A, ValueExpressions.getChar("x"))));
+    assertNull(PageFilter.fromCondition(a, A, call("booleanOr", call("equal", A, ValueExpressions.getInt(1)),
+      call("like", A, ValueExpressions.getChar("x")))));
+  }
+
+  private PageSkipPlan plan(List<ColumnChunkMetaData> readColumns, Map<ColumnChunkMetaData, OffsetIndex> offsetIndexes,
+                            LogicalExpression condition) {
+    final PageFilter filter = PageFilter.fromCondition(a, A, condition);
+    assertNotNull(filter);
+    return PageSkipPlan.create(400, readColumns, Collections.singletonList(filter),
+      c -> c == a ? aColumnIndex : null, offsetIndexes::get);
+  }
+
+  private static LogicalExpression call(String name, LogicalExpression left, LogicalExpression right) {
+    return new FunctionCall(name, Arrays.asList(left, right));
+  }
+
+  private static ColumnChunkMetaData chunk(String name) {
+    return ColumnChunkMetaData.get(ColumnPath.get(name), INT_TYPE, CompressionCodecName.UNCOMPRESSED, null,
+      ImmutableSet.of(Encoding.PLAIN), Statistics.createStats(INT_TYPE), 4, 0, 1, 10, 10);
+  }
+
+  private static ColumnIndex columnIndex(int[]... pages) {
+    final ColumnIndexBuilder builder = ColumnIndexBuilder.getBuilder(INT_TYPE, Integer.MAX_VALUE);
+    for (int[] page : pages) {
+      final IntStatistics stats = (IntStatistics) Statistics.createStats(INT_TYPE);
+      for (int value : page) {
+        stats.updateStats(value);
+      }
+      builder.add(stats);
+    }
+    return builder.build();
+  }
+
+  private static OffsetIndex offsetIndex(long... firstRows) {
+    final OffsetIndexBuilder builder = OffsetIndexBuilder.getBuilder();
+    for (int i = 0; i < firstRows.length; i++) {
+      builder.add(1000L * i, 1000, firstRows[i]);
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnreaders;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.OriginalType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Tests for {@link VectorizedParquetReaderFactory}
+ */
+public class TestVectorizedParquetReaderFactory {
+
+  private final VectorizedParquetReaderFactory factory = new VectorizedParquetReaderFactory();
+
+  @Test
+  public void testFlatColumns() {
+    assertTrue(factory.isSupported(chunk("a", Types.optional(PrimitiveTypeName.INT32).named("a"),
+      Encoding.PLAIN, Encoding.RLE)));
+    assertTrue(factory.isSupported(chunk("b", Types.required(PrimitiveTypeName.BINARY).as(OriginalType.UTF8).named("b"),
+      Encoding.PLAIN_DICTIONARY, Encoding.BIT_PACKED)));
+    assertTrue(factory.isSupported(chunk("c", Types.optional(PrimitiveTypeName.INT96).named("c"),
+      Encoding.PLAIN, Encoding.RLE)));
+  }
+
+  @Test
+  public void testUnsupportedColumns() {
+    // v2 dictionary and delta encodings are not understood by the column readers
+    assertFalse(factory.isSupported(chunk("a", Types.optional(PrimitiveTypeName.INT32).named("a"),
+      Encoding.RLE_DICTIONARY, Encoding.RLE)));
+    assertFalse(factory.isSupported(chunk("b", Types.optional(PrimitiveTypeName.INT64).named("b"),
+      Encoding.DELTA_BINARY_PACKED, Encoding.RLE)));
+    assertFalse(factory.isSupported(chunk("c", Types.repeated(PrimitiveTypeName.INT32).named("c"),
+      Encoding.PLAIN, Encoding.RLE)));
+    assertFalse(factory.isSupported(chunk("d", Types.optional(PrimitiveTypeName.INT96).named("d"),
+      Encoding.PLAIN_DICTIONARY, Encoding.RLE)));
+    assertFalse(factory.isSupported(chunk("e", Types.optional(PrimitiveTypeName.FIXED_LEN_BYTE_ARRAY).length(16).named("e"),
+      Encoding.PLAIN, Encoding.RLE)));
+    final PrimitiveType nested = Types.optional(PrimitiveTypeName.INT32).named("g");
+    assertFalse(factory.isSupported(ColumnChunkMetaData.get(ColumnPath.get("f", "g"), nested,
+      CompressionCodecName.UNCOMPRESSED, null, ImmutableSet.of(Encoding.PLAIN), Statistics.createStats(nested), 4, 0, 1, 10, 10)));
+  }
+
+  private static ColumnChunkMetaData chunk(String name, PrimitiveType type, Encoding... encodings) {
+    return ColumnChunkMetaData.get(ColumnPath.get(name), type, CompressionCodecName.UNCOMPRESSED, null,
+      ImmutableSet.copyOf(encodings), Statistics.createStats(type), 4, 0, 1, 10, 10);
+  }
+}
@@ -366,6 +366,30 @@ public class RuntimeFilterManagerTest {
         assertEquals(1, filterManager.getFilterDropCount());
     }
 
+    @Test
+    public void testMergeIntoRange() throws Exception {
+        RuntimeFilterManager filterManager = new RuntimeFilterManager(allocator, 5, Sets.newHashSet(1, 2), true);
+        RuntimeFilter filter1 = newFilter(opId1, majorFragment1, EMPTY_LIST, Lists.newArrayList("col1"));
+        ValueListFilter vA1 = newValListFilter("col1", Lists.newArrayList(4, 1, 3));
+        RuntimeFilterManagerEntry entry1 = filterManager.coalesce(filter1, Optional.empty(), Lists.newArrayList(vA1), 1);
+
+        RuntimeFilter filter2 = newFilter(opId1, majorFragment1, EMPTY_LIST, Lists.newArrayList("col1"));
+        ValueListFilter vB1 = newValListFilter("col1", Lists.newArrayList(7, -2, 5));
+        filterManager.coalesce(filter2, Optional.empty(), Lists.newArrayList(vB1), 2);
+
+        assertTrue(entry1.isComplete());
+        assertFalse(entry1.isDropped());
+        ValueListFilter vR1 = entry1.getNonPartitionColFilter("col1");
+        assertTrue(vR1.isRange());
+        assertEquals(2, vR1.getValueCount());
+        assertEquals(-2, vR1.valOnlyBuf().getInt(0));
+        assertEquals(7, vR1.valOnlyBuf().getInt(4));
+        assertEquals(0, filterManager.getSubFilterDropCount());
+
+        AutoCloseables.close(vA1, vB1);
+        AutoCloseables.close(entry1);
+    }
+
     private BloomFilter mockedBloom() {
         BloomFilter bloom = mock(BloomFilter.class);
         when(bloom.isCrossingMaxFPP()).thenReturn(false);
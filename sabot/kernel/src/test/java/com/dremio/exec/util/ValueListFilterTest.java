@@ -47,6 +47,7 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import com.dremio.test.AllocatorRule;
+import com.google.common.collect.Sets;
 
 /**
  * Tests for {@link ValueListFilter} and {@link ValueListFilterBuilder}
@@ -599,6 +600,47 @@ public class ValueListFilterTest {
         }
     }
 
+    @Test
+    public void testRangeFallback() throws Exception {
+        try (ValueListFilterBuilder builder = new ValueListFilterBuilder(testAllocator, 10, (byte) 4, false);
+             RollbackCloseable closer = new RollbackCloseable();
+             ArrowBuf keyBuf = testAllocator.buffer(4)) {
+            builder.setup();
+            builder.setName(TEST_NAME);
+            builder.setFieldType(Types.MinorType.INT);
+            builder.setRangeFallback(true);
+            List<Integer> insertedVals = IntStream.range(-20, 30).boxed().collect(Collectors.toList());
+            Collections.shuffle(insertedVals);
+            insertedVals.forEach(val -> builder.insert(writeKey(keyBuf, val)));
+            builder.insertNull();
+
+            ValueListFilter valueListFilter = builder.build();
+            closer.add(valueListFilter);
+            assertTrue(valueListFilter.isRange());
+            assertEquals(2, valueListFilter.getValueCount());
+            assertEquals(-20, valueListFilter.valOnlyBuf().getInt(0));
+            assertEquals(29, valueListFilter.valOnlyBuf().getInt(4));
+            assertTrue(valueListFilter.isContainsNull());
+
+            ValueListFilter copy = valueListFilter.createCopy(testAllocator);
+            closer.add(copy);
+            assertTrue(copy.isRange());
+        }
+    }
+
+    @Test
+    public void testMergeRange() throws Exception {
+        try (ValueListFilter valueListFilter1 = toValListFilterLong(Sets.newHashSet(5L, 2L, 9L));
+             ValueListFilter valueListFilter2 = toValListFilterLong(Sets.newHashSet(-3L, 4L));
+             ValueListFilter mergedFilter = ValueListFilterBuilder.buildPlainInstance(testAllocator, (byte) 8, 2, false)) {
+            ValueListFilter.mergeRange(valueListFilter1, valueListFilter2, mergedFilter);
+            assertTrue(mergedFilter.isRange());
+            assertEquals(2, mergedFilter.getValueCount());
+            assertEquals(-3L, mergedFilter.valOnlyBuf().getLong(0));
+            assertEquals(9L, mergedFilter.valOnlyBuf().getLong(8));
+        }
+    }
+
     @SafeVarargs
     private final ValueListFilter toValListFilterLong(Set<Long>... vals) throws Exception {
         Set<Long> allValues = Arrays.stream(vals).flatMap(Set::stream).collect(Collectors.toSet());
@@ -85,6 +85,7 @@ import com.dremio.exec.physical.config.Screen;
 import com.dremio.exec.physical.config.UnionAll;
 import com.dremio.exec.planner.fragment.EndpointsIndex;
 import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.proto.CoordExecRPC.FragmentAssignment;
 import com.dremio.exec.proto.CoordExecRPC.QueryContextInformation;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
@@ -97,6 +98,7 @@ import com.dremio.exec.server.options.DefaultOptionManager;
 import com.dremio.exec.server.options.OptionManagerWrapper;
 import com.dremio.exec.server.options.OptionValidatorListingImpl;
 import com.dremio.exec.server.options.SystemOptionManager;
+import com.dremio.exec.store.parquet.ParquetFooterCache;
 import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.options.OptionManager;
 import com.dremio.options.OptionValidatorListing;
@@ -332,6 +334,7 @@ public class BaseTestOperator extends ExecTest {
     SystemOptionManager systemOptionManager;
     CodeCompiler compiler;
     ExpressionSplitCache expressionSplitCache;
+    ParquetFooterCache parquetFooterCache;
     ExecutionControls ec;
     FunctionLookupContext functionLookup;
     FunctionLookupContext decimalFunctionLookup;
@@ -359,6 +362,7 @@ public class BaseTestOperator extends ExecTest {
         systemOptionManager.start();
         compiler = new CodeCompiler(config, options);
         expressionSplitCache = new ExpressionSplitCache(options, config);
+        parquetFooterCache = new ParquetFooterCache(config);
         ec = new ExecutionControls(options, NodeEndpoint.getDefaultInstance());
         decimalFunctionLookup = new DecimalFunctionImplementationRegistry(config, result, options);
         functionLookup = new FunctionImplementationRegistry(config, result, options);
@@ -396,6 +400,18 @@ public class BaseTestOperator extends ExecTest {
 
     public OperatorContextImpl getNewOperatorContext(BufferAllocator child, PhysicalOperator pop, int targetBatchSize,
       EndpointsIndex endpointsIndex) throws Exception {
+      final FragmentHandle handle = FragmentHandle.newBuilder()
+        .setQueryId(new AttemptId().toQueryId())
+        .setMinorFragmentId(0)
+        .setMajorFragmentId(0)
+        .build();
+      return getNewOperatorContext(child, pop, targetBatchSize, endpointsIndex, handle, ImmutableList.of(),
+        Mockito.mock(TunnelProvider.class));
+    }
+
+    public OperatorContextImpl getNewOperatorContext(BufferAllocator child, PhysicalOperator pop, int targetBatchSize,
+      EndpointsIndex endpointsIndex, FragmentHandle handle, List<FragmentAssignment> assignments,
+      TunnelProvider tunnelProvider) throws Exception {
 
       OperatorStats stats = new OperatorStats(new OpProfileDef(1, 1, 1), child);
       final NamespaceService namespaceService = new NamespaceServiceImpl(testContext.storeProvider);
@@ -405,11 +421,6 @@ public class BaseTestOperator extends ExecTest {
         () -> schedulerService
       );
       spillService.start();
-      final FragmentHandle handle = FragmentHandle.newBuilder()
-        .setQueryId(new AttemptId().toQueryId())
-        .setMinorFragmentId(0)
-        .setMajorFragmentId(0)
-        .build();
       return new OperatorContextImpl(
           config,
           DEFAULT_DREMIO_CONFIG,
@@ -428,12 +439,12 @@ public class BaseTestOperator extends ExecTest {
           spillService,
           NodeDebugContextProvider.NOOP,
           targetBatchSize,
-          Mockito.mock(TunnelProvider.class),
-          ImmutableList.of(),
+          tunnelProvider,
+          assignments,
           ImmutableList.of(),
           null,
           endpointsIndex,
-              null, expressionSplitCache);
+              null, expressionSplitCache, parquetFooterCache);
     }
 
     public OperatorContextImpl getNewOperatorContext(BufferAllocator child, PhysicalOperator pop, int targetBatchSize) throws Exception {
@@ -19,6 +19,7 @@ import static com.dremio.exec.proto.UserBitShared.DremioPBError.ErrorType.FUNCTI
 import static com.dremio.sabot.Fixtures.t;
 import static com.dremio.sabot.Fixtures.th;
 import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -44,7 +45,9 @@ import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.Fixtures.Table;
 import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.aggregate.hash.HashAggOperator;
+import com.dremio.sabot.op.aggregate.vectorized.HashAggStats;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
 import com.dremio.sabot.op.aggregate.vectorized.nospill.VectorizedHashAggOperatorNoSpill;
 import com.dremio.test.UserExceptionAssert;
@@ -947,4 +950,62 @@ public class TestHashAgg extends BaseTestOperator {
       .hasErrorType(FUNCTION)
       .hasMessageContaining("low-cardinality aggregations");
   }
+
+  private static final int BYPASS_ROWS = 3000;
+  private static final int BYPASS_BATCH = 1000;
+
+  /**
+   * Phase 1 aggregation of sum(v) grouped by k, over {@code BYPASS_ROWS} records where each key repeats
+   * {@code repeats} times.
+   */
+  private static Table bypassInput(int repeats) {
+    final Fixtures.DataRow[] rows = new Fixtures.DataRow[BYPASS_ROWS];
+    for (int i = 0; i < BYPASS_ROWS; i++) {
+      rows[i] = tr(i / repeats, 1L);
+    }
+    return t(th("k", "v"), rows);
+  }
+
+  private static Table bypassExpected(int repeats) {
+    final Fixtures.DataRow[] rows = new Fixtures.DataRow[BYPASS_ROWS / repeats];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = tr(i, (long) repeats);
+    }
+    return t(th("k", "sum"), rows).orderInsensitive();
+  }
+
+  private OperatorStats validatePartialAgg(int repeats) throws Exception {
+    final HashAggregate conf = new HashAggregate(OpProps.prototype(), null, Arrays.asList(n("k")),
+      Arrays.asList(n("sum(v)", "sum")), true, true, 1f, 3968, true);
+    try (AutoCloseable options1 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_USE_SPILLING_OPERATOR, true);
+         AutoCloseable options2 = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_BYPASS_SAMPLE_RECORDS, BYPASS_BATCH)) {
+      // validateSingle checks that the operator consumes again after each flush
+      return validateSingle(conf, VectorizedHashAggOperator.class, bypassInput(repeats).toGenerator(getTestAllocator()),
+        bypassExpected(repeats), BYPASS_BATCH);
+    }
+  }
+
+  @Test
+  public void partialBypassNonReducing() throws Exception {
+    final OperatorStats stats = validatePartialAgg(1);
+    assertEquals(1, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS));
+    // the groups are output after each consumed batch, starting with the sampled one
+    assertEquals(BYPASS_ROWS / BYPASS_BATCH, stats.getLongStat(HashAggStats.Metric.PARTIAL_FLUSHES));
+  }
+
+  @Test
+  public void partialBypassReducing() throws Exception {
+    final OperatorStats stats = validatePartialAgg(10);
+    assertEquals(0, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS));
+    assertEquals(0, stats.getLongStat(HashAggStats.Metric.PARTIAL_FLUSHES));
+  }
+
+  @Test
+  public void partialBypassDisabled() throws Exception {
+    try (AutoCloseable options = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_BYPASS_ENABLED, false)) {
+      final OperatorStats stats = validatePartialAgg(1);
+      assertEquals(0, stats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS));
+      assertEquals(0, stats.getLongStat(HashAggStats.Metric.PARTIAL_FLUSHES));
+    }
+  }
 }
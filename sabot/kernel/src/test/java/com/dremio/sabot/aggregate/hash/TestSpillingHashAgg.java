@@ -53,6 +53,8 @@ import com.dremio.sabot.CustomHashAggDataGeneratorDecimal;
 import com.dremio.sabot.CustomHashAggDataGeneratorLargeAccum;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.exec.context.OperatorContextImpl;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.aggregate.vectorized.HashAggStats;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator;
 import com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggSpillStats;
 import com.dremio.sabot.op.common.ht2.FieldVectorPair;
@@ -386,6 +388,31 @@ public class TestSpillingHashAgg extends BaseTestOperator {
     }
   }
 
+  /**
+   * Test a phase 1 aggregation that spills before it could sample its reduction keeps aggregating its input
+   * @throws Exception
+   */
+  @Test
+  public void testSpillBeforePartialBypass() throws Exception {
+    final HashAggregate spillingAgg = getHashAggregate(1_000_000, 4_000_000, 990);
+    final HashAggregate agg = new HashAggregate(spillingAgg.getProps(), null, spillingAgg.getGroupByExprs(),
+      spillingAgg.getAggrExprs(), true, true, 1f, 990, true);
+    try (AutoCloseable useSpillingAgg = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_USE_SPILLING_OPERATOR, true);
+         AutoCloseable maxHashTableBatchSizeBytes = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_MAX_BATCHSIZE_BYTES, 128 * 1024);
+         AutoCloseable options = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_MINIMIZE_DISTINCT_SPILLED_PARTITIONS, false);
+         /* without spilling, any input would bypass the aggregation once the first batch is consumed */
+         AutoCloseable sampleRecords = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_BYPASS_SAMPLE_RECORDS, 1);
+         AutoCloseable minReduction = with(VectorizedHashAggOperator.VECTORIZED_HASHAGG_PARTIAL_BYPASS_MIN_REDUCTION, 1.0d)) {
+      try (CustomHashAggDataGenerator generator = new CustomHashAggDataGenerator(6000, getTestAllocator(), true)) {
+        Fixtures.Table table = generator.getExpectedGroupsAndAggregations();
+        final OperatorStats operatorStats = validateSingle(agg, VectorizedHashAggOperator.class, generator, table, 3000);
+        assertTrue(agg.getSpillStats().getSpills() > 0);
+        assertEquals(0, operatorStats.getLongStat(HashAggStats.Metric.PARTIAL_BYPASS));
+        assertEquals(0, operatorStats.getLongStat(HashAggStats.Metric.PARTIAL_FLUSHES));
+      }
+    }
+  }
+
   @Test
   public void testSpill3KWithLargeAccum() throws Exception {
     final int numAccum = 128;
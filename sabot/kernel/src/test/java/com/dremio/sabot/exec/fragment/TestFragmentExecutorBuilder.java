@@ -44,6 +44,7 @@ import com.dremio.exec.proto.CoordinationProtos;
 import com.dremio.exec.proto.ExecProtos;
 import com.dremio.exec.server.BootStrapContext;
 import com.dremio.exec.store.CatalogService;
+import com.dremio.exec.store.parquet.ParquetFooterCache;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.driver.OperatorCreatorRegistry;
 import com.dremio.sabot.exec.EventProvider;
@@ -79,7 +80,8 @@ public class TestFragmentExecutorBuilder extends DremioTest {
       CoordinationProtos.NodeEndpoint.newBuilder().build(), mock(MaestroProxy.class), mock(SabotConfig.class), mock(DremioConfig.class), mock(ClusterCoordinator.class), mock(ExecutorService.class),
       mock(OptionManager.class), mock(FragmentWorkManager.ExecConnectionCreator.class), mock(OperatorCreatorRegistry.class), mock(PhysicalPlanReader.class), mock(NamespaceService.class),
       mock(CatalogService.class), mock(ContextInformationFactory.class), mock(FunctionImplementationRegistry.class), mock(DecimalFunctionImplementationRegistry.class),
-      bootStrapContext.getNodeDebugContextProvider(), mock(SpillService.class), mock(CodeCompiler.class), mock(Set.class), mock(Provider.class), mock(Provider.class), mock(ExpressionSplitCache.class));
+      bootStrapContext.getNodeDebugContextProvider(), mock(SpillService.class), mock(CodeCompiler.class), mock(Set.class), mock(Provider.class), mock(Provider.class), mock(ExpressionSplitCache.class),
+      mock(ParquetFooterCache.class));
 
     try {
       fragmentExecutorBuilder.build(mock(QueryTicket.class), planFragmentFull, 1, mock(EventProvider.class), null, mock(CachedFragmentReader.class));
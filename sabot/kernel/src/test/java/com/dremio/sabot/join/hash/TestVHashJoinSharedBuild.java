@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.join.hash;
+
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.common.utils.protos.AttemptId;
+import com.dremio.exec.physical.config.HashJoinPOP;
+import com.dremio.exec.planner.fragment.EndpointsIndex;
+import com.dremio.exec.proto.CoordExecRPC.FragmentAssignment;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorContextImpl;
+import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.op.join.vhash.HashJoinStats;
+import com.dremio.sabot.op.join.vhash.SharedJoinTables;
+import com.dremio.sabot.op.join.vhash.VectorizedHashJoinOperator;
+import com.dremio.sabot.op.spi.DualInputOperator;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
+import com.dremio.sabot.threads.sharedres.SharedResourceManager;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
+
+/**
+ * Tests for {@link VectorizedHashJoinOperator} sharing the table of a broadcast join between the fragments of a node
+ */
+public class TestVHashJoinSharedBuild extends BaseTestOperator {
+  private static final int MAJOR_FRAGMENT_ID = 1;
+
+  private static final Table LEFT = t(
+    th("l_key", "l_value"),
+    tr(1L, 10L),
+    tr(2L, 20L),
+    tr(3L, 30L)
+  );
+
+  private static final Table RIGHT = t(
+    th("r_key", "r_value"),
+    tr(1L, 100L),
+    tr(3L, 300L),
+    tr(4L, 400L)
+  );
+
+  private final SharedJoinTables sharedJoinTables = new SharedJoinTables();
+  private final AttemptId attemptId = new AttemptId();
+  private SharedResourceGroup resourceGroup;
+  private BufferAllocator phaseAllocator;
+
+  @Before
+  public void setupPhase() {
+    resourceGroup = SharedResourceManager.newBuilder().addGroup("pipeline").build().getGroup("pipeline");
+    phaseAllocator = getTestAllocator().newChildAllocator("phase", 0, Long.MAX_VALUE);
+  }
+
+  /**
+   * A join fragment of the phase, with its own fragment allocator as the phase allocator is only closed once all the
+   * fragments are done.
+   */
+  private final class Fragment implements AutoCloseable {
+    private final BufferAllocator fragmentAllocator;
+    private final OperatorContextImpl context;
+    private final VectorizedHashJoinOperator join;
+    private final Generator left;
+    private final Generator right;
+
+    private Fragment(int minorFragmentId, List<Integer> minorFragmentIds) throws Exception {
+      this(minorFragmentId, minorFragmentIds, Long.MAX_VALUE);
+    }
+
+    private Fragment(int minorFragmentId, List<Integer> minorFragmentIds, long joinLimit) throws Exception {
+      final HashJoinPOP pop = new HashJoinPOP(PROPS, null, null,
+        Collections.singletonList(new JoinCondition("EQUALS", f("l_key"), f("r_key"))), null, JoinRelType.INNER,
+        true, null, true);
+      final FragmentHandle handle = FragmentHandle.newBuilder()
+        .setQueryId(attemptId.toQueryId())
+        .setMajorFragmentId(MAJOR_FRAGMENT_ID)
+        .setMinorFragmentId(minorFragmentId)
+        .build();
+      final FragmentAssignment assignment = FragmentAssignment.newBuilder()
+        .addAllMinorFragmentId(minorFragmentIds)
+        .build();
+      final TunnelProvider tunnelProvider = mock(TunnelProvider.class);
+      when(tunnelProvider.getSharedJoinTable(anyString(), anyList())).thenAnswer(invocation ->
+        sharedJoinTables.get(invocation.getArgument(0), MAJOR_FRAGMENT_ID, invocation.getArgument(1))
+          .newHandle(minorFragmentId, resourceGroup.createResource("shared-join-" + minorFragmentId, SharedResourceType.TEST)));
+
+      this.fragmentAllocator = phaseAllocator.newChildAllocator("frag:" + minorFragmentId, 0, Long.MAX_VALUE);
+      this.context = testContext.getNewOperatorContext(fragmentAllocator.newChildAllocator("join", 0, joinLimit),
+        pop, DEFAULT_BATCH, new EndpointsIndex(), handle, Collections.singletonList(assignment), tunnelProvider);
+      this.join = new VectorizedHashJoinOperator(context, pop);
+      this.left = LEFT.toGenerator(getTestAllocator());
+      this.right = RIGHT.toGenerator(getTestAllocator());
+      join.setup(left.getOutput(), right.getOutput());
+    }
+
+    /**
+     * Runs the join until it's done, or blocked on the shared table.
+     * @return the number of records output
+     */
+    private int run() throws Exception {
+      int outputRecords = 0;
+      while (true) {
+        switch (join.getState()) {
+          case CAN_CONSUME_L:
+            final int leftCount = left.next(DEFAULT_BATCH);
+            if (leftCount > 0) {
+              join.consumeDataLeft(leftCount);
+            } else {
+              join.noMoreToConsumeLeft();
+            }
+            break;
+          case CAN_CONSUME_R:
+            final int rightCount = right.next(DEFAULT_BATCH);
+            if (rightCount > 0) {
+              join.consumeDataRight(rightCount);
+            } else {
+              join.noMoreToConsumeRight();
+            }
+            break;
+          case CAN_PRODUCE:
+            final int output = join.outputData();
+            if (output == 0 && join.getState() == DualInputOperator.State.CAN_PRODUCE) {
+              // waiting for the shared table
+              return outputRecords;
+            }
+            outputRecords += output;
+            break;
+          case DONE:
+            return outputRecords;
+          default:
+            throw new UnsupportedOperationException("State is: " + join.getState());
+        }
+      }
+    }
+
+    /**
+     * Closes the fragment, releasing its shared join tables as the fragment executor does when retired.
+     */
+    @Override
+    public void close() throws Exception {
+      AutoCloseables.close(join, context, left, right,
+        () -> sharedJoinTables.release(MAJOR_FRAGMENT_ID, context.getFragmentHandle().getMinorFragmentId()),
+        fragmentAllocator);
+    }
+  }
+
+  @Test
+  public void testFragmentFailingBeforeSetup() throws Exception {
+    final List<Integer> minorFragmentIds = Arrays.asList(0, 1, 2);
+    // fragment 2 fails before setting up the join, and never gets a handle on the shared table
+    sharedJoinTables.release(MAJOR_FRAGMENT_ID, 2);
+
+    try (Fragment builder = new Fragment(0, minorFragmentIds);
+         Fragment probe = new Fragment(1, minorFragmentIds)) {
+      assertEquals(2, builder.run());
+      assertEquals(2, probe.run());
+    }
+
+    // fails with a leak if the shared table is still open
+    phaseAllocator.close();
+  }
+
+  @Test
+  public void testSharedTableMemory() throws Exception {
+    final long joinLimit = 64L * 1024 * 1024;
+    final List<Integer> minorFragmentIds = Arrays.asList(0, 1);
+
+    try (Fragment builder = new Fragment(0, minorFragmentIds, joinLimit);
+         Fragment probe = new Fragment(1, minorFragmentIds, joinLimit)) {
+      assertEquals(2, builder.run());
+
+      // the shared table is allocated from the phase allocator, but held to the limit of the building operator
+      final BufferAllocator tableAllocator = phaseAllocator.getChildAllocators().stream()
+        .filter(allocator -> allocator.getName().startsWith("shared-join:"))
+        .findFirst()
+        .orElseThrow(() -> new AssertionError("shared table allocator not found"));
+      assertEquals(joinLimit, tableAllocator.getLimit());
+      assertEquals(tableAllocator.getPeakMemoryAllocation(),
+        builder.context.getStats().getLongStat(HashJoinStats.Metric.SHARED_BUILD_PEAK_MEMORY));
+      assertTrue(tableAllocator.getPeakMemoryAllocation() > 0);
+
+      assertEquals(2, probe.run());
+    }
+
+    phaseAllocator.close();
+  }
+
+  @Test
+  public void testBuilderFailingBeforePublish() throws Exception {
+    final List<Integer> minorFragmentIds = Arrays.asList(0, 1, 2);
+
+    try (Fragment probe = new Fragment(1, minorFragmentIds)) {
+      // blocked until the table is published
+      assertEquals(0, probe.run());
+      assertEquals(DualInputOperator.State.CAN_PRODUCE, probe.join.getState());
+
+      final Fragment builder = new Fragment(0, minorFragmentIds);
+      builder.join.consumeDataRight(builder.right.next(DEFAULT_BATCH));
+      // the builder fails before publishing the table
+      builder.close();
+
+      try {
+        probe.run();
+        fail("probing fragment should fail once the builder failed");
+      } catch (IllegalStateException e) {
+        assertEquals("Fragment building the shared join table failed", e.getMessage());
+      }
+    }
+    // fragment 2 fails before setting up the join
+    sharedJoinTables.release(MAJOR_FRAGMENT_ID, 2);
+
+    phaseAllocator.close();
+  }
+}
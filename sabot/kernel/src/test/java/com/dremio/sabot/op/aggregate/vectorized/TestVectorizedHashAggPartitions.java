@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.vectorized;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link VectorizedHashAggOperator#computeNumPartitions}
+ */
+public class TestVectorizedHashAggPartitions {
+
+  private static final int BATCH_SIZE = 4096;
+  private static final long MEM_PER_PARTITION = 1024 * 1024;
+  private static final long NO_LIMIT = Long.MAX_VALUE;
+
+  @Test
+  public void testFewGroups() {
+    assertEquals(2, VectorizedHashAggOperator.computeNumPartitions(8, 100, BATCH_SIZE, MEM_PER_PARTITION, NO_LIMIT));
+    assertEquals(4, VectorizedHashAggOperator.computeNumPartitions(8, 3 * BATCH_SIZE, BATCH_SIZE, MEM_PER_PARTITION, NO_LIMIT));
+  }
+
+  @Test
+  public void testManyGroups() {
+    assertEquals(8, VectorizedHashAggOperator.computeNumPartitions(8, 1e9, BATCH_SIZE, MEM_PER_PARTITION, NO_LIMIT));
+    assertEquals(32, VectorizedHashAggOperator.computeNumPartitions(32, 1e9, BATCH_SIZE, MEM_PER_PARTITION, NO_LIMIT));
+  }
+
+  @Test
+  public void testLimitedMemory() {
+    // 8 partitions would take the entire memory
+    assertEquals(4, VectorizedHashAggOperator.computeNumPartitions(8, 1e9, BATCH_SIZE, MEM_PER_PARTITION, 8 * MEM_PER_PARTITION));
+    // never less than two partitions
+    assertEquals(2, VectorizedHashAggOperator.computeNumPartitions(8, 1e9, BATCH_SIZE, MEM_PER_PARTITION, MEM_PER_PARTITION));
+  }
+
+  @Test
+  public void testSinglePartitionConfigured() {
+    assertEquals(1, VectorizedHashAggOperator.computeNumPartitions(1, 1e9, BATCH_SIZE, MEM_PER_PARTITION, NO_LIMIT));
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.spill;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link SpillCompressionStreams}
+ */
+public class TestSpillCompressionStreams {
+
+  @Test
+  public void testLz4() throws Exception {
+    roundTrip(SpillCompression.LZ4);
+  }
+
+  @Test
+  public void testLz4HighCompression() throws Exception {
+    roundTrip(SpillCompression.LZ4_HC);
+  }
+
+  @Test
+  public void testNone() throws Exception {
+    final SpillCompressionStreams streams = new SpillCompressionStreams(SpillCompression.fromOption(null));
+    final ByteArrayOutputStream file = new ByteArrayOutputStream();
+    assertSame(file, streams.wrap(file));
+    assertEquals(0, streams.getUncompressedBytes());
+  }
+
+  @Test
+  public void testFlushedDataIsReadable() throws Exception {
+    final SpillCompressionStreams streams = new SpillCompressionStreams(SpillCompression.fromOption("lz4"));
+    final ByteArrayOutputStream file = new ByteArrayOutputStream();
+    final OutputStream out = streams.wrap(file);
+    final byte[] data = data(1000);
+    out.write(data);
+    out.flush();
+
+    // the stream is still open, as for a partition that may spill again
+    final byte[] read = new byte[data.length];
+    try (DataInputStream in = new DataInputStream(streams.wrap(new ByteArrayInputStream(file.toByteArray())))) {
+      in.readFully(read);
+    }
+    assertArrayEquals(data, read);
+    out.close();
+  }
+
+  private void roundTrip(SpillCompression compression) throws Exception {
+    final SpillCompressionStreams streams = new SpillCompressionStreams(compression);
+    final ByteArrayOutputStream file = new ByteArrayOutputStream();
+    final byte[] data = data(1024 * 1024);
+    try (OutputStream out = streams.wrap(file)) {
+      // two spills into the same file
+      out.write(data, 0, data.length / 2);
+      out.flush();
+      out.write(data, data.length / 2, data.length - data.length / 2);
+    }
+    assertEquals(data.length, streams.getUncompressedBytes());
+    assertEquals(file.size(), streams.getCompressedBytes());
+    assertTrue(streams.getCompressedBytes() < streams.getUncompressedBytes());
+
+    final byte[] read = new byte[data.length];
+    try (InputStream in = streams.wrap(new ByteArrayInputStream(file.toByteArray()))) {
+      new DataInputStream(in).readFully(read);
+      assertEquals(-1, in.read());
+    }
+    assertArrayEquals(data, read);
+  }
+
+  private static byte[] data(int length) {
+    // repetitive like pivoted keys and accumulators
+    final byte[] data = new byte[length];
+    for (int i = 0; i < length; i += 8) {
+      Arrays.fill(data, i, Math.min(length, i + 4), (byte) (i / 8 % 16));
+    }
+    return data;
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.nlje;
+
+import static com.dremio.sabot.Fixtures.NULL_INT;
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.apache.calcite.rel.core.JoinRelType;
+import org.junit.Test;
+
+import com.dremio.common.expression.BooleanOperator;
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.InputReference;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.physical.config.NestedLoopJoinPOP;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures.Table;
+
+/**
+ * Tests for {@link BandJoinFunction}
+ */
+public class TestBandJoin extends BaseTestOperator {
+
+  private final Table probe = t(
+    th("ts"),
+    tr(1),
+    tr(5),
+    tr(10),
+    tr(NULL_INT),
+    tr(20)
+  );
+
+  private final Table build = t(
+    th("s", "e"),
+    tr(0, 5),
+    tr(4, 12),
+    tr(15, 15),
+    tr(NULL_INT, 3),
+    tr(9, 2)
+  );
+
+  private static LogicalExpression compare(String name, int leftInput, String leftField, int rightInput, String rightField) {
+    return new FunctionCall(name, Arrays.asList(
+      new InputReference(leftInput, SchemaPath.getSimplePath(leftField)),
+      new InputReference(rightInput, SchemaPath.getSimplePath(rightField))));
+  }
+
+  private static LogicalExpression between() {
+    return new BooleanOperator("booleanAnd", Arrays.asList(
+      compare("greater_than_or_equal_to", 0, "ts", 1, "s"),
+      compare("less_than_or_equal_to", 0, "ts", 1, "e")));
+  }
+
+  private void validateBand(JoinRelType joinType, LogicalExpression band, Table expected) throws Exception {
+    validateBand(joinType, band, probe, build, expected);
+  }
+
+  private void validateBand(JoinRelType joinType, LogicalExpression band, Table probe, Table build, Table expected) throws Exception {
+    validateDual(
+      new NestedLoopJoinPOP(PROPS, null, null, joinType, null, true, band),
+      NLJEOperator.class,
+      probe.toGenerator(getTestAllocator()),
+      build.toGenerator(getTestAllocator()),
+      2, expected);
+  }
+
+  @Test
+  public void testBandCondition() {
+    assertTrue(BandJoinFunction.isBandCondition(between()));
+    assertTrue(BandJoinFunction.isBandCondition(compare("less_than", 1, "s", 0, "ts")));
+    // both bounds must be on the same probe field
+    assertFalse(BandJoinFunction.isBandCondition(new BooleanOperator("booleanAnd", Arrays.asList(
+      compare("greater_than_or_equal_to", 0, "ts", 1, "s"),
+      compare("less_than_or_equal_to", 0, "ts2", 1, "e")))));
+    // fields from the same side
+    assertFalse(BandJoinFunction.isBandCondition(compare("less_than", 1, "s", 1, "e")));
+    assertFalse(BandJoinFunction.isBandCondition(compare("equal", 0, "ts", 1, "s")));
+  }
+
+  @Test
+  public void innerBetween() throws Exception {
+    validateBand(JoinRelType.INNER, between(), t(
+      th("s", "e", "ts"),
+      tr(0, 5, 1),
+      tr(0, 5, 5),
+      tr(4, 12, 5),
+      tr(4, 12, 10)
+    ).orderInsensitive());
+  }
+
+  @Test
+  public void leftBetween() throws Exception {
+    validateBand(JoinRelType.LEFT, between(), t(
+      th("s", "e", "ts"),
+      tr(0, 5, 1),
+      tr(0, 5, 5),
+      tr(4, 12, 5),
+      tr(4, 12, 10),
+      tr(NULL_INT, NULL_INT, NULL_INT),
+      tr(NULL_INT, NULL_INT, 20)
+    ).orderInsensitive());
+  }
+
+  @Test
+  public void innerExclusiveBounds() throws Exception {
+    final LogicalExpression band = new BooleanOperator("booleanAnd", Arrays.asList(
+      compare("less_than", 1, "s", 0, "ts"),
+      compare("greater_than", 1, "e", 0, "ts")));
+    validateBand(JoinRelType.INNER, band, t(
+      th("s", "e", "ts"),
+      tr(0, 5, 1),
+      tr(4, 12, 5),
+      tr(4, 12, 10)
+    ).orderInsensitive());
+  }
+
+  @Test
+  public void innerBetweenWideInterval() throws Exception {
+    // the wide interval sorts first, the narrow ones after it must still be found for each probe key
+    final Table wideBuild = t(
+      th("s", "e"),
+      tr(0, 1000),
+      tr(2, 3),
+      tr(4, 5),
+      tr(6, 7),
+      tr(8, 9)
+    );
+    final Table wideProbe = t(
+      th("ts"),
+      tr(3),
+      tr(6),
+      tr(10),
+      tr(2000)
+    );
+    validateBand(JoinRelType.INNER, between(), wideProbe, wideBuild, t(
+      th("s", "e", "ts"),
+      tr(0, 1000, 3),
+      tr(2, 3, 3),
+      tr(0, 1000, 6),
+      tr(6, 7, 6),
+      tr(0, 1000, 10)
+    ).orderInsensitive());
+  }
+
+  @Test
+  public void innerLowerBound() throws Exception {
+    validateBand(JoinRelType.INNER, compare("greater_than_or_equal_to", 0, "ts", 1, "s"), t(
+      th("s", "e", "ts"),
+      tr(0, 5, 1),
+      tr(0, 5, 5),
+      tr(4, 12, 5),
+      tr(0, 5, 10),
+      tr(4, 12, 10),
+      tr(9, 2, 10),
+      tr(0, 5, 20),
+      tr(4, 12, 20),
+      tr(9, 2, 20),
+      tr(15, 15, 20)
+    ).orderInsensitive());
+  }
+}
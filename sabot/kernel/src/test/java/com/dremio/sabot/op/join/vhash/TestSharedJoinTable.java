@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.record.ExpandableHyperContainer;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
+import com.dremio.sabot.threads.sharedres.SharedResourceManager;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
+
+/**
+ * Tests for {@link SharedJoinTable}
+ */
+public class TestSharedJoinTable {
+
+  private final SharedJoinTables tables = new SharedJoinTables();
+  private final BufferAllocator allocator = mock(BufferAllocator.class);
+  private final JoinTable table = mock(JoinTable.class);
+  private final ExpandableHyperContainer hyperContainer = mock(ExpandableHyperContainer.class);
+  private SharedResourceGroup resourceGroup;
+
+  @Before
+  public void setup() {
+    resourceGroup = SharedResourceManager.newBuilder().addGroup("pipeline").build().getGroup("pipeline");
+  }
+
+  private static final List<Integer> MINOR_FRAGMENTS = Arrays.asList(0, 1);
+
+  private SharedJoinTable.Handle newHandle(int minorFragmentId, SharedResource resource) {
+    return tables.get("1", 1, MINOR_FRAGMENTS).newHandle(minorFragmentId, resource);
+  }
+
+  @Test
+  public void testProbeWaitsForBuild() throws Exception {
+    final SharedResource builderResource = resourceGroup.createResource("builder", SharedResourceType.TEST);
+    final SharedResource probeResource = resourceGroup.createResource("probe", SharedResourceType.TEST);
+    final SharedJoinTable.Handle builder = newHandle(0, builderResource);
+    final SharedJoinTable.Handle probe = newHandle(1, probeResource);
+
+    assertFalse(probe.awaitPublished());
+    assertFalse(probeResource.isAvailable());
+
+    builder.publish(allocator, table, hyperContainer, Collections.emptyList(), Collections.emptyList(), -1);
+    assertTrue(probeResource.isAvailable());
+    assertTrue(probe.awaitPublished());
+    assertSame(table, probe.getTable());
+    assertSame(hyperContainer, probe.getHyperContainer());
+  }
+
+  @Test
+  public void testClosedByLastUser() throws Exception {
+    final SharedJoinTable sharedTable = tables.get("1", 1, MINOR_FRAGMENTS);
+    final SharedJoinTable.Handle builder = newHandle(0, resourceGroup.createResource("builder", SharedResourceType.TEST));
+    final SharedJoinTable.Handle probe = newHandle(1, resourceGroup.createResource("probe", SharedResourceType.TEST));
+    builder.publish(allocator, table, hyperContainer, Collections.emptyList(), Collections.emptyList(), -1);
+
+    builder.release();
+    // releasing twice doesn't count twice
+    builder.release();
+    verify(table, never()).close();
+
+    probe.release();
+    verify(table).close();
+    verify(hyperContainer).close();
+    verify(allocator).close();
+    // the table is no longer registered once closed
+    assertNotSame(sharedTable, tables.get("1", 1, MINOR_FRAGMENTS));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testBuildFailure() throws Exception {
+    final SharedJoinTable.Handle builder = newHandle(0, resourceGroup.createResource("builder", SharedResourceType.TEST));
+    final SharedResource probeResource = resourceGroup.createResource("probe", SharedResourceType.TEST);
+    final SharedJoinTable.Handle probe = newHandle(1, probeResource);
+
+    assertFalse(probe.awaitPublished());
+    // the builder fails before publishing the table
+    builder.release();
+    assertTrue(probeResource.isAvailable());
+    probe.awaitPublished();
+  }
+
+  @Test
+  public void testReleasedByFragmentsWithoutHandle() throws Exception {
+    final SharedJoinTable sharedTable = tables.get("1", 1, Arrays.asList(0, 1, 2));
+    final SharedJoinTable.Handle builder = sharedTable.newHandle(0, resourceGroup.createResource("builder", SharedResourceType.TEST));
+    builder.publish(allocator, table, hyperContainer, Collections.emptyList(), Collections.emptyList(), -1);
+    builder.release();
+
+    // fragment 1 never sets up the join, and fragment 2 of another major fragment doesn't release the table
+    tables.release(1, 1);
+    tables.release(2, 2);
+    verify(table, never()).close();
+
+    tables.release(1, 2);
+    verify(table).close();
+    verify(allocator).close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testBuilderDoneBeforeTableCreated() throws Exception {
+    // the builder fails before any fragment asks for the table
+    tables.release(1, 0);
+    final SharedResource probeResource = resourceGroup.createResource("probe", SharedResourceType.TEST);
+    newHandle(1, probeResource).awaitPublished();
+  }
+
+  @Test
+  public void testClosedAtQueryEnd() throws Exception {
+    final SharedJoinTable.Handle builder = newHandle(0, resourceGroup.createResource("builder", SharedResourceType.TEST));
+    builder.publish(allocator, table, hyperContainer, Collections.emptyList(), Collections.emptyList(), -1);
+
+    tables.close();
+    verify(table).close();
+    verify(allocator).close();
+  }
+}
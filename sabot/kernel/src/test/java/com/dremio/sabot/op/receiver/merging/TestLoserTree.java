@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.receiver.merging;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Tests for {@link LoserTree}
+ */
+public class TestLoserTree {
+
+  @Test
+  public void testMerge() {
+    assertEquals(ImmutableList.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11),
+      merge(new int[]{1, 5, 9}, new int[]{2, 3, 10}, new int[]{}, new int[]{4, 6, 7, 8}, new int[]{11}));
+  }
+
+  @Test
+  public void testSingleInput() {
+    assertEquals(ImmutableList.of(1, 2, 3), merge(new int[]{1, 2, 3}));
+  }
+
+  @Test
+  public void testDuplicates() {
+    assertEquals(ImmutableList.of(1, 1, 2, 2, 2, 3),
+      merge(new int[]{1, 2}, new int[]{1, 2, 3}, new int[]{2}));
+  }
+
+  @Test
+  public void testAllEmpty() {
+    assertEquals(ImmutableList.of(), merge(new int[]{}, new int[]{}));
+  }
+
+  private static List<Integer> merge(int[]... inputs) {
+    final int[] positions = new int[inputs.length];
+    final LoserTree tree = new LoserTree(inputs.length, new LoserTree.Inputs() {
+      @Override
+      public boolean isDone(int input) {
+        return positions[input] == inputs[input].length;
+      }
+
+      @Override
+      public int compare(int left, int right) {
+        return Integer.compare(inputs[left][positions[left]], inputs[right][positions[right]]);
+      }
+    });
+
+    final List<Integer> merged = new ArrayList<>();
+    tree.init();
+    int winner;
+    while ((winner = tree.peek()) != -1) {
+      merged.add(inputs[winner][positions[winner]++]);
+      tree.update();
+    }
+    return merged;
+  }
+}
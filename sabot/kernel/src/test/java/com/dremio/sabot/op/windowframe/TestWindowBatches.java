@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.windowframe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+import javax.inject.Provider;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.common.config.SabotConfig;
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.proto.CoordinationProtos;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.op.sort.external.SpillManager;
+import com.dremio.service.scheduler.SchedulerService;
+import com.dremio.service.spill.DefaultSpillServiceOptions;
+import com.dremio.service.spill.SpillService;
+import com.dremio.service.spill.SpillServiceImpl;
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests for {@link WindowBatches}
+ */
+public class TestWindowBatches {
+
+  private static final int BATCH_SIZE = 10;
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private SabotConfig config;
+  private SpillService spillService;
+
+  @Before
+  public void setup() throws Exception {
+    config = SabotConfig.create();
+    final SchedulerService schedulerService = mock(SchedulerService.class);
+    final CoordinationProtos.NodeEndpoint endpoint = CoordinationProtos.NodeEndpoint.newBuilder()
+      .setAddress("localhost").setFabricPort(1834).build();
+    spillService = new SpillServiceImpl(DremioConfig.create(null, config), new DefaultSpillServiceOptions(),
+      (Provider<SchedulerService>) () -> schedulerService, (Provider<CoordinationProtos.NodeEndpoint>) () -> endpoint, null);
+    spillService.start();
+  }
+
+  @After
+  public void teardown() throws Exception {
+    spillService.close();
+  }
+
+  @Test
+  public void testSpillAndLoad() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-window-batches", 0, Long.MAX_VALUE);
+         WindowBatches batches = newBatches(allocator)) {
+      for (int i = 0; i < 5; i++) {
+        batches.add(batch(allocator, i * BATCH_SIZE));
+      }
+
+      // the first and the last batches stay in memory
+      final VectorContainer first = batches.get(0);
+      final VectorContainer last = batches.get(4);
+      assertEquals(3, batches.spill());
+      assertEquals(0, batches.spill());
+      assertSame(first, batches.get(0));
+      assertSame(last, batches.get(4));
+
+      for (int i = 0; i < 5; i++) {
+        assertBatch(batches.get(i), i * BATCH_SIZE);
+      }
+      assertEquals(3, batches.getBatchesLoaded());
+
+      // only the most recently loaded batches are kept in memory
+      batches.get(3);
+      assertEquals(3, batches.getBatchesLoaded());
+      assertBatch(batches.get(1), BATCH_SIZE);
+      assertEquals(4, batches.getBatchesLoaded());
+    }
+  }
+
+  @Test
+  public void testRemoveKeepsNextBatchInMemory() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-window-batches", 0, Long.MAX_VALUE);
+         WindowBatches batches = newBatches(allocator)) {
+      for (int i = 0; i < 4; i++) {
+        batches.add(batch(allocator, i * BATCH_SIZE));
+      }
+      batches.spill();
+
+      batches.remove(0).close();
+      assertEquals(3, batches.size());
+      final VectorContainer first = batches.get(0);
+      assertBatch(first, BATCH_SIZE);
+
+      // loading the other spilled batches doesn't evict the first batch
+      batches.get(1);
+      batches.get(2);
+      assertSame(first, batches.get(0));
+      assertEquals(2, batches.getBatchesLoaded());
+
+      // the new batches can be spilled again
+      batches.add(batch(allocator, 4 * BATCH_SIZE));
+      assertEquals(1, batches.spill());
+      assertBatch(batches.get(3), 4 * BATCH_SIZE);
+    }
+  }
+
+  private WindowBatches newBatches(BufferAllocator allocator) {
+    return new WindowBatches(allocator,
+      () -> new SpillManager(config, null, "window-test", null, spillService, "test", null), true);
+  }
+
+  private static VectorContainer batch(BufferAllocator allocator, int start) {
+    final BigIntVector vector = new BigIntVector("value", allocator);
+    vector.allocateNew(BATCH_SIZE);
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      vector.set(i, start + i);
+    }
+    vector.setValueCount(BATCH_SIZE);
+
+    final VectorContainer container = new VectorContainer(allocator);
+    container.add(vector);
+    container.setRecordCount(BATCH_SIZE);
+    container.buildSchema(SelectionVectorMode.NONE);
+    return container;
+  }
+
+  private static void assertBatch(VectorContainer container, int start) {
+    assertEquals(BATCH_SIZE, container.getRecordCount());
+    final BigIntVector vector = container.getValueAccessorById(BigIntVector.class, 0).getValueVector();
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      assertEquals(start + i, vector.get(i));
+    }
+  }
+}
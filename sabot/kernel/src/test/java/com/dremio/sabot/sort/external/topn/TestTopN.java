@@ -78,6 +78,50 @@ public class TestTopN extends BaseTestOperator {
     validateSingle(topn, TopNOperator.class, input, output);
   }
 
+  @Test
+  public void topNDataWithSpill() throws Exception {
+
+    Table input = t(
+      th("c0"),
+      tb(
+        tr(35),
+        tr(8),
+        tr(22),
+        tr(17),
+        tr(15)
+      ),
+      // records from 22 are discarded once the first run is spilled
+      tb(
+        tr(12),
+        tr(42),
+        tr(18),
+        tr(11),
+        tr(94),
+        tr(106)
+      ),
+      tb(
+        tr(25),
+        tr(9),
+        tr(3)
+      )
+    );
+
+    Table output = t(
+      th("c0"),
+      tr(3),
+      tr(8),
+      tr(9),
+      tr(11)
+    );
+
+    TopN topn = new TopN(PROPS, null, 4, Collections.singletonList(ordering("c0", Direction.ASCENDING, NullDirection.FIRST)), false);
+    // spill before each batch
+    try (AutoCloseable minLimit = with(TopNOperator.SPILL_MIN_LIMIT, 1);
+         AutoCloseable headroom = with(TopNOperator.SPILL_HEADROOM_FACTOR, 1.0d)) {
+      validateSingle(topn, TopNOperator.class, input, output);
+    }
+  }
+
   @Test
   public void topNData() throws Exception {
 
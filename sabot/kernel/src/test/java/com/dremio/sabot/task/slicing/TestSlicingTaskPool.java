@@ -0,0 +1,209 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.sabot.task.AsyncTask;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.Task.State;
+import com.dremio.sabot.task.TaskDescriptor;
+import com.dremio.sabot.threads.AvailabilityCallback;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
+import com.google.common.collect.Iterables;
+
+/**
+ * Tests for {@link SlicingTaskPool}
+ */
+public class TestSlicingTaskPool {
+
+  private SlicingTaskPool pool;
+
+  @Before
+  public void setup() {
+    pool = new SlicingTaskPool(2, TimeUnit.MILLISECONDS.toNanos(1));
+  }
+
+  @After
+  public void teardown() throws Exception {
+    pool.close();
+  }
+
+  @Test
+  public void testRunManyTasksOnFewThreads() throws Exception {
+    final int numTasks = 100;
+    final CountDownLatch done = new CountDownLatch(numTasks);
+    final SchedulingGroup<AsyncTaskWrapper> group = pool.getGroupManager().newGroup(100);
+    final List<CountingTask> tasks = new ArrayList<>();
+    for (int i = 0; i < numTasks; i++) {
+      final CountingTask task = new CountingTask(50);
+      tasks.add(task);
+      pool.execute(new AsyncTaskWrapper(10, group, task, done::countDown, Integer.MAX_VALUE));
+    }
+
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    for (CountingTask task : tasks) {
+      assertEquals(50, task.runs.get());
+    }
+    assertEventually(() -> pool.getRootGroup().getActiveWeight() == 0);
+    assertEquals(2, Iterables.size(pool.getSlicingThreads()));
+    assertTrue(pool.areAllThreadsAlive());
+  }
+
+  @Test
+  public void testBlockedTaskIsParkedUntilAvailable() throws Exception {
+    final CountDownLatch done = new CountDownLatch(1);
+    final CountingTask task = new CountingTask(2);
+    task.blockAfterFirstRun = true;
+    pool.execute(new AsyncTaskWrapper(10, pool.getGroupManager().newGroup(1), task, done::countDown, Integer.MAX_VALUE));
+
+    assertEventually(() -> task.callback != null);
+    assertEquals(1, task.runs.get());
+    assertFalse(done.await(50, TimeUnit.MILLISECONDS));
+    assertEquals(1, task.runs.get());
+
+    task.callback.nowAvailable();
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    assertEquals(2, task.runs.get());
+  }
+
+  @Test
+  public void testFailedTaskIsCleanedUp() throws Exception {
+    final CountDownLatch done = new CountDownLatch(1);
+    final CountingTask task = new CountingTask(2);
+    task.failOnRun = true;
+    pool.execute(new AsyncTaskWrapper(10, pool.getGroupManager().newGroup(1), task, done::countDown, Integer.MAX_VALUE));
+
+    assertTrue(done.await(30, TimeUnit.SECONDS));
+    assertEventually(() -> pool.getRootGroup().getActiveWeight() == 0);
+    assertTrue(pool.areAllThreadsAlive());
+  }
+
+  @Test
+  public void testShares() {
+    final SlicingSchedulingGroup root = pool.getRootGroup();
+    final SlicingSchedulingGroup heavy = (SlicingSchedulingGroup) root.addGroup(300);
+    final SlicingSchedulingGroup light = (SlicingSchedulingGroup) root.addGroup(100);
+    final SlicingSchedulingGroup query = (SlicingSchedulingGroup) heavy.addGroup(10, false);
+
+    // keep the tasks blocked so they stay active
+    final CountingTask task1 = new CountingTask(2);
+    task1.blockAfterFirstRun = true;
+    final CountingTask task2 = new CountingTask(2);
+    task2.blockAfterFirstRun = true;
+    final CountingTask task3 = new CountingTask(2);
+    task3.blockAfterFirstRun = true;
+    pool.execute(new AsyncTaskWrapper(1, query, task1, () -> {}, Integer.MAX_VALUE));
+    pool.execute(new AsyncTaskWrapper(1000, query, task2, () -> {}, Integer.MAX_VALUE));
+    pool.execute(new AsyncTaskWrapper(1, light, task3, () -> {}, Integer.MAX_VALUE));
+
+    assertEquals(400, root.getActiveWeight());
+    // the query group isn't weight based, its two tasks share its time equally
+    assertEquals(0.75 * 0.5, query.getShare(1), 1e-9);
+    assertEquals(0.25, light.getShare(1), 1e-9);
+  }
+
+  private static void assertEventually(BooleanSupplier condition) throws InterruptedException {
+    final long deadline = System.currentTimeMillis() + 30_000;
+    while (!condition.getAsBoolean()) {
+      assertTrue("Condition not met in time", System.currentTimeMillis() < deadline);
+      Thread.sleep(10);
+    }
+  }
+
+  /**
+   * Task that finishes after a given number of runs, and optionally blocks after its first run.
+   */
+  private static final class CountingTask implements AsyncTask {
+    private final int numRuns;
+    private final AtomicInteger runs = new AtomicInteger();
+    private volatile boolean blockAfterFirstRun;
+    private volatile boolean failOnRun;
+    private volatile AvailabilityCallback callback;
+    private volatile State state = State.RUNNABLE;
+
+    private CountingTask(int numRuns) {
+      this.numRuns = numRuns;
+    }
+
+    @Override
+    public void run() {
+      if (failOnRun) {
+        throw new IllegalStateException("task failure");
+      }
+      final int count = runs.incrementAndGet();
+      if (count >= numRuns) {
+        state = State.DONE;
+      } else if (count == 1 && blockAfterFirstRun) {
+        state = State.BLOCKED_ON_UPSTREAM;
+      }
+    }
+
+    @Override
+    public void refreshState() {
+      state = State.RUNNABLE;
+    }
+
+    @Override
+    public State getState() {
+      return state;
+    }
+
+    @Override
+    public SharedResourceType getFirstBlockedResource() {
+      return null;
+    }
+
+    @Override
+    public void updateSleepDuration(long duration) {
+    }
+
+    @Override
+    public void updateBlockedOnDownstreamDuration(long duration) {
+    }
+
+    @Override
+    public void updateBlockedOnUpstreamDuration(long duration) {
+    }
+
+    @Override
+    public void addBlockedOnSharedResourceDuration(SharedResourceType resource, long duration) {
+    }
+
+    @Override
+    public void setWakeupCallback(AvailabilityCallback callback) {
+      this.callback = callback;
+    }
+
+    @Override
+    public void setTaskDescriptor(TaskDescriptor descriptor) {
+    }
+  }
+}
@@ -17,7 +17,9 @@ package com.dremio.service.reflection;
 
 import static com.dremio.service.reflection.ExternalReflectionStatus.STATUS.OUT_OF_SYNC;
 
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.calcite.rel.RelNode;
@@ -28,6 +30,7 @@ import com.dremio.exec.calcite.logical.ScanCrel;
 import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
 import com.dremio.exec.planner.acceleration.DremioMaterialization;
 import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
+import com.dremio.exec.planner.acceleration.substitution.SubstitutionUtils;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.store.CatalogService;
 import com.dremio.service.Pointer;
@@ -41,6 +44,7 @@ import com.dremio.service.reflection.proto.MaterializationId;
 import com.dremio.service.reflection.proto.ReflectionId;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 
@@ -56,6 +60,8 @@ class MaterializationCache {
   private static final Map<String, CachedMaterializationDescriptor> EMPTY_MAP = ImmutableMap.of();
 
   private final AtomicReference<Map<String, CachedMaterializationDescriptor>> cached = new AtomicReference<>(EMPTY_MAP);
+  // rebuilt lazily, from the previous index, when the cached descriptors change
+  private final AtomicReference<MaterializationDatasetIndex> datasetIndex = new AtomicReference<>(MaterializationDatasetIndex.EMPTY);
 
   interface CacheHelper {
     Iterable<Materialization> getValidMaterializations();
@@ -275,6 +281,35 @@ class MaterializationCache {
     return Iterables.unmodifiableIterable(cached.get().values());
   }
 
+  /**
+   * Returns the cached descriptors whose plan may use one of the given tables or VDS, using an inverted index of the
+   * datasets used by the cached descriptors rather than looking at all of them.
+   *
+   * @param datasetPaths paths of the tables and VDS used by the query
+   * @return the candidate descriptors
+   */
+  Iterable<MaterializationDescriptor> getByDatasets(Set<List<String>> datasetPaths) {
+    final Map<String, CachedMaterializationDescriptor> descriptors = cached.get();
+    MaterializationDatasetIndex index = datasetIndex.get();
+    if (!index.isFor(descriptors)) {
+      index = MaterializationDatasetIndex.build(descriptors, index, MaterializationCache::getDatasets);
+      datasetIndex.set(index);
+    }
+    return index.get(datasetPaths);
+  }
+
+  private static Set<List<String>> getDatasets(CachedMaterializationDescriptor descriptor) {
+    final RelNode queryRel = descriptor.getMaterialization().getQueryRel();
+    if (SubstitutionUtils.hasExternalQueries(queryRel)) {
+      // external queries are matched on their sql, not on a dataset
+      return ImmutableSet.of();
+    }
+    return ImmutableSet.<List<String>>builder()
+      .addAll(SubstitutionUtils.findTables(queryRel))
+      .addAll(SubstitutionUtils.findExpansionNodes(queryRel))
+      .build();
+  }
+
   MaterializationDescriptor get(MaterializationId mId) {
     return cached.get().get(mId.getId());
   }
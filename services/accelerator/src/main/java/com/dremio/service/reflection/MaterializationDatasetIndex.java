@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
+import com.dremio.exec.planner.acceleration.MaterializationDescriptor;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Inverted index from the tables and VDS used by the plans of the cached materializations to the ids of these
+ * materializations.<br>
+ * The index is immutable and built for one version of the {@link MaterializationCache} entries. When the entries
+ * change, a new index is built reusing the datasets of the descriptors that didn't change.
+ */
+final class MaterializationDatasetIndex {
+
+  static final MaterializationDatasetIndex EMPTY = new MaterializationDatasetIndex(ImmutableMap.of(),
+    ImmutableMap.of(), ImmutableSetMultimap.of(), ImmutableSet.of());
+
+  private final Map<String, CachedMaterializationDescriptor> descriptors;
+  private final Map<String, Set<List<String>>> datasetsById;
+  private final ImmutableSetMultimap<List<String>, String> idsByDataset;
+  // descriptors that can't be matched on their datasets, always returned
+  private final Set<String> unindexed;
+
+  private MaterializationDatasetIndex(Map<String, CachedMaterializationDescriptor> descriptors,
+                                      Map<String, Set<List<String>>> datasetsById,
+                                      ImmutableSetMultimap<List<String>, String> idsByDataset,
+                                      Set<String> unindexed) {
+    this.descriptors = descriptors;
+    this.datasetsById = datasetsById;
+    this.idsByDataset = idsByDataset;
+    this.unindexed = unindexed;
+  }
+
+  /**
+   * Builds the index of the given cache entries.
+   *
+   * @param descriptors cache entries, by materialization id
+   * @param previous    index of the previous cache entries
+   * @param datasetsOf  returns the paths of the tables and VDS used by a descriptor, or an empty set if the descriptor
+   *                    can't be matched on its datasets
+   * @return the index of the cache entries
+   */
+  static MaterializationDatasetIndex build(Map<String, CachedMaterializationDescriptor> descriptors,
+                                           MaterializationDatasetIndex previous,
+                                           Function<CachedMaterializationDescriptor, Set<List<String>>> datasetsOf) {
+    final Map<String, Set<List<String>>> datasetsById = Maps.newHashMap();
+    final ImmutableSetMultimap.Builder<List<String>, String> idsByDataset = ImmutableSetMultimap.builder();
+    final Set<String> unindexed = Sets.newHashSet();
+    for (Map.Entry<String, CachedMaterializationDescriptor> entry : descriptors.entrySet()) {
+      final String id = entry.getKey();
+      Set<List<String>> datasets = previous.datasetsById.get(id);
+      if (datasets == null || previous.descriptors.get(id) != entry.getValue()) {
+        datasets = datasetsOf.apply(entry.getValue());
+      }
+
+      datasetsById.put(id, datasets);
+      if (datasets.isEmpty()) {
+        unindexed.add(id);
+      }
+      for (List<String> dataset : datasets) {
+        idsByDataset.put(dataset, id);
+      }
+    }
+    return new MaterializationDatasetIndex(descriptors, datasetsById, idsByDataset.build(), unindexed);
+  }
+
+  /**
+   * @return true if this index was built for the given cache entries
+   */
+  boolean isFor(Map<String, CachedMaterializationDescriptor> descriptors) {
+    return this.descriptors == descriptors;
+  }
+
+  /**
+   * Returns the descriptors whose plan may use one of the given datasets.
+   *
+   * @param datasetPaths paths of the tables and VDS used by the query
+   * @return the candidate descriptors
+   */
+  List<MaterializationDescriptor> get(Set<List<String>> datasetPaths) {
+    final Set<String> ids = Sets.newLinkedHashSet(unindexed);
+    for (List<String> datasetPath : datasetPaths) {
+      ids.addAll(idsByDataset.get(datasetPath));
+    }
+
+    final List<MaterializationDescriptor> candidates = Lists.newArrayListWithCapacity(ids.size());
+    for (String id : ids) {
+      candidates.add(descriptors.get(id));
+    }
+    return candidates;
+  }
+}
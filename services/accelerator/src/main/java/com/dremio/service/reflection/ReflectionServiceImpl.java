@@ -930,6 +930,18 @@ public class ReflectionServiceImpl extends BaseReflectionService {
 
     @Override
     public List<MaterializationDescriptor> get() {
+      return get(() -> materializationCache.getAll());
+    }
+
+    /**
+     * When the cache is enabled, only the cached descriptors using one of the given datasets are looked at.
+     */
+    @Override
+    public List<MaterializationDescriptor> get(Set<List<String>> datasetPaths) {
+      return get(() -> materializationCache.getByDatasets(datasetPaths));
+    }
+
+    private List<MaterializationDescriptor> get(Supplier<Iterable<MaterializationDescriptor>> cachedDescriptors) {
 
       if (!isSubstitutionEnabled()) {
         return Collections.emptyList();
@@ -939,7 +951,7 @@ public class ReflectionServiceImpl extends BaseReflectionService {
       final Set<String> activeHosts = getActiveHosts();
       FluentIterable<MaterializationDescriptor> descriptors;
       if (isCacheEnabled()) {
-        descriptors = FluentIterable.from(materializationCache.getAll())
+        descriptors = FluentIterable.from(cachedDescriptors.get())
           .filter(new Predicate<MaterializationDescriptor>() {
             @Override
               public boolean apply(MaterializationDescriptor descriptor) {
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.reflection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.dremio.exec.planner.acceleration.CachedMaterializationDescriptor;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+/**
+ * Tests for {@link MaterializationDatasetIndex}
+ */
+public class TestMaterializationDatasetIndex {
+
+  private static final List<String> TABLE1 = ImmutableList.of("source", "table1");
+  private static final List<String> TABLE2 = ImmutableList.of("source", "table2");
+  private static final List<String> VDS = ImmutableList.of("space", "vds");
+
+  private final CachedMaterializationDescriptor onTable1 = mock(CachedMaterializationDescriptor.class);
+  private final CachedMaterializationDescriptor onVds = mock(CachedMaterializationDescriptor.class);
+  private final CachedMaterializationDescriptor external = mock(CachedMaterializationDescriptor.class);
+
+  private final Map<CachedMaterializationDescriptor, Set<List<String>>> datasets = ImmutableMap.of(
+    onTable1, ImmutableSet.of(TABLE1),
+    onVds, ImmutableSet.of(VDS, TABLE2),
+    external, ImmutableSet.of());
+
+  @Test
+  public void testGetCandidates() {
+    final Map<String, CachedMaterializationDescriptor> descriptors = ImmutableMap.of(
+      "m1", onTable1, "m2", onVds, "m3", external);
+    final MaterializationDatasetIndex index = MaterializationDatasetIndex.build(descriptors,
+      MaterializationDatasetIndex.EMPTY, datasets::get);
+
+    assertTrue(index.isFor(descriptors));
+    assertEquals(ImmutableList.of(external, onTable1), index.get(ImmutableSet.of(TABLE1)));
+    assertEquals(ImmutableList.of(external, onVds), index.get(ImmutableSet.of(VDS, TABLE2)));
+    assertEquals(ImmutableList.of(external, onTable1, onVds), index.get(ImmutableSet.of(TABLE1, TABLE2)));
+    assertEquals(ImmutableList.of(external), index.get(ImmutableSet.of(ImmutableList.of("source", "other"))));
+  }
+
+  @Test
+  public void testRebuildReusesUnchangedDescriptors() {
+    final AtomicInteger lookups = new AtomicInteger();
+    final Function<CachedMaterializationDescriptor, Set<List<String>>> datasetsOf = descriptor -> {
+      lookups.incrementAndGet();
+      return datasets.get(descriptor);
+    };
+
+    final Map<String, CachedMaterializationDescriptor> descriptors = Maps.newHashMap(ImmutableMap.of("m1", onTable1));
+    final MaterializationDatasetIndex index = MaterializationDatasetIndex.build(descriptors,
+      MaterializationDatasetIndex.EMPTY, datasetsOf);
+    assertEquals(1, lookups.get());
+
+    // m1 is unchanged, m2 is new
+    final Map<String, CachedMaterializationDescriptor> updated = ImmutableMap.of("m1", onTable1, "m2", onVds);
+    final MaterializationDatasetIndex updatedIndex = MaterializationDatasetIndex.build(updated, index, datasetsOf);
+    assertEquals(2, lookups.get());
+    assertFalse(updatedIndex.isFor(descriptors));
+    assertEquals(ImmutableList.of(onTable1, onVds), updatedIndex.get(ImmutableSet.of(TABLE1, VDS)));
+
+    // m1 was refreshed into a new descriptor
+    final Map<String, CachedMaterializationDescriptor> refreshed = ImmutableMap.of("m1", onVds);
+    final MaterializationDatasetIndex refreshedIndex = MaterializationDatasetIndex.build(refreshed, updatedIndex, datasetsOf);
+    assertEquals(3, lookups.get());
+    assertEquals(ImmutableList.of(), refreshedIndex.get(ImmutableSet.of(TABLE1)));
+    assertEquals(ImmutableList.of(onVds), refreshedIndex.get(ImmutableSet.of(TABLE2)));
+  }
+}
@@ -85,6 +85,7 @@ public class DremioFlightProducer implements FlightSqlProducer {
   private final Location location;
   private final DremioFlightSessionsManager sessionsManager;
   private final BufferAllocator allocator;
+  private final Provider<OptionManager> optionManagerProvider;
 
   public DremioFlightProducer(Location location, DremioFlightSessionsManager sessionsManager,
                               Provider<UserWorker> workerProvider, Provider<OptionManager> optionManagerProvider,
@@ -93,6 +94,7 @@ public class DremioFlightProducer implements FlightSqlProducer {
     this.location = location;
     this.sessionsManager = sessionsManager;
     this.allocator = allocator;
+    this.optionManagerProvider = optionManagerProvider;
 
     flightWorkManager = new FlightWorkManager(workerProvider, optionManagerProvider, runQueryResponseHandlerFactory);
   }
@@ -122,6 +124,10 @@ public class DremioFlightProducer implements FlightSqlProducer {
 
     UserProtos.PreparedStatementHandle preparedStatementHandle = preparedStatementTicket.getHandle();
 
+    if (preparedStatementTicket.getStreamCount() > 1) {
+      runPreparedStatement(callContext, serverStreamListener, preparedStatementHandle, preparedStatementTicket);
+      return;
+    }
     runPreparedStatement(callContext, serverStreamListener, preparedStatementHandle);
   }
 
@@ -173,7 +179,8 @@ public class DremioFlightProducer implements FlightSqlProducer {
     final FlightPreparedStatement flightPreparedStatement = flightWorkManager
       .createPreparedStatement(flightDescriptor, callContext::isCancelled, session);
 
-    return flightPreparedStatement.getFlightInfoLegacy(location, flightDescriptor);
+    final int streamCount = (int) optionManagerProvider.get().getOption(DremioFlightServiceOptions.RESULT_STREAMS);
+    return flightPreparedStatement.getFlightInfoLegacy(location, flightDescriptor, streamCount);
   }
 
   @Override
@@ -464,7 +471,7 @@ public class DremioFlightProducer implements FlightSqlProducer {
 
   @Override
   public void close() throws Exception {
-
+    flightWorkManager.close();
   }
 
   private void runPreparedStatement(CallContext callContext,
@@ -482,6 +489,24 @@ public class DremioFlightProducer implements FlightSqlProducer {
     );
   }
 
+  private void runPreparedStatement(CallContext callContext,
+                                    ServerStreamListener serverStreamListener,
+                                    UserProtos.PreparedStatementHandle preparedStatementHandle,
+                                    TicketContent.PreparedStatementTicket preparedStatementTicket) {
+    final UserSessionService.UserSessionData sessionData = getUserSessionData(callContext);
+    final ChangeTrackingUserSession userSession = new ChangeTrackingUserSession(sessionData.getSession());
+
+    flightWorkManager.runPreparedStatement(preparedStatementHandle, preparedStatementTicket.getRunId(),
+      preparedStatementTicket.getStreamIndex(), preparedStatementTicket.getStreamCount(), serverStreamListener,
+      allocator, userSession,
+      () -> {
+        if (userSession.isUpdated()) {
+          sessionsManager.updateSession(sessionData);
+        }
+      }
+    );
+  }
+
   /**
    * Helper method to retrieve CallHeaders from the CallContext.
    *
@@ -89,6 +89,7 @@ public class DremioFlightService implements Service {
 
   private volatile FlightServer server;
   private BufferAllocator allocator;
+  private DremioFlightProducer producer;
 
   public DremioFlightService(Provider<DremioConfig> configProvider,
                              Provider<BufferAllocator> bufferAllocator,
@@ -144,11 +145,12 @@ public class DremioFlightService implements Service {
     final String wildcardAddress = new InetSocketAddress(port).getHostName();
     final Location location = getLocation(wildcardAddress, port);
 
+    producer = new DremioFlightProducer(location, dremioFlightSessionsManager, userWorkerProvider,
+      optionManagerProvider, allocator, runQueryResponseHandlerFactory);
     FlightServer.Builder builder = FlightServer.builder()
       .location(location)
       .allocator(allocator)
-      .producer(new DremioFlightProducer(location, dremioFlightSessionsManager, userWorkerProvider,
-        optionManagerProvider, allocator, runQueryResponseHandlerFactory));
+      .producer(producer);
 
     builder.middleware(FLIGHT_CLIENT_PROPERTIES_MIDDLEWARE_KEY,
       new ServerCookieMiddleware.Factory());
@@ -169,7 +171,7 @@ public class DremioFlightService implements Service {
   @Override
   public void close() throws Exception {
     logger.info("Stopping Flight Service");
-    AutoCloseables.close(server, allocator, dremioFlightSessionsManager);
+    AutoCloseables.close(server, producer, allocator, dremioFlightSessionsManager);
     logger.info("Stopped Flight Service");
   }
 
@@ -36,4 +36,16 @@ public interface DremioFlightServiceOptions {
     new TypeValidators.PositiveLongValidator(
       "flight.client.readiness.timeout.millis", 900000L, 5000L
     );
+
+  // Allows users to split the results of a query between several endpoints of the FlightInfo, each one streaming
+  // a part of the record batches. Default to 1, a single endpoint streaming all the results.
+  TypeValidators.PositiveLongValidator RESULT_STREAMS =
+    new TypeValidators.PositiveLongValidator("flight.results.streams", 64L, 1L);
+
+  // Allows users to configure the timeout waiting for all the endpoints of a query with several result streams to
+  // be opened. Default to 30000ms.
+  TypeValidators.PositiveLongValidator RESULT_STREAMS_CONNECTION_TIMEOUT_MILLIS =
+    new TypeValidators.PositiveLongValidator(
+      "flight.results.streams.connection.timeout.millis", 900000L, 30000L
+    );
 }
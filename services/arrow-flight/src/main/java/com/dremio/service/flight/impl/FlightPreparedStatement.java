@@ -21,6 +21,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
+import java.util.UUID;
 
 import org.apache.arrow.flight.FlightDescriptor;
 import org.apache.arrow.flight.FlightEndpoint;
@@ -31,10 +32,20 @@ import org.apache.arrow.flight.sql.impl.FlightSql;
 import org.apache.arrow.vector.ipc.WriteChannel;
 import org.apache.arrow.vector.ipc.message.MessageSerializer;
 import org.apache.arrow.vector.types.pojo.Schema;
-
+import org.apache.calcite.avatica.util.Quoting;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlOrderBy;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.SqlWith;
+import org.apache.calcite.sql.parser.SqlParseException;
+import org.apache.calcite.sql.parser.SqlParser;
+
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.sql.ParserConfig;
 import com.dremio.exec.proto.UserProtos;
 import com.dremio.service.flight.TicketContent;
 import com.dremio.service.flight.protector.CancellableUserResponseHandler;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.protobuf.Any;
 import com.google.protobuf.ByteString;
@@ -45,6 +56,9 @@ import com.google.protobuf.ByteString;
  */
 public class FlightPreparedStatement {
 
+  private static final ParserConfig PARSER_CONFIG = new ParserConfig(Quoting.DOUBLE_QUOTE, 256,
+    PlannerSettings.FULL_NESTED_SCHEMA_SUPPORT.getDefault().getBoolVal());
+
   private final CancellableUserResponseHandler<UserProtos.CreatePreparedStatementArrowResp> responseHandler;
 
   public FlightPreparedStatement(CancellableUserResponseHandler<UserProtos.CreatePreparedStatementArrowResp> responseHandler) {
@@ -80,18 +94,66 @@ public class FlightPreparedStatement {
    * @return The FlightInfo.
    */
   public FlightInfo getFlightInfoLegacy(Location location, FlightDescriptor flightDescriptor) {
+    return getFlightInfoLegacy(location, flightDescriptor, 1);
+  }
+
+  /**
+   * Returns a FlightInfo for the PreparedStatement which a given instance manages, with the results split between
+   * several endpoints. The query runs once all the endpoints are opened, and each endpoint streams a part of the
+   * record batches. Queries which return their rows in a specific order keep a single endpoint, since the order of
+   * the rows is lost when they are split between several endpoints.
+   *
+   * @param location    The server location.
+   * @param streamCount The number of endpoints.
+   * @return The FlightInfo.
+   */
+  public FlightInfo getFlightInfoLegacy(Location location, FlightDescriptor flightDescriptor, int streamCount) {
     final UserProtos.CreatePreparedStatementArrowResp createPreparedStatementResp = responseHandler.get();
     final Schema schema = buildSchema(createPreparedStatementResp.getPreparedStatement().getArrowSchema());
 
-    final TicketContent.PreparedStatementTicket preparedStatementTicketContent = TicketContent.PreparedStatementTicket.newBuilder()
-      .setQuery(FlightWorkManager.getQuery(flightDescriptor))
-      .setHandle(createPreparedStatementResp.getPreparedStatement().getServerHandle())
-      .build();
+    final String query = FlightWorkManager.getQuery(flightDescriptor);
+    final TicketContent.PreparedStatementTicket.Builder preparedStatementTicketBuilder =
+      TicketContent.PreparedStatementTicket.newBuilder()
+        .setQuery(query)
+        .setHandle(createPreparedStatementResp.getPreparedStatement().getServerHandle());
 
-    final Ticket ticket = new Ticket(preparedStatementTicketContent.toByteArray());
+    if (streamCount <= 1 || isOrdered(query)) {
+      final Ticket ticket = new Ticket(preparedStatementTicketBuilder.build().toByteArray());
+      final FlightEndpoint flightEndpoint = new FlightEndpoint(ticket, location);
+      return new FlightInfo(schema, flightDescriptor, ImmutableList.of(flightEndpoint), -1, -1);
+    }
 
-    final FlightEndpoint flightEndpoint = new FlightEndpoint(ticket, location);
-    return new FlightInfo(schema, flightDescriptor, ImmutableList.of(flightEndpoint), -1, -1);
+    preparedStatementTicketBuilder
+      .setRunId(UUID.randomUUID().toString())
+      .setStreamCount(streamCount);
+    final ImmutableList.Builder<FlightEndpoint> flightEndpoints = ImmutableList.builder();
+    for (int i = 0; i < streamCount; i++) {
+      final Ticket ticket = new Ticket(preparedStatementTicketBuilder.setStreamIndex(i).build().toByteArray());
+      flightEndpoints.add(new FlightEndpoint(ticket, location));
+    }
+    return new FlightInfo(schema, flightDescriptor, flightEndpoints.build(), -1, -1);
+  }
+
+  /**
+   * Checks if the rows of a query are returned in a specific order.
+   *
+   * @param query The query.
+   * @return true if the query ends with an ORDER BY, LIMIT or OFFSET clause, or can't be parsed.
+   */
+  @VisibleForTesting
+  static boolean isOrdered(String query) {
+    SqlNode sqlNode;
+    try {
+      sqlNode = SqlParser.create(query, PARSER_CONFIG).parseStmt();
+    } catch (SqlParseException e) {
+      return true;
+    }
+
+    if (sqlNode instanceof SqlWith) {
+      sqlNode = ((SqlWith) sqlNode).body;
+    }
+    return sqlNode instanceof SqlOrderBy
+      || (sqlNode instanceof SqlSelect && ((SqlSelect) sqlNode).getOrderList() != null);
   }
 
   /**
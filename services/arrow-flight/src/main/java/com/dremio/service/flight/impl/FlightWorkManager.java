@@ -28,6 +28,9 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -53,6 +56,7 @@ import org.apache.arrow.vector.types.pojo.FieldType;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.apache.arrow.vector.util.Text;
 
+import com.dremio.common.concurrent.CloseableSchedulerThreadPool;
 import com.dremio.common.utils.protos.ExternalIdHelper;
 import com.dremio.exec.proto.UserBitShared;
 import com.dremio.exec.proto.UserProtos;
@@ -73,11 +77,16 @@ import com.google.common.annotations.VisibleForTesting;
  * Manager class for submitting jobs to a UserWorker and optionally returning the appropriate Dremio Flight
  * Server container to use the outcome of the submitted job.
  */
-public class FlightWorkManager {
+public class FlightWorkManager implements AutoCloseable {
 
   private final Provider<UserWorker> workerProvider;
   private final Provider<OptionManager> optionManagerProvider;
   private final RunQueryResponseHandlerFactory runQueryResponseHandlerFactory;
+  // queries with several result streams, until all their streams are added
+  private final ConcurrentMap<String, MultiStreamResponseHandler> multiStreamRuns = new ConcurrentHashMap<>();
+  // expires the queries with several result streams whose streams are not all added in time
+  private final CloseableSchedulerThreadPool multiStreamRunsExpirer =
+    new CloseableSchedulerThreadPool("flight-multi-stream-expirer", 1);
 
   private static final byte[] EMPTY_SERIALIZED_SCHEMA = getSerializedSchema(Collections.emptyList());
 
@@ -139,16 +148,7 @@ public class FlightWorkManager {
                                    FlightProducer.ServerStreamListener listener, BufferAllocator allocator,
                                    UserSession userSession, Runnable queryCompletionCallback) {
     final UserBitShared.ExternalId runExternalId = ExternalIdHelper.generateExternalId();
-    final UserRequest userRequest =
-      new UserRequest(UserProtos.RpcType.RUN_QUERY,
-        UserProtos.RunQuery.newBuilder()
-          .setType(UserBitShared.QueryType.PREPARED_STATEMENT)
-          .setPriority(UserProtos.QueryPriority.newBuilder()
-            .setWorkloadType(UserBitShared.WorkloadType.FLIGHT)
-            .setWorkloadClass(UserBitShared.WorkloadClass.GENERAL))
-          .setSource(UserProtos.SubmissionSource.FLIGHT)
-          .setPreparedStatementHandle(preparedStatementHandle)
-          .build());
+    final UserRequest userRequest = getRunPreparedStatementRequest(preparedStatementHandle);
 
     final UserResponseHandler responseHandler = runQueryResponseHandlerFactory.getHandler(runExternalId, userSession,
       workerProvider, optionManagerProvider, listener, allocator, queryCompletionCallback);
@@ -157,6 +157,77 @@ public class FlightWorkManager {
       .submitWork(runExternalId, userSession, responseHandler, userRequest, TerminationListenerRegistry.NOOP);
   }
 
+  /**
+   * Adds a stream to a query whose results are split between several streams, and submits a RUN_QUERY job
+   * once all the streams of the query are added. The record batches of the job are sent to the streams round robin.
+   *
+   * @param preparedStatementHandle The handle of the prepared statement to run.
+   * @param runId                   The id of the run shared by the streams.
+   * @param streamIndex             The index of the stream.
+   * @param streamCount             The number of streams of the query.
+   * @param listener                ServerStreamListener of the stream.
+   * @param allocator               BufferAllocator used to load the record batches of the stream.
+   * @param userSession             The session for the user which opened the stream.
+   * @param queryCompletionCallback Called when the query is completed.
+   */
+  public void runPreparedStatement(UserProtos.PreparedStatementHandle preparedStatementHandle,
+                                   String runId, int streamIndex, int streamCount,
+                                   FlightProducer.ServerStreamListener listener, BufferAllocator allocator,
+                                   UserSession userSession, Runnable queryCompletionCallback) {
+    // the stream count comes from the ticket, which the client can forge
+    final long maxStreamCount = optionManagerProvider.get().getOption(DremioFlightServiceOptions.RESULT_STREAMS);
+    if (streamCount < 2 || streamCount > maxStreamCount) {
+      throw CallStatus.INVALID_ARGUMENT.withDescription("Invalid stream count in ticket.").toRuntimeException();
+    }
+
+    final MultiStreamResponseHandler multiStreamResponseHandler = multiStreamRuns.computeIfAbsent(runId, id -> {
+      final MultiStreamResponseHandler handler = new MultiStreamResponseHandler(streamCount);
+      final long timeoutMillis =
+        optionManagerProvider.get().getOption(DremioFlightServiceOptions.RESULT_STREAMS_CONNECTION_TIMEOUT_MILLIS);
+      multiStreamRunsExpirer.schedule(() -> expireMultiStreamRun(id, handler), timeoutMillis, TimeUnit.MILLISECONDS);
+      return handler;
+    });
+    final UserBitShared.ExternalId runExternalId = multiStreamResponseHandler.getRunExternalId();
+
+    final UserResponseHandler responseHandler = runQueryResponseHandlerFactory.getHandler(runExternalId, userSession,
+      workerProvider, optionManagerProvider, listener, allocator, queryCompletionCallback);
+
+    if (!multiStreamResponseHandler.addStream(streamIndex, streamCount, userSession.getCredentials().getUserName(),
+      listener, responseHandler)) {
+      return;
+    }
+
+    multiStreamRuns.remove(runId, multiStreamResponseHandler);
+    workerProvider.get().submitWork(runExternalId, userSession, multiStreamResponseHandler,
+      getRunPreparedStatementRequest(preparedStatementHandle), TerminationListenerRegistry.NOOP);
+  }
+
+  /**
+   * Fails the streams of a query if its other streams were not added before the timeout.
+   */
+  private void expireMultiStreamRun(String runId, MultiStreamResponseHandler multiStreamResponseHandler) {
+    if (multiStreamResponseHandler.expire()) {
+      multiStreamRuns.remove(runId, multiStreamResponseHandler);
+    }
+  }
+
+  @Override
+  public void close() throws Exception {
+    multiStreamRunsExpirer.close();
+  }
+
+  private static UserRequest getRunPreparedStatementRequest(UserProtos.PreparedStatementHandle preparedStatementHandle) {
+    return new UserRequest(UserProtos.RpcType.RUN_QUERY,
+      UserProtos.RunQuery.newBuilder()
+        .setType(UserBitShared.QueryType.PREPARED_STATEMENT)
+        .setPriority(UserProtos.QueryPriority.newBuilder()
+          .setWorkloadType(UserBitShared.WorkloadType.FLIGHT)
+          .setWorkloadClass(UserBitShared.WorkloadClass.GENERAL))
+        .setSource(UserProtos.SubmissionSource.FLIGHT)
+        .setPreparedStatementHandle(preparedStatementHandle)
+        .build());
+  }
+
   /**
    * Retrieve the table types and sends the response to given ServerStreamListener.
    *
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight.impl;
+
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightProducer;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.GeneralRPCProtos;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.protector.UserResponseHandler;
+import com.dremio.exec.work.protector.UserResult;
+import com.google.common.annotations.VisibleForTesting;
+
+/**
+ * The UserResponseHandler of a query whose results are split between several Flight streams, one per endpoint of
+ * the FlightInfo. The query runs once all the streams are added, and its record batches are sent to the streams
+ * round robin, each stream being served by its own response handler.
+ */
+class MultiStreamResponseHandler implements UserResponseHandler {
+
+  private final UserBitShared.ExternalId runExternalId = ExternalIdHelper.generateExternalId();
+  private final FlightProducer.ServerStreamListener[] listeners;
+  private final UserResponseHandler[] handlers;
+  private final boolean[] hasData;
+
+  private String userName;
+  private int addedStreams;
+  private boolean expired;
+  // batches are sent one at a time by the query
+  private int nextStream;
+
+  MultiStreamResponseHandler(int streamCount) {
+    this.listeners = new FlightProducer.ServerStreamListener[streamCount];
+    this.handlers = new UserResponseHandler[streamCount];
+    this.hasData = new boolean[streamCount];
+  }
+
+  UserBitShared.ExternalId getRunExternalId() {
+    return runExternalId;
+  }
+
+  /**
+   * Adds the stream of an endpoint.
+   *
+   * @param streamIndex the index of the endpoint.
+   * @param streamCount the number of endpoints in the ticket of the stream, which must match the run.
+   * @param userName    the user who opened the stream, all the streams must be opened by the same user.
+   * @param listener    the listener of the stream.
+   * @param handler     the handler sending the batches of the stream to the listener.
+   * @return true if all the streams are added, and the query can be submitted.
+   */
+  synchronized boolean addStream(int streamIndex, int streamCount, String userName,
+                                 FlightProducer.ServerStreamListener listener, UserResponseHandler handler) {
+    if (expired) {
+      throw CallStatus.TIMED_OUT.withDescription("Timeout while waiting for the other streams of the query.")
+        .toRuntimeException();
+    }
+    if (streamCount != handlers.length) {
+      throw CallStatus.INVALID_ARGUMENT.withDescription("Stream count in ticket doesn't match the query.")
+        .toRuntimeException();
+    }
+    if (streamIndex < 0 || streamIndex >= handlers.length) {
+      throw CallStatus.INVALID_ARGUMENT.withDescription("Invalid stream index in ticket.").toRuntimeException();
+    }
+    if (this.userName != null && !this.userName.equals(userName)) {
+      throw CallStatus.UNAUTHORIZED.withDescription("The streams of a query must be opened by the same user.")
+        .toRuntimeException();
+    }
+    if (handlers[streamIndex] != null) {
+      throw CallStatus.ALREADY_EXISTS.withDescription("The stream of this ticket is already opened.")
+        .toRuntimeException();
+    }
+
+    this.userName = userName;
+    listeners[streamIndex] = listener;
+    handlers[streamIndex] = handler;
+    return ++addedStreams == handlers.length;
+  }
+
+  /**
+   * Fails the added streams if the other streams are not added yet, called once the timeout to add the streams
+   * elapsed.
+   *
+   * @return true if the query expired, and won't be submitted.
+   */
+  synchronized boolean expire() {
+    if (addedStreams == handlers.length) {
+      return false;
+    }
+
+    expired = true;
+    for (FlightProducer.ServerStreamListener listener : listeners) {
+      if (listener != null) {
+        listener.error(CallStatus.TIMED_OUT.withDescription("Timeout while waiting for the other streams of the query.")
+          .toRuntimeException());
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void sendData(RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener, QueryWritableBatch result) {
+    final int streamIndex = nextStream;
+    nextStream = (nextStream + 1) % handlers.length;
+    hasData[streamIndex] = true;
+    handlers[streamIndex].sendData(outcomeListener, result);
+  }
+
+  @Override
+  public void completed(UserResult result) {
+    if (result.getState() == UserBitShared.QueryResult.QueryState.COMPLETED) {
+      // the streams which got none of the batches still send the schema to their client
+      final Schema schema = getSchema();
+      for (int i = 0; i < handlers.length; i++) {
+        if (schema != null && !hasData[i] && handlers[i] instanceof RunQueryResponseHandler) {
+          ((RunQueryResponseHandler) handlers[i]).startIfNoData(schema);
+        }
+      }
+    }
+
+    RuntimeException exception = null;
+    for (UserResponseHandler handler : handlers) {
+      try {
+        handler.completed(result);
+      } catch (RuntimeException e) {
+        if (exception == null) {
+          exception = e;
+        } else {
+          exception.addSuppressed(e);
+        }
+      }
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  @VisibleForTesting
+  Schema getSchema() {
+    for (int i = 0; i < handlers.length; i++) {
+      if (hasData[i] && handlers[i] instanceof RunQueryResponseHandler) {
+        final Schema schema = ((RunQueryResponseHandler) handlers[i]).getSchema();
+        if (schema != null) {
+          return schema;
+        }
+      }
+    }
+    return null;
+  }
+}
@@ -31,6 +31,7 @@ import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.util.Preconditions;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.pojo.Schema;
 
 import com.dremio.common.utils.protos.QueryWritableBatch;
 import com.dremio.exec.proto.GeneralRPCProtos;
@@ -215,6 +216,27 @@ public abstract class RunQueryResponseHandler implements UserResponseHandler {
     vectorSchemaRoot.setRowCount(rowCount);
   }
 
+  /**
+   * @return the schema of the batches sent to the client, or null if no batch was sent yet.
+   */
+  Schema getSchema() {
+    final VectorSchemaRoot root = vectorSchemaRoot;
+    return root == null ? null : root.getSchema();
+  }
+
+  /**
+   * Starts the client stream with the given schema if no batch was sent to the client, so that the client of a
+   * stream which gets none of the results still gets their schema.
+   *
+   * @param schema the schema of the results.
+   */
+  void startIfNoData(Schema schema) {
+    if (vectorSchemaRoot == null) {
+      vectorSchemaRoot = VectorSchemaRoot.create(schema, allocator);
+      clientListener.start(vectorSchemaRoot);
+    }
+  }
+
   @Override
   public void completed(UserResult result) {
     completed = true;
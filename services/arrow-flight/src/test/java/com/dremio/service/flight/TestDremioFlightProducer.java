@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.arrow.flight.CallInfo;
+import org.apache.arrow.flight.FlightCallHeaders;
+import org.apache.arrow.flight.FlightProducer;
+import org.apache.arrow.flight.FlightRuntimeException;
+import org.apache.arrow.flight.FlightStatusCode;
+import org.apache.arrow.flight.Location;
+import org.apache.arrow.flight.RequestContext;
+import org.apache.arrow.flight.Ticket;
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.proto.UserProtos;
+import com.dremio.exec.work.protector.UserResponseHandler;
+import com.dremio.exec.work.protector.UserWorker;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.rpc.user.UserSession;
+import com.dremio.service.flight.impl.FlightWorkManager.RunQueryResponseHandlerFactory;
+import com.dremio.service.usersessions.UserSessionService;
+
+/**
+ * Tests for {@link DremioFlightProducer}
+ */
+public class TestDremioFlightProducer {
+
+  private final UserWorker worker = mock(UserWorker.class);
+  private final FlightProducer.CallContext callContext = mock(FlightProducer.CallContext.class);
+  private DremioFlightProducer producer;
+
+  @Before
+  public void setup() {
+    final OptionManager optionManager = mock(OptionManager.class);
+    when(optionManager.getOption(DremioFlightServiceOptions.RESULT_STREAMS)).thenReturn(4L);
+    when(optionManager.getOption(DremioFlightServiceOptions.RESULT_STREAMS_CONNECTION_TIMEOUT_MILLIS))
+      .thenReturn(30000L);
+
+    final UserSession session = mock(UserSession.class);
+    when(session.getCredentials())
+      .thenReturn(UserBitShared.UserCredentials.newBuilder().setUserName("user").build());
+    final DremioFlightSessionsManager sessionsManager = mock(DremioFlightSessionsManager.class);
+    when(sessionsManager.getUserSession(any(), any()))
+      .thenReturn(new UserSessionService.UserSessionData(session, null, "session"));
+    when(callContext.getMiddleware(DremioFlightService.FLIGHT_CLIENT_PROPERTIES_MIDDLEWARE_KEY))
+      .thenReturn(new ServerCookieMiddleware.Factory().onCallStarted(mock(CallInfo.class), new FlightCallHeaders(),
+        mock(RequestContext.class)));
+
+    final RunQueryResponseHandlerFactory handlerFactory = mock(RunQueryResponseHandlerFactory.class);
+    when(handlerFactory.getHandler(any(), any(), any(), any(), any(), any(), any()))
+      .thenReturn(mock(UserResponseHandler.class));
+
+    producer = new DremioFlightProducer(Location.forGrpcInsecure("localhost", 32010), sessionsManager,
+      () -> worker, () -> optionManager, mock(BufferAllocator.class), handlerFactory);
+  }
+
+  @After
+  public void teardown() throws Exception {
+    producer.close();
+  }
+
+  private static Ticket ticket(String runId, int streamIndex, int streamCount) {
+    return new Ticket(TicketContent.PreparedStatementTicket.newBuilder()
+      .setHandle(UserProtos.PreparedStatementHandle.getDefaultInstance())
+      .setRunId(runId)
+      .setStreamIndex(streamIndex)
+      .setStreamCount(streamCount)
+      .build()
+      .toByteArray());
+  }
+
+  private void assertGetStreamFails(Ticket ticket, FlightStatusCode expected) {
+    try {
+      producer.getStream(callContext, ticket, mock(FlightProducer.ServerStreamListener.class));
+      fail("Stream should not be opened");
+    } catch (FlightRuntimeException e) {
+      assertEquals(expected, e.status().code());
+    }
+  }
+
+  @Test
+  public void testForgedStreamCount() {
+    assertGetStreamFails(ticket("huge", 0, Integer.MAX_VALUE), FlightStatusCode.INVALID_ARGUMENT);
+    assertGetStreamFails(ticket("above-max", 0, 5), FlightStatusCode.INVALID_ARGUMENT);
+
+    verify(worker, never()).submitWork(any(), any(), any(), any(), any());
+  }
+
+  @Test
+  public void testStreamNotMatchingRun() {
+    producer.getStream(callContext, ticket("run", 0, 2), mock(FlightProducer.ServerStreamListener.class));
+
+    assertGetStreamFails(ticket("run", 1, 3), FlightStatusCode.INVALID_ARGUMENT);
+    assertGetStreamFails(ticket("run", 2, 2), FlightStatusCode.INVALID_ARGUMENT);
+    assertGetStreamFails(ticket("run", 0, 2), FlightStatusCode.ALREADY_EXISTS);
+    verify(worker, never()).submitWork(any(), any(), any(), any(), any());
+
+    producer.getStream(callContext, ticket("run", 1, 2), mock(FlightProducer.ServerStreamListener.class));
+    verify(worker).submitWork(any(), any(), any(), any(), any());
+  }
+}
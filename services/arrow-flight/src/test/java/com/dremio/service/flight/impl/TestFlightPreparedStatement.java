@@ -17,6 +17,8 @@ package com.dremio.service.flight.impl;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -205,6 +207,57 @@ public class TestFlightPreparedStatement {
     assertEquals(expected, actual);
   }
 
+  @Test
+  public void testGetFlightInfoLegacyWithSeveralStreams() throws Exception {
+    // Arrange
+    when(mockHandler.get()).thenReturn(response);
+    final FlightPreparedStatement flightPreparedStatement = new FlightPreparedStatement(mockHandler);
+    final FlightDescriptor flightDescriptor = FlightDescriptor.command("select 1".getBytes(StandardCharsets.UTF_8));
+
+    // Act
+    final FlightInfo actual = flightPreparedStatement.getFlightInfoLegacy(mockLocation, flightDescriptor, 3);
+
+    // Assert
+    assertEquals(3, actual.getEndpoints().size());
+    String runId = null;
+    for (int i = 0; i < 3; i++) {
+      final TicketContent.PreparedStatementTicket ticketContent = TicketContent.PreparedStatementTicket
+        .parseFrom(actual.getEndpoints().get(i).getTicket().getBytes());
+      assertEquals(response.getPreparedStatement().getServerHandle(), ticketContent.getHandle());
+      assertEquals(i, ticketContent.getStreamIndex());
+      assertEquals(3, ticketContent.getStreamCount());
+      if (runId == null) {
+        runId = ticketContent.getRunId();
+      }
+      assertEquals(runId, ticketContent.getRunId());
+    }
+  }
+
+  @Test
+  public void testGetFlightInfoLegacyOrderedQuery() {
+    // Arrange
+    when(mockHandler.get()).thenReturn(response);
+    final FlightPreparedStatement flightPreparedStatement = new FlightPreparedStatement(mockHandler);
+    final FlightDescriptor flightDescriptor =
+      FlightDescriptor.command("select a from t order by a".getBytes(StandardCharsets.UTF_8));
+
+    // Act
+    final FlightInfo actual = flightPreparedStatement.getFlightInfoLegacy(mockLocation, flightDescriptor, 3);
+
+    // Assert
+    assertEquals(1, actual.getEndpoints().size());
+  }
+
+  @Test
+  public void testIsOrdered() {
+    assertTrue(FlightPreparedStatement.isOrdered("select a from t order by a"));
+    assertTrue(FlightPreparedStatement.isOrdered("with u as (select a from t) select a from u order by a desc"));
+    assertTrue(FlightPreparedStatement.isOrdered("select a from t limit 10"));
+    assertTrue(FlightPreparedStatement.isOrdered("not a query"));
+    assertFalse(FlightPreparedStatement.isOrdered("select a from t"));
+    assertFalse(FlightPreparedStatement.isOrdered("select a from (select a from t order by a) where a > 1"));
+  }
+
   private static class TestException extends Exception {
     public TestException(String message) {
       super(message);
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.apache.arrow.flight.FlightProducer;
+import org.apache.arrow.flight.FlightRuntimeException;
+import org.apache.arrow.flight.FlightStatusCode;
+import org.junit.Test;
+
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.GeneralRPCProtos;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.protector.UserResponseHandler;
+import com.dremio.exec.work.protector.UserResult;
+
+/**
+ * Tests for {@link MultiStreamResponseHandler}
+ */
+public class TestMultiStreamResponseHandler {
+
+  @Test
+  public void testSendDataRoundRobin() {
+    final MultiStreamResponseHandler multiStreamHandler = new MultiStreamResponseHandler(2);
+    final UserResponseHandler first = mock(UserResponseHandler.class);
+    final UserResponseHandler second = mock(UserResponseHandler.class);
+    assertFalse(multiStreamHandler.addStream(1, 2, "user", mock(FlightProducer.ServerStreamListener.class), second));
+    assertTrue(multiStreamHandler.addStream(0, 2, "user", mock(FlightProducer.ServerStreamListener.class), first));
+
+    @SuppressWarnings("unchecked")
+    final RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener = mock(RpcOutcomeListener.class);
+    final QueryWritableBatch batch0 = mock(QueryWritableBatch.class);
+    final QueryWritableBatch batch1 = mock(QueryWritableBatch.class);
+    final QueryWritableBatch batch2 = mock(QueryWritableBatch.class);
+    multiStreamHandler.sendData(outcomeListener, batch0);
+    multiStreamHandler.sendData(outcomeListener, batch1);
+    multiStreamHandler.sendData(outcomeListener, batch2);
+    verify(first).sendData(outcomeListener, batch0);
+    verify(second).sendData(outcomeListener, batch1);
+    verify(first).sendData(outcomeListener, batch2);
+
+    final UserResult result = mock(UserResult.class);
+    when(result.getState()).thenReturn(UserBitShared.QueryResult.QueryState.COMPLETED);
+    multiStreamHandler.completed(result);
+    verify(first).completed(result);
+    verify(second).completed(result);
+  }
+
+  @Test
+  public void testInvalidStreams() {
+    final MultiStreamResponseHandler multiStreamHandler = new MultiStreamResponseHandler(3);
+    multiStreamHandler.addStream(0, 3, "user", mock(FlightProducer.ServerStreamListener.class),
+      mock(UserResponseHandler.class));
+
+    assertAddStreamFails(multiStreamHandler, 3, 3, "user", FlightStatusCode.INVALID_ARGUMENT);
+    assertAddStreamFails(multiStreamHandler, -1, 3, "user", FlightStatusCode.INVALID_ARGUMENT);
+    assertAddStreamFails(multiStreamHandler, 1, 2, "user", FlightStatusCode.INVALID_ARGUMENT);
+    assertAddStreamFails(multiStreamHandler, 0, 3, "user", FlightStatusCode.ALREADY_EXISTS);
+    assertAddStreamFails(multiStreamHandler, 1, 3, "other", FlightStatusCode.UNAUTHORIZED);
+  }
+
+  @Test
+  public void testExpire() {
+    final MultiStreamResponseHandler multiStreamHandler = new MultiStreamResponseHandler(2);
+    final FlightProducer.ServerStreamListener listener = mock(FlightProducer.ServerStreamListener.class);
+    multiStreamHandler.addStream(0, 2, "user", listener, mock(UserResponseHandler.class));
+
+    assertTrue(multiStreamHandler.expire());
+    verify(listener).error(any());
+    assertAddStreamFails(multiStreamHandler, 1, 2, "user", FlightStatusCode.TIMED_OUT);
+  }
+
+  @Test
+  public void testCompleteRunDoesNotExpire() {
+    final MultiStreamResponseHandler multiStreamHandler = new MultiStreamResponseHandler(2);
+    final FlightProducer.ServerStreamListener listener = mock(FlightProducer.ServerStreamListener.class);
+    multiStreamHandler.addStream(0, 2, "user", listener, mock(UserResponseHandler.class));
+    multiStreamHandler.addStream(1, 2, "user", listener, mock(UserResponseHandler.class));
+
+    assertFalse(multiStreamHandler.expire());
+    verify(listener, never()).error(any());
+  }
+
+  private static void assertAddStreamFails(MultiStreamResponseHandler multiStreamHandler, int streamIndex,
+                                           int streamCount, String userName, FlightStatusCode expected) {
+    try {
+      multiStreamHandler.addStream(streamIndex, streamCount, userName, mock(FlightProducer.ServerStreamListener.class),
+        mock(UserResponseHandler.class));
+      fail("Stream should not be added");
+    } catch (FlightRuntimeException e) {
+      assertEquals(expected, e.status().code());
+    }
+  }
+}
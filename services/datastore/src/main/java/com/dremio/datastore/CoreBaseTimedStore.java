@@ -24,6 +24,7 @@ import com.dremio.datastore.SearchTypes.SearchQuery;
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByCondition;
 import com.dremio.datastore.api.FindByRange;
+import com.dremio.datastore.api.KVStoreBatch;
 
 /**
  * Adds timing instrumentation to KVStore interface
@@ -99,6 +100,13 @@ abstract class CoreBaseTimedStore<K, V> implements CoreKVStore<K, V> {
     }
   }
 
+  @Override
+  public void write(KVStoreBatch<KVStoreTuple<K>, KVStoreTuple<V>> batch) {
+    try (TimedBlock b = time(name + ".write")) {
+      kvStore.write(batch);
+    }
+  }
+
   /**
    * Basic timed store.
    *
@@ -21,6 +21,7 @@ import java.util.List;
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.ImmutableFindByRange;
+import com.dremio.datastore.api.KVStoreBatch;
 import com.dremio.datastore.api.options.VersionOption;
 import com.google.common.base.Function;
 import com.google.common.base.Strings;
@@ -89,6 +90,11 @@ public class CoreKVStoreImpl<KEY, VALUE> implements CoreKVStore<KEY, VALUE> {
     return fromDocument(result);
   }
 
+  @Override
+  public void write(KVStoreBatch<KVStoreTuple<KEY>, KVStoreTuple<VALUE>> batch) {
+    rawStore.write(batch.convert(KVStoreTuple::getSerializedBytes, KVStoreTuple::getSerializedBytes));
+  }
+
   @Override
   public boolean contains(KVStoreTuple<KEY> key, ContainsOption... options) {
     return rawStore.contains(key.getSerializedBytes(), options);
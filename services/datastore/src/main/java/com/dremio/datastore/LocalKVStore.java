@@ -22,6 +22,7 @@ import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.ImmutableFindByRange;
 import com.dremio.datastore.api.KVStore;
+import com.dremio.datastore.api.KVStoreBatch;
 import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
 
@@ -78,6 +79,11 @@ public class LocalKVStore<K, V> implements KVStore<K, V> {
     return fromDocument(coreKVStore.put(buildKey(key), buildValue(value), options));
   }
 
+  @Override
+  public void write(KVStoreBatch<K, V> batch) {
+    coreKVStore.write(batch.convert(this::buildKey, this::buildValue));
+  }
+
   @Override
   public boolean contains(K key, ContainsOption... options) {
     return coreKVStore.contains(buildKey(key), options);
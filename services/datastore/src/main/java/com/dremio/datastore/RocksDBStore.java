@@ -27,9 +27,13 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -45,6 +49,8 @@ import org.rocksdb.FlushOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 import org.xerial.snappy.SnappyInputStream;
 import org.xerial.snappy.SnappyOutputStream;
 
@@ -54,6 +60,7 @@ import com.dremio.common.concurrent.AutoCloseableLock;
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.ImmutableDocument;
+import com.dremio.datastore.api.KVStoreBatch;
 import com.dremio.datastore.api.options.KVStoreOptionUtility;
 import com.dremio.datastore.api.options.VersionOption;
 import com.dremio.datastore.rocks.Rocks;
@@ -319,6 +326,29 @@ class RocksDBStore implements ByteStore {
     return lock;
   }
 
+  /**
+   * Opens the locks of the stripes of the keys, in stripe order.
+   */
+  private List<AutoCloseableLock> openLocks(AutoCloseableLock[] stripeLocks, List<byte[]> keys) {
+    final BitSet stripes = new BitSet(parallel);
+    for (byte[] key : keys) {
+      Preconditions.checkNotNull(key);
+      stripes.set(Math.abs(Arrays.hashCode(key) % parallel));
+    }
+
+    final List<AutoCloseableLock> locks = new ArrayList<>(stripes.cardinality());
+    for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+      locks.add(stripeLocks[i].open());
+    }
+    return locks;
+  }
+
+  private static void closeLocks(List<AutoCloseableLock> locks) {
+    for (int i = locks.size() - 1; i >= 0; i--) {
+      locks.get(i).close();
+    }
+  }
+
   /**
    * Delete all values. Deletes only values inside the store, leaving behind any leftover blobs that have been placed
    * directly in the file system.
@@ -483,11 +513,85 @@ class RocksDBStore implements ByteStore {
 
   @Override
   public Iterable<Document<byte[], byte[]>> get(List<byte[]> keys, GetOption... options) {
-    final List<Document<byte[], byte[]>> results = new ArrayList<>();
-    for (byte[] key : keys) {
-      results.add(get(key, options));
+    if (keys.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    // multiGet maps the values by key instance, keys may be a view recomputing its elements
+    final List<byte[]> keyList = new ArrayList<>(keys);
+    final List<AutoCloseableLock> locks = openLocks(sharedLocks, keyList);
+    try {
+      throwIfClosed();
+      final Map<byte[], byte[]> values = db.multiGet(Collections.nCopies(keyList.size(), handle), keyList);
+
+      final List<Document<byte[], byte[]>> results = new ArrayList<>(keyList.size());
+      for (byte[] key : keyList) {
+        final RocksEntry result = resolvePtrOrValue(values.get(key));
+        if (result == null) {
+          results.add(null);
+        } else {
+          final byte[] value = result.getData();
+          results.add(toDocument(key, value, toTag(result.getMeta(), value)));
+        }
+      }
+      return results;
+    } catch (RocksDBException | BlobNotFoundException e) {
+      throw new RuntimeException(e);
+    } finally {
+      closeLocks(locks);
+    }
+  }
+
+  /**
+   * Applies the batch with a single RocksDB write. Only the last operation on a key is applied, since the
+   * intermediate values of the key would never be visible.
+   */
+  @Override
+  public void write(KVStoreBatch<byte[], byte[]> batch) {
+    if (batch.isEmpty()) {
+      return;
+    }
+
+    final Map<byte[], KVStoreBatch.Operation<byte[], byte[]>> operations =
+      new TreeMap<>(UnsignedBytes.lexicographicalComparator());
+    for (KVStoreBatch.Operation<byte[], byte[]> operation : batch.getOperations()) {
+      operations.put(operation.getKey(), operation);
+    }
+    final List<byte[]> keys = new ArrayList<>(operations.keySet());
+
+    final List<AutoCloseableLock> locks = openLocks(sharedLocks, keys);
+    final List<BlobHolder> blobs = new ArrayList<>();
+    try (WriteBatch writeBatch = new WriteBatch();
+         WriteOptions writeOptions = new WriteOptions()) {
+      throwIfClosed();
+      final Map<byte[], byte[]> oldValuesOrPtrs = db.multiGet(Collections.nCopies(keys.size(), handle), keys);
+
+      for (Map.Entry<byte[], KVStoreBatch.Operation<byte[], byte[]>> entry : operations.entrySet()) {
+        final byte[] key = entry.getKey();
+        final KVStoreBatch.Operation<byte[], byte[]> operation = entry.getValue();
+        if (operation.isDelete()) {
+          if (oldValuesOrPtrs.get(key) != null) {
+            writeBatch.delete(handle, key);
+          }
+        } else {
+          final BlobHolder blob = metaManager.filterPut(operation.getValue(),
+            ByteStore.generateTagFromBytes(operation.getValue()));
+          blobs.add(blob);
+          writeBatch.put(handle, key, blob.ptrOrValue());
+        }
+      }
+      db.write(writeOptions, writeBatch);
+
+      for (byte[] oldValueOrPtr : oldValuesOrPtrs.values()) {
+        metaManager.deleteTranslation(meta(oldValueOrPtr));
+      }
+      blobs.forEach(BlobHolder::commit);
+    } catch (RocksDBException | IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      blobs.forEach(BlobHolder::close);
+      closeLocks(locks);
     }
-    return results;
   }
 
   @Override
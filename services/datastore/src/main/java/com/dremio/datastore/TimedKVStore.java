@@ -29,6 +29,7 @@ import com.dremio.datastore.api.FindByCondition;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.IndexedStore;
 import com.dremio.datastore.api.KVStore;
+import com.dremio.datastore.api.KVStoreBatch;
 import com.dremio.telemetry.api.metrics.Histogram;
 import com.dremio.telemetry.api.metrics.Metrics;
 import com.google.common.base.Stopwatch;
@@ -47,6 +48,7 @@ public class TimedKVStore<K, V> implements KVStore<K, V> {
     get,
     getList,
     put,
+    write,
     contains,
     delete,
     findByRange,
@@ -112,6 +114,13 @@ public class TimedKVStore<K, V> implements KVStore<K, V> {
     }
   }
 
+  @Override
+  public void write(KVStoreBatch<K, V> batch) {
+    try(final OpTimer ctx = time(Ops.write)) {
+      delegate.write(batch);
+    }
+  }
+
   @Override
   public boolean contains(K key, ContainsOption... options) {
     try(final OpTimer ctx = time(Ops.contains)) {
@@ -28,6 +28,7 @@ import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.ImmutableFindByRange;
 import com.dremio.datastore.api.KVStore;
+import com.dremio.datastore.api.KVStoreBatch;
 import com.dremio.datastore.api.LegacyKVStore;
 import com.dremio.datastore.api.options.ImmutableVersionOption;
 import com.dremio.datastore.api.options.VersionOption;
@@ -97,6 +98,16 @@ public class LegacyKVStoreAdapter<K, V> implements LegacyKVStore<K, V> {
     }
   }
 
+  @Override
+  public void write(KVStoreBatch<K, V> batch) {
+    // puts of versioned values are checked against the version of the current values, one by one
+    if (versionExtractor != null && batch.getOperations().stream().anyMatch(operation -> !operation.isDelete())) {
+      LegacyKVStore.super.write(batch);
+      return;
+    }
+    underlyingStore.write(batch);
+  }
+
   @Override
   public boolean contains(K key) {
     return underlyingStore.contains(key);
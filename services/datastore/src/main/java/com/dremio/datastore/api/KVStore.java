@@ -129,6 +129,23 @@ public interface KVStore<K, V> {
    */
   void delete(K key, DeleteOption ... options);
 
+  /**
+   * Applies a batch of PUT and DELETE operations, in order. Stores backed by RocksDB apply the whole batch with a
+   * single atomic write, other stores apply the operations one by one.
+   *
+   * @param batch the operations to apply.
+   * @throws com.dremio.datastore.DatastoreException when one or more runtime failures are encountered.
+   */
+  default void write(KVStoreBatch<K, V> batch) {
+    for (KVStoreBatch.Operation<K, V> operation : batch.getOperations()) {
+      if (operation.isDelete()) {
+        delete(operation.getKey());
+      } else {
+        put(operation.getKey(), operation.getValue());
+      }
+    }
+  }
+
   /**
    * Checks if the KV Store contains a document corresponding to the provided key.
    *
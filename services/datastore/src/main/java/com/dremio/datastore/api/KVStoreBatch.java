@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.datastore.api;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A batch of unconditional PUT and DELETE operations, applied in order by {@link KVStore#write(KVStoreBatch)}.
+ *
+ * @param <K> the Key type.
+ * @param <V> the value type.
+ */
+public final class KVStoreBatch<K, V> {
+
+  private final List<Operation<K, V>> operations = new ArrayList<>();
+
+  /**
+   * Adds a PUT operation to the batch.
+   *
+   * @param key the key to save the value.
+   * @param value the value to save.
+   * @return this batch.
+   */
+  public KVStoreBatch<K, V> put(K key, V value) {
+    Preconditions.checkNotNull(key);
+    Preconditions.checkNotNull(value, "null values are not allowed in kvstore");
+    operations.add(new Operation<>(key, value));
+    return this;
+  }
+
+  /**
+   * Adds a DELETE operation to the batch.
+   *
+   * @param key the key of the document to be removed.
+   * @return this batch.
+   */
+  public KVStoreBatch<K, V> delete(K key) {
+    Preconditions.checkNotNull(key);
+    operations.add(new Operation<>(key, null));
+    return this;
+  }
+
+  public List<Operation<K, V>> getOperations() {
+    return Collections.unmodifiableList(operations);
+  }
+
+  public int size() {
+    return operations.size();
+  }
+
+  public boolean isEmpty() {
+    return operations.isEmpty();
+  }
+
+  /**
+   * Converts the keys and values of the batch, for stores delegating to a store of another type.
+   *
+   * @param keyConverter the key converter.
+   * @param valueConverter the value converter.
+   * @return the converted batch.
+   */
+  public <K2, V2> KVStoreBatch<K2, V2> convert(Function<K, K2> keyConverter, Function<V, V2> valueConverter) {
+    final KVStoreBatch<K2, V2> converted = new KVStoreBatch<>();
+    for (Operation<K, V> operation : operations) {
+      if (operation.isDelete()) {
+        converted.delete(keyConverter.apply(operation.getKey()));
+      } else {
+        converted.put(keyConverter.apply(operation.getKey()), valueConverter.apply(operation.getValue()));
+      }
+    }
+    return converted;
+  }
+
+  /**
+   * A PUT operation, or a DELETE operation if it has no value.
+   *
+   * @param <K> the Key type.
+   * @param <V> the value type.
+   */
+  public static final class Operation<K, V> {
+    private final K key;
+    private final V value;
+
+    private Operation(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    public K getKey() {
+      return key;
+    }
+
+    /**
+     * @return the value to save, or {@code null} for a DELETE operation.
+     */
+    public V getValue() {
+      return value;
+    }
+
+    public boolean isDelete() {
+      return value == null;
+    }
+  }
+}
@@ -78,6 +78,23 @@ public interface LegacyKVStore<K, V> {
    */
   void delete(K key);
 
+  /**
+   * Apply a batch of puts and deletes, in order. Depending on the underlying storage system,
+   * the batch may be applied with a single write, more efficiently than looping over the
+   * operations in application code.
+   *
+   * @param batch the operations to apply.
+   */
+  default void write(KVStoreBatch<K, V> batch) {
+    for (KVStoreBatch.Operation<K, V> operation : batch.getOperations()) {
+      if (operation.isDelete()) {
+        delete(operation.getKey());
+      } else {
+        put(operation.getKey(), operation.getValue());
+      }
+    }
+  }
+
 
   /**
    * Return a iterable of keys & values for any key within the provided Range
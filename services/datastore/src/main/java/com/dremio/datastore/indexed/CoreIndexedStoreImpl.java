@@ -42,6 +42,7 @@ import com.dremio.datastore.SearchTypes.SortOrder;
 import com.dremio.datastore.api.DocumentConverter;
 import com.dremio.datastore.api.FindByCondition;
 import com.dremio.datastore.api.FindByRange;
+import com.dremio.datastore.api.KVStoreBatch;
 import com.dremio.datastore.api.options.KVStoreOptionUtility;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Iterables;
@@ -339,6 +340,20 @@ public class CoreIndexedStoreImpl<K, V> implements CoreIndexedStore<K, V> {
     index.deleteDocuments(keyAsTerm(key));
   }
 
+  @Override
+  public void write(KVStoreBatch<KVStoreTuple<K>, KVStoreTuple<V>> batch) {
+    base.write(batch);
+
+    // puts without options are not indexed when indexes are provided through put options
+    for (KVStoreBatch.Operation<KVStoreTuple<K>, KVStoreTuple<V>> operation : batch.getOperations()) {
+      if (operation.isDelete()) {
+        index.deleteDocuments(keyAsTerm(operation.getKey()));
+      } else if (!indexesViaPutOption) {
+        index(operation.getKey(), operation.getValue());
+      }
+    }
+  }
+
   @Override
   public Iterable<com.dremio.datastore.api.Document<KVStoreTuple<K>, KVStoreTuple<V>>> get(List<KVStoreTuple<K>> keys, GetOption... options) {
     final Iterable<com.dremio.datastore.api.Document<KVStoreTuple<K>, KVStoreTuple<V>>> documents = base.get(keys, options);
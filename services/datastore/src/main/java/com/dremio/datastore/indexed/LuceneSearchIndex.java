@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.lucene.analysis.core.KeywordAnalyzer;
 import org.apache.lucene.document.Document;
@@ -35,8 +36,10 @@ import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.LiveIndexWriterConfig;
 import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TieredMergePolicy;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ReferenceManager;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.Sort;
@@ -51,6 +54,8 @@ import com.dremio.datastore.CoreIndexedStore;
 import com.dremio.datastore.WarningTimer;
 import com.dremio.datastore.indexed.CommitWrapper.CommitCloser;
 import com.dremio.telemetry.api.metrics.Metrics;
+import com.dremio.telemetry.api.metrics.Timer;
+import com.dremio.telemetry.api.metrics.Timer.TimerContext;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
@@ -102,6 +107,43 @@ public class LuceneSearchIndex implements AutoCloseable {
    */
   public static final String OVERRIDE_SPINS_PROPERTY = "dremio.lucene.override_spins";
 
+  /**
+   * Property name for the maximum time (in millis) searches may use a searcher which doesn't see the latest writes,
+   * before it is refreshed. If 0, the searcher is refreshed by the first search following a write.
+   *
+   * Default is 0
+   */
+  public static final String NRT_MAX_STALENESS_MILLIS_PROPERTY = "dremio.lucene.nrt.max_staleness_millis";
+
+  /**
+   * Property name for the number of writes after which the searcher is refreshed, even if it is not older than
+   * the maximum staleness
+   *
+   * Default is 10000
+   */
+  public static final String NRT_REFRESH_WRITE_COUNT_PROPERTY = "dremio.lucene.nrt.refresh_write_count";
+
+  /**
+   * Property name for the number of segments allowed per tier by the merge policy
+   *
+   * Default is 10
+   */
+  public static final String MERGE_SEGMENTS_PER_TIER_PROPERTY = "dremio.lucene.merge.segments_per_tier";
+
+  /**
+   * Property name for the maximum size (in MB) of the segments produced by the merge policy
+   *
+   * Default is 5GB
+   */
+  public static final String MERGE_MAX_MERGED_SEGMENT_MB_PROPERTY = "dremio.lucene.merge.max_merged_segment_mb";
+
+  /**
+   * Property name for how aggressively the merge policy merges segments with deletions
+   *
+   * Default is 2.0
+   */
+  public static final String MERGE_RECLAIM_DELETES_WEIGHT_PROPERTY = "dremio.lucene.merge.reclaim_deletes_weight";
+
 
   private static final String METRIC_PREFIX = "kvstore.lucene";
 
@@ -125,6 +167,18 @@ public class LuceneSearchIndex implements AutoCloseable {
   // The searcher is saved in the cache for at least these many milli seconds after the last access.
   private static final int SEARCHER_CACHE_TTL_MILLIS = 3600 * 1000;
 
+  // Maximum age of a searcher which doesn't see the latest writes
+  private static final long NRT_MAX_STALENESS_MILLIS = Long.getLong(NRT_MAX_STALENESS_MILLIS_PROPERTY, 0);
+
+  // Number of writes after which a searcher is refreshed regardless of its age
+  private static final int NRT_REFRESH_WRITE_COUNT = Integer.getInteger(NRT_REFRESH_WRITE_COUNT_PROPERTY, 10_000);
+
+  // Merge policy settings, defaulting to the lucene defaults
+  private static final int MERGE_SEGMENTS_PER_TIER = Integer.getInteger(MERGE_SEGMENTS_PER_TIER_PROPERTY, 10);
+  private static final int MERGE_MAX_MERGED_SEGMENT_MB = Integer.getInteger(MERGE_MAX_MERGED_SEGMENT_MB_PROPERTY, 5 * 1024);
+  private static final double MERGE_RECLAIM_DELETES_WEIGHT =
+      Double.parseDouble(System.getProperty(MERGE_RECLAIM_DELETES_WEIGHT_PROPERTY, "2.0"));
+
   /**
    * Starts a thread that will commit the writer every 60s (by default), if any exception is thrown during commit it will
    * be recorded and calling throwExceptionIfAny() will throw it back
@@ -214,6 +268,16 @@ public class LuceneSearchIndex implements AutoCloseable {
   private final String name;
   private final String liveRecordsMetricName;
   private final String deletedRecordsMetricsName;
+  private final String refreshMetricName;
+  private final String searcherGenerationMetricName;
+  private final Timer refreshTimer;
+
+  private final long maxStalenessNanos;
+  private final int refreshWriteCount;
+  // writes since the last refresh of the searcher
+  private final AtomicInteger pendingWrites = new AtomicInteger();
+  private final AtomicLong searcherGeneration = new AtomicLong();
+  private volatile long lastRefreshNanos = System.nanoTime();
 
   private volatile boolean reindexing = false;
 
@@ -241,19 +305,42 @@ public class LuceneSearchIndex implements AutoCloseable {
       final boolean inMemory,
       final CommitWrapper commitWrapper,
       final int searcherCacheTTLMillis
+  ) {
+    this(localStorageDir, name, inMemory, commitWrapper, searcherCacheTTLMillis, NRT_MAX_STALENESS_MILLIS,
+      NRT_REFRESH_WRITE_COUNT);
+  }
+
+  @VisibleForTesting
+  LuceneSearchIndex(
+      final File localStorageDir,
+      final String name,
+      final boolean inMemory,
+      final CommitWrapper commitWrapper,
+      final int searcherCacheTTLMillis,
+      final long maxStalenessMillis,
+      final int refreshWriteCount
   ) {
     this.name = name;
     this.commitWrapper = commitWrapper;
+    this.maxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(maxStalenessMillis);
+    this.refreshWriteCount = refreshWriteCount;
+    this.refreshMetricName = Metrics.join(METRIC_PREFIX, name, "refresh");
+    this.refreshTimer = Metrics.newTimer(refreshMetricName, Metrics.ResetType.NEVER);
 
     final ConcurrentMergeScheduler cms = new ConcurrentMergeScheduler();
     String overrideSpins = System.getProperty(OVERRIDE_SPINS_PROPERTY);
     if (overrideSpins != null) {
       cms.setDefaultMaxMergesAndThreads(Boolean.parseBoolean(overrideSpins));
     }
+    final TieredMergePolicy mergePolicy = new TieredMergePolicy()
+        .setSegmentsPerTier(MERGE_SEGMENTS_PER_TIER)
+        .setMaxMergedSegmentMB(MERGE_MAX_MERGED_SEGMENT_MB)
+        .setReclaimDeletesWeight(MERGE_RECLAIM_DELETES_WEIGHT);
     final IndexWriterConfig writerConfig = new IndexWriterConfig(new KeywordAnalyzer())
         .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
         .setRAMBufferSizeMB(RAM_BUFFER_SIZE_MB)
-        .setMergeScheduler(cms);
+        .setMergeScheduler(cms)
+        .setMergePolicy(mergePolicy);
 
     try {
 
@@ -278,6 +365,21 @@ public class LuceneSearchIndex implements AutoCloseable {
       writer = new IndexWriter(directory, writerConfig);
       commit();
       searcherManager = new SearcherManager(writer, true, true, null);
+      searcherManager.addListener(new ReferenceManager.RefreshListener() {
+        @Override
+        public void beforeRefresh() {
+          // writes done from now on may not be seen by the refreshed searcher
+          pendingWrites.set(0);
+        }
+
+        @Override
+        public void afterRefresh(boolean didRefresh) {
+          lastRefreshNanos = System.nanoTime();
+          if (didRefresh) {
+            searcherGeneration.incrementAndGet();
+          }
+        }
+      });
 
       committerThread = new CommitterThread();
     } catch(IOException ex){
@@ -288,6 +390,8 @@ public class LuceneSearchIndex implements AutoCloseable {
     deletedRecordsMetricsName = Metrics.join(METRIC_PREFIX, name, "deleted-records");
     Metrics.newGauge(liveRecordsMetricName, this::getLiveRecords);
     Metrics.newGauge(deletedRecordsMetricsName, this::getDeletedRecords);
+    searcherGenerationMetricName = Metrics.join(METRIC_PREFIX, name, "searcher-generation");
+    Metrics.newGauge(searcherGenerationMetricName, searcherGeneration::get);
 
     searcherCache = CacheBuilder.newBuilder()
       .removalListener(x -> ((Searcher)x.getValue()).close())
@@ -297,14 +401,30 @@ public class LuceneSearchIndex implements AutoCloseable {
 
   private void checkIfChanged() {
     try{
-      if (!searcherManager.isSearcherCurrent()) {
-        searcherManager.maybeRefreshBlocking();
+      if (!searcherManager.isSearcherCurrent() && isRefreshDue()) {
+        refresh();
       }
     }catch(IOException ex){
       throw Throwables.propagate(ex);
     }
   }
 
+  /**
+   * With a maximum staleness, searches keep using the current searcher until it is too old or too many writes
+   * happened since it was opened.
+   */
+  private boolean isRefreshDue() {
+    return maxStalenessNanos == 0
+      || System.nanoTime() - lastRefreshNanos >= maxStalenessNanos
+      || pendingWrites.get() >= refreshWriteCount;
+  }
+
+  private void refresh() throws IOException {
+    try (TimerContext timer = refreshTimer.start()) {
+      searcherManager.maybeRefreshBlocking();
+    }
+  }
+
   private void commit() throws IOException {
     try (CommitCloser committer = commitWrapper.open(name)) {
       writer.commit();
@@ -320,6 +440,7 @@ public class LuceneSearchIndex implements AutoCloseable {
     Preconditions.checkNotNull(document.getField(CoreIndexedStore.ID_FIELD_NAME));
     try{
       writer.addDocument(document);
+      pendingWrites.incrementAndGet();
     } catch(IOException ex) {
       throw Throwables.propagate(ex);
     }
@@ -331,6 +452,7 @@ public class LuceneSearchIndex implements AutoCloseable {
       for(Document d : documents){
         writer.addDocument(d);
       }
+      pendingWrites.addAndGet(documents.length);
     } catch(IOException ex) {
       throw Throwables.propagate(ex);
     }
@@ -340,6 +462,7 @@ public class LuceneSearchIndex implements AutoCloseable {
     committerThread.throwExceptionIfAny();
     try {
       writer.updateDocument(term, document);
+      pendingWrites.incrementAndGet();
     } catch(IOException ex) {
       throw Throwables.propagate(ex);
     }
@@ -506,6 +629,8 @@ public class LuceneSearchIndex implements AutoCloseable {
     committerThread.close();
     Metrics.unregister(deletedRecordsMetricsName);
     Metrics.unregister(liveRecordsMetricName);
+    Metrics.unregister(searcherGenerationMetricName);
+    Metrics.unregister(refreshMetricName);
     // commit will fail if writer is closed
     if (writer.isOpen()) {
       // flush first
@@ -537,6 +662,7 @@ public class LuceneSearchIndex implements AutoCloseable {
     committerThread.throwExceptionIfAny();
     try {
       writer.deleteDocuments(key);
+      pendingWrites.incrementAndGet();
     } catch (IOException ex) {
       throw Throwables.propagate(ex);
     }
@@ -548,7 +674,7 @@ public class LuceneSearchIndex implements AutoCloseable {
       writer.deleteAll();
       commit();
       // Forcing refresh of index so that open files are freed and deleted from disk
-      checkIfChanged();
+      refresh();
     } catch(Exception ex){
       throw Throwables.propagate(ex);
     }
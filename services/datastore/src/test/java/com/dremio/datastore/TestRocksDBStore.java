@@ -22,6 +22,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.fail;
 
 import java.io.File;
@@ -29,6 +30,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -58,6 +60,7 @@ import org.rocksdb.RocksDBException;
 
 import com.dremio.datastore.RocksDBStore.RocksMetaManager;
 import com.dremio.datastore.api.Document;
+import com.dremio.datastore.api.KVStoreBatch;
 import com.dremio.datastore.api.options.ImmutableVersionOption;
 import com.dremio.datastore.api.options.VersionOption;
 
@@ -242,6 +245,55 @@ public class TestRocksDBStore {
     assertEquals(null, store.get(randomKey));
   }
 
+  @Test
+  public void testGetList() {
+    final byte[] missingKey = "missing".getBytes(UTF_8);
+    final byte[] blobKey = "blob".getBytes(UTF_8);
+    final byte[] blobValue = new byte[(int) BLOB_FILTER_SIZE + 1];
+    new Random(123).nextBytes(blobValue);
+    store.put(blobKey, blobValue);
+
+    final List<Document<byte[], byte[]>> documents = new ArrayList<>();
+    store.get(Arrays.asList(specialKey, missingKey, blobKey, specialKey)).forEach(documents::add);
+
+    assertEquals(4, documents.size());
+    assertArrayEquals(store.get(specialKey).getValue(), documents.get(0).getValue());
+    assertEquals(store.get(specialKey).getTag(), documents.get(0).getTag());
+    assertNull(documents.get(1));
+    assertArrayEquals(blobValue, documents.get(2).getValue());
+    assertArrayEquals(documents.get(0).getValue(), documents.get(3).getValue());
+  }
+
+  @Test
+  public void testWriteBatch() throws IOException {
+    final byte[] key1 = "key1".getBytes(UTF_8);
+    final byte[] key2 = "key2".getBytes(UTF_8);
+    final byte[] blobValue1 = new byte[(int) BLOB_FILTER_SIZE + 1];
+    final byte[] blobValue2 = new byte[(int) BLOB_FILTER_SIZE + 1];
+    final Random random = new Random(123);
+    random.nextBytes(blobValue1);
+    random.nextBytes(blobValue2);
+    store.put(key2, blobValue1);
+
+    store.write(new KVStoreBatch<byte[], byte[]>()
+      .put(key1, blobValue1)
+      .put(key1, blobValue2)
+      .delete(key2)
+      .delete(specialKey)
+      .delete("missing".getBytes(UTF_8)));
+
+    assertArrayEquals(blobValue2, store.get(key1).getValue());
+    assertEquals(ByteStore.generateTagFromBytes(blobValue2), store.get(key1).getTag());
+    assertNull(store.get(key2));
+    assertNull(store.get(specialKey));
+
+    // only the blob of the last value of key1 remains
+    final Path blobDir = Paths.get(rocksDBResource.getDbDir(), "blob", "test");
+    assertEquals(1, Files.list(blobDir).count());
+    store.write(new KVStoreBatch<byte[], byte[]>().delete(key1));
+    assertEquals(0, Files.list(blobDir).count());
+  }
+
   @Test()
   public void testNotClosed() throws InterruptedException, ExecutionException {
     ExecutorService executor = Executors.newFixedThreadPool(4);
@@ -403,6 +403,29 @@ public class TestLuceneIndexer {
     }
   }
 
+  @Test
+  public void testNearRealTimeRefresh() throws Exception {
+    // searcher is never stale for too long, but is refreshed every 2 writes
+    try (LuceneSearchIndex index = new LuceneSearchIndex(null, "nrt-refresh", true, CommitWrapper.NO_OP, 500,
+        3600_000, 2)) {
+      final Query query = new TermQuery(new Term(DOC_NAME_FIELD, "doc"));
+      assertEquals(0, index.count(query));
+
+      addSimpleDocument(index, "doc", "1");
+      assertEquals(0, index.count(query));
+
+      addSimpleDocument(index, "doc", "2");
+      assertEquals(2, index.count(query));
+
+      addSimpleDocument(index, "doc", "3");
+      assertEquals(2, index.count(query));
+
+      // delete always refreshes the searcher
+      index.delete();
+      assertEquals(0, index.count(query));
+    }
+  }
+
   @Test
   public void commitWrapper() throws Exception {
     final AtomicInteger opens = new AtomicInteger(0);
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.util.TransferPair;
+
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.service.job.proto.JobId;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.Weigher;
+import com.google.common.collect.Lists;
+
+/**
+ * LRU cache of the decoded record batches of job results files, bounded by the size of the batch buffers, so that
+ * paging through the results of a job doesn't read the same batches from the job results store again.
+ *
+ * Cached batches are never handed out: readers get batches sharing the buffers of the cached batch, which stay valid
+ * after the cached batch is evicted.
+ */
+final class JobResultsBatchCache implements AutoCloseable {
+
+  private final BufferAllocator allocator;
+  private final Cache<BatchKey, CachedBatch> batches;
+
+  JobResultsBatchCache(BufferAllocator parent, long maxSizeBytes) {
+    this.allocator = parent.newChildAllocator("job-results-cache", 0, Long.MAX_VALUE);
+    this.batches = CacheBuilder.newBuilder()
+      .maximumWeight(maxSizeBytes)
+      .weigher((Weigher<BatchKey, CachedBatch>) (key, batch) -> batch.weight)
+      .removalListener((RemovalListener<BatchKey, CachedBatch>) notification -> notification.getValue().close())
+      .build();
+  }
+
+  /**
+   * Allocator to read the batches to cache with.
+   */
+  BufferAllocator getAllocator() {
+    return allocator;
+  }
+
+  /**
+   * Get a cached batch.
+   * @param target allocator of the returned batch
+   * @return a batch sharing the buffers of the cached batch, or null if the batch is not cached
+   */
+  RecordBatchData get(JobId jobId, String file, int batchIndex, BufferAllocator target) {
+    final CachedBatch batch = batches.getIfPresent(new BatchKey(jobId, file, batchIndex));
+    return batch == null ? null : batch.share(target);
+  }
+
+  /**
+   * Cache a batch read with {@link #getAllocator()}.
+   * @param target allocator of the returned batch
+   * @return a batch sharing the buffers of the cached batch
+   */
+  RecordBatchData put(JobId jobId, String file, int batchIndex, RecordBatchData data, BufferAllocator target) {
+    final CachedBatch batch = new CachedBatch(data);
+    // share before caching, as the batch might be evicted as soon as it is cached
+    final RecordBatchData shared = batch.share(target);
+    batches.put(new BatchKey(jobId, file, batchIndex), batch);
+    return shared;
+  }
+
+  /**
+   * Evict the cached batches of a job.
+   */
+  void invalidate(JobId jobId) {
+    batches.asMap().keySet().removeIf(key -> key.jobId.equals(jobId));
+  }
+
+  @Override
+  public void close() throws Exception {
+    batches.invalidateAll();
+    batches.cleanUp();
+    allocator.close();
+  }
+
+  private static final class BatchKey {
+    private final JobId jobId;
+    private final String file;
+    private final int batchIndex;
+
+    private BatchKey(JobId jobId, String file, int batchIndex) {
+      this.jobId = jobId;
+      this.file = file;
+      this.batchIndex = batchIndex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final BatchKey that = (BatchKey) o;
+      return batchIndex == that.batchIndex && jobId.equals(that.jobId) && file.equals(that.file);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(jobId, file, batchIndex);
+    }
+  }
+
+  private static final class CachedBatch {
+    private final RecordBatchData data;
+    private final int weight;
+    private boolean closed;
+
+    private CachedBatch(RecordBatchData data) {
+      this.data = data;
+      long size = 0;
+      for (ValueVector vector : data.getVectors()) {
+        size += vector.getBufferSize();
+      }
+      this.weight = (int) Math.min(Integer.MAX_VALUE, size);
+    }
+
+    /**
+     * Transfer the whole batch without releasing it, so that the returned batch holds references to the buffers of
+     * the cached batch.
+     */
+    private synchronized RecordBatchData share(BufferAllocator target) {
+      if (closed) {
+        // evicted between lookup and share
+        return null;
+      }
+
+      final List<ValueVector> vectors = Lists.newArrayList();
+      for (ValueVector vector : data.getVectors()) {
+        final TransferPair transferPair = vector.getTransferPair(target);
+        transferPair.splitAndTransfer(0, data.getRecordCount());
+        vectors.add(transferPair.getTo());
+      }
+
+      final VectorContainer container = new VectorContainer(target);
+      container.addCollection(vectors);
+      container.setRecordCount(data.getRecordCount());
+      container.buildSchema();
+      return new RecordBatchData(container, target);
+    }
+
+    private synchronized void close() {
+      closed = true;
+      data.close();
+    }
+  }
+}
@@ -26,16 +26,20 @@ import java.util.Set;
 
 import org.apache.arrow.memory.BufferAllocator;
 
+import com.dremio.common.AutoCloseables.RollbackCloseable;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.common.perf.Timer.TimedBlock;
 import com.dremio.common.utils.PathUtils;
 import com.dremio.datastore.api.LegacyIndexedStore;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.record.RecordBatchData;
 import com.dremio.exec.record.RecordBatchHolder;
 import com.dremio.exec.store.JobResultsStoreConfig;
+import com.dremio.exec.store.easy.arrow.ArrowFileFooter;
 import com.dremio.exec.store.easy.arrow.ArrowFileMetadata;
 import com.dremio.exec.store.easy.arrow.ArrowFileMetadataValidator;
 import com.dremio.exec.store.easy.arrow.ArrowFileReader;
+import com.dremio.exec.store.easy.arrow.ArrowRecordBatchSummary;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
 import com.dremio.service.Service;
@@ -61,6 +65,7 @@ public class JobResultsStore implements Service {
   private final FileSystem dfs;
   private final BufferAllocator allocator;
   private final LegacyIndexedStore<JobId, JobResult> store;
+  private final JobResultsBatchCache batchCache;
 
   public JobResultsStore(
       final JobResultsStoreConfig resultsStoreConfig,
@@ -74,6 +79,9 @@ public class JobResultsStore implements Service {
 
     this.store = store;
     this.allocator = allocator;
+    this.batchCache = resultsStoreConfig.getCacheMaxSizeBytes() > 0
+        ? new JobResultsBatchCache(allocator, resultsStoreConfig.getCacheMaxSizeBytes())
+        : null;
   }
 
   /**
@@ -95,6 +103,9 @@ public class JobResultsStore implements Service {
   }
 
   public boolean cleanup(JobId jobId) {
+    if (batchCache != null) {
+      batchCache.invalidate(jobId);
+    }
     final Path jobOutputDir = getJobOutputDir(jobId);
     try {
       if (doesQueryResultsDirExists(jobOutputDir, jobId)) {
@@ -215,7 +226,7 @@ public class JobResultsStore implements Service {
           // Min of remaining records in file or remaining records in total to read.
           final long fileLimit = Math.min(file.getRecordCount() - fileOffset, remaining);
 
-          batchHolders.addAll(getQueryResults(jobOutputDir, file, allocator, fileOffset, fileLimit));
+          batchHolders.addAll(getCachedQueryResults(jobId, jobOutputDir, file, fileOffset, fileLimit));
           remaining -= fileLimit;
 
           runningFileRecordCount += file.getRecordCount();
@@ -251,6 +262,95 @@ public class JobResultsStore implements Service {
     }
   }
 
+  /**
+   * Read the batches containing the given range of records of a file through the batch cache, reading only the
+   * batches missing from the cache.
+   */
+  private List<RecordBatchHolder> getCachedQueryResults(JobId jobId,
+                                                        Path jobOutputDir,
+                                                        ArrowFileMetadata arrowFileMetadata,
+                                                        long fileOffset,
+                                                        long fileLimit) throws IOException {
+    final ArrowFileFooter footer = arrowFileMetadata.getFooter();
+    if (batchCache == null || fileLimit <= 0 || footer == null || footer.getBatchList() == null
+        || footer.getBatchList().isEmpty()) {
+      return getQueryResults(jobOutputDir, arrowFileMetadata, allocator, fileOffset, fileLimit);
+    }
+
+    final List<ArrowRecordBatchSummary> batchList = footer.getBatchList();
+    final long[] batchOffsets = getBatchOffsets(batchList);
+    final List<RecordBatchHolder> batchHolders = Lists.newArrayList();
+    ArrowFileReader fileReader = null;
+    try (RollbackCloseable rollback = new RollbackCloseable()) {
+      // release the batches already read if a read fails
+      long remaining = fileLimit;
+      for (int batchIndex = getBatchIndex(batchOffsets, fileOffset);
+           batchIndex < batchList.size() && remaining > 0; batchIndex++) {
+        final int batchCount = batchList.get(batchIndex).getRecordCount();
+        if (batchCount == 0) {
+          continue;
+        }
+
+        RecordBatchData data = batchCache.get(jobId, arrowFileMetadata.getPath(), batchIndex, allocator);
+        if (data == null) {
+          if (fileReader == null) {
+            fileReader = new ArrowFileReader(dfs, jobOutputDir, arrowFileMetadata, batchCache.getAllocator());
+          }
+          data = batchCache.put(jobId, arrowFileMetadata.getPath(), batchIndex, fileReader.readBatch(batchIndex),
+              allocator);
+        }
+
+        // Find the start and end indices within the batch.
+        final int batchStart = (int) Math.max(0, fileOffset - batchOffsets[batchIndex]);
+        final int batchEnd = (int) Math.min(batchCount, batchStart + remaining);
+        final RecordBatchHolder batchHolder = RecordBatchHolder.newRecordBatchHolder(data, batchStart, batchEnd);
+        batchHolders.add(rollback.add(batchHolder));
+        remaining -= batchHolder.size();
+      }
+      rollback.commit();
+    } catch (IOException | RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException(e);
+    } finally {
+      if (fileReader != null) {
+        fileReader.close();
+      }
+    }
+    return batchHolders;
+  }
+
+  /**
+   * Index of the first record of each batch of a file.
+   */
+  @VisibleForTesting
+  static long[] getBatchOffsets(List<ArrowRecordBatchSummary> batchList) {
+    final long[] batchOffsets = new long[batchList.size()];
+    long runningCount = 0;
+    for (int i = 0; i < batchOffsets.length; i++) {
+      batchOffsets[i] = runningCount;
+      runningCount += batchList.get(i).getRecordCount();
+    }
+    return batchOffsets;
+  }
+
+  /**
+   * Index of the batch containing the given record, the last batch starting at or before it.
+   */
+  @VisibleForTesting
+  static int getBatchIndex(long[] batchOffsets, long recordIndex) {
+    final int index = Arrays.binarySearch(batchOffsets, recordIndex);
+    if (index < 0) {
+      return -index - 2;
+    }
+    // skip past empty batches starting at the same record
+    int batchIndex = index;
+    while (batchIndex + 1 < batchOffsets.length && batchOffsets[batchIndex + 1] == recordIndex) {
+      batchIndex++;
+    }
+    return batchIndex;
+  }
+
   /**
    * Check if query results directory exists, optionally using jobId
    *
@@ -348,6 +448,9 @@ public class JobResultsStore implements Service {
 
   @Override
   public void close() throws Exception {
+    if (batchCache != null) {
+      batchCache.close();
+    }
   }
 
   protected Set<NodeEndpoint> getNodeEndpoints(JobId jobId) {
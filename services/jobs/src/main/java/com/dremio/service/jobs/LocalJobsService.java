@@ -106,6 +106,7 @@ import com.dremio.datastore.SearchTypes.SearchFieldSorting;
 import com.dremio.datastore.SearchTypes.SearchQuery;
 import com.dremio.datastore.api.DocumentConverter;
 import com.dremio.datastore.api.DocumentWriter;
+import com.dremio.datastore.api.KVStoreBatch;
 import com.dremio.datastore.api.LegacyIndexedStore;
 import com.dremio.datastore.api.LegacyIndexedStore.LegacyFindByCondition;
 import com.dremio.datastore.api.LegacyIndexedStoreCreationFunction;
@@ -279,6 +280,8 @@ public class LocalJobsService implements Service, JobResultInfoProvider, SimpleJ
   private static final long ONE_DAY_IN_MILLIS = TimeUnit.DAYS.toMillis(1);
 
   private static final int MAX_NUMBER_JOBS_TO_FETCH = 10;
+  // number of old jobs deleted by a single kvstore write
+  private static final int DELETE_BATCH = 1000;
 
   public static final String JOBS_NAME = "jobs";
 
@@ -2457,6 +2460,7 @@ public class LocalJobsService implements Service, JobResultInfoProvider, SimpleJ
 
     final LegacyFindByCondition oldJobs = getOldJobsCondition(System.currentTimeMillis() - maxMs)
       .setPageSize(MAX_NUMBER_JOBS_TO_FETCH);
+    KVStoreBatch<JobId, JobResult> deletes = new KVStoreBatch<>();
     for(Entry<JobId, JobResult> entry : jobStore.find(oldJobs)) {
       JobResult result = entry.getValue();
       if(result.getAttemptsList() != null) {
@@ -2476,9 +2480,14 @@ public class LocalJobsService implements Service, JobResultInfoProvider, SimpleJ
           }
         }
       }
-      jobStore.delete(entry.getKey());
+      deletes.delete(entry.getKey());
+      if (deletes.size() >= DELETE_BATCH) {
+        jobStore.write(deletes);
+        deletes = new KVStoreBatch<>();
+      }
       jobsDeleted++;
     }
+    jobStore.write(deletes);
     logger.debug("Job cleanup task completed with [{}] jobs deleted and and [{}] profiles deleted.", jobsDeleted, profilesDeleted);
     if (countFailureMsg > 0) {
       logger.warn("Delete profile failures: [{}].", attemptFailure);
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests for {@link JobResultsBatchCache}
+ */
+public class TestJobResultsBatchCache {
+
+  private static final JobId JOB_ID = new JobId("job");
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private static RecordBatchData newBatch(BufferAllocator allocator, int recordCount) {
+    final IntVector vector = new IntVector("col", allocator);
+    vector.allocateNew(recordCount);
+    for (int i = 0; i < recordCount; i++) {
+      vector.set(i, i);
+    }
+    vector.setValueCount(recordCount);
+
+    final VectorContainer container = new VectorContainer();
+    container.addCollection(Collections.<ValueVector>singletonList(vector));
+    container.setRecordCount(recordCount);
+    container.buildSchema();
+    return new RecordBatchData(container, allocator);
+  }
+
+  private static int getValue(RecordBatchData data, int index) {
+    return ((IntVector) data.getVectors().get(0)).get(index);
+  }
+
+  @Test
+  public void testCachedBatchesAreShared() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-job-results-cache", 0, Long.MAX_VALUE);
+         JobResultsBatchCache cache = new JobResultsBatchCache(allocator, 1024 * 1024)) {
+      try (RecordBatchData data = cache.put(JOB_ID, "file", 0, newBatch(cache.getAllocator(), 100), allocator)) {
+        assertEquals(100, data.getRecordCount());
+        assertEquals(42, getValue(data, 42));
+      }
+
+      try (RecordBatchData data = cache.get(JOB_ID, "file", 0, allocator)) {
+        assertNotNull(data);
+        assertEquals(99, getValue(data, 99));
+      }
+      assertNull(cache.get(JOB_ID, "file", 1, allocator));
+      assertNull(cache.get(new JobId("other"), "file", 0, allocator));
+    }
+  }
+
+  @Test
+  public void testSharedBatchesOutliveEviction() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-job-results-cache", 0, Long.MAX_VALUE);
+         JobResultsBatchCache cache = new JobResultsBatchCache(allocator, 1024 * 1024)) {
+      cache.put(JOB_ID, "file", 0, newBatch(cache.getAllocator(), 100), allocator).close();
+      try (RecordBatchData data = cache.get(JOB_ID, "file", 0, allocator)) {
+        cache.invalidate(JOB_ID);
+        assertNull(cache.get(JOB_ID, "file", 0, allocator));
+        assertEquals(7, getValue(data, 7));
+      }
+      assertEquals(0, cache.getAllocator().getAllocatedMemory());
+    }
+  }
+
+  @Test
+  public void testBatchLargerThanCache() throws Exception {
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-job-results-cache", 0, Long.MAX_VALUE);
+         JobResultsBatchCache cache = new JobResultsBatchCache(allocator, 16)) {
+      try (RecordBatchData data = cache.put(JOB_ID, "file", 0, newBatch(cache.getAllocator(), 1000), allocator)) {
+        assertNull(cache.get(JOB_ID, "file", 0, allocator));
+        assertEquals(999, getValue(data, 999));
+      }
+    }
+  }
+}
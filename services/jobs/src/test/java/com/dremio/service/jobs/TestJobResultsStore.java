@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.jobs;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import com.dremio.datastore.api.LegacyIndexedStore;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.RecordBatchHolder;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.store.JobResultsStoreConfig;
+import com.dremio.exec.store.RecordWriter.OutputEntryListener;
+import com.dremio.exec.store.RecordWriter.WriteStatsListener;
+import com.dremio.exec.store.easy.arrow.ArrowFileFormat;
+import com.dremio.exec.store.easy.arrow.ArrowFileMetadata;
+import com.dremio.exec.store.easy.arrow.ArrowFileReader;
+import com.dremio.exec.store.easy.arrow.ArrowFormatPluginConfig;
+import com.dremio.exec.store.easy.arrow.ArrowRecordBatchSummary;
+import com.dremio.exec.store.easy.arrow.ArrowRecordWriter;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.service.job.proto.JobAttempt;
+import com.dremio.service.job.proto.JobId;
+import com.dremio.service.job.proto.JobInfo;
+import com.dremio.service.job.proto.JobResult;
+import com.dremio.service.job.proto.JobState;
+import com.dremio.test.AllocatorRule;
+
+/**
+ * Tests for {@link JobResultsStore}
+ */
+public class TestJobResultsStore {
+
+  private static final JobId JOB_ID = new JobId("job");
+  private static final Configuration FS_CONF = new Configuration();
+
+  static {
+    // to accommodate MapR profile that sets default FS to maprfs, while we use local FS for testing here
+    FS_CONF.set("fs.default.name", "file:///");
+  }
+
+  @Rule
+  public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private static ArrowRecordBatchSummary batch(int recordCount) {
+    return new ArrowRecordBatchSummary().setRecordCount(recordCount);
+  }
+
+  @Test
+  public void testBatchIndex() {
+    final long[] offsets = JobResultsStore.getBatchOffsets(Arrays.asList(batch(3), batch(0), batch(0), batch(4), batch(0)));
+    assertArrayEquals(new long[]{0, 3, 3, 3, 7}, offsets);
+
+    // inside a batch
+    assertEquals(0, JobResultsStore.getBatchIndex(offsets, 0));
+    assertEquals(0, JobResultsStore.getBatchIndex(offsets, 2));
+    assertEquals(3, JobResultsStore.getBatchIndex(offsets, 5));
+    // empty batches starting at the same record as the batch holding it
+    assertEquals(3, JobResultsStore.getBatchIndex(offsets, 3));
+    // trailing empty batch
+    assertEquals(4, JobResultsStore.getBatchIndex(offsets, 7));
+  }
+
+  /**
+   * Writes a file of int batches with the given record counts, numbered from the given value.
+   */
+  private static ArrowFileMetadata writeFile(FileSystem fs, BufferAllocator allocator, Path dir, String name,
+      int firstValue, int... recordCounts) throws Exception {
+    final OutputEntryListener outputEntryListener = mock(OutputEntryListener.class);
+    int value = firstValue;
+    try (VectorContainer container = new VectorContainer(allocator)) {
+      final IntVector vector = new IntVector("col", allocator);
+      container.add(vector);
+      container.buildSchema(SelectionVectorMode.NONE);
+
+      final ArrowRecordWriter writer = new ArrowRecordWriter(mock(OperatorContext.class), dir.resolve(name).toString(),
+          new ArrowFormatPluginConfig(), fs);
+      writer.setup(container, outputEntryListener, mock(WriteStatsListener.class));
+      for (int recordCount : recordCounts) {
+        vector.allocateNew(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+          vector.set(i, value++);
+        }
+        vector.setValueCount(recordCount);
+        container.setRecordCount(recordCount);
+        writer.writeBatch(0, recordCount);
+      }
+      writer.close();
+    }
+
+    final ArgumentCaptor<byte[]> metadataCaptor = ArgumentCaptor.forClass(byte[].class);
+    verify(outputEntryListener).recordsWritten(anyLong(), anyLong(), any(), metadataCaptor.capture(), any(), any(),
+        any(), any());
+    return ArrowFileReader.toBean(ArrowFileFormat.ArrowFileMetadata.parseFrom(metadataCaptor.getValue()));
+  }
+
+  private static List<Integer> getValues(RecordBatches batches) throws Exception {
+    final List<Integer> values = new ArrayList<>();
+    for (RecordBatchHolder holder : batches.getBatches()) {
+      try (RecordBatchHolder ignored = holder) {
+        final ValueVector vector = holder.getData().getVectors().get(0);
+        for (int i = holder.getStart(); i < holder.getEnd(); i++) {
+          values.add(((IntVector) vector).get(i));
+        }
+      }
+    }
+    return values;
+  }
+
+  @Test
+  public void testLoadJobDataAcrossBatchesAndFiles() throws Exception {
+    final FileSystem fs = HadoopFileSystem.getLocal(FS_CONF);
+    final Path storagePath = Path.of(folder.getRoot().getPath());
+    final Path jobOutputDir = storagePath.resolve("job");
+    fs.mkdirs(jobOutputDir);
+
+    try (BufferAllocator allocator = allocatorRule.newAllocator("test-job-results-store", 0, Long.MAX_VALUE)) {
+      // 12 records numbered from 0, in batches of 3, 0, 4 records then 0, 5, 0 records
+      final List<ArrowFileMetadata> files = Arrays.asList(
+          writeFile(fs, allocator, jobOutputDir, "0.arrow", 0, 3, 0, 4),
+          writeFile(fs, allocator, jobOutputDir, "1.arrow", 7, 0, 5, 0));
+      final int recordCount = 12;
+
+      final JobResult job = new JobResult().setAttemptsList(Collections.singletonList(new JobAttempt()
+          .setState(JobState.COMPLETED)
+          .setInfo(new JobInfo()
+              .setOutputTableList(Arrays.asList("results", "job"))
+              .setResultMetadataList(files))));
+      @SuppressWarnings("unchecked")
+      final LegacyIndexedStore<JobId, JobResult> store = mock(LegacyIndexedStore.class);
+      when(store.get(JOB_ID)).thenReturn(job);
+
+      try (JobResultsStore resultsStore = new JobResultsStore(
+          new JobResultsStoreConfig("results", storagePath, fs, 1024 * 1024), store, allocator)) {
+        // twice, reading the files then the cached batches
+        for (int pass = 0; pass < 2; pass++) {
+          for (int offset = 0; offset < recordCount; offset++) {
+            for (int limit = 1; offset + limit <= recordCount; limit++) {
+              final List<Integer> expected = new ArrayList<>();
+              for (int i = offset; i < offset + limit; i++) {
+                expected.add(i);
+              }
+              assertEquals(String.format("offset %d, limit %d", offset, limit), expected,
+                  getValues(resultsStore.loadJobData(JOB_ID, job, offset, limit)));
+            }
+          }
+        }
+      }
+    }
+  }
+}
@@ -66,6 +66,7 @@ import com.dremio.connector.metadata.DatasetSplit;
 import com.dremio.datastore.SearchQueryUtils;
 import com.dremio.datastore.SearchTypes.SearchQuery;
 import com.dremio.datastore.api.DocumentConverter;
+import com.dremio.datastore.api.KVStoreBatch;
 import com.dremio.datastore.api.LegacyIndexedStore;
 import com.dremio.datastore.api.LegacyIndexedStore.LegacyFindByCondition;
 import com.dremio.datastore.api.LegacyIndexedStoreCreationFunction;
@@ -110,6 +111,8 @@ public class NamespaceServiceImpl implements NamespaceService {
   public static final String PARTITION_CHUNKS = "metadata-dataset-splits";
   public static final String MULTI_SPLITS = "metadata-multi-splits";
   private static final int LOG_BATCH = 99;
+  // number of deletes of splits applied by a single kvstore write
+  private static final int WRITE_BATCH = 1000;
   public static final int LATEST_VERSION = 1;
 
   private final LegacyIndexedStore<String, NameSpaceContainer> namespace;
@@ -314,6 +317,7 @@ public class NamespaceServiceImpl implements NamespaceService {
     int elementCount = 0;
     int count = 0;
     final StringBuilder sb = new StringBuilder();
+    KVStoreBatch<PartitionChunkId, PartitionChunk> partitionChunkDeletes = new KVStoreBatch<>();
     for (Map.Entry<PartitionChunkId, PartitionChunk> e : partitionChunkStore.find()) {
       PartitionChunkId id = e.getKey();
       final int item = Collections.binarySearch(ranges, Range.singleton(id), PARTITION_CHUNK_RANGE_COMPARATOR);
@@ -337,10 +341,12 @@ public class NamespaceServiceImpl implements NamespaceService {
         } else {
           logger.debug("Deleting partition chunk associated with key {} from the partition chunk store.", e.getKey());
         }
-        partitionChunkStore.delete(e.getKey());
+        partitionChunkDeletes.delete(e.getKey());
+        partitionChunkDeletes = writeIfFull(partitionChunkStore, partitionChunkDeletes);
         ++elementCount;
       }
     }
+    partitionChunkStore.write(partitionChunkDeletes);
 
     if (datasetMetadataConsistencyValidate && (count > 0)) {
       logger.info("Deleting partition chunk associated with keys {}.", sb);
@@ -348,6 +354,7 @@ public class NamespaceServiceImpl implements NamespaceService {
 
     sb.delete(0, sb.length());
     count = 0;
+    KVStoreBatch<PartitionChunkId, MultiSplit> multiSplitDeletes = new KVStoreBatch<>();
     for (Map.Entry<PartitionChunkId, MultiSplit> e : multiSplitStore.find()) {
       PartitionChunkId id = e.getKey();
       final int item = Collections.binarySearch(ranges, Range.singleton(id), PARTITION_CHUNK_RANGE_COMPARATOR);
@@ -374,9 +381,11 @@ public class NamespaceServiceImpl implements NamespaceService {
         } else {
           logger.debug("Deleting multi split associated with key {} from the multi split store.", e.getKey());
         }
-        multiSplitStore.delete(e.getKey());
+        multiSplitDeletes.delete(e.getKey());
+        multiSplitDeletes = writeIfFull(multiSplitStore, multiSplitDeletes);
       }
     }
+    multiSplitStore.write(multiSplitDeletes);
     if (datasetMetadataConsistencyValidate && (count > 0)) {
       logger.info("Deleting multi splits associated with keys {}.", sb);
     }
@@ -789,10 +798,33 @@ public class NamespaceServiceImpl implements NamespaceService {
 
   @Override
   public void deleteSplits(Iterable<PartitionChunkId> splits) {
+    KVStoreBatch<PartitionChunkId, PartitionChunk> partitionChunkDeletes = new KVStoreBatch<>();
+    KVStoreBatch<PartitionChunkId, MultiSplit> multiSplitDeletes = new KVStoreBatch<>();
     for (PartitionChunkId split: splits) {
-      partitionChunkStore.delete(split);
-      multiSplitStore.delete(split);
+      partitionChunkDeletes.delete(split);
+      multiSplitDeletes.delete(split);
+      if (partitionChunkDeletes.size() >= WRITE_BATCH) {
+        partitionChunkStore.write(partitionChunkDeletes);
+        multiSplitStore.write(multiSplitDeletes);
+        partitionChunkDeletes = new KVStoreBatch<>();
+        multiSplitDeletes = new KVStoreBatch<>();
+      }
+    }
+    partitionChunkStore.write(partitionChunkDeletes);
+    multiSplitStore.write(multiSplitDeletes);
+  }
+
+  /**
+   * Writes the batch if it is full.
+   *
+   * @return a new batch if the batch was written, the batch otherwise
+   */
+  private static <K, V> KVStoreBatch<K, V> writeIfFull(LegacyKVStore<K, V> store, KVStoreBatch<K, V> batch) {
+    if (batch.size() < WRITE_BATCH) {
+      return batch;
     }
+    store.write(batch);
+    return new KVStoreBatch<>();
   }
 
   @Override